@@ -18,17 +18,18 @@ package org.javajdj.jinstrument;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.javajdj.jinstrument.util.BoundedEventQueue;
+import org.javajdj.jinstrument.util.BoundedEventQueueControl;
 import org.javajdj.jservice.Service;
 import org.javajdj.jservice.support.Service_FromMix;
 import org.javajdj.jservice.support.Service_FromRunnable;
@@ -45,6 +46,12 @@ import org.javajdj.jservice.support.Service_FromRunnable;
  * Finally, an independent <i>logging</i> service allows for debugging controller and/or instrument implementations.
  * 
  * <p>
+ * The command queue is first-in first-out by default;
+ * it can be switched to earliest-deadline first (with load shedding of commands with unreachable deadlines),
+ * or to (deficit) round-robin over command classes (see {@link #getCommandQueueKey}),
+ * through {@link #setCommandQueueDiscipline}.
+ * 
+ * <p>
  * Both the command processor and result dispatcher are extremely tolerant to exceptions thrown in sub-classes or listeners,
  * respectively, and merely rely on logging output to indicate potential problems.
  * 
@@ -135,14 +142,110 @@ implements Controller
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-  // BlockingQueue implementations are thread-safe.  
-  private final BlockingQueue<ControllerCommand> commandQueue = new LinkedBlockingQueue<> ();
+  // The ControllerCommandQueue is thread-safe.
+  private final ControllerCommandQueue commandQueue =
+    new ControllerCommandQueue (ControllerCommandQueueDiscipline.FIFO, this::getCommandQueueKey);
   
   /** The name of the command queue size property.
    * 
    */
   public final static String COMMAND_QUEUE_SIZE_PROPERTY_NAME = "commandQueueSize";
   
+  @Override
+  public final int getCommandQueueSize ()
+  {
+    return this.commandQueue.size ();
+  }
+  
+  /** The name of the command queue discipline property.
+   * 
+   */
+  public final static String COMMAND_QUEUE_DISCIPLINE_PROPERTY_NAME = "commandQueueDiscipline";
+  
+  /** Returns the scheduling discipline of the command queue.
+   * 
+   * @return The scheduling discipline of the command queue, non-{@code null}.
+   * 
+   */
+  public final ControllerCommandQueueDiscipline getCommandQueueDiscipline ()
+  {
+    return this.commandQueue.getDiscipline ();
+  }
+  
+  /** Sets the scheduling discipline of the command queue.
+   * 
+   * <p>
+   * The discipline may be changed at any time; commands already queued are re-ordered accordingly.
+   * 
+   * @param discipline The new discipline, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   * 
+   */
+  public final void setCommandQueueDiscipline (final ControllerCommandQueueDiscipline discipline)
+  {
+    if (discipline == null)
+      throw new IllegalArgumentException ();
+    final ControllerCommandQueueDiscipline oldDiscipline = this.commandQueue.getDiscipline ();
+    if (discipline == oldDiscipline)
+      return;
+    this.commandQueue.setDiscipline (discipline);
+    fireSettingsChanged (COMMAND_QUEUE_DISCIPLINE_PROPERTY_NAME, oldDiscipline, discipline);
+  }
+  
+  /** Returns the class of given command for the round-robin command-queue disciplines.
+   * 
+   * <p>
+   * The default implementation returns {@code null} (a single class for all commands).
+   * Implementations must return the same class for a command for as long as it is queued or being processed.
+   * 
+   * @param controllerCommand The command, non-{@code null}.
+   * 
+   * @return The class of the command, e.g., the address of the target device; may be {@code null}.
+   * 
+   * @see ControllerCommandQueueDiscipline#ROUND_ROBIN
+   * @see ControllerCommandQueueDiscipline#DEFICIT_ROUND_ROBIN
+   * 
+   */
+  protected Object getCommandQueueKey (final ControllerCommand controllerCommand)
+  {
+    return null;
+  }
+  
+  /** Returns the weight of given command class for the deficit round-robin command-queue discipline.
+   * 
+   * @param key The command class, may be {@code null}.
+   * 
+   * @return The weight, strictly positive; the default is unity.
+   * 
+   * @see #getCommandQueueKey
+   * 
+   */
+  public final int getCommandQueueWeight (final Object key)
+  {
+    return this.commandQueue.getWeight (key);
+  }
+  
+  /** Sets the weight of given command class for the deficit round-robin command-queue discipline.
+   * 
+   * <p>
+   * The weight is the number of quanta (of 10 ms processing time) the class receives in each round.
+   * Weights are retained across changes in queue discipline.
+   * 
+   * @param key    The command class, may be {@code null}.
+   * @param weight The weight, strictly positive; the default is unity.
+   * 
+   * @throws IllegalArgumentException If the weight is zero or negative.
+   * 
+   * @see #getCommandQueueKey
+   * @see ControllerCommandQueueDiscipline#DEFICIT_ROUND_ROBIN
+   * 
+   */
+  public final void setCommandQueueWeight (final Object key, final int weight)
+  {
+    this.commandQueue.setWeight (key, weight);
+  }
+  
   @Override
   public final void addCommand (final ControllerCommand controllerCommand)
   {
@@ -150,13 +253,21 @@ implements Controller
       throw new IllegalArgumentException ();
     controllerCommand.markArrivalAtController (this);
     queueLogQueueCommand (controllerCommand.getArriveAtControllerTime (), controllerCommand);
-    if (! this.commandQueue.offer (controllerCommand))
+    // Long.MAX_VALUE means no deadline; the subtraction below would overflow for negative arrival times.
+    final long deadline_ns = ControllerCommandQueue.getDeadline_ns (controllerCommand);
+    if (this.commandQueue.getDiscipline () == ControllerCommandQueueDiscipline.EDF
+      && deadline_ns != Long.MAX_VALUE
+      && deadline_ns - controllerCommand.getArriveAtControllerTime_ns () <= this.deadlineSheddingMargin_ns)
+      shedCommand (controllerCommand);
+    else if (! this.commandQueue.offer (controllerCommand))
     {
       LOG.log (Level.WARNING, "Overflow on Controller Command Queue on {0}.", this.toString ());
       queueLogMessage (Instant.now (), "Overflow on Controller Command Queue");
       controllerCommand.put (ControllerCommand.CCRET_EXCEPTION_KEY, new BufferOverflowException ());
       controllerCommand.markDepartureAtController (this);
       queueLogEndCommand (controllerCommand.getDepartureAtControllerTime (), controllerCommand);
+      controllerCommand.markCompletedAtController (this);
+      releaseCommand (controllerCommand);
       error ();
     }
     else
@@ -170,6 +281,114 @@ implements Controller
   protected abstract void processCommand (final ControllerCommand controllerCommand, final long timeout_ms)
     throws UnsupportedOperationException, IOException, InterruptedException, TimeoutException;
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DEADLINES / LOAD SHEDDING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  private volatile long deadlineSheddingMargin_ns = 0L;
+  
+  /** Returns the deadline-shedding margin.
+   * 
+   * @return The deadline-shedding margin in milliseconds.
+   * 
+   * @see #setDeadlineSheddingMargin_ms
+   * 
+   */
+  public final long getDeadlineSheddingMargin_ms ()
+  {
+    return TimeUnit.NANOSECONDS.toMillis (this.deadlineSheddingMargin_ns);
+  }
+  
+  /** Sets the deadline-shedding margin.
+   * 
+   * <p>
+   * With the {@link ControllerCommandQueueDiscipline#EDF} discipline,
+   * commands that cannot be started within this margin before their deadline
+   * (the smaller of their queueing and sojourn timeouts)
+   * are shed, i.e., completed with a {@link TimeoutException} without being processed,
+   * both upon arrival and when found at the head of the command queue.
+   * The margin should reflect the minimum time needed to process a command;
+   * the default is zero (only shed commands with expired deadlines).
+   * 
+   * @param deadlineSheddingMargin_ms The margin in milliseconds, non-negative.
+   * 
+   * @throws IllegalArgumentException If the argument is negative.
+   * 
+   */
+  public final void setDeadlineSheddingMargin_ms (final long deadlineSheddingMargin_ms)
+  {
+    if (deadlineSheddingMargin_ms < 0)
+      throw new IllegalArgumentException ();
+    this.deadlineSheddingMargin_ns = TimeUnit.MILLISECONDS.toNanos (deadlineSheddingMargin_ms);
+  }
+  
+  private final AtomicLong numberOfDeadlineMisses = new AtomicLong ();
+  
+  /** Returns the number of commands that missed their deadline.
+   * 
+   * <p>
+   * This includes commands dropped (or shed) before processing because of their queueing or sojourn timeouts,
+   * and commands that timed out during processing.
+   * 
+   * @return The number of commands that missed their deadline since construction.
+   * 
+   */
+  public final long getNumberOfDeadlineMisses ()
+  {
+    return this.numberOfDeadlineMisses.get ();
+  }
+  
+  private final AtomicLong numberOfShedCommands = new AtomicLong ();
+  
+  /** Returns the number of commands shed (never processed) because their deadlines were unreachable.
+   * 
+   * @return The number of shed commands since construction.
+   * 
+   * @see #setDeadlineSheddingMargin_ms
+   * 
+   */
+  public final long getNumberOfShedCommands ()
+  {
+    return this.numberOfShedCommands.get ();
+  }
+  
+  private void shedCommand (final ControllerCommand controllerCommand)
+  {
+    LOG.log (Level.WARNING, "Controller {0} shed command {1} because its deadline is unreachable!",
+      new Object[]{this.toString (), controllerCommand});
+    queueLogMessage (Instant.now (), "Deadline Unreachable");
+    this.numberOfShedCommands.incrementAndGet ();
+    this.numberOfDeadlineMisses.incrementAndGet ();
+    controllerCommand.put (ControllerCommand.CCRET_EXCEPTION_KEY, new TimeoutException ());
+    controllerCommand.markDepartureAtController (this);
+    queueLogEndCommand (controllerCommand.getDepartureAtControllerTime (), controllerCommand);
+    if (! this.commandResultQueue.offer (controllerCommand))
+    {
+      LOG.log (Level.WARNING, "Overflow in Command Result Queue on {0}.", this.toString ());
+      controllerCommand.markCompletedAtController (this);
+      releaseCommand (controllerCommand);
+    }
+  }
+  
+  // Sheds all commands at the head of the queue with unreachable deadlines (EDF only), and then takes the next command.
+  private ControllerCommand takeCommand ()
+    throws InterruptedException
+  {
+    int numberShed = 0;
+    ControllerCommand unreachable;
+    while ((unreachable = this.commandQueue.pollUnreachable (System.nanoTime (), this.deadlineSheddingMargin_ns)) != null)
+    {
+      shedCommand (unreachable);
+      numberShed++;
+    }
+    final ControllerCommand controllerCommand = this.commandQueue.take ();
+    final int newQueueSize = this.commandQueue.size ();
+    fireSettingsChanged (COMMAND_QUEUE_SIZE_PROPERTY_NAME, newQueueSize + numberShed + 1, newQueueSize);
+    return controllerCommand;
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // COMMAND PROCESSOR
@@ -187,21 +406,20 @@ implements Controller
       boolean error = false;
       boolean mustStop = false;
       ControllerCommand nextCommand = null;
+      long startTime_ns = ControllerCommand.NO_TIME;
       try
       {
-        nextCommand = AbstractController.this.commandQueue.take ();
-        final int newQueueSize = this.commandQueue.size ();
-        fireSettingsChanged (COMMAND_QUEUE_SIZE_PROPERTY_NAME, newQueueSize + 1, newQueueSize);
-        final Instant now = Instant.now ();
-        final Duration sojournTime = Duration.between (nextCommand.getArriveAtControllerTime (), now);
-        final Duration queueingTimeout = nextCommand.getQueueingTimeout ();
-        final Duration processingTimeout = nextCommand.getProcessingTimeout ();
-        final Duration sojournTimeout = nextCommand.getSojournTimeout ();
-        Duration remainingTimeout = null;
-        if (queueingTimeout != null)
+        nextCommand = takeCommand ();
+        // Timeouts are computed in nanoseconds (System.nanoTime) to avoid Instant/Duration arithmetic for each command.
+        final long sojournTime_ns = System.nanoTime () - nextCommand.getArriveAtControllerTime_ns ();
+        final long queueingTimeout_ns = nextCommand.getQueueingTimeout_ns ();
+        final long processingTimeout_ns = nextCommand.getProcessingTimeout_ns ();
+        final long sojournTimeout_ns = nextCommand.getSojournTimeout_ns ();
+        long remainingTimeout_ns = ControllerCommand.NO_TIME;
+        if (queueingTimeout_ns != ControllerCommand.NO_TIME)
         {
-          final Duration remainingHere = queueingTimeout.minus (sojournTime);
-          if (remainingHere.isNegative () || remainingHere.isZero ())
+          final long remainingHere_ns = queueingTimeout_ns - sojournTime_ns;
+          if (remainingHere_ns <= 0)
           {
             LOG.log (Level.WARNING, "Controller {0} dropped command {1} at start due to queueing timeout!",
               new Object[]{AbstractController.this.toString (), nextCommand});
@@ -209,14 +427,14 @@ implements Controller
             throw new TimeoutException ();
           }
           else
-            remainingTimeout = (remainingTimeout == null || remainingHere.minus (remainingTimeout).isNegative ())
-              ? remainingHere
-              : remainingTimeout;
+            remainingTimeout_ns = (remainingTimeout_ns == ControllerCommand.NO_TIME || remainingHere_ns < remainingTimeout_ns)
+              ? remainingHere_ns
+              : remainingTimeout_ns;
         }
-        if (sojournTimeout != null)
+        if (sojournTimeout_ns != ControllerCommand.NO_TIME)
         {
-          final Duration remainingHere = sojournTimeout.minus (sojournTime);
-          if (remainingHere.isNegative () || remainingHere.isZero ())
+          final long remainingHere_ns = sojournTimeout_ns - sojournTime_ns;
+          if (remainingHere_ns <= 0)
           {
             LOG.log (Level.WARNING, "Controller {0} dropped command {1} at start due to sojourn timeout!",
               new Object[]{AbstractController.this.toString (), nextCommand});
@@ -224,28 +442,29 @@ implements Controller
             throw new TimeoutException ();
           }
           else
-            remainingTimeout = (remainingTimeout == null || remainingHere.minus (remainingTimeout).isNegative ())
-              ? remainingHere
-              : remainingTimeout;
+            remainingTimeout_ns = (remainingTimeout_ns == ControllerCommand.NO_TIME || remainingHere_ns < remainingTimeout_ns)
+              ? remainingHere_ns
+              : remainingTimeout_ns;
         }
-        if (processingTimeout != null)
+        if (processingTimeout_ns != ControllerCommand.NO_TIME)
         {
-          final Duration remainingHere = processingTimeout;
-          remainingTimeout = (remainingTimeout == null || remainingHere.minus (remainingTimeout).isNegative ())
-            ? remainingHere
-            : remainingTimeout;
+          final long remainingHere_ns = processingTimeout_ns;
+          remainingTimeout_ns = (remainingTimeout_ns == ControllerCommand.NO_TIME || remainingHere_ns < remainingTimeout_ns)
+            ? remainingHere_ns
+            : remainingTimeout_ns;
         }
-        if (remainingTimeout == null)
+        if (remainingTimeout_ns == ControllerCommand.NO_TIME)
         {
           LOG.log (Level.WARNING, "Controller {0} has no processing timeout for command {1} at start,"
             + " using default controller settings {2} ms instead!",
             new Object[]{AbstractController.this.toString (), nextCommand, AbstractController.DEFAULT_COMMAND_TIMEOUT_MS});
           queueLogMessage (Instant.now (), "No Timeout Set");
-          remainingTimeout = Duration.ofMillis (AbstractController.DEFAULT_COMMAND_TIMEOUT_MS);
+          remainingTimeout_ns = TimeUnit.MILLISECONDS.toNanos (AbstractController.DEFAULT_COMMAND_TIMEOUT_MS);
         }
         nextCommand.markStartAtController (this);
+        startTime_ns = System.nanoTime ();
         queueLogStartCommand (nextCommand.getStartAtControllerTime (), nextCommand);
-        AbstractController.this.processCommand (nextCommand, remainingTimeout.toMillis ());
+        AbstractController.this.processCommand (nextCommand, TimeUnit.NANOSECONDS.toMillis (remainingTimeout_ns));
         nextCommand.markDepartureAtController (this);
         queueLogEndCommand (nextCommand.getDepartureAtControllerTime (), nextCommand);
       }
@@ -265,6 +484,7 @@ implements Controller
       }
       catch (TimeoutException te)
       {
+        this.numberOfDeadlineMisses.incrementAndGet ();
         LOG.log (Level.WARNING, "TimeoutException (ignored; noted on command) in Controller Command Processor on {0}: {1}.",
           new Object[]{AbstractController.this.toString (), Arrays.toString (te.getStackTrace ())});
         if (nextCommand != null)
@@ -315,6 +535,9 @@ implements Controller
       }
       finally
       {
+        if (nextCommand != null)
+          this.commandQueue.charge (nextCommand,
+            startTime_ns == ControllerCommand.NO_TIME ? 0L : System.nanoTime () - startTime_ns);
         if (nextCommand != null && ! this.commandResultQueue.offer (nextCommand))
         {
           LOG.log (Level.WARNING, "Overflow in Command Result Queue on {0}.", AbstractController.this.toString ());
@@ -322,7 +545,10 @@ implements Controller
           nextCommand.put (ControllerCommand.CCRET_EXCEPTION_KEY, new BufferOverflowException ());
           nextCommand.markDepartureAtController (this);
           queueLogEndCommand (nextCommand.getDepartureAtControllerTime (), nextCommand);
-          error = true;
+          nextCommand.markCompletedAtController (this);
+          releaseCommand (nextCommand);
+          // Not an error if we were interrupted while blocking on the (full) queue.
+          error = ! Thread.currentThread ().isInterrupted ();
           mustStop = true;
         }
       }
@@ -345,7 +571,40 @@ implements Controller
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   
-  private final BlockingQueue<ControllerCommand> commandResultQueue = new LinkedBlockingQueue<> ();
+  /** The default capacity (1024) of the queue of processed commands awaiting dispatch.
+   * 
+   */
+  public final static int DEFAULT_COMMAND_RESULT_QUEUE_CAPACITY = 1024;
+  
+  /** The default overflow policy (block) of the queue of processed commands awaiting dispatch.
+   * 
+   * <p>
+   * Processed commands carry completion futures, and cannot be dropped silently;
+   * hence, by default, the command processor waits for the dispatcher.
+   * 
+   */
+  public final static BoundedEventQueue.OverflowPolicy DEFAULT_COMMAND_RESULT_QUEUE_OVERFLOW_POLICY =
+    BoundedEventQueue.OverflowPolicy.BLOCK;
+  
+  private final BoundedEventQueue<ControllerCommand> commandResultQueue =
+    new BoundedEventQueue<> (DEFAULT_COMMAND_RESULT_QUEUE_CAPACITY, DEFAULT_COMMAND_RESULT_QUEUE_OVERFLOW_POLICY);
+  
+  /** Returns the configuration and statistics of the queue of processed commands awaiting dispatch.
+   * 
+   * <p>
+   * Note that with a policy other than {@link BoundedEventQueue.OverflowPolicy#BLOCK},
+   * overflow puts the controller in error; see the command processor.
+   * 
+   * @return The configuration and statistics of the command-result queue.
+   * 
+   */
+  public final BoundedEventQueueControl getCommandResultQueueControl ()
+  {
+    return this.commandResultQueue;
+  }
+  
+  // The dispatcher completes the completion future of each command (see ControllerCommand#getCompletionFuture),
+  // and then notifies the controller listeners.
   
   private final Runnable commandResultDispatcher = () ->
   {
@@ -355,7 +614,10 @@ implements Controller
       try
       {
         final ControllerCommand nextCommand = this.commandResultQueue.take ();
+        // Complete the command's own future first; (synchronous) waiters need not wait for listeners.
+        nextCommand.markCompletedAtController (this);
         fireProcessedCommand (nextCommand);
+        releaseCommand (nextCommand);
       }
       catch (InterruptedException ie)
       {
@@ -373,13 +635,44 @@ implements Controller
       AbstractController.this.toString ());
   };
   
+  // Releases the controller's reference to a (pooled) command; see ControllerCommand#release.
+  // While logging is active, log entries may still refer to the command, so it is not released (and not recycled).
+  
+  private void releaseCommand (final ControllerCommand controllerCommand)
+  {
+    if (this.loggingService.getStatus () != Status.ACTIVE)
+      controllerCommand.release ();
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // CONTROLLER LOGGING
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   
-  private final BlockingQueue<ControllerListener.LogEntry> controllerLogQueue = new LinkedBlockingQueue<> ();
+  /** The default capacity (4096) of the queue of log entries awaiting dispatch.
+   * 
+   */
+  public final static int DEFAULT_CONTROLLER_LOG_QUEUE_CAPACITY = 4096;
+  
+  /** The default overflow policy (drop oldest) of the queue of log entries awaiting dispatch.
+   * 
+   */
+  public final static BoundedEventQueue.OverflowPolicy DEFAULT_CONTROLLER_LOG_QUEUE_OVERFLOW_POLICY =
+    BoundedEventQueue.OverflowPolicy.DROP_OLDEST;
+  
+  private final BoundedEventQueue<ControllerListener.LogEntry> controllerLogQueue =
+    new BoundedEventQueue<> (DEFAULT_CONTROLLER_LOG_QUEUE_CAPACITY, DEFAULT_CONTROLLER_LOG_QUEUE_OVERFLOW_POLICY);
+  
+  /** Returns the configuration and statistics of the queue of log entries awaiting dispatch.
+   * 
+   * @return The configuration and statistics of the controller-log queue.
+   * 
+   */
+  public final BoundedEventQueueControl getControllerLogQueueControl ()
+  {
+    return this.controllerLogQueue;
+  }
   
   protected final void queueLogQueueCommand (final Instant instant, final ControllerCommand controllerCommand)
   {
@@ -17,17 +17,27 @@
 package org.javajdj.jinstrument;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleSupplier;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.javajdj.jinstrument.util.BoundedEventQueue;
+import org.javajdj.jinstrument.util.BoundedEventQueueControl;
 import org.javajdj.jservice.support.RunnableInvoker;
 import org.javajdj.jservice.Service;
 import org.javajdj.jservice.support.Service_FromMix;
@@ -75,10 +85,22 @@ implements Instrument
     if (device == null)
       throw new IllegalArgumentException ();
     this.device = device;
+    this.sharedStatusCollector = addStatusServices;
+    this.sharedSettingsCollector = addSettingsServices;
+    this.sharedCommandProcessor = addCommandProcessorServices;
+    this.sharedReadingCollector = addAcquisitionServices;
+    this.sharedHousekeeper = addHousekeepingServices;
     if (addInitializationServices)
     {
       addRunnable (this.instrumentInitializer);
     }
+    if (this.threadingModel != InstrumentThreadingModel.DEDICATED_THREADS)
+    {
+      // Collectors, dispatchers and housekeeper run on the shared executors;
+      // the agent runs the command processor (if present).
+      addRunnable (this.instrumentSharedSubServicesAgent);
+      return;
+    }
     if (addStatusServices)
     {
       addRunnable (this.instrumentStatusCollector);
@@ -162,11 +184,16 @@ implements Instrument
   }
   
   protected final void fireInstrumentSettingsChanged (final InstrumentSettings instrumentSettings)
+  {
+    fireInstrumentSettingsChanged (new InstrumentSettingsChange (null, instrumentSettings));
+  }
+  
+  protected final void fireInstrumentSettingsChanged (final InstrumentSettingsChange instrumentSettingsChange)
   {
     // References are atomic.
     final Set<InstrumentListener> listeners = this.instrumentListenersCopy;
     for (final InstrumentListener l : listeners)
-      l.newInstrumentSettings (this, instrumentSettings);
+      l.newInstrumentSettingsChange (this, instrumentSettingsChange);
   }
   
   protected final void fireInstrumentReading (final InstrumentReading instrumentReading)
@@ -281,6 +308,127 @@ implements Instrument
     }
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // ADAPTIVE COLLECTOR PERIODS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** The name of the adaptive-collector-periods property.
+   * 
+   */
+  public final static String ADAPTIVE_COLLECTOR_PERIODS_PROPERTY_NAME = "adaptiveCollectorPeriods";
+  
+  /** The default (false) of the adaptive-collector-periods property.
+   * 
+   */
+  public final static boolean DEFAULT_ADAPTIVE_COLLECTOR_PERIODS = false;
+  
+  /** The number of commands (4) queued at the controller that adds another (full) collector period in adaptive mode.
+   * 
+   */
+  public final static int ADAPTIVE_COLLECTOR_THROTTLE_QUEUE_SIZE = 4;
+  
+  private volatile boolean adaptiveCollectorPeriods = AbstractInstrument.DEFAULT_ADAPTIVE_COLLECTOR_PERIODS;
+  
+  /** Returns whether the status, settings and reading collectors use adaptive periods.
+   * 
+   * @return Whether the status, settings and reading collectors use adaptive periods.
+   * 
+   * @see #setAdaptiveCollectorPeriods
+   * 
+   */
+  public final boolean isAdaptiveCollectorPeriods ()
+  {
+    return this.adaptiveCollectorPeriods;
+  }
+  
+  /** Sets whether the status, settings and reading collectors use adaptive periods.
+   * 
+   * <p>
+   * In adaptive mode, the collector periods (e.g., {@link #getSettingsCollectorPeriod_s}) are base periods.
+   * Each collector polls at a quarter of its base period right after the instrument successfully processed a command
+   * (see {@link #isCollectorBoostingCommand}),
+   * and right after a change in the collected results (status, settings or reading value) was detected.
+   * Reading values are not compared for equality, but with a tolerance derived from the observed noise
+   * (see {@link ReadingChangeDetector}), so a steady noisy signal does not keep the reading collector at its fastest rate.
+   * For each unchanged result, the polling interval doubles, up to eight times the base period.
+   * In addition, the polling intervals are multiplied with
+   * {@code 1 + q / }{@link #ADAPTIVE_COLLECTOR_THROTTLE_QUEUE_SIZE},
+   * where {@code q} is the number of commands queued at the controller (see {@link Controller#getCommandQueueSize}).
+   * 
+   * <p>
+   * Note that in adaptive mode, collectors wake up at a quarter of their base period,
+   * but only actually poll the instrument when due.
+   * 
+   * @param adaptiveCollectorPeriods Whether the status, settings and reading collectors use adaptive periods.
+   * 
+   */
+  public final void setAdaptiveCollectorPeriods (final boolean adaptiveCollectorPeriods)
+  {
+    if (adaptiveCollectorPeriods == this.adaptiveCollectorPeriods)
+      return;
+    this.adaptiveCollectorPeriods = adaptiveCollectorPeriods;
+    fireSettingsChanged (
+      AbstractInstrument.ADAPTIVE_COLLECTOR_PERIODS_PROPERTY_NAME,
+      ! adaptiveCollectorPeriods,
+      adaptiveCollectorPeriods);
+  }
+  
+  private double getCollectorTick_s (final AdaptivePollingSchedule schedule)
+  {
+    if (isAdaptiveCollectorPeriods ())
+      return schedule.getTick_s ();
+    else
+      return schedule.getBasePeriod_s ();
+  }
+  
+  private boolean isCollectorDue (final AdaptivePollingSchedule schedule)
+  {
+    if (! isAdaptiveCollectorPeriods ())
+      return true;
+    final Device device = getDevice ();
+    final Controller controller = device != null ? device.getController () : null;
+    final int queueSize = controller != null ? controller.getCommandQueueSize () : 0;
+    return schedule.isDue (1.0 + queueSize / (double) AbstractInstrument.ADAPTIVE_COLLECTOR_THROTTLE_QUEUE_SIZE);
+  }
+  
+  // Results are compared regardless of the adaptive-collector-periods mode (cheap),
+  // so schedules are properly initialized when the mode is switched on.
+  private static void adaptCollector (final AdaptivePollingSchedule schedule, final boolean resultChanged)
+  {
+    if (resultChanged)
+      schedule.boost ();
+    else
+      schedule.backOff ();
+  }
+  
+  /** Returns whether successfully processing a command speeds up the collectors in adaptive mode.
+   * 
+   * <p>
+   * The default implementation returns {@code true}.
+   * Sub-classes should return {@code false} for commands that are not expected to change the status, settings or readings,
+   * like the (self-re-queued) continuations of a long-running acquisition that reports its readings itself.
+   * 
+   * @param instrumentCommand The command, non-{@code null}.
+   * 
+   * @return Whether successfully processing the command speeds up the collectors in adaptive mode.
+   * 
+   * @see #setAdaptiveCollectorPeriods
+   * 
+   */
+  protected boolean isCollectorBoostingCommand (final InstrumentCommand instrumentCommand)
+  {
+    return true;
+  }
+  
+  private void adaptCollectorsToProcessedCommand ()
+  {
+    this.statusCollectorSchedule.boost ();
+    this.settingsCollectorSchedule.boost ();
+    this.readingCollectorSchedule.boost ();
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // INSTRUMENT STATUS
@@ -293,14 +441,22 @@ implements Instrument
   protected abstract void requestStatusFromInstrumentASync ()
     throws IOException;
   
+  private final AdaptivePollingSchedule statusCollectorSchedule = new AdaptivePollingSchedule (this::getStatusCollectorPeriod_s);
+  
+  private InstrumentStatus getStatusFromInstrumentSyncIfDue ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    return isCollectorDue (this.statusCollectorSchedule) ? getStatusFromInstrumentSync () : null;
+  }
+  
   private final Runnable instrumentStatusCollector = RunnableInvoker.periodicallyFromSupplierConsumerChain (
     "Instrument Status Collector",
     this,
-    this::getStatusCollectorPeriod_s,
+    () -> getCollectorTick_s (this.statusCollectorSchedule),
     true,
     RunnableInvoker.OverloadPolicy.IGNORE_AND_DROP,
-    this::getStatusFromInstrumentSync,
-    this::statusReadFromInstrument,
+    this::getStatusFromInstrumentSyncIfDue,
+    (instrumentStatus) -> { if (instrumentStatus != null) statusReadFromInstrument (instrumentStatus); },
     new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class)),
     null,
     true,
@@ -357,7 +513,29 @@ implements Instrument
       statusCollectorPeriod_s);
   }
   
-  private final BlockingQueue<InstrumentStatus> statusReadQueue = new LinkedBlockingQueue<> ();
+  /** The default capacity (16) of the queue of instrument statuses awaiting dispatch.
+   * 
+   */
+  public final static int DEFAULT_STATUS_QUEUE_CAPACITY = 16;
+  
+  /** The default overflow policy (conflate) of the queue of instrument statuses awaiting dispatch.
+   * 
+   */
+  public final static BoundedEventQueue.OverflowPolicy DEFAULT_STATUS_QUEUE_OVERFLOW_POLICY =
+    BoundedEventQueue.OverflowPolicy.CONFLATE;
+  
+  private final BoundedEventQueue<InstrumentStatus> statusReadQueue =
+    new BoundedEventQueue<> (DEFAULT_STATUS_QUEUE_CAPACITY, DEFAULT_STATUS_QUEUE_OVERFLOW_POLICY);
+  
+  /** Returns the configuration and statistics of the queue of instrument statuses awaiting dispatch.
+   * 
+   * @return The configuration and statistics of the status queue.
+   * 
+   */
+  public final BoundedEventQueueControl getStatusQueueControl ()
+  {
+    return this.statusReadQueue;
+  }
   
   protected void statusReadFromInstrument (final InstrumentStatus instrumentStatus)
   {
@@ -365,6 +543,8 @@ implements Instrument
       throw new IllegalArgumentException ();
     if (! this.statusReadQueue.offer (instrumentStatus))
       LOG.log (Level.WARNING, "Overflow on Instrument Status Queue on {0}.", this);
+    else if (this.sharedSubServicesActive)
+      this.sharedDispatcherExecutor.execute (this::dispatchStatuses);
   }
   
   private InstrumentStatus takeStatus ()
@@ -378,7 +558,9 @@ implements Instrument
     synchronized (this.currentInstrumentStatusLock)
     {
       final InstrumentStatus oldStatus = this.currentInstrumentStatus;
-      if (oldStatus != null && instrumentStatus.equals (oldStatus))
+      final boolean statusChanged = oldStatus == null || ! instrumentStatus.equals (oldStatus);
+      AbstractInstrument.adaptCollector (this.statusCollectorSchedule, statusChanged);
+      if (! statusChanged)
         return;
       this.currentInstrumentStatus = instrumentStatus;
     }
@@ -409,14 +591,22 @@ implements Instrument
   protected abstract void requestSettingsFromInstrumentASync ()
     throws IOException;
   
+  private final AdaptivePollingSchedule settingsCollectorSchedule = new AdaptivePollingSchedule (this::getSettingsCollectorPeriod_s);
+  
+  private InstrumentSettings getSettingsFromInstrumentSyncIfDue ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    return isCollectorDue (this.settingsCollectorSchedule) ? getSettingsFromInstrumentSync () : null;
+  }
+  
   private final Runnable instrumentSettingsCollector = RunnableInvoker.periodicallyFromSupplierConsumerChain (
     "Instrument Settings Collector",
     this,
-    this::getSettingsCollectorPeriod_s,
+    () -> getCollectorTick_s (this.settingsCollectorSchedule),
     true,
     RunnableInvoker.OverloadPolicy.IGNORE_AND_DROP,
-    this::getSettingsFromInstrumentSync,
-    this::settingsReadFromInstrument,
+    this::getSettingsFromInstrumentSyncIfDue,
+    (instrumentSettings) -> { if (instrumentSettings != null) settingsReadFromInstrument (instrumentSettings); },
     new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class, IOException.class)),
     null,
     true,
@@ -439,7 +629,37 @@ implements Instrument
       return this.currentInstrumentSettings;
     }
   }
-  
+
+  /** Returns the current settings if they are equal to given (freshly read) settings, or the argument otherwise.
+   *
+   * <p>
+   * Meant for instruments that (re)read their settings frequently, e.g., along with each reading,
+   * so that unchanged settings snapshots share a single instance,
+   * for instance among the readings referring to them.
+   *
+   * <p>
+   * Only settings with a non-{@code null} bytes array are interned;
+   * equality is then decided on the bytes (and class) alone, see {@link InstrumentSettings#getBytes}.
+   *
+   * @param <S>                The settings type.
+   * @param instrumentSettings The settings, may be {@code null}.
+   *
+   * @return The current settings if equal to the argument (including being of the same class), the argument otherwise.
+   *
+   */
+  @SuppressWarnings ("unchecked")
+  protected final <S extends InstrumentSettings> S internInstrumentSettings (final S instrumentSettings)
+  {
+    if (instrumentSettings == null || instrumentSettings.getBytes () == null)
+      return instrumentSettings;
+    final InstrumentSettings currentInstrumentSettings = getCurrentInstrumentSettings ();
+    if (currentInstrumentSettings != null
+      && currentInstrumentSettings.getClass () == instrumentSettings.getClass ()
+      && Arrays.equals (currentInstrumentSettings.getBytes (), instrumentSettings.getBytes ()))
+      return (S) currentInstrumentSettings;
+    return instrumentSettings;
+  }
+
   public final static String SETTINGS_COLLECTOR_PERIOD_S_PROPERTY_NAME = "settingsCollectorPeriod_s";
   
   public final static double DEFAULT_SETTINGS_COLLECTOR_PERIOD_S = 10;
@@ -506,7 +726,29 @@ implements Instrument
     setOptimizeSettingsUpdates (false);
   }
 
-  private final BlockingQueue<InstrumentSettings> settingsReadQueue = new LinkedBlockingQueue<> ();
+  /** The default capacity (16) of the queue of instrument settings awaiting dispatch.
+   * 
+   */
+  public final static int DEFAULT_SETTINGS_QUEUE_CAPACITY = 16;
+  
+  /** The default overflow policy (conflate) of the queue of instrument settings awaiting dispatch.
+   * 
+   */
+  public final static BoundedEventQueue.OverflowPolicy DEFAULT_SETTINGS_QUEUE_OVERFLOW_POLICY =
+    BoundedEventQueue.OverflowPolicy.CONFLATE;
+  
+  private final BoundedEventQueue<InstrumentSettings> settingsReadQueue =
+    new BoundedEventQueue<> (DEFAULT_SETTINGS_QUEUE_CAPACITY, DEFAULT_SETTINGS_QUEUE_OVERFLOW_POLICY);
+  
+  /** Returns the configuration and statistics of the queue of instrument settings awaiting dispatch.
+   * 
+   * @return The configuration and statistics of the settings queue.
+   * 
+   */
+  public final BoundedEventQueueControl getSettingsQueueControl ()
+  {
+    return this.settingsReadQueue;
+  }
   
   protected void settingsReadFromInstrument (final InstrumentSettings instrumentSettings)
   {
@@ -514,6 +756,8 @@ implements Instrument
       throw new IllegalArgumentException ();
     if (! this.settingsReadQueue.offer (instrumentSettings))
       LOG.log (Level.WARNING, "Overflow on Instrument Settings Queue on {0}.", this);
+    else if (this.sharedSubServicesActive)
+      this.sharedDispatcherExecutor.execute (this::dispatchSettings);
   }
   
   private InstrumentSettings takeSettings ()
@@ -524,14 +768,20 @@ implements Instrument
   
   private void processSettings (final InstrumentSettings instrumentSettings)
   {
+    final InstrumentSettingsChange instrumentSettingsChange;
     synchronized (this.currentInstrumentSettingsLock)
     {
       final InstrumentSettings oldSettings = this.currentInstrumentSettings;
-      if (isOptimizeSettingsUpdates () && oldSettings != null && instrumentSettings.equals (oldSettings))
+      final boolean settingsChanged = oldSettings == null || ! instrumentSettings.equals (oldSettings);
+      AbstractInstrument.adaptCollector (this.settingsCollectorSchedule, settingsChanged);
+      if (isOptimizeSettingsUpdates () && ! settingsChanged)
         return;
       this.currentInstrumentSettings = instrumentSettings;
+      // The change is created while holding the lock, so successive changes always chain properly.
+      // Note that determining the changed properties is deferred to the listeners (if at all).
+      instrumentSettingsChange = new InstrumentSettingsChange (oldSettings, instrumentSettings);
     }
-    fireInstrumentSettingsChanged (instrumentSettings);
+    fireInstrumentSettingsChanged (instrumentSettingsChange);
   }
   
   private final Runnable instrumentSettingsDispatcher = RunnableInvoker.constantlyFromSupplierConsumerChain (
@@ -546,6 +796,164 @@ implements Instrument
     Level.INFO,
     Level.WARNING);
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // WRITE-THROUGH SETTINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** The name of the write-through-settings property.
+   * 
+   */
+  public final static String WRITE_THROUGH_SETTINGS_PROPERTY_NAME = "writeThroughSettings";
+  
+  /** The default (false) of the write-through-settings property.
+   * 
+   */
+  public final static boolean DEFAULT_WRITE_THROUGH_SETTINGS = false;
+  
+  private volatile boolean writeThroughSettings = AbstractInstrument.DEFAULT_WRITE_THROUGH_SETTINGS;
+  
+  /** Returns whether successfully processed setter commands derive the new settings locally.
+   * 
+   * @return Whether successfully processed setter commands derive the new settings locally.
+   * 
+   * @see #setWriteThroughSettings
+   * 
+   */
+  public final boolean isWriteThroughSettings ()
+  {
+    return this.writeThroughSettings;
+  }
+  
+  /** Sets whether successfully processed setter commands derive the new settings locally.
+   * 
+   * <p>
+   * In write-through mode, instruments that support it derive the new settings from the current settings
+   * after successfully processing a setter command, and publish them immediately,
+   * instead of reading back the (full) settings from the instrument.
+   * A settings verifier reconciles the settings with the instrument
+   * one {@link #getSettingsVerifierPeriod_s} after a settings derivation,
+   * with at most a single verification pending at any time.
+   * 
+   * @param writeThroughSettings Whether successfully processed setter commands derive the new settings locally.
+   * 
+   * @see #writeThroughSettings
+   * 
+   */
+  public final void setWriteThroughSettings (final boolean writeThroughSettings)
+  {
+    if (writeThroughSettings == this.writeThroughSettings)
+      return;
+    this.writeThroughSettings = writeThroughSettings;
+    fireSettingsChanged (
+      AbstractInstrument.WRITE_THROUGH_SETTINGS_PROPERTY_NAME,
+      ! writeThroughSettings,
+      writeThroughSettings);
+  }
+  
+  /** The name of the settings-verifier period property.
+   * 
+   */
+  public final static String SETTINGS_VERIFIER_PERIOD_S_PROPERTY_NAME = "settingsVerifierPeriod_s";
+  
+  /** The default settings-verifier period (10 s).
+   * 
+   */
+  public final static double DEFAULT_SETTINGS_VERIFIER_PERIOD_S = 10;
+  
+  private volatile double settingsVerifierPeriod_s = AbstractInstrument.DEFAULT_SETTINGS_VERIFIER_PERIOD_S;
+  
+  /** Returns the delay between a write-through settings derivation and the verification of the settings with the instrument.
+   * 
+   * @return The settings-verifier period in seconds.
+   * 
+   * @see #setWriteThroughSettings
+   * 
+   */
+  public final double getSettingsVerifierPeriod_s ()
+  {
+    return this.settingsVerifierPeriod_s;
+  }
+  
+  /** Sets the delay between a write-through settings derivation and the verification of the settings with the instrument.
+   * 
+   * @param settingsVerifierPeriod_s The new settings-verifier period in seconds, non-negative.
+   * 
+   * @throws IllegalArgumentException If the period is negative.
+   * 
+   */
+  public final void setSettingsVerifierPeriod_s (final double settingsVerifierPeriod_s)
+  {
+    if (settingsVerifierPeriod_s < 0)
+      throw new IllegalArgumentException ();
+    final double oldSettingsVerifierPeriod_s = this.settingsVerifierPeriod_s;
+    if (settingsVerifierPeriod_s == oldSettingsVerifierPeriod_s)
+      return;
+    this.settingsVerifierPeriod_s = settingsVerifierPeriod_s;
+    fireSettingsChanged (
+      AbstractInstrument.SETTINGS_VERIFIER_PERIOD_S_PROPERTY_NAME,
+      oldSettingsVerifierPeriod_s,
+      settingsVerifierPeriod_s);
+  }
+  
+  /** Derives new settings locally after a successfully processed setter command (write-through mode).
+   * 
+   * <p>
+   * Meant to be used from {@link #processCommand}.
+   * If in write-through mode and the current settings are known,
+   * this method applies the derivation to the current settings,
+   * schedules a verification of the settings with the instrument, and returns the derived settings.
+   * Otherwise, it returns {@code null}, and the caller should read back the settings from the instrument.
+   * 
+   * <p>
+   * Note that the current settings should be the settings last read or derived <i>by the driver</i>
+   * (i.e., on the command-processor thread),
+   * and not {@link #getCurrentInstrumentSettings}, which is only updated once new settings have been dispatched,
+   * and would cause back-to-back setters to undo each other's changes.
+   * 
+   * @param <S>                 The settings type.
+   * @param instrumentSettings  The current settings, may be {@code null}.
+   * @param derivation          The derivation (typically a {@code with*} method on the settings), non-{@code null}.
+   * 
+   * @return The derived settings, {@code null} if not in write-through mode, or if the current settings are unknown.
+   * 
+   * @see #isWriteThroughSettings
+   * 
+   */
+  protected final <S extends InstrumentSettings> S writeThroughSettings (
+    final S instrumentSettings,
+    final UnaryOperator<S> derivation)
+  {
+    if (derivation == null)
+      throw new IllegalArgumentException ();
+    if (! isWriteThroughSettings () || instrumentSettings == null)
+      return null;
+    final S newInstrumentSettings = derivation.apply (instrumentSettings);
+    if (newInstrumentSettings != null)
+      scheduleSettingsVerification ();
+    return newInstrumentSettings;
+  }
+  
+  private final AtomicBoolean settingsVerificationScheduled = new AtomicBoolean (false);
+  
+  private void scheduleSettingsVerification ()
+  {
+    if (this.settingsVerificationScheduled.compareAndSet (false, true))
+      InstrumentExecutors.getScheduler ().schedule (
+        this::verifySettings,
+        (long) (getSettingsVerifierPeriod_s () * 1.0e9),
+        TimeUnit.NANOSECONDS);
+  }
+  
+  private void verifySettings ()
+  {
+    this.settingsVerificationScheduled.set (false);
+    // Read the settings in-band, i.e., through the command queue, like any other command.
+    if (getStatus () == Service.Status.ACTIVE)
+      addCommand (new DefaultInstrumentCommand (InstrumentCommand.IC_GET_SETTINGS_KEY));
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // INSTRUMENT COMMAND PROCESSOR
@@ -557,6 +965,12 @@ implements Instrument
   
   private final Object commandQueueLock = new Object ();
   
+  // Pending (queued) conflatable commands, keyed by their conflation key; guarded by this.commandQueueLock.
+  private final Map<Object, InstrumentCommand> pendingConflatableCommands = new HashMap<> ();
+  
+  // Guarded by this.commandQueueLock.
+  private long numberOfConflatedCommands = 0;
+  
   /** The name of the command queue capacity property.
    * 
    */
@@ -574,6 +988,19 @@ implements Instrument
   
   private int commandQueueCapacity = DEFAULT_COMMAND_QUEUE_CAPACITY;
   
+  /** Gets the number of commands currently in the command queue.
+   * 
+   * <p>
+   * Long-running commands may use this to yield to (i.e., finish early in favor of) queued commands.
+   * 
+   * @return The number of commands currently in the command queue ({@code >= 0}).
+   * 
+   */
+  public final int getCommandQueueSize ()
+  {
+    return this.commandQueue.size ();
+  }
+  
   /** Gets the command queue capacity.
    * 
    * @return The command queue capacity ({@code >= 0}).
@@ -650,6 +1077,7 @@ implements Instrument
         this.commandQueueCapacity = commandQueueCapacity;
       this.commandQueue.drainTo (remainingCommands);
       this.commandQueue.clear ();
+      this.pendingConflatableCommands.clear ();
     }
     // Make sure we fire settings changed outside the critical region.
     fireSettingsChanged (COMMAND_QUEUE_CAPACITY_PROPERTY_NAME, oldCommandQueueCapacity, commandQueueCapacity);
@@ -698,6 +1126,7 @@ implements Instrument
       oldQueueSize = this.commandQueue.size ();
       this.commandQueue.drainTo (remainingCommands);
       this.commandQueue.clear ();
+      this.pendingConflatableCommands.clear ();
     }
     // Make sure we fire settings changed outside the critical region.
     if (oldQueueSize > 0)
@@ -712,6 +1141,84 @@ implements Instrument
     }
   }
   
+  // Maps command names onto the names of the arguments that, together with the command name, form the conflation key.
+  private final Map<String, String[]> conflatableCommands = new ConcurrentHashMap<> ();
+  
+  /** Registers a command as conflatable (latest-wins) while pending in the command queue.
+   * 
+   * <p>
+   * An asynchronous command with given command name (the value of {@link InstrumentCommand#IC_COMMAND_KEY})
+   * that is added while a command with the same name and equal values for given arguments is still pending in the queue,
+   * is merged into the pending command instead of being queued.
+   * The typical use is for idempotent setters, keyed by (command, channel),
+   * so that, for instance, dragging a slider does not result in a burst of obsolete commands
+   * while the final value is always applied.
+   * 
+   * <p>
+   * Meant to be invoked from the constructor of sub-classes.
+   * 
+   * @param command           The command name, non-{@code null}.
+   * @param keyArgumentNames  The names of the arguments that (besides the command name) discriminate between commands,
+   *                            e.g., the channel; may be empty.
+   * 
+   * @throws IllegalArgumentException If the command name or an argument name is {@code null}.
+   * 
+   * @see InstrumentCommand#IC_CONFLATION_KEY
+   * @see #getNumberOfConflatedCommands
+   * 
+   */
+  protected final void registerConflatableCommand (final String command, final String... keyArgumentNames)
+  {
+    if (command == null)
+      throw new IllegalArgumentException ();
+    final String[] argumentNames = keyArgumentNames != null ? keyArgumentNames.clone () : new String[0];
+    for (final String argumentName : argumentNames)
+      if (argumentName == null)
+        throw new IllegalArgumentException ();
+    this.conflatableCommands.put (command, argumentNames);
+  }
+  
+  /** Returns the conflation key of a command.
+   * 
+   * @param instrumentCommand The command, non-{@code null}.
+   * 
+   * @return The conflation key, {@code null} if the command must not be conflated.
+   * 
+   */
+  private Object getConflationKey (final InstrumentCommand instrumentCommand)
+  {
+    if (instrumentCommand.isSynchronous ())
+      return null;
+    final Object explicitConflationKey = instrumentCommand.get (InstrumentCommand.IC_CONFLATION_KEY);
+    if (explicitConflationKey != null)
+      return explicitConflationKey;
+    final Object command = instrumentCommand.get (InstrumentCommand.IC_COMMAND_KEY);
+    final String[] keyArgumentNames = (command instanceof String) ? this.conflatableCommands.get ((String) command) : null;
+    if (keyArgumentNames == null)
+      return null;
+    final List<Object> conflationKey = new ArrayList<> (keyArgumentNames.length + 1);
+    conflationKey.add (command);
+    for (final String keyArgumentName : keyArgumentNames)
+      conflationKey.add (instrumentCommand.get (keyArgumentName));
+    return conflationKey;
+  }
+  
+  /** Returns the number of commands conflated (merged into a pending command) since construction.
+   * 
+   * @return The number of commands conflated since construction.
+   * 
+   * @see #registerConflatableCommand
+   * @see InstrumentCommand#IC_CONFLATION_KEY
+   * 
+   */
+  public final long getNumberOfConflatedCommands ()
+  {
+    synchronized (this.commandQueueLock)
+    {
+      return this.numberOfConflatedCommands;
+    }
+  }
+  
   private void addCommand (
     final InstrumentCommand instrumentCommand,
     final boolean synchronous,
@@ -724,11 +1231,29 @@ implements Instrument
     final boolean overflow;
     final int newQueueSize;
     final Semaphore semaphore = synchronous ? new Semaphore (0) : null;
+    if (synchronous)
+      instrumentCommand.put (InstrumentCommand.IC_COMPLETION_SEMAPHORE_KEY, semaphore);
+    final Object conflationKey = getConflationKey (instrumentCommand);
     synchronized (this.commandQueueLock)
     {
+      if (conflationKey != null)
+      {
+        // A pending command is only taken out of this.pendingConflatableCommands (by the command processor) while
+        // holding this.commandQueueLock, and before it is being processed; it is therefore safe to merge the new
+        // arguments into the pending command here.
+        final InstrumentCommand pendingCommand = this.pendingConflatableCommands.get (conflationKey);
+        if (pendingCommand != null)
+        {
+          pendingCommand.putAll (instrumentCommand);
+          this.numberOfConflatedCommands++;
+          return;
+        }
+      }
       // This statement cannot block...
       overflow = this.commandQueue.size () >= this.commandQueueCapacity || ! this.commandQueue.offer (instrumentCommand);
       newQueueSize = this.commandQueue.size ();
+      if (conflationKey != null && ! overflow)
+        this.pendingConflatableCommands.put (conflationKey, instrumentCommand);
     }
     if (overflow)
       LOG.log (Level.WARNING, "Overflow on Instrument Command Queue on {0}.", this);
@@ -763,19 +1288,43 @@ implements Instrument
     addCommand (instrumentCommand, true, timeout, unit);
   }
   
-  private InstrumentCommand takeCommand ()
+  // Must be called with this.commandQueueLock held.
+  private void removePendingConflatableCommand (final InstrumentCommand instrumentCommand)
+  {
+    // From here on, the command no longer accepts conflation of newer commands.
+    if (! this.pendingConflatableCommands.isEmpty ())
+    {
+      final Object conflationKey = getConflationKey (instrumentCommand);
+      if (conflationKey != null && this.pendingConflatableCommands.get (conflationKey) == instrumentCommand)
+        this.pendingConflatableCommands.remove (conflationKey);
+    }
+  }
+  
+  private List<InstrumentCommand> takeCommands ()
     throws InterruptedException
   {
     // Take a command from the queue; we cannot do this inside the this.commandQueueLock due to the risk of deadlock.
     // That's OK though, since this.commandQueue is thread safe.
     final InstrumentCommand instrumentCommand = this.commandQueue.take ();;
+    final List<InstrumentCommand> instrumentCommands = new ArrayList<> ();
+    instrumentCommands.add (instrumentCommand);
     final int newQueueSize;
     synchronized (this.commandQueueLock)
     {
+      removePendingConflatableCommand (instrumentCommand);
+      // Drain the immediately available batchable commands following a batchable command.
+      // Note that we are the only consumer of this.commandQueue.
+      if (isBatchableCommand (instrumentCommand))
+        while (this.commandQueue.peek () != null && isBatchableCommand (this.commandQueue.peek ()))
+        {
+          final InstrumentCommand nextInstrumentCommand = this.commandQueue.poll ();
+          removePendingConflatableCommand (nextInstrumentCommand);
+          instrumentCommands.add (nextInstrumentCommand);
+        }
       newQueueSize = this.commandQueue.size ();
     }
-    fireSettingsChanged (COMMAND_QUEUE_SIZE_PROPERTY_NAME, newQueueSize + 1, newQueueSize);
-    return instrumentCommand;
+    fireSettingsChanged (COMMAND_QUEUE_SIZE_PROPERTY_NAME, newQueueSize + instrumentCommands.size (), newQueueSize);
+    return instrumentCommands;
   }
   
   /** Processes a command.
@@ -806,6 +1355,9 @@ implements Instrument
       instrumentCommand.put (InstrumentCommand.IC_RETURN_STATUS_KEY, Boolean.TRUE);
       // Setting InstrumentCommand.IC_RETURN_VALUE_KEY is the responsibility of #processCommand.
       instrumentCommand.put (InstrumentCommand.IC_RETURN_EXCEPTION_KEY, null);
+      // Successful commands are likely to have changed settings, status and/or readings.
+      if (isCollectorBoostingCommand (instrumentCommand))
+        adaptCollectorsToProcessedCommand ();
     }
     catch (Exception e)
     {
@@ -824,17 +1376,167 @@ implements Instrument
     }
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // INSTRUMENT COMMAND PROCESSOR - BATCHING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns whether a command may be processed as part of a batch of commands.
+   * 
+   * <p>
+   * The command processor drains all immediately available commands following a batchable command
+   * from the queue (as long as they are batchable themselves), and processes them as a single batch,
+   * surrounded by {@link #beginCommandBatch} and {@link #endCommandBatch}.
+   * This allows sub-classes to merge the (instrument) messages of compatible commands,
+   * for instance, into a single bus transaction.
+   * 
+   * <p>
+   * The default implementation returns {@code false} (no batching).
+   * 
+   * @param instrumentCommand The command, non-{@code null}.
+   * 
+   * @return Whether the command may be processed as part of a batch of commands.
+   * 
+   */
+  protected boolean isBatchableCommand (final InstrumentCommand instrumentCommand)
+  {
+    return false;
+  }
+  
+  private volatile Thread commandBatchThread = null;
+  
+  /** Returns whether the current thread is processing a batch of commands.
+   * 
+   * @return Whether the current thread is processing a batch of commands.
+   * 
+   * @see #isBatchableCommand
+   * 
+   */
+  protected final boolean isProcessingCommandBatch ()
+  {
+    return this.commandBatchThread == Thread.currentThread ();
+  }
+  
+  /** Starts processing a batch of commands.
+   * 
+   * <p>
+   * Invoked (only) from the command processor before processing the commands in a batch,
+   * with {@link #isProcessingCommandBatch} returning {@code true}.
+   * The default implementation does nothing.
+   * Sub-classes overriding this method must invoke the super method.
+   * 
+   * @throws IOException          If an I/O Exception was encountered.
+   * @throws InterruptedException If interrupted.
+   * @throws TimeoutException     If a timeout occurred.
+   * 
+   */
+  protected void beginCommandBatch ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+  }
+  
+  /** Ends processing a batch of commands.
+   * 
+   * <p>
+   * Invoked (only) from the command processor after processing the commands in a batch,
+   * or after one of them failed;
+   * {@link #isProcessingCommandBatch} still returns {@code true}.
+   * The default implementation does nothing.
+   * Sub-classes overriding this method must invoke the super method.
+   * 
+   * @param commit Whether all commands in the batch were processed successfully;
+   *                 if {@code false}, implementations must discard any pending work, and should not throw exceptions.
+   * 
+   * @throws IOException          If an I/O Exception was encountered.
+   * @throws InterruptedException If interrupted.
+   * @throws TimeoutException     If a timeout occurred.
+   * 
+   */
+  protected void endCommandBatch (final boolean commit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+  }
+  
+  private void processCommandBatchAndReleasePotentialWaiters (final List<InstrumentCommand> instrumentCommands)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    try
+    {
+      for (final InstrumentCommand instrumentCommand : instrumentCommands)
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, null);
+      this.commandBatchThread = Thread.currentThread ();
+      try
+      {
+        beginCommandBatch ();
+        boolean success = false;
+        try
+        {
+          for (final InstrumentCommand instrumentCommand : instrumentCommands)
+            processCommand (instrumentCommand);
+          success = true;
+        }
+        finally
+        {
+          endCommandBatch (success);
+        }
+      }
+      finally
+      {
+        this.commandBatchThread = null;
+      }
+      for (final InstrumentCommand instrumentCommand : instrumentCommands)
+      {
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_STATUS_KEY, Boolean.TRUE);
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_EXCEPTION_KEY, null);
+      }
+      // Successful commands are likely to have changed settings, status and/or readings.
+      for (final InstrumentCommand instrumentCommand : instrumentCommands)
+        if (isCollectorBoostingCommand (instrumentCommand))
+        {
+          adaptCollectorsToProcessedCommand ();
+          break;
+        }
+    }
+    catch (Exception e)
+    {
+      // We cannot tell which command(s) in the batch actually failed; we fail them all.
+      for (final InstrumentCommand instrumentCommand : instrumentCommands)
+      {
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_STATUS_KEY, Boolean.FALSE);
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, null);
+        instrumentCommand.put (InstrumentCommand.IC_RETURN_EXCEPTION_KEY, e);
+      }
+      throw (e);
+    }
+    finally
+    {
+      for (final InstrumentCommand instrumentCommand : instrumentCommands)
+        if (instrumentCommand.containsKey (InstrumentCommand.IC_COMPLETION_SEMAPHORE_KEY))
+          ((Semaphore) instrumentCommand.get (InstrumentCommand.IC_COMPLETION_SEMAPHORE_KEY)).release ();
+    }
+  }
+  
+  private void processCommandsAndReleasePotentialWaiters (final List<InstrumentCommand> instrumentCommands)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    if (instrumentCommands.size () == 1)
+      processCommandAndReleasePotentialWaiter (instrumentCommands.get (0));
+    else
+      processCommandBatchAndReleasePotentialWaiters (instrumentCommands);
+  }
+  
   private final Runnable instrumentCommandProcessor = RunnableInvoker.constantlyFromSupplierConsumerChain (
-    "Instrument Command Processor",                // name (for logging only)
-    this,                                          // host (for logging only)
-    this::takeCommand,                             // resultSupplier
-    this::processCommandAndReleasePotentialWaiter, // resultConsumer
-    (Set<Class<? extends Exception>>) null,        // mustIgnore
-    (Set<Class<? extends Exception>>) null,        // mustTerminate
-    false,                                         // defaultTerminateUponException
-    b -> { if (b) error (); },                     // terminateListener; arg: due to abnormal condition (true) or interrupt (false)
-    Level.INFO,                                    // startTerminateLogLevel
-    Level.WARNING);                                // runnableExceptionLogLevel
+    "Instrument Command Processor",                   // name (for logging only)
+    this,                                             // host (for logging only)
+    this::takeCommands,                               // resultSupplier
+    this::processCommandsAndReleasePotentialWaiters,  // resultConsumer
+    (Set<Class<? extends Exception>>) null,           // mustIgnore
+    (Set<Class<? extends Exception>>) null,           // mustTerminate
+    false,                                            // defaultTerminateUponException
+    b -> { if (b) error (); },                        // terminateListener; arg: due to abnormal condition (true) or interrupt (false)
+    Level.INFO,                                       // startTerminateLogLevel
+    Level.WARNING);                                   // runnableExceptionLogLevel
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -848,13 +1550,21 @@ implements Instrument
   protected abstract void requestReadingFromInstrumentASync ()
     throws IOException;
   
+  private final AdaptivePollingSchedule readingCollectorSchedule = new AdaptivePollingSchedule (this::getReadingCollectorPeriod_s);
+  
+  private InstrumentReading getReadingFromInstrumentSyncIfDue ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    return isCollectorDue (this.readingCollectorSchedule) ? getReadingFromInstrumentSync () : null;
+  }
+  
   private final Runnable instrumentReadingCollector = RunnableInvoker.periodicallyFromSupplierConsumerChain (
     "Instrument Reading Collector",
     this,
-    this::getReadingCollectorPeriod_s,
+    () -> getCollectorTick_s (this.readingCollectorSchedule),
     true,
     RunnableInvoker.OverloadPolicy.IGNORE_AND_DROP,
-    this::getReadingFromInstrumentSync,
+    this::getReadingFromInstrumentSyncIfDue,
     this::readingReadFromInstrument,
     new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class, IOException.class)),
     new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (UnsupportedOperationException.class)),
@@ -898,7 +1608,35 @@ implements Instrument
       readingCollectorPeriod_s);
   }
   
-  private final BlockingQueue<InstrumentReading> readingReadQueue = new LinkedBlockingQueue<> ();
+  /** The default capacity (1024) of the queue of instrument readings awaiting dispatch.
+   * 
+   */
+  public final static int DEFAULT_READING_QUEUE_CAPACITY = 1024;
+  
+  /** The default overflow policy (drop oldest) of the queue of instrument readings awaiting dispatch.
+   * 
+   * <p>
+   * Note that blocking is not an option with the shared threading models,
+   * since readings may be produced from the (serial) dispatcher executor itself.
+   * 
+   * @see #getThreadingModel
+   * 
+   */
+  public final static BoundedEventQueue.OverflowPolicy DEFAULT_READING_QUEUE_OVERFLOW_POLICY =
+    BoundedEventQueue.OverflowPolicy.DROP_OLDEST;
+  
+  private final BoundedEventQueue<InstrumentReading> readingReadQueue =
+    new BoundedEventQueue<> (DEFAULT_READING_QUEUE_CAPACITY, DEFAULT_READING_QUEUE_OVERFLOW_POLICY);
+  
+  /** Returns the configuration and statistics of the queue of instrument readings awaiting dispatch.
+   * 
+   * @return The configuration and statistics of the reading queue.
+   * 
+   */
+  public final BoundedEventQueueControl getReadingQueueControl ()
+  {
+    return this.readingReadQueue;
+  }
   
   protected void readingReadFromInstrument (final InstrumentReading instrumentReading)
   {
@@ -906,6 +1644,8 @@ implements Instrument
       return;
     if (! this.readingReadQueue.offer (instrumentReading))
       LOG.log (Level.WARNING, "Overflow on Instrument Reading Queue on {0}.", this);
+    else if (this.sharedSubServicesActive)
+      this.sharedDispatcherExecutor.execute (this::dispatchReadings);
   }
   
   private InstrumentReading takeReading ()
@@ -914,8 +1654,13 @@ implements Instrument
     return this.readingReadQueue.take ();
   }
   
+  // Only accessed from the reading dispatcher.
+  private final ReadingChangeDetector readingChangeDetector = new ReadingChangeDetector ();
+  
   private void processReading (final InstrumentReading instrumentReading)
   {
+    AbstractInstrument.adaptCollector (this.readingCollectorSchedule,
+      this.readingChangeDetector.isChanged (instrumentReading.getReadingValue ()));
     fireInstrumentReading (instrumentReading);
   }
   
@@ -989,6 +1734,303 @@ implements Instrument
       housekeeperPeriod_s);
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // THREADING MODEL
+  // SHARED SUB-SERVICES
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  private final InstrumentThreadingModel threadingModel = InstrumentExecutors.getDefaultThreadingModel ();
+  
+  /** Returns the threading model of this instrument.
+   * 
+   * <p>
+   * The threading model is taken from {@link InstrumentExecutors#getDefaultThreadingModel} upon construction,
+   * and cannot be changed afterwards.
+   * 
+   * <p>
+   * With {@link InstrumentThreadingModel#DEDICATED_THREADS},
+   * each sub-service (collector, dispatcher, command processor, housekeeper) runs in its own thread.
+   * Otherwise, the periodic collectors and the housekeeper are triggered from the shared scheduler,
+   * and run on the shared worker executor,
+   * whereas the dispatchers run on the (separate) shared dispatcher executor in (serial) order for this instrument.
+   * A single thread (the agent) remains for the command processor, or for holding the shared sub-services if
+   * there is no command processor.
+   * 
+   * @return The threading model of this instrument, non-{@code null}.
+   * 
+   * @see InstrumentExecutors#getScheduler
+   * @see InstrumentExecutors#getWorkerExecutor
+   * @see InstrumentExecutors#getDispatcherExecutor
+   * 
+   */
+  public final InstrumentThreadingModel getThreadingModel ()
+  {
+    return this.threadingModel;
+  }
+  
+  private final Executor sharedDispatcherExecutor =
+    this.threadingModel != InstrumentThreadingModel.DEDICATED_THREADS
+      ? InstrumentExecutors.newSerialExecutor (InstrumentExecutors.getDispatcherExecutor (this.threadingModel))
+      : null;
+  
+  /** Returns the (serial) dispatcher executor of this instrument.
+   * 
+   * <p>
+   * Tasks on the executor are run one at a time, in submission order, on the shared dispatcher executor,
+   * together with the status, settings and reading dispatchers of this instrument.
+   * 
+   * @return The dispatcher executor, or {@code null} with {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+   * 
+   * @see #isSharedSubServicesActive
+   * 
+   */
+  protected final Executor getSharedDispatcherExecutor ()
+  {
+    return this.sharedDispatcherExecutor;
+  }
+  
+  private final boolean sharedStatusCollector;
+  
+  private final boolean sharedSettingsCollector;
+  
+  private final boolean sharedCommandProcessor;
+  
+  private final boolean sharedReadingCollector;
+  
+  private final boolean sharedHousekeeper;
+  
+  private volatile boolean sharedSubServicesActive = false;
+  
+  /** Returns whether the shared sub-services of this instrument are active.
+   * 
+   * <p>
+   * Always {@code false} with {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+   * 
+   * @return Whether the shared sub-services of this instrument are active.
+   * 
+   */
+  protected final boolean isSharedSubServicesActive ()
+  {
+    return this.sharedSubServicesActive;
+  }
+  
+  // Only accessed from the agent.
+  private final List<InstrumentExecutors.PeriodicTask> sharedPeriodicTasks = new ArrayList<> ();
+  
+  @FunctionalInterface
+  private interface SharedCollector
+  {
+    void collect () throws IOException, InterruptedException, TimeoutException;
+  }
+  
+  private static boolean isInstanceOfAny (final Exception e, final Set<Class<? extends Exception>> classes)
+  {
+    if (classes != null)
+      for (final Class<? extends Exception> c : classes)
+        if (c.isInstance (e))
+          return true;
+    return false;
+  }
+  
+  // Mimics the exception handling of the (dedicated) periodic RunnableInvokers.
+  private boolean runSharedCollector (
+    final String name,
+    final SharedCollector collector,
+    final Set<Class<? extends Exception>> mustIgnore,
+    final Set<Class<? extends Exception>> mustTerminate,
+    final boolean defaultTerminateUponException)
+  {
+    if (! this.sharedSubServicesActive)
+      return false;
+    try
+    {
+      collector.collect ();
+      return true;
+    }
+    catch (InterruptedException ie)
+    {
+      LOG.log (Level.INFO, "Terminating (by interrupt) {0} on {1}.", new Object[]{name, this});
+      return false;
+    }
+    catch (Exception e)
+    {
+      if (AbstractInstrument.isInstanceOfAny (e, mustIgnore)
+        || ! (AbstractInstrument.isInstanceOfAny (e, mustTerminate) || defaultTerminateUponException))
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in {0} on {1}: {2}.", new Object[]{name, this, e});
+        return true;
+      }
+      LOG.log (Level.WARNING, "Terminating {0} on {1} due to exception: {2}.", new Object[]{name, this, e});
+      error ();
+      return false;
+    }
+  }
+  
+  private void schedulePeriodically (
+    final String name,
+    final DoubleSupplier period_s,
+    final SharedCollector collector,
+    final Set<Class<? extends Exception>> mustIgnore,
+    final Set<Class<? extends Exception>> mustTerminate,
+    final boolean defaultTerminateUponException)
+  {
+    this.sharedPeriodicTasks.add (InstrumentExecutors.schedulePeriodically (
+      period_s,
+      InstrumentExecutors.getWorkerExecutor (this.threadingModel),
+      () -> runSharedCollector (name, collector, mustIgnore, mustTerminate, defaultTerminateUponException)));
+  }
+  
+  private void dispatchStatuses ()
+  {
+    InstrumentStatus instrumentStatus;
+    while (this.sharedSubServicesActive && (instrumentStatus = this.statusReadQueue.poll ()) != null)
+      try
+      {
+        processStatus (instrumentStatus);
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in Instrument Status Dispatcher on {0}: {1}.", new Object[]{this, e});
+      }
+  }
+  
+  private void dispatchSettings ()
+  {
+    InstrumentSettings instrumentSettings;
+    while (this.sharedSubServicesActive && (instrumentSettings = this.settingsReadQueue.poll ()) != null)
+      try
+      {
+        processSettings (instrumentSettings);
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in Instrument Settings Dispatcher on {0}: {1}.", new Object[]{this, e});
+      }
+  }
+  
+  private void dispatchReadings ()
+  {
+    InstrumentReading instrumentReading;
+    while (this.sharedSubServicesActive && (instrumentReading = this.readingReadQueue.poll ()) != null)
+      try
+      {
+        processReading (instrumentReading);
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in Instrument Reading Dispatcher on {0}: {1}.", new Object[]{this, e});
+      }
+  }
+  
+  /** Starts the shared sub-services of this instrument.
+   * 
+   * <p>
+   * Only invoked (from the agent thread) if the threading model is not {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+   * Sub-classes overriding this method must call the super method first.
+   * 
+   * @see #getThreadingModel
+   * @see #stopSharedSubServices
+   * 
+   */
+  protected void startSharedSubServices ()
+  {
+    this.sharedSubServicesActive = true;
+    // Dispatch whatever was queued while inactive.
+    this.sharedDispatcherExecutor.execute (this::dispatchStatuses);
+    this.sharedDispatcherExecutor.execute (this::dispatchSettings);
+    this.sharedDispatcherExecutor.execute (this::dispatchReadings);
+    if (this.sharedStatusCollector)
+      schedulePeriodically (
+        "Instrument Status Collector",
+        () -> getCollectorTick_s (this.statusCollectorSchedule),
+        () ->
+        {
+          final InstrumentStatus instrumentStatus = getStatusFromInstrumentSyncIfDue ();
+          if (instrumentStatus != null)
+            statusReadFromInstrument (instrumentStatus);
+        },
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class)),
+        null,
+        true);
+    if (this.sharedSettingsCollector)
+      schedulePeriodically (
+        "Instrument Settings Collector",
+        () -> getCollectorTick_s (this.settingsCollectorSchedule),
+        () ->
+        {
+          final InstrumentSettings instrumentSettings = getSettingsFromInstrumentSyncIfDue ();
+          if (instrumentSettings != null)
+            settingsReadFromInstrument (instrumentSettings);
+        },
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class, IOException.class)),
+        null,
+        true);
+    if (this.sharedReadingCollector)
+      schedulePeriodically (
+        "Instrument Reading Collector",
+        () -> getCollectorTick_s (this.readingCollectorSchedule),
+        () -> readingReadFromInstrument (getReadingFromInstrumentSyncIfDue ()),
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class, IOException.class)),
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (UnsupportedOperationException.class)),
+        false);
+    if (this.sharedHousekeeper)
+      schedulePeriodically (
+        "Instrument Housekeeper",
+        this::getHousekeeperPeriod_s,
+        this::instrumentHousekeeping,
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (TimeoutException.class, IOException.class)),
+        new LinkedHashSet<> (Arrays.<Class<? extends Exception>>asList (UnsupportedOperationException.class)),
+        false);
+  }
+  
+  /** Stops the shared sub-services of this instrument.
+   * 
+   * <p>
+   * Executions in progress are not interrupted, but periodic sub-services are not executed anymore,
+   * and results queued are kept for dispatching until the shared sub-services are started again.
+   * Sub-classes overriding this method must call the super method (last).
+   * 
+   * @see #startSharedSubServices
+   * 
+   */
+  protected void stopSharedSubServices ()
+  {
+    this.sharedSubServicesActive = false;
+    for (final InstrumentExecutors.PeriodicTask periodicTask : this.sharedPeriodicTasks)
+      periodicTask.cancel ();
+    this.sharedPeriodicTasks.clear ();
+  }
+  
+  private final Runnable instrumentSharedSubServicesAgent = () ->
+  {
+    LOG.log (Level.INFO, "Starting Instrument Shared Sub-Services Agent ({0}) on {1}.",
+      new Object[]{AbstractInstrument.this.threadingModel, AbstractInstrument.this});
+    AbstractInstrument.this.startSharedSubServices ();
+    try
+    {
+      if (AbstractInstrument.this.sharedCommandProcessor)
+        // Returns upon interruption or abnormal termination.
+        AbstractInstrument.this.instrumentCommandProcessor.run ();
+      else
+        synchronized (AbstractInstrument.this.sharedPeriodicTasks)
+        {
+          while (! Thread.currentThread ().isInterrupted ())
+            AbstractInstrument.this.sharedPeriodicTasks.wait ();
+        }
+    }
+    catch (InterruptedException ie)
+    {
+      // EMPTY
+    }
+    finally
+    {
+      AbstractInstrument.this.stopSharedSubServices ();
+    }
+    LOG.log (Level.INFO, "Terminating (by request) Instrument Shared Sub-Services Agent on {0}.", AbstractInstrument.this);
+  };
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // END OF FILE
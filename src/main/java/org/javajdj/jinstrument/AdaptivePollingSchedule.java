@@ -0,0 +1,165 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.util.function.DoubleSupplier;
+
+/** An adaptive polling schedule for a periodic collector in {@link AbstractInstrument}.
+ *
+ * <p>
+ * The effective polling interval is the (configured) base period, multiplied by a factor
+ * between {@link #MINIMUM_FACTOR} and {@link #MAXIMUM_FACTOR}, and by a throttle factor supplied on each check.
+ * The factor drops to its minimum upon a detected change in the collected results
+ * and after the instrument processed a command,
+ * and doubles (up to its maximum) for each unchanged result.
+ *
+ * <p>
+ * The collector is supposed to tick at {@link #getTick_s} and poll the instrument only if {@link #isDue} returns {@code true}.
+ * The base period is re-evaluated on each invocation.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+final class AdaptivePollingSchedule
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  AdaptivePollingSchedule (final DoubleSupplier basePeriod_s)
+  {
+    if (basePeriod_s == null)
+      throw new IllegalArgumentException ();
+    this.basePeriod_s = basePeriod_s;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // BASE PERIOD / FACTOR / TICK
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The minimum factor (0.25) applied to the base period.
+   *
+   */
+  public final static double MINIMUM_FACTOR = 0.25;
+
+  /** The maximum factor (8) applied to the base period.
+   *
+   */
+  public final static double MAXIMUM_FACTOR = 8;
+
+  private final DoubleSupplier basePeriod_s;
+
+  // Guarded by the lock on this.
+  private double factor = 1;
+
+  // Guarded by the lock on this.
+  private boolean polled = false;
+
+  // Guarded by the lock on this.
+  private long lastPollTime_ns;
+
+  /** Returns the current factor applied to the base period.
+   *
+   * @return The current factor, between {@link #MINIMUM_FACTOR} and {@link #MAXIMUM_FACTOR} inclusive.
+   *
+   */
+  final synchronized double getFactor ()
+  {
+    return this.factor;
+  }
+
+  final double getBasePeriod_s ()
+  {
+    return this.basePeriod_s.getAsDouble ();
+  }
+
+  /** Returns the tick period, i.e., the base period multiplied with the minimum factor.
+   *
+   * @return The tick period in seconds.
+   *
+   */
+  final double getTick_s ()
+  {
+    return getBasePeriod_s () * AdaptivePollingSchedule.MINIMUM_FACTOR;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DUE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Checks whether a poll is due, and if so, marks the poll.
+   *
+   * <p>
+   * To compensate for jitter in the ticks, a poll is considered due half a tick before the actual interval expires.
+   *
+   * @param throttle The throttle factor, at least unity.
+   *
+   * @return Whether a poll is due.
+   *
+   */
+  final synchronized boolean isDue (final double throttle)
+  {
+    final long now_ns = System.nanoTime ();
+    final double basePeriod_s = getBasePeriod_s ();
+    if (this.polled)
+    {
+      final double interval_s = basePeriod_s * this.factor * Math.max (1, throttle)
+        - 0.5 * basePeriod_s * AdaptivePollingSchedule.MINIMUM_FACTOR;
+      if (now_ns - this.lastPollTime_ns < (long) (interval_s * 1.0e9))
+        return false;
+    }
+    this.polled = true;
+    this.lastPollTime_ns = now_ns;
+    return true;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // ADAPTATION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Reports a change in the collected result, or a command processed by the instrument; polls at the minimum interval.
+   *
+   */
+  final synchronized void boost ()
+  {
+    this.factor = AdaptivePollingSchedule.MINIMUM_FACTOR;
+  }
+
+  /** Reports an unchanged result; doubles the polling interval (up to its maximum).
+   *
+   */
+  final synchronized void backOff ()
+  {
+    this.factor = Math.min (2 * this.factor, AdaptivePollingSchedule.MAXIMUM_FACTOR);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
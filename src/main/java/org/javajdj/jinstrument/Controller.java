@@ -39,6 +39,16 @@ public interface Controller
   
   void addCommand (ControllerCommand controllerCommand);
   
+  /** Returns the number of commands queued at the controller (excluding the command being processed, if any).
+   * 
+   * <p>
+   * The default implementation returns zero.
+   * 
+   * @return The number of commands queued at the controller.
+   * 
+   */
+  default int getCommandQueueSize () { return 0; }
+  
   default Service getLoggingService () { return null; }
 
 }
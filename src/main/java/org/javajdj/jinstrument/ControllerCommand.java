@@ -19,6 +19,7 @@ package org.javajdj.jinstrument;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /** A command for a {@link Controller}.
  * 
@@ -28,10 +29,22 @@ import java.util.Map;
  * their arguments.
  * 
  * <p>
+ * Implementations may store the values of well-known keys in (typed, even primitive) fields,
+ * and expose them through the {@code Map} interface as a compatibility view.
+ * Controllers should prefer the typed accessors, like {@link #getCommand} and {@link #getArriveAtControllerTime_ns},
+ * over the {@code Map} interface.
+ * 
+ * <p>
  * A controller command features a set of closely related methods dealing with the administration of the sojourn
  * of the command at a specific controller, and the applicable timeout values.
  * Implementations must store the related values under given keys.
  * 
+ * <p>
+ * In addition, each controller command carries its own completion future,
+ * which is completed by the controller once the command has been processed (successfully or not).
+ * Waiting for (or chaining on) the completion future is much cheaper than registering a {@link ControllerListener}
+ * for every command.
+ * 
  * @see Controller#addCommand
  *
  * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
@@ -60,15 +73,54 @@ public interface ControllerCommand
   public final static String CCADMIN_CONTROLLER_PROCESSING_TIMEOUT = "controllerAdminProcessingTimeout";
   public final static String CCADMIN_CONTROLLER_SOJOURN_TIMEOUT = "controllerAdminSojournTimeout";
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COMMAND / RETURN VALUE / RETURN EXCEPTION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the command {@code String}, i.e., the value stored under {@link #CC_COMMAND_KEY}.
+   * 
+   * @return The command {@code String}.
+   * 
+   */
+  String getCommand ();
+  
+  /** Returns the value stored under {@link #CCRET_VALUE_KEY}.
+   * 
+   * @return The return value of the command, {@code null} if not set.
+   * 
+   */
+  Object getReturnValue ();
+  
+  /** Returns the value stored under {@link #CCRET_EXCEPTION_KEY}.
+   * 
+   * @return The exception noted on the command, {@code null} if not set.
+   * 
+   */
+  Exception getReturnException ();
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // CONTROLLER COMMAND SOJOURN ADMINISTRATION
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   
+  /** Value returned by the primitive time getters if the corresponding time or timeout has not been set.
+   * 
+   */
+  public final static long NO_TIME = Long.MIN_VALUE;
+  
   void resetCommandSojournAdministration ();
   
   Instant getArriveAtControllerTime ();
+  
+  /** Returns the arrival time at the controller in the time base of {@link System#nanoTime}.
+   * 
+   * @return The arrival time, {@link #NO_TIME} if not set.
+   * 
+   */
+  long getArriveAtControllerTime_ns ();
 
   void markArrivalAtController (Controller controller);
   
@@ -82,16 +134,92 @@ public interface ControllerCommand
   
   Duration getQueueingTimeout ();
   
+  /** Returns the queueing timeout in nanoseconds.
+   * 
+   * @return The queueing timeout in nanoseconds, {@link #NO_TIME} if not set.
+   * 
+   */
+  long getQueueingTimeout_ns ();
+  
   void setQueueingTimeout (Duration queueingTimeout);
   
   Duration getProcessingTimeout ();
   
+  /** Returns the processing timeout in nanoseconds.
+   * 
+   * @return The processing timeout in nanoseconds, {@link #NO_TIME} if not set.
+   * 
+   */
+  long getProcessingTimeout_ns ();
+  
   void setProcessingTimeout (Duration processingTimeout);
   
   Duration getSojournTimeout ();
   
+  /** Returns the sojourn timeout in nanoseconds.
+   * 
+   * @return The sojourn timeout in nanoseconds, {@link #NO_TIME} if not set.
+   * 
+   */
+  long getSojournTimeout_ns ();
+  
   void setSojournTimeout (Duration sojournTimeout);
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONTROLLER COMMAND COMPLETION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the completion future of this command.
+   * 
+   * <p>
+   * The future is completed with this command itself,
+   * or exceptionally with the exception stored under {@link #CCRET_EXCEPTION_KEY}, if present.
+   * Note that dependent stages that are not {@code async} execute on the thread of the controller
+   * that completes the future; they must not block.
+   * 
+   * @return The completion future, non-{@code null}.
+   * 
+   * @see #markCompletedAtController
+   * 
+   */
+  CompletableFuture<ControllerCommand> getCompletionFuture ();
+  
+  /** Completes the completion future of this command.
+   * 
+   * <p>
+   * To be invoked by the controller exactly once per processing of the command,
+   * after the command has departed from the controller.
+   * 
+   * @param controller The controller.
+   * 
+   * @see #getCompletionFuture
+   * 
+   */
+  void markCompletedAtController (Controller controller);
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // POOLING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Releases a reference to this command.
+   * 
+   * <p>
+   * A pooled command is handed out with two references:
+   * one for the issuer, released after it has extracted the results,
+   * and one for the controller, released after the command has been dispatched to the controller listeners.
+   * Upon the last release, the command returns to its pool.
+   * For commands that are not pooled, this method has no effect.
+   * 
+   * <p>
+   * Listeners must not retain references to (pooled) commands beyond their notification.
+   * 
+   */
+  void release ();
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // END OF FILE
@@ -0,0 +1,567 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/** The (thread-safe) command queue of an {@link AbstractController}.
+ *
+ * <p>
+ * The queue supports multiple producers and a single consumer (the command processor),
+ * and its {@link ControllerCommandQueueDiscipline} can be changed at any time;
+ * queued commands are then re-ordered according to the new discipline.
+ * 
+ * <p>
+ * Commands must have arrived at the controller (see {@link ControllerCommand#markArrivalAtController})
+ * before being offered to the queue.
+ * The consumer must report the processing time of each command taken through {@link #charge}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+final class ControllerCommandQueue
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Creates the queue.
+   * 
+   * @param discipline The initial discipline, non-{@code null}.
+   * @param keyFunction The function mapping commands onto their class (for the round-robin disciplines), non-{@code null};
+   *                    the function may return {@code null} (for a default class),
+   *                    and must return the same value for a command for as long as it is queued or being processed.
+   * 
+   * @throws IllegalArgumentException If an argument is {@code null}.
+   * 
+   */
+  ControllerCommandQueue (
+    final ControllerCommandQueueDiscipline discipline,
+    final Function<ControllerCommand, Object> keyFunction)
+  {
+    if (discipline == null || keyFunction == null)
+      throw new IllegalArgumentException ();
+    this.keyFunction = keyFunction;
+    this.discipline = discipline;
+    this.scheduler = createScheduler (discipline);
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOCK
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final ReentrantLock lock = new ReentrantLock ();
+  
+  private final Condition notEmpty = this.lock.newCondition ();
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DISCIPLINE / SCHEDULER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // Guarded by lock.
+  private ControllerCommandQueueDiscipline discipline;
+  
+  // Guarded by lock.
+  private Scheduler scheduler;
+  
+  // All methods are invoked with the lock held.
+  private interface Scheduler
+  {
+    void offer (ControllerCommand controllerCommand);
+    ControllerCommand peek ();
+    ControllerCommand poll ();
+    void charge (ControllerCommand controllerCommand, long processingTime_ns);
+    int size ();
+    List<ControllerCommand> drain ();
+  }
+  
+  private Scheduler createScheduler (final ControllerCommandQueueDiscipline discipline)
+  {
+    switch (discipline)
+    {
+      case FIFO:
+        return new QueueScheduler (new ArrayDeque<> ());
+      case EDF:
+        return new QueueScheduler (new PriorityQueue<> (ControllerCommandQueue.EDF_COMPARATOR));
+      case ROUND_ROBIN:
+        return new RoundRobinScheduler (false);
+      case DEFICIT_ROUND_ROBIN:
+        return new RoundRobinScheduler (true);
+      default:
+        throw new RuntimeException ();
+    }
+  }
+  
+  final ControllerCommandQueueDiscipline getDiscipline ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.discipline;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  final void setDiscipline (final ControllerCommandQueueDiscipline discipline)
+  {
+    if (discipline == null)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      if (discipline == this.discipline)
+        return;
+      final Scheduler newScheduler = createScheduler (discipline);
+      // Re-offer in arrival order.
+      final List<ControllerCommand> commands = this.scheduler.drain ();
+      commands.sort (Comparator.comparingLong (ControllerCommand::getArriveAtControllerTime_ns));
+      for (final ControllerCommand controllerCommand : commands)
+        newScheduler.offer (controllerCommand);
+      this.scheduler = newScheduler;
+      this.discipline = discipline;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // FIFO / EDF
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Returns the deadline (in the time base of {@link System#nanoTime}) for starting given command.
+   * 
+   * <p>
+   * The deadline is the arrival time at the controller plus the smaller of the queueing and sojourn timeouts.
+   * 
+   * @param controllerCommand The command, non-{@code null}.
+   * 
+   * @return The deadline, {@link Long#MAX_VALUE} if the command has neither a queueing nor a sojourn timeout.
+   * 
+   */
+  static long getDeadline_ns (final ControllerCommand controllerCommand)
+  {
+    final long queueingTimeout_ns = controllerCommand.getQueueingTimeout_ns ();
+    final long sojournTimeout_ns = controllerCommand.getSojournTimeout_ns ();
+    final long timeout_ns;
+    if (queueingTimeout_ns == ControllerCommand.NO_TIME && sojournTimeout_ns == ControllerCommand.NO_TIME)
+      return Long.MAX_VALUE;
+    else if (queueingTimeout_ns == ControllerCommand.NO_TIME)
+      timeout_ns = sojournTimeout_ns;
+    else if (sojournTimeout_ns == ControllerCommand.NO_TIME)
+      timeout_ns = queueingTimeout_ns;
+    else
+      timeout_ns = Math.min (queueingTimeout_ns, sojournTimeout_ns);
+    return controllerCommand.getArriveAtControllerTime_ns () + timeout_ns;
+  }
+  
+  // Arrival times break ties, so commands with equal (or without) deadlines are served in FIFO order.
+  // Both keys are fixed once a command has arrived at the controller.
+  private final static Comparator<ControllerCommand> EDF_COMPARATOR = (cc1, cc2) ->
+  {
+    final int deadlineComparison = Long.compare (getDeadline_ns (cc1), getDeadline_ns (cc2));
+    if (deadlineComparison != 0)
+      return deadlineComparison;
+    return Long.compare (cc1.getArriveAtControllerTime_ns (), cc2.getArriveAtControllerTime_ns ());
+  };
+  
+  private final static class QueueScheduler
+    implements Scheduler
+  {
+    
+    private final Queue<ControllerCommand> queue;
+    
+    private QueueScheduler (final Queue<ControllerCommand> queue)
+    {
+      this.queue = queue;
+    }
+    
+    @Override
+    public final void offer (final ControllerCommand controllerCommand)
+    {
+      this.queue.add (controllerCommand);
+    }
+
+    @Override
+    public final ControllerCommand peek ()
+    {
+      return this.queue.peek ();
+    }
+
+    @Override
+    public final ControllerCommand poll ()
+    {
+      return this.queue.poll ();
+    }
+
+    @Override
+    public final void charge (final ControllerCommand controllerCommand, final long processingTime_ns)
+    {
+    }
+
+    @Override
+    public final int size ()
+    {
+      return this.queue.size ();
+    }
+
+    @Override
+    public final List<ControllerCommand> drain ()
+    {
+      final List<ControllerCommand> commands = new ArrayList<> (this.queue);
+      this.queue.clear ();
+      return commands;
+    }
+    
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // ROUND ROBIN / DEFICIT ROUND ROBIN
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The quantum of processing time (10 ms) per unit of weight per round for {@link ControllerCommandQueueDiscipline#DEFICIT_ROUND_ROBIN}.
+   * 
+   */
+  final static long DRR_QUANTUM_NS = TimeUnit.MILLISECONDS.toNanos (10L);
+  
+  // Substitute for the null key.
+  private final static Object DEFAULT_KEY = new Object ();
+  
+  private final Function<ControllerCommand, Object> keyFunction;
+  
+  private Object getKey (final ControllerCommand controllerCommand)
+  {
+    final Object key = this.keyFunction.apply (controllerCommand);
+    return key != null ? key : ControllerCommandQueue.DEFAULT_KEY;
+  }
+  
+  // Guarded by lock; survives changes in discipline.
+  private final Map<Object, Integer> weights = new HashMap<> ();
+  
+  final void setWeight (final Object key, final int weight)
+  {
+    if (weight <= 0)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      if (weight == 1)
+        this.weights.remove (key != null ? key : ControllerCommandQueue.DEFAULT_KEY);
+      else
+        this.weights.put (key != null ? key : ControllerCommandQueue.DEFAULT_KEY, weight);
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  final int getWeight (final Object key)
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.weights.getOrDefault (key != null ? key : ControllerCommandQueue.DEFAULT_KEY, 1);
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  private final class RoundRobinScheduler
+    implements Scheduler
+  {
+    
+    private RoundRobinScheduler (final boolean deficit)
+    {
+      this.deficit = deficit;
+    }
+    
+    private final boolean deficit;
+    
+    // The per-class FIFO queues; only non-empty queues are present.
+    private final Map<Object, ArrayDeque<ControllerCommand>> queues = new HashMap<> ();
+    
+    // The round-robin order of the classes with non-empty queues; the class being served is at the head.
+    private final ArrayDeque<Object> activeKeys = new ArrayDeque<> ();
+    
+    // The deficit counters (DRR); only for active classes (and the class of the command being processed).
+    private final Map<Object, Long> deficits = new HashMap<> ();
+    
+    // The class at the head of activeKeys that already received its quantum for the current visit (DRR), if any.
+    private Object visitedKey = null;
+    
+    private int size = 0;
+    
+    @Override
+    public final void offer (final ControllerCommand controllerCommand)
+    {
+      final Object key = getKey (controllerCommand);
+      ArrayDeque<ControllerCommand> queue = this.queues.get (key);
+      if (queue == null)
+      {
+        queue = new ArrayDeque<> ();
+        this.queues.put (key, queue);
+        this.activeKeys.addLast (key);
+      }
+      queue.addLast (controllerCommand);
+      this.size++;
+    }
+
+    // Rotates the active classes until the head class may be served; returns that class.
+    private Object selectKey ()
+    {
+      if (! this.deficit)
+        return this.activeKeys.peekFirst ();
+      while (true)
+      {
+        final Object key = this.activeKeys.peekFirst ();
+        if (key == null)
+          return null;
+        if (key != this.visitedKey)
+        {
+          final long quantum_ns = ControllerCommandQueue.DRR_QUANTUM_NS * ControllerCommandQueue.this.weights.getOrDefault (key, 1);
+          this.deficits.merge (key, quantum_ns, Long::sum);
+          this.visitedKey = key;
+        }
+        if (this.deficits.get (key) > 0)
+          return key;
+        // Still in debt from previous rounds; end the visit.
+        this.activeKeys.addLast (this.activeKeys.pollFirst ());
+        this.visitedKey = null;
+      }
+    }
+    
+    @Override
+    public final ControllerCommand peek ()
+    {
+      final Object key = selectKey ();
+      return key != null ? this.queues.get (key).peekFirst () : null;
+    }
+
+    @Override
+    public final ControllerCommand poll ()
+    {
+      final Object key = selectKey ();
+      if (key == null)
+        return null;
+      final ArrayDeque<ControllerCommand> queue = this.queues.get (key);
+      final ControllerCommand controllerCommand = queue.pollFirst ();
+      this.size--;
+      if (queue.isEmpty ())
+      {
+        // The class becomes inactive; with DRR, any remaining credit is forfeited (debts are kept until charged).
+        this.queues.remove (key);
+        this.activeKeys.pollFirst ();
+        this.visitedKey = null;
+        if (this.deficit && this.deficits.get (key) > 0)
+          this.deficits.put (key, 0L);
+      }
+      else if (! this.deficit)
+        this.activeKeys.addLast (this.activeKeys.pollFirst ());
+      return controllerCommand;
+    }
+
+    @Override
+    public final void charge (final ControllerCommand controllerCommand, final long processingTime_ns)
+    {
+      if (! this.deficit)
+        return;
+      final Object key = getKey (controllerCommand);
+      final long newDeficit = this.deficits.getOrDefault (key, 0L) - processingTime_ns;
+      if (this.queues.containsKey (key))
+      {
+        this.deficits.put (key, newDeficit);
+        if (newDeficit <= 0 && key == this.visitedKey)
+        {
+          // Quantum used up; end the visit.
+          this.activeKeys.remove (key);
+          this.activeKeys.addLast (key);
+          this.visitedKey = null;
+        }
+      }
+      else if (newDeficit < 0)
+        this.deficits.put (key, newDeficit);
+      else
+        this.deficits.remove (key);
+    }
+
+    @Override
+    public final int size ()
+    {
+      return this.size;
+    }
+
+    @Override
+    public final List<ControllerCommand> drain ()
+    {
+      final List<ControllerCommand> commands = new ArrayList<> (this.size);
+      for (final ArrayDeque<ControllerCommand> queue : this.queues.values ())
+        commands.addAll (queue);
+      this.queues.clear ();
+      this.activeKeys.clear ();
+      this.deficits.clear ();
+      this.visitedKey = null;
+      this.size = 0;
+      return commands;
+    }
+    
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // OFFER / TAKE / CHARGE / SIZE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  final boolean offer (final ControllerCommand controllerCommand)
+  {
+    if (controllerCommand == null)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      this.scheduler.offer (controllerCommand);
+      this.notEmpty.signal ();
+      return true;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  final ControllerCommand take ()
+    throws InterruptedException
+  {
+    this.lock.lockInterruptibly ();
+    try
+    {
+      while (this.scheduler.size () == 0)
+        this.notEmpty.await ();
+      return this.scheduler.poll ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  /** Charges the processing time of a command taken from this queue.
+   * 
+   * <p>
+   * Only effective for {@link ControllerCommandQueueDiscipline#DEFICIT_ROUND_ROBIN}.
+   * 
+   * @param controllerCommand The command, non-{@code null}.
+   * @param processingTime_ns The processing time in nanoseconds.
+   * 
+   */
+  final void charge (final ControllerCommand controllerCommand, final long processingTime_ns)
+  {
+    this.lock.lock ();
+    try
+    {
+      this.scheduler.charge (controllerCommand, processingTime_ns);
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  /** Removes and returns the next command if its deadline has passed, or is too close to be met.
+   * 
+   * <p>
+   * Only effective for {@link ControllerCommandQueueDiscipline#EDF};
+   * with that discipline, the next command has the earliest deadline of all commands in the queue.
+   * 
+   * @param now_ns    The current time, in the time base of {@link System#nanoTime}.
+   * @param margin_ns The (minimum) time needed to process a command, in nanoseconds.
+   * 
+   * @return The next command if its deadline is before {@code now_ns + margin_ns},
+   *         {@code null} otherwise (or if the queue is empty, or the discipline is not EDF).
+   * 
+   */
+  final ControllerCommand pollUnreachable (final long now_ns, final long margin_ns)
+  {
+    this.lock.lock ();
+    try
+    {
+      if (this.discipline != ControllerCommandQueueDiscipline.EDF)
+        return null;
+      final ControllerCommand head = this.scheduler.peek ();
+      if (head == null)
+        return null;
+      final long deadline_ns = getDeadline_ns (head);
+      if (deadline_ns == Long.MAX_VALUE || deadline_ns - now_ns > margin_ns)
+        return null;
+      return this.scheduler.poll ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  final int size ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.scheduler.size ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
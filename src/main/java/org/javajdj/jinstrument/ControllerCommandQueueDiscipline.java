@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+/** The scheduling discipline of the command queue of an {@link AbstractController}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public enum ControllerCommandQueueDiscipline
+{
+
+  /** First-in first-out (the default).
+   *
+   */
+  FIFO,
+  
+  /** Earliest-deadline first.
+   *
+   * <p>
+   * The deadline of a command is its arrival time at the controller plus the smaller of its queueing and sojourn timeouts;
+   * commands without either timeout are served (in FIFO order) after all commands with a deadline.
+   * 
+   */
+  EDF,
+  
+  /** Round-robin over the command classes (e.g., the devices on a GPIB bus), one command per class per round.
+   * 
+   * <p>
+   * Commands within a class are served in FIFO order.
+   * 
+   * @see AbstractController#getCommandQueueKey
+   * 
+   */
+  ROUND_ROBIN,
+  
+  /** Deficit round-robin over the command classes (e.g., the devices on a GPIB bus),
+   *  with the (measured) processing time of commands as their cost.
+   * 
+   * <p>
+   * In each round, a class receives a quantum of processing time proportional to its weight,
+   * and is served (in FIFO order) until it has used up its quantum (plus any credit left from previous rounds);
+   * overdrafts are carried over into the next round.
+   * Hence, in the long run, classes receive (at least) a share of the controller's processing time proportional
+   * to their weights, irrespective of the number or duration of their commands.
+   * 
+   * @see AbstractController#getCommandQueueKey
+   * @see AbstractController#setCommandQueueWeight
+   * 
+   */
+  DEFICIT_ROUND_ROBIN;
+  
+}
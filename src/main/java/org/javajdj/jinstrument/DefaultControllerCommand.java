@@ -18,19 +18,43 @@ package org.javajdj.jinstrument;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /** Default implementation of a {@link ControllerCommand}.
  * 
  * <p>
  * The main purpose of this class is to provide custom constructors with (some) additional error checking.
+ * 
+ * <p>
+ * The command, its return value, status and exception, and its sojourn administration
+ * are held in (typed, primitive where possible) fields;
+ * all other arguments are held in a (lazily created) {@link LinkedHashMap}.
+ * The {@link Map} interface is a view on both;
+ * its {@link #entrySet} is an unmodifiable snapshot.
+ * Arrival, start and departure times are taken from {@link System#nanoTime},
+ * and only converted into {@link Instant}s when accessed as such.
+ * 
+ * <p>
+ * Subclasses may store additional well-known arguments in fields by overriding
+ * {@link #isTypedField}, {@link #getTypedField}, {@link #setTypedField}, {@link #addTypedFields}
+ * and {@link #clearTypedFields}.
+ * 
+ * <p>
+ * Instances may be pooled, see {@link #setRecycler} and {@link #release}.
  *
  * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
  * 
  */
 public class DefaultControllerCommand
-  extends LinkedHashMap<String, Object>
+  extends AbstractMap<String, Object>
   implements ControllerCommand
 {
 
@@ -56,6 +80,55 @@ public class DefaultControllerCommand
     final String arg4, final Object val4)
   {
     super ();
+    initialize (command, arg1, val1, arg2, val2, arg3, val3, arg4, val4);
+  }
+  
+  public DefaultControllerCommand (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2,
+    final String arg3, final Object val3)
+  {
+    this (command, arg1, val1, arg2, val2, arg3, val3, null, null);
+  }
+  
+  public DefaultControllerCommand (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2)
+  {
+    this (command, arg1, val1, arg2, val2, null, null, null, null);
+  }
+  
+  public DefaultControllerCommand (
+    final String command,
+    final String arg1, final Object val1)
+  {
+    this (command, arg1, val1, null, null, null, null, null, null);
+  }
+  
+  public DefaultControllerCommand (final String command)
+  {
+    this (command, null, null, null, null, null, null, null, null);
+  }
+
+  /** (Re-)initializes this command with given command and arguments.
+   * 
+   * <p>
+   * All previous arguments, return values and sojourn administration are cleared.
+   * Used from the constructors, and upon recycling pooled commands.
+   * 
+   * @throws IllegalArgumentException If the command is {@code null} or empty,
+   *                                  or if any of the argument names is empty.
+   * 
+   */
+  protected final void initialize (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2,
+    final String arg3, final Object val3,
+    final String arg4, final Object val4)
+  {
     if (command == null || command.trim ().isEmpty ())
       throw new IllegalArgumentException ();
     if (arg1 != null && arg1.trim ().isEmpty ())
@@ -66,6 +139,8 @@ public class DefaultControllerCommand
       throw new IllegalArgumentException ();
     if (arg4 != null && arg4.trim ().isEmpty ())
       throw new IllegalArgumentException ();
+    clear ();
+    resetCommandSojournAdministration ();
     put (ControllerCommand.CC_COMMAND_KEY, command);
     if (arg1 != null)
       put (arg1, val1);
@@ -77,47 +152,368 @@ public class DefaultControllerCommand
       put (arg4, val4);
   }
   
-  public DefaultControllerCommand (
-    final String command,
-    final String arg1, final Object val1,
-    final String arg2, final Object val2,
-    final String arg3, final Object val3)
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TYPED FIELDS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Marker value for typed fields that are not set (as opposed to being set to {@code null}).
+   * 
+   */
+  protected final static Object ABSENT = new Object ();
+  
+  private String command = null;
+  
+  private Object returnValue = DefaultControllerCommand.ABSENT;
+  
+  private Object returnStatus = DefaultControllerCommand.ABSENT;
+  
+  private Object returnException = DefaultControllerCommand.ABSENT;
+  
+  /** Returns whether the value for given key is held in a (typed) field.
+   * 
+   * <p>
+   * Subclasses overriding this method (and {@link #getTypedField}, {@link #setTypedField}, {@link #addTypedFields}
+   * and {@link #clearTypedFields}) must invoke the super method for keys they do not hold themselves.
+   * 
+   * @param key The key, non-{@code null}.
+   * 
+   * @return Whether the value for given key is held in a field.
+   * 
+   */
+  protected boolean isTypedField (final String key)
   {
-    this (command, arg1, val1, arg2, val2, arg3, val3, null, null);
+    switch (key)
+    {
+      case ControllerCommand.CC_COMMAND_KEY:
+      case ControllerCommand.CCRET_VALUE_KEY:
+      case ControllerCommand.CCRET_STATUS_KEY:
+      case ControllerCommand.CCRET_EXCEPTION_KEY:
+      case ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME:
+      case ControllerCommand.CCADMIN_CONTROLLER_START_TIME:
+      case ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME:
+      case ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT:
+      case ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT:
+      case ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT:
+        return true;
+      default:
+        return false;
+    }
   }
   
-  public DefaultControllerCommand (
-    final String command,
-    final String arg1, final Object val1,
-    final String arg2, final Object val2)
+  /** Returns the value of the (typed) field for given key.
+   * 
+   * @param key The key, for which {@link #isTypedField} must return {@code true}.
+   * 
+   * @return The value, {@link #ABSENT} if not set.
+   * 
+   */
+  protected Object getTypedField (final String key)
   {
-    this (command, arg1, val1, arg2, val2, null, null, null, null);
+    switch (key)
+    {
+      case ControllerCommand.CC_COMMAND_KEY:
+        return this.command != null ? this.command : DefaultControllerCommand.ABSENT;
+      case ControllerCommand.CCRET_VALUE_KEY:
+        return this.returnValue;
+      case ControllerCommand.CCRET_STATUS_KEY:
+        return this.returnStatus;
+      case ControllerCommand.CCRET_EXCEPTION_KEY:
+        return this.returnException;
+      case ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME:
+        return toInstantOrAbsent (this.arrivalTime_ns);
+      case ControllerCommand.CCADMIN_CONTROLLER_START_TIME:
+        return toInstantOrAbsent (this.startTime_ns);
+      case ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME:
+        return toInstantOrAbsent (this.departureTime_ns);
+      case ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT:
+        return toDurationOrAbsent (this.queueingTimeout_ns);
+      case ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT:
+        return toDurationOrAbsent (this.processingTimeout_ns);
+      case ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT:
+        return toDurationOrAbsent (this.sojournTimeout_ns);
+      default:
+        throw new IllegalArgumentException ();
+    }
   }
   
-  public DefaultControllerCommand (
-    final String command,
-    final String arg1, final Object val1)
+  /** Sets the value of the (typed) field for given key.
+   * 
+   * @param key   The key, for which {@link #isTypedField} must return {@code true}.
+   * @param value The value, {@link #ABSENT} to clear the field.
+   * 
+   * @throws ClassCastException If the value is of the wrong type for the field.
+   * 
+   */
+  protected void setTypedField (final String key, final Object value)
   {
-    this (command, arg1, val1, null, null, null, null, null, null);
+    final boolean absent = (value == DefaultControllerCommand.ABSENT);
+    switch (key)
+    {
+      case ControllerCommand.CC_COMMAND_KEY:
+        this.command = absent ? null : (String) value;
+        break;
+      case ControllerCommand.CCRET_VALUE_KEY:
+        this.returnValue = value;
+        break;
+      case ControllerCommand.CCRET_STATUS_KEY:
+        this.returnStatus = value;
+        break;
+      case ControllerCommand.CCRET_EXCEPTION_KEY:
+        this.returnException = value;
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME:
+        this.arrivalTime_ns = absent ? ControllerCommand.NO_TIME : toNanoTime ((Instant) value);
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_START_TIME:
+        this.startTime_ns = absent ? ControllerCommand.NO_TIME : toNanoTime ((Instant) value);
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME:
+        this.departureTime_ns = absent ? ControllerCommand.NO_TIME : toNanoTime ((Instant) value);
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT:
+        this.queueingTimeout_ns = absent ? ControllerCommand.NO_TIME : toNanos ((Duration) value);
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT:
+        this.processingTimeout_ns = absent ? ControllerCommand.NO_TIME : toNanos ((Duration) value);
+        break;
+      case ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT:
+        this.sojournTimeout_ns = absent ? ControllerCommand.NO_TIME : toNanos ((Duration) value);
+        break;
+      default:
+        throw new IllegalArgumentException ();
+    }
   }
   
-  public DefaultControllerCommand (final String command)
+  /** Adds the (set) typed fields to given map.
+   * 
+   * <p>
+   * Subclasses overriding this method must invoke the super method first.
+   * 
+   * @param map The map to add the typed fields to, non-{@code null}.
+   * 
+   */
+  protected void addTypedFields (final Map<String, Object> map)
   {
-    this (command, null, null, null, null, null, null, null, null);
+    for (final String key : DefaultControllerCommand.TYPED_KEYS)
+    {
+      final Object value = getTypedField (key);
+      if (value != DefaultControllerCommand.ABSENT)
+        map.put (key, value);
+    }
   }
+  
+  /** Clears all typed fields.
+   * 
+   * <p>
+   * Subclasses overriding this method must invoke the super method.
+   * Note that subclasses must not use field initializers for their typed fields,
+   * because these run after the constructor of this class has (already) set the arguments.
+   * 
+   */
+  protected void clearTypedFields ()
+  {
+    this.command = null;
+    this.returnValue = DefaultControllerCommand.ABSENT;
+    this.returnStatus = DefaultControllerCommand.ABSENT;
+    this.returnException = DefaultControllerCommand.ABSENT;
+    this.arrivalTime_ns = ControllerCommand.NO_TIME;
+    this.startTime_ns = ControllerCommand.NO_TIME;
+    this.departureTime_ns = ControllerCommand.NO_TIME;
+    this.queueingTimeout_ns = ControllerCommand.NO_TIME;
+    this.processingTimeout_ns = ControllerCommand.NO_TIME;
+    this.sojournTimeout_ns = ControllerCommand.NO_TIME;
+  }
+  
+  private final static String[] TYPED_KEYS =
+  {
+    ControllerCommand.CC_COMMAND_KEY,
+    ControllerCommand.CCRET_VALUE_KEY,
+    ControllerCommand.CCRET_STATUS_KEY,
+    ControllerCommand.CCRET_EXCEPTION_KEY,
+    ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME,
+    ControllerCommand.CCADMIN_CONTROLLER_START_TIME,
+    ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME,
+    ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT,
+    ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT,
+    ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT
+  };
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TIME CONVERSIONS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  // Anchors the System.nanoTime time base to wall-clock time.
+  private final static Instant ANCHOR_INSTANT = Instant.now ();
+  
+  private final static long ANCHOR_NANO_TIME = System.nanoTime ();
+  
+  private static Object toInstantOrAbsent (final long nanoTime)
+  {
+    if (nanoTime == ControllerCommand.NO_TIME)
+      return DefaultControllerCommand.ABSENT;
+    return DefaultControllerCommand.ANCHOR_INSTANT.plusNanos (nanoTime - DefaultControllerCommand.ANCHOR_NANO_TIME);
+  }
+  
+  private static long toNanoTime (final Instant instant)
+  {
+    if (instant == null)
+      return ControllerCommand.NO_TIME;
+    return DefaultControllerCommand.ANCHOR_NANO_TIME
+      + Duration.between (DefaultControllerCommand.ANCHOR_INSTANT, instant).toNanos ();
+  }
+  
+  private static Object toDurationOrAbsent (final long nanos)
+  {
+    if (nanos == ControllerCommand.NO_TIME)
+      return DefaultControllerCommand.ABSENT;
+    return Duration.ofNanos (nanos);
+  }
+  
+  private static long toNanos (final Duration duration)
+  {
+    if (duration == null)
+      return ControllerCommand.NO_TIME;
+    return duration.toNanos ();
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // MAP VIEW
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  // Arguments not held in typed fields; created lazily.
+  private Map<String, Object> otherArguments = null;
+  
+  @Override
+  public final Object get (final Object key)
+  {
+    if (key instanceof String && isTypedField ((String) key))
+    {
+      final Object value = getTypedField ((String) key);
+      return value != DefaultControllerCommand.ABSENT ? value : null;
+    }
+    return this.otherArguments != null ? this.otherArguments.get (key) : null;
+  }
+  
+  @Override
+  public final boolean containsKey (final Object key)
+  {
+    if (key instanceof String && isTypedField ((String) key))
+      return getTypedField ((String) key) != DefaultControllerCommand.ABSENT;
+    return this.otherArguments != null && this.otherArguments.containsKey (key);
+  }
+  
+  @Override
+  public final Object put (final String key, final Object value)
+  {
+    if (key == null)
+      throw new NullPointerException ();
+    if (isTypedField (key))
+    {
+      final Object oldValue = getTypedField (key);
+      setTypedField (key, value);
+      return oldValue != DefaultControllerCommand.ABSENT ? oldValue : null;
+    }
+    if (this.otherArguments == null)
+      this.otherArguments = new LinkedHashMap<> ();
+    return this.otherArguments.put (key, value);
+  }
+  
+  @Override
+  public final Object remove (final Object key)
+  {
+    if (key instanceof String && isTypedField ((String) key))
+    {
+      final Object oldValue = getTypedField ((String) key);
+      setTypedField ((String) key, DefaultControllerCommand.ABSENT);
+      return oldValue != DefaultControllerCommand.ABSENT ? oldValue : null;
+    }
+    return this.otherArguments != null ? this.otherArguments.remove (key) : null;
+  }
+  
+  /** Clears all arguments and typed fields, including the command.
+   * 
+   * <p>
+   * Note that this leaves the command in an illegal state; it is only used upon (re-)initialization.
+   * 
+   */
+  @Override
+  public final void clear ()
+  {
+    clearTypedFields ();
+    if (this.otherArguments != null)
+      this.otherArguments.clear ();
+  }
+  
+  private Map<String, Object> entrySnapshot ()
+  {
+    final Map<String, Object> snapshot = new LinkedHashMap<> ();
+    addTypedFields (snapshot);
+    if (this.otherArguments != null)
+      snapshot.putAll (this.otherArguments);
+    return snapshot;
+  }
+  
+  @Override
+  public final Set<Map.Entry<String, Object>> entrySet ()
+  {
+    return Collections.unmodifiableMap (entrySnapshot ()).entrySet ();
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COMMAND / RETURN VALUE / RETURN EXCEPTION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+  @Override
+  public final String getCommand ()
+  {
+    return this.command;
+  }
+  
+  @Override
+  public final Object getReturnValue ()
+  {
+    return this.returnValue != DefaultControllerCommand.ABSENT ? this.returnValue : null;
+  }
+  
+  @Override
+  public final Exception getReturnException ()
+  {
+    return (this.returnException instanceof Exception) ? (Exception) this.returnException : null;
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // CONTROLLER COMMAND SOJOURN ADMINISTRATION
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+  private long arrivalTime_ns = ControllerCommand.NO_TIME;
+  
+  private long startTime_ns = ControllerCommand.NO_TIME;
+  
+  private long departureTime_ns = ControllerCommand.NO_TIME;
+  
+  private long queueingTimeout_ns = ControllerCommand.NO_TIME;
+  
+  private long processingTimeout_ns = ControllerCommand.NO_TIME;
+  
+  private long sojournTimeout_ns = ControllerCommand.NO_TIME;
+  
   @Override
   public final void resetCommandSojournAdministration ()
   {
-    remove (ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME);
-    remove (ControllerCommand.CCADMIN_CONTROLLER_START_TIME);
-    remove (ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME);
+    this.arrivalTime_ns = ControllerCommand.NO_TIME;
+    this.startTime_ns = ControllerCommand.NO_TIME;
+    this.departureTime_ns = ControllerCommand.NO_TIME;
+    this.completionFuture = new CompletableFuture<> ();
   }
   
   @Override
@@ -126,12 +522,18 @@ public class DefaultControllerCommand
     return (Instant) get (ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME);
   }
 
+  @Override
+  public final long getArriveAtControllerTime_ns ()
+  {
+    return this.arrivalTime_ns;
+  }
+  
   @Override
   public final void markArrivalAtController (final Controller controller)
   {
-    if (getArriveAtControllerTime () != null)
+    if (this.arrivalTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_ARRIVAL_TIME, Instant.now ());
+    this.arrivalTime_ns = System.nanoTime ();
   }
 
   @Override
@@ -143,9 +545,9 @@ public class DefaultControllerCommand
   @Override
   public final void markStartAtController (final Controller controller)
   {
-    if (getArriveAtControllerTime () == null || getStartAtControllerTime () != null)
+    if (this.arrivalTime_ns == ControllerCommand.NO_TIME || this.startTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_START_TIME, Instant.now ());
+    this.startTime_ns = System.nanoTime ();
   }
 
   @Override
@@ -157,9 +559,9 @@ public class DefaultControllerCommand
   @Override
   public final void markDepartureAtController (final Controller controller)
   {
-    if (getArriveAtControllerTime () == null || getDepartureAtControllerTime () != null)
+    if (this.arrivalTime_ns == ControllerCommand.NO_TIME || this.departureTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_DEPARTURE_TIME, Instant.now ());
+    this.departureTime_ns = System.nanoTime ();
   }
 
   @Override
@@ -168,14 +570,20 @@ public class DefaultControllerCommand
     return (Duration) get (ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT);    
   }
 
+  @Override
+  public final long getQueueingTimeout_ns ()
+  {
+    return this.queueingTimeout_ns;
+  }
+  
   @Override
   public void setQueueingTimeout (final Duration queueingTimeout)
   {
     if (queueingTimeout == null || queueingTimeout.isNegative () || queueingTimeout.isZero ())
       throw new IllegalArgumentException ();
-    if (getArriveAtControllerTime () != null)
+    if (this.arrivalTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_QUEUEING_TIMEOUT, queueingTimeout);
+    this.queueingTimeout_ns = queueingTimeout.toNanos ();
   }
 
   @Override
@@ -184,14 +592,20 @@ public class DefaultControllerCommand
     return (Duration) get (ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT);
   }
 
+  @Override
+  public final long getProcessingTimeout_ns ()
+  {
+    return this.processingTimeout_ns;
+  }
+  
   @Override
   public void setProcessingTimeout (final Duration processingTimeout)
   {
     if (processingTimeout == null || processingTimeout.isNegative () || processingTimeout.isZero ())
       throw new IllegalArgumentException ();
-    if (getStartAtControllerTime () != null)
+    if (this.startTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_PROCESSING_TIMEOUT, processingTimeout);
+    this.processingTimeout_ns = processingTimeout.toNanos ();
   }
 
   @Override
@@ -200,16 +614,103 @@ public class DefaultControllerCommand
     return (Duration) get (ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT);
   }
   
+  @Override
+  public final long getSojournTimeout_ns ()
+  {
+    return this.sojournTimeout_ns;
+  }
+  
   @Override
   public void setSojournTimeout (final Duration sojournTimeout)
   {
     if (sojournTimeout == null || sojournTimeout.isNegative () || sojournTimeout.isZero ())
       throw new IllegalArgumentException ();
-    if (getArriveAtControllerTime ()!= null)
+    if (this.arrivalTime_ns != ControllerCommand.NO_TIME)
       throw new IllegalStateException ();
-    put (ControllerCommand.CCADMIN_CONTROLLER_SOJOURN_TIMEOUT, sojournTimeout);
+    this.sojournTimeout_ns = sojournTimeout.toNanos ();
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONTROLLER COMMAND COMPLETION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private volatile CompletableFuture<ControllerCommand> completionFuture = new CompletableFuture<> ();
+  
+  @Override
+  public final CompletableFuture<ControllerCommand> getCompletionFuture ()
+  {
+    return this.completionFuture;
+  }
+
+  @Override
+  public final void markCompletedAtController (final Controller controller)
+  {
+    final Object exception = this.returnException;
+    if (exception instanceof Throwable)
+      this.completionFuture.completeExceptionally ((Throwable) exception);
+    else
+      this.completionFuture.complete (this);
   }
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // POOLING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private volatile Consumer<? super DefaultControllerCommand> recycler = null;
+  
+  private final AtomicInteger references = new AtomicInteger ();
+  
+  /** Hands out this command from a pool.
+   * 
+   * <p>
+   * Sets the number of outstanding references to two (see {@link ControllerCommand#release}),
+   * and sets the recycler that is invoked upon the last release.
+   * 
+   * @param recycler The recycler, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the recycler is {@code null}.
+   * 
+   */
+  protected final void setRecycler (final Consumer<? super DefaultControllerCommand> recycler)
+  {
+    if (recycler == null)
+      throw new IllegalArgumentException ();
+    this.references.set (2);
+    this.recycler = recycler;
+  }
+  
+  @Override
+  public final void release ()
+  {
+    final Consumer<? super DefaultControllerCommand> recycler = this.recycler;
+    if (recycler == null)
+      return;
+    final int remaining = this.references.decrementAndGet ();
+    if (remaining == 0)
+      recycler.accept (this);
+    else if (remaining < 0)
+      throw new IllegalStateException ();
+  }
+
+  // Map equality (inherited from AbstractMap) is too expensive (and useless) for commands;
+  // commands in queues are compared by identity.
+  
+  @Override
+  public final boolean equals (final Object o)
+  {
+    return this == o;
+  }
+  
+  @Override
+  public final int hashCode ()
+  {
+    return System.identityHashCode (this);
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // END OF FILE
@@ -164,11 +164,11 @@ public class DefaultFrequencyCounterSettings<M, T>
   @Override
   public boolean equals (Object obj)
   {
+    if (this == obj)
+      return true;
     // Must override if this.bytes is not available...
     if (this.bytes == null)
       throw new UnsupportedOperationException ();
-    if (this == obj)
-      return true;
     if (obj == null)
       return false;
     if (getClass () != obj.getClass ())
@@ -17,6 +17,7 @@
 package org.javajdj.jinstrument;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.javajdj.jservice.Service;
@@ -38,6 +39,47 @@ public interface Instrument
   
   void removeInstrumentListener (InstrumentListener l);
   
+  /** Subscribes a listener for asynchronous notification through its own bounded queue and executor.
+   *
+   * @param l                 The listener, non-{@code null}.
+   * @param policy            The delivery policy for status and settings notifications, non-{@code null}.
+   * @param capacity          The capacity of the queue of pending notifications, strictly positive.
+   * @param maxReadingRate_Hz The maximum rate of reading notifications in Hertz; zero for no limit.
+   * @param executor          The executor on which to notify the listener; {@code null} for the shared dispatcher pool.
+   *
+   * @return The new subscription; cancel it in order to stop notifications.
+   *
+   * @throws IllegalArgumentException If the listener or policy is {@code null},
+   *                                    or the capacity or maximum reading rate is out of range.
+   *
+   * @see InstrumentSubscription
+   *
+   */
+  default InstrumentSubscription subscribe (
+    final InstrumentListener l,
+    final InstrumentSubscription.Policy policy,
+    final int capacity,
+    final double maxReadingRate_Hz,
+    final Executor executor)
+  {
+    return InstrumentSubscription.subscribe (this, l, policy, capacity, maxReadingRate_Hz, executor);
+  }
+  
+  /** Subscribes a listener for asynchronous notification on the shared dispatcher pool.
+   *
+   * @param l      The listener, non-{@code null}.
+   * @param policy The delivery policy for status and settings notifications, non-{@code null}.
+   *
+   * @return The new subscription; cancel it in order to stop notifications.
+   *
+   * @see InstrumentSubscription#DEFAULT_CAPACITY
+   *
+   */
+  default InstrumentSubscription subscribe (final InstrumentListener l, final InstrumentSubscription.Policy policy)
+  {
+    return subscribe (l, policy, InstrumentSubscription.DEFAULT_CAPACITY, 0, null);
+  }
+  
   String getInstrumentId ();
   
   InstrumentStatus getCurrentInstrumentStatus ();
@@ -46,6 +46,24 @@ public interface InstrumentCommand
   
   public final static String IC_COMPLETION_SEMAPHORE_KEY = "completionSemaphore";
   
+  /** The (optional) key of the conflation key of an (asynchronous) command.
+   * 
+   * <p>
+   * If a command is added while a pending command with an equal (non-{@code null}) conflation key
+   * is still in the command queue, the new command is merged into the pending command instead of being queued;
+   * the pending command thus (keeps its position in the queue and) carries the latest arguments.
+   * Conflation only makes sense for idempotent setters like setting a frequency or a vertical sensitivity.
+   * Synchronous commands are never conflated.
+   * 
+   * <p>
+   * Instead of (or besides) setting a conflation key on individual commands,
+   * an instrument may register the commands it considers conflatable.
+   * 
+   * @see AbstractInstrument#registerConflatableCommand
+   * 
+   */
+  public final static String IC_CONFLATION_KEY = "conflationKey";
+  
   /** Returns whether or not this command is being processed synchronously.
    * 
    * @return Whether or not this command is being processed synchronously.
@@ -0,0 +1,685 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** The shared executors for the sub-services of {@link AbstractInstrument}s.
+ *
+ * <p>
+ * Depending on their {@link InstrumentThreadingModel}, instruments run their periodic collectors and their dispatchers
+ * either in dedicated threads, or on the shared executors provided by this class:
+ * a single scheduler thread that merely triggers periodic tasks,
+ * a bounded pool of worker threads (or a virtual thread per task) that actually runs them,
+ * and a separate bounded pool of dispatcher threads (or a virtual thread per task) that notifies listeners.
+ * Since the worker threads block on controllers, dispatchers have a pool of their own,
+ * so that a busy controller never delays the notification of listeners.
+ *
+ * <p>
+ * The default threading model is taken from the system property {@value #THREADING_MODEL_PROPERTY_NAME}
+ * upon first use, and defaults to {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+ * The number of worker threads is taken from the system property {@value #NUMBER_OF_WORKER_THREADS_PROPERTY_NAME}
+ * upon first use, and defaults to {@value #DEFAULT_NUMBER_OF_WORKER_THREADS}.
+ * Likewise, the number of dispatcher threads is taken from the system property
+ * {@value #NUMBER_OF_DISPATCHER_THREADS_PROPERTY_NAME}, and defaults to {@value #DEFAULT_NUMBER_OF_DISPATCHER_THREADS}.
+ * All threads created are daemon threads.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ * @see AbstractInstrument#getThreadingModel
+ *
+ */
+public final class InstrumentExecutors
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (InstrumentExecutors.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private InstrumentExecutors ()
+  {
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DEFAULT THREADING MODEL
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static String THREADING_MODEL_PROPERTY_NAME = "org.javajdj.jinstrument.threadingModel";
+
+  public final static InstrumentThreadingModel DEFAULT_THREADING_MODEL = InstrumentThreadingModel.DEDICATED_THREADS;
+
+  private static InstrumentThreadingModel defaultThreadingModel = null;
+
+  /** Returns the threading model for newly created instruments.
+   *
+   * @return The threading model for newly created instruments, non-{@code null}.
+   *
+   */
+  public static synchronized InstrumentThreadingModel getDefaultThreadingModel ()
+  {
+    if (InstrumentExecutors.defaultThreadingModel == null)
+    {
+      final String property = System.getProperty (InstrumentExecutors.THREADING_MODEL_PROPERTY_NAME);
+      InstrumentThreadingModel threadingModel = InstrumentExecutors.DEFAULT_THREADING_MODEL;
+      if (property != null)
+        try
+        {
+          threadingModel = InstrumentThreadingModel.valueOf (property.trim ());
+        }
+        catch (IllegalArgumentException iae)
+        {
+          LOG.log (Level.WARNING, "Unknown instrument threading model {0}; using {1}.",
+            new Object[]{property, threadingModel});
+        }
+      InstrumentExecutors.defaultThreadingModel = threadingModel;
+    }
+    return InstrumentExecutors.defaultThreadingModel;
+  }
+
+  /** Sets the threading model for newly created instruments.
+   *
+   * <p>
+   * The threading model of an instrument is fixed upon its construction;
+   * existing instruments are not affected.
+   *
+   * @param threadingModel The new threading model, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public static synchronized void setDefaultThreadingModel (final InstrumentThreadingModel threadingModel)
+  {
+    if (threadingModel == null)
+      throw new IllegalArgumentException ();
+    InstrumentExecutors.defaultThreadingModel = threadingModel;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // THREAD FACTORY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static ThreadFactory newDaemonThreadFactory (final String namePrefix)
+  {
+    final AtomicInteger threadNumber = new AtomicInteger (0);
+    return (runnable) ->
+    {
+      final Thread thread = new Thread (runnable, namePrefix + " #" + threadNumber.getAndIncrement ());
+      thread.setDaemon (true);
+      return thread;
+    };
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SCHEDULER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static ScheduledExecutorService SCHEDULER = null;
+
+  /** Returns the (single-threaded) scheduler that triggers periodic tasks.
+   *
+   * <p>
+   * Tasks on the scheduler must be short and non-blocking;
+   * periodic instrument tasks are merely handed over to a worker executor from the scheduler.
+   *
+   * @return The scheduler, non-{@code null}.
+   *
+   */
+  public static synchronized ScheduledExecutorService getScheduler ()
+  {
+    if (InstrumentExecutors.SCHEDULER == null)
+    {
+      final ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor (1, InstrumentExecutors.newDaemonThreadFactory ("Instrument Scheduler"));
+      // Cancelled collectors must not linger in the queue until their (possibly distant) trigger time.
+      scheduler.setRemoveOnCancelPolicy (true);
+      InstrumentExecutors.SCHEDULER = scheduler;
+    }
+    return InstrumentExecutors.SCHEDULER;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // WORKER POOL
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static String NUMBER_OF_WORKER_THREADS_PROPERTY_NAME = "org.javajdj.jinstrument.workerThreads";
+
+  public final static int DEFAULT_NUMBER_OF_WORKER_THREADS = 8;
+
+  private static ExecutorService WORKER_POOL = null;
+
+  /** Returns the shared (bounded) pool of platform worker threads.
+   *
+   * <p>
+   * Note that periodic collectors on the pool block on the controller while waiting for their results;
+   * the number of worker threads thus bounds the number of collectors that can wait on controllers concurrently.
+   *
+   * @return The worker pool, non-{@code null}.
+   *
+   */
+  public static synchronized ExecutorService getWorkerPool ()
+  {
+    if (InstrumentExecutors.WORKER_POOL == null)
+      InstrumentExecutors.WORKER_POOL = Executors.newFixedThreadPool (
+        Math.max (1, Integer.getInteger (InstrumentExecutors.NUMBER_OF_WORKER_THREADS_PROPERTY_NAME,
+          InstrumentExecutors.DEFAULT_NUMBER_OF_WORKER_THREADS)),
+        InstrumentExecutors.newDaemonThreadFactory ("Instrument Worker"));
+    return InstrumentExecutors.WORKER_POOL;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DISPATCHER POOL
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static String NUMBER_OF_DISPATCHER_THREADS_PROPERTY_NAME = "org.javajdj.jinstrument.dispatcherThreads";
+
+  public final static int DEFAULT_NUMBER_OF_DISPATCHER_THREADS = 4;
+
+  private static ExecutorService DISPATCHER_POOL = null;
+
+  /** Returns the shared (bounded) pool of platform dispatcher threads.
+   *
+   * <p>
+   * The dispatcher pool is separate from the worker pool,
+   * so that dispatchers (and subscriptions) are never starved by collectors blocking on controllers.
+   * Tasks on the dispatcher pool should not block on controllers.
+   *
+   * @return The dispatcher pool, non-{@code null}.
+   *
+   * @see #getWorkerPool
+   *
+   */
+  public static synchronized ExecutorService getDispatcherPool ()
+  {
+    if (InstrumentExecutors.DISPATCHER_POOL == null)
+      InstrumentExecutors.DISPATCHER_POOL = Executors.newFixedThreadPool (
+        Math.max (1, Integer.getInteger (InstrumentExecutors.NUMBER_OF_DISPATCHER_THREADS_PROPERTY_NAME,
+          InstrumentExecutors.DEFAULT_NUMBER_OF_DISPATCHER_THREADS)),
+        InstrumentExecutors.newDaemonThreadFactory ("Instrument Dispatcher"));
+    return InstrumentExecutors.DISPATCHER_POOL;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // VIRTUAL THREADS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD = null;
+
+  private static boolean VIRTUAL_THREADS_PROBED = false;
+
+  // We are compiled for Java 8, hence the reflection.
+  private static synchronized Method getNewVirtualThreadPerTaskExecutorMethod ()
+  {
+    if (! InstrumentExecutors.VIRTUAL_THREADS_PROBED)
+    {
+      InstrumentExecutors.VIRTUAL_THREADS_PROBED = true;
+      try
+      {
+        InstrumentExecutors.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD =
+          Executors.class.getMethod ("newVirtualThreadPerTaskExecutor");
+        // Fails on Java 19/20 without --enable-preview.
+        ((ExecutorService) InstrumentExecutors.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD.invoke (null)).shutdown ();
+      }
+      catch (Exception | LinkageError e)
+      {
+        InstrumentExecutors.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD = null;
+      }
+    }
+    return InstrumentExecutors.NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD;
+  }
+
+  /** Returns whether the Java runtime supports virtual threads.
+   *
+   * @return Whether the Java runtime supports virtual threads.
+   *
+   * @see InstrumentThreadingModel#VIRTUAL_THREADS
+   *
+   */
+  public static boolean isVirtualThreadsSupported ()
+  {
+    return InstrumentExecutors.getNewVirtualThreadPerTaskExecutorMethod () != null;
+  }
+
+  private static ExecutorService VIRTUAL_THREAD_EXECUTOR = null;
+
+  /** Returns the shared executor that starts a new virtual thread for each task.
+   *
+   * @return The virtual-thread executor, or {@code null} if the Java runtime does not support virtual threads.
+   *
+   * @see #isVirtualThreadsSupported
+   *
+   */
+  public static synchronized ExecutorService getVirtualThreadExecutor ()
+  {
+    if (InstrumentExecutors.VIRTUAL_THREAD_EXECUTOR == null)
+    {
+      final Method method = InstrumentExecutors.getNewVirtualThreadPerTaskExecutorMethod ();
+      if (method == null)
+        return null;
+      try
+      {
+        InstrumentExecutors.VIRTUAL_THREAD_EXECUTOR = (ExecutorService) method.invoke (null);
+      }
+      catch (ReflectiveOperationException roe)
+      {
+        LOG.log (Level.WARNING, "Could not create virtual-thread executor: {0}.", roe);
+        return null;
+      }
+    }
+    return InstrumentExecutors.VIRTUAL_THREAD_EXECUTOR;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // WORKER EXECUTOR [THREADING MODEL]
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Returns the shared executor that runs the tasks of instruments with given threading model.
+   *
+   * <p>
+   * For {@link InstrumentThreadingModel#VIRTUAL_THREADS} on a runtime without virtual threads,
+   * the (platform-thread) worker pool is returned instead.
+   *
+   * @param threadingModel The threading model, non-{@code null}.
+   *
+   * @return The executor, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the threading model is {@code null}
+   *                                    or {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+   *
+   */
+  public static Executor getWorkerExecutor (final InstrumentThreadingModel threadingModel)
+  {
+    if (threadingModel == null)
+      throw new IllegalArgumentException ();
+    switch (threadingModel)
+    {
+      case SHARED_POOL:
+        return InstrumentExecutors.getWorkerPool ();
+      case VIRTUAL_THREADS:
+      {
+        final Executor virtualThreadExecutor = InstrumentExecutors.getVirtualThreadExecutor ();
+        if (virtualThreadExecutor != null)
+          return virtualThreadExecutor;
+        LOG.log (Level.WARNING, "Virtual threads not supported; falling back to shared pool.");
+        return InstrumentExecutors.getWorkerPool ();
+      }
+      default:
+        throw new IllegalArgumentException ();
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DISPATCHER EXECUTOR [THREADING MODEL]
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Returns the shared executor that runs the dispatchers of instruments with given threading model.
+   *
+   * <p>
+   * For {@link InstrumentThreadingModel#VIRTUAL_THREADS} on a runtime without virtual threads,
+   * the (platform-thread) dispatcher pool is returned instead.
+   *
+   * @param threadingModel The threading model, non-{@code null}.
+   *
+   * @return The executor, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the threading model is {@code null}
+   *                                    or {@link InstrumentThreadingModel#DEDICATED_THREADS}.
+   *
+   * @see #getDispatcherPool
+   *
+   */
+  public static Executor getDispatcherExecutor (final InstrumentThreadingModel threadingModel)
+  {
+    if (threadingModel == null)
+      throw new IllegalArgumentException ();
+    switch (threadingModel)
+    {
+      case SHARED_POOL:
+        return InstrumentExecutors.getDispatcherPool ();
+      case VIRTUAL_THREADS:
+      {
+        final Executor virtualThreadExecutor = InstrumentExecutors.getVirtualThreadExecutor ();
+        if (virtualThreadExecutor != null)
+          return virtualThreadExecutor;
+        LOG.log (Level.WARNING, "Virtual threads not supported; falling back to shared dispatcher pool.");
+        return InstrumentExecutors.getDispatcherPool ();
+      }
+      default:
+        throw new IllegalArgumentException ();
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SERIAL EXECUTOR
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final static class SerialExecutor
+    implements Executor
+  {
+
+    private SerialExecutor (final Executor executor)
+    {
+      this.executor = executor;
+    }
+
+    private final Executor executor;
+
+    // Guarded by the lock on this.tasks.
+    private final Queue<Runnable> tasks = new ArrayDeque<> ();
+
+    // Guarded by the lock on this.tasks.
+    private boolean running = false;
+
+    @Override
+    public final void execute (final Runnable task)
+    {
+      if (task == null)
+        throw new NullPointerException ();
+      synchronized (this.tasks)
+      {
+        this.tasks.add (task);
+        if (this.running)
+          return;
+        this.running = true;
+      }
+      try
+      {
+        this.executor.execute (this::runTasks);
+      }
+      catch (RejectedExecutionException ree)
+      {
+        synchronized (this.tasks)
+        {
+          this.tasks.clear ();
+          this.running = false;
+        }
+        throw ree;
+      }
+    }
+
+    private void runTasks ()
+    {
+      boolean done = false;
+      try
+      {
+        while (true)
+        {
+          final Runnable task;
+          synchronized (this.tasks)
+          {
+            task = this.tasks.poll ();
+            if (task == null)
+            {
+              this.running = false;
+              done = true;
+              return;
+            }
+          }
+          try
+          {
+            task.run ();
+          }
+          catch (Exception e)
+          {
+            LOG.log (Level.WARNING, "Exception (ignored) in serial task {0}: {1}.", new Object[]{task, e});
+          }
+        }
+      }
+      finally
+      {
+        // An Error escaped from a task (and propagates); the executor must remain usable.
+        if (! done)
+          resumeTasks ();
+      }
+    }
+
+    private void resumeTasks ()
+    {
+      synchronized (this.tasks)
+      {
+        if (this.tasks.isEmpty ())
+        {
+          this.running = false;
+          return;
+        }
+      }
+      try
+      {
+        this.executor.execute (this::runTasks);
+      }
+      catch (RejectedExecutionException ree)
+      {
+        synchronized (this.tasks)
+        {
+          this.tasks.clear ();
+          this.running = false;
+        }
+      }
+    }
+
+  }
+
+  /** Creates an executor that runs its tasks one at a time, in submission order, on given executor.
+   *
+   * <p>
+   * The serial executor does not own a thread;
+   * it occupies (at most) one thread of the underlying executor, and only while it has tasks pending.
+   * Exceptions thrown from tasks are logged and otherwise ignored;
+   * {@link Error}s propagate to the underlying executor, after which the remaining tasks are resubmitted.
+   *
+   * @param executor The underlying executor, non-{@code null}.
+   *
+   * @return A new serial executor on given executor.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public static Executor newSerialExecutor (final Executor executor)
+  {
+    if (executor == null)
+      throw new IllegalArgumentException ();
+    return new SerialExecutor (executor);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PERIODIC TASKS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** A periodic task on the shared scheduler.
+   *
+   * @see #schedulePeriodically
+   *
+   */
+  public final static class PeriodicTask
+  {
+
+    private PeriodicTask (final DoubleSupplier period_s, final Executor executor, final BooleanSupplier task)
+    {
+      this.period_s = period_s;
+      this.executor = executor;
+      this.task = task;
+    }
+
+    private final DoubleSupplier period_s;
+
+    private final Executor executor;
+
+    private final BooleanSupplier task;
+
+    private volatile boolean cancelled = false;
+
+    // Guarded by the lock on this.
+    private ScheduledFuture<?> future = null;
+
+    private synchronized void schedule (final double delay_s)
+    {
+      if (this.cancelled)
+        return;
+      this.future = InstrumentExecutors.getScheduler ().schedule (
+        this::trigger,
+        (long) (Math.max (0.0, delay_s) * 1.0e9),
+        TimeUnit.NANOSECONDS);
+    }
+
+    // On the scheduler thread.
+    private void trigger ()
+    {
+      if (this.cancelled)
+        return;
+      try
+      {
+        this.executor.execute (this::run);
+      }
+      catch (RejectedExecutionException ree)
+      {
+        LOG.log (Level.WARNING, "Periodic task rejected; cancelled: {0}.", ree);
+        this.cancelled = true;
+      }
+    }
+
+    // On the worker executor.
+    private void run ()
+    {
+      if (this.cancelled)
+        return;
+      boolean reschedule = false;
+      try
+      {
+        reschedule = this.task.getAsBoolean ();
+      }
+      finally
+      {
+        // Delays are relative to the completion of the task; hence, overdue executions are dropped.
+        if (reschedule)
+          schedule (this.period_s.getAsDouble ());
+        else
+          this.cancelled = true;
+      }
+    }
+
+    /** Cancels this periodic task.
+     *
+     * <p>
+     * A currently running execution is not interrupted, but the task will not be executed again.
+     *
+     */
+    public final void cancel ()
+    {
+      this.cancelled = true;
+      synchronized (this)
+      {
+        if (this.future != null)
+          this.future.cancel (false);
+        this.future = null;
+      }
+    }
+
+    /** Returns whether this periodic task has been cancelled (or has terminated by itself).
+     *
+     * @return Whether this periodic task has been cancelled.
+     *
+     */
+    public final boolean isCancelled ()
+    {
+      return this.cancelled;
+    }
+
+  }
+
+  /** Periodically executes a task on given executor, triggered from the shared scheduler.
+   *
+   * <p>
+   * The first execution is immediate.
+   * The period is re-evaluated after each execution, and is the delay between the completion of an execution
+   * and the start of the next one.
+   * The task is not executed again once it returns {@code false} or throws an exception, or if it is cancelled.
+   *
+   * @param period_s The supplier of the period in seconds, non-{@code null}.
+   * @param executor The executor that executes the task, non-{@code null}.
+   * @param task     The task, returning whether it wants to be executed again, non-{@code null}.
+   *
+   * @return The (running) periodic task.
+   *
+   * @throws IllegalArgumentException If any of the arguments is {@code null}.
+   *
+   * @see #getScheduler
+   *
+   */
+  public static PeriodicTask schedulePeriodically (
+    final DoubleSupplier period_s,
+    final Executor executor,
+    final BooleanSupplier task)
+  {
+    if (period_s == null || executor == null || task == null)
+      throw new IllegalArgumentException ();
+    final PeriodicTask periodicTask = new PeriodicTask (period_s, executor, task);
+    periodicTask.schedule (0.0);
+    return periodicTask;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
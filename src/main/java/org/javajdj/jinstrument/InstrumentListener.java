@@ -40,6 +40,28 @@ public interface InstrumentListener
   
   void newInstrumentSettings (Instrument instrument, InstrumentSettings instrumentSettings);
   
+  /** Notification of a change of the settings of an instrument.
+   *
+   * <p>
+   * Instruments notify their listeners of new settings through this method.
+   * The change carries both the previous and the new settings,
+   * allowing listeners to restrict their updates to the values that actually changed.
+   *
+   * <p>
+   * The default implementation invokes {@link #newInstrumentSettings} with the new settings.
+   *
+   * @param instrument               The {@link Instrument} at which the settings changed.
+   * @param instrumentSettingsChange The settings change, non-{@code null}.
+   *
+   * @see InstrumentSettingsChange#isChanged(java.util.function.Function)
+   * @see InstrumentSettingsChange#getChangedProperties
+   *
+   */
+  default void newInstrumentSettingsChange (Instrument instrument, InstrumentSettingsChange instrumentSettingsChange)
+  {
+    newInstrumentSettings (instrument, instrumentSettingsChange.getNewSettings ());
+  }
+  
   void newInstrumentReading (Instrument instrument, InstrumentReading instrumentReading);
   
   /** Notification of a debug-related event at an instrument.
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** A change of the {@link InstrumentSettings} of an {@link Instrument}.
+ *
+ * <p>
+ * A change holds the old (previous) and the new settings.
+ * Listeners can query whether a particular value changed,
+ * either through a getter function on the settings ({@link #isChanged(Function)}),
+ * or by property name ({@link #isChanged(String)}, {@link #getChangedProperties}),
+ * and restrict (expensive) updates to the affected parts of, e.g., a user interface.
+ *
+ * <p>
+ * The properties of a settings object are its public no-argument {@code get*} and {@code is*} methods
+ * (except for {@link InstrumentSettings#getBytes} and {@link Object#getClass}),
+ * with the usual bean naming, e.g., {@code getCenterFrequency_MHz} yields property {@code centerFrequency_MHz}.
+ * Properties whose (declared) type does not support value equality,
+ * i.e., does not override {@link Object#equals} and is not an enum, array, interface or primitive type,
+ * are ignored; they are typically aggregates of other properties.
+ * The properties are discovered (once per class) through reflection;
+ * the set of changed properties is only determined when (first) requested.
+ *
+ * <p>
+ * If the old settings are unknown ({@code null}), or of a different class than the new settings,
+ * all properties are considered changed.
+ *
+ * <p>
+ * Objects of this class are immutable.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ * @see InstrumentListener#newInstrumentSettingsChange
+ *
+ */
+public final class InstrumentSettingsChange
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (InstrumentSettingsChange.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Creates the change.
+   *
+   * @param oldSettings The old settings, {@code null} if unknown.
+   * @param newSettings The new settings, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the new settings are {@code null}.
+   *
+   */
+  public InstrumentSettingsChange (final InstrumentSettings oldSettings, final InstrumentSettings newSettings)
+  {
+    if (newSettings == null)
+      throw new IllegalArgumentException ();
+    this.oldSettings = oldSettings;
+    this.newSettings = newSettings;
+  }
+
+  /** Returns the combined change of this change followed by given change.
+   *
+   * <p>
+   * The combined change has the old settings of this change and the new settings of the given change.
+   *
+   * @param next The next change, non-{@code null}.
+   *
+   * @return The combined change.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final InstrumentSettingsChange merge (final InstrumentSettingsChange next)
+  {
+    if (next == null)
+      throw new IllegalArgumentException ();
+    return new InstrumentSettingsChange (this.oldSettings, next.newSettings);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // OLD SETTINGS / NEW SETTINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final InstrumentSettings oldSettings;
+
+  /** Returns the old settings.
+   *
+   * @return The old settings, {@code null} if unknown.
+   *
+   */
+  public final InstrumentSettings getOldSettings ()
+  {
+    return this.oldSettings;
+  }
+
+  private final InstrumentSettings newSettings;
+
+  /** Returns the new settings.
+   *
+   * @return The new settings, non-{@code null}.
+   *
+   */
+  public final InstrumentSettings getNewSettings ()
+  {
+    return this.newSettings;
+  }
+
+  private boolean isComparable ()
+  {
+    return this.oldSettings != null && this.oldSettings.getClass () == this.newSettings.getClass ();
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CHANGED (GETTER)
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Returns whether the value obtained through given getter changed.
+   *
+   * <p>
+   * Values are compared with {@link Objects#deepEquals}.
+   *
+   * @param getter The getter, non-{@code null}.
+   *
+   * @return Whether the value obtained through the getter changed;
+   *           {@code true} if the old settings are unknown.
+   *
+   * @throws IllegalArgumentException If the getter is {@code null}.
+   *
+   */
+  public final boolean isChanged (final Function<? super InstrumentSettings, ?> getter)
+  {
+    if (getter == null)
+      throw new IllegalArgumentException ();
+    if (this.oldSettings == this.newSettings)
+      return false;
+    if (this.oldSettings == null)
+      return true;
+    return ! Objects.deepEquals (getter.apply (this.oldSettings), getter.apply (this.newSettings));
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CHANGED PROPERTIES
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // Benign race; the set is a function of the (immutable) settings.
+  private volatile Set<String> changedProperties = null;
+
+  /** Returns the names of the properties that changed.
+   *
+   * @return The (unmodifiable) names of the properties that changed, in declaration order, non-{@code null}.
+   *
+   */
+  public final Set<String> getChangedProperties ()
+  {
+    Set<String> changedProperties = this.changedProperties;
+    if (changedProperties == null)
+    {
+      changedProperties = Collections.unmodifiableSet (diff ());
+      this.changedProperties = changedProperties;
+    }
+    return changedProperties;
+  }
+
+  /** Returns whether given property changed.
+   *
+   * @param propertyName The property name.
+   *
+   * @return Whether the property changed.
+   *
+   * @see #getChangedProperties
+   *
+   */
+  public final boolean isChanged (final String propertyName)
+  {
+    return getChangedProperties ().contains (propertyName);
+  }
+
+  /** Returns whether any of given properties changed.
+   *
+   * @param propertyNames The property names.
+   *
+   * @return Whether any of the properties changed.
+   *
+   * @see #getChangedProperties
+   *
+   */
+  public final boolean isChangedAny (final String... propertyNames)
+  {
+    if (propertyNames != null)
+      for (final String propertyName : propertyNames)
+        if (isChanged (propertyName))
+          return true;
+    return false;
+  }
+
+  /** Returns whether the settings changed at all, i.e., whether any property changed.
+   *
+   * @return Whether the settings changed.
+   *
+   */
+  public final boolean isChanged ()
+  {
+    return ! getChangedProperties ().isEmpty ();
+  }
+
+  private Set<String> diff ()
+  {
+    if (this.oldSettings == this.newSettings)
+      return Collections.emptySet ();
+    final Map<String, Method> properties = getProperties (this.newSettings.getClass ());
+    if (! isComparable ())
+      return new LinkedHashSet<> (properties.keySet ());
+    final Set<String> changedProperties = new LinkedHashSet<> ();
+    for (final Map.Entry<String, Method> property : properties.entrySet ())
+    {
+      final Method getter = property.getValue ();
+      try
+      {
+        if (! Objects.deepEquals (getter.invoke (this.oldSettings), getter.invoke (this.newSettings)))
+          changedProperties.add (property.getKey ());
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.FINE, "Cannot compare property {0} on {1}: {2}.",
+          new Object[]{property.getKey (), this.newSettings.getClass ().getName (), e});
+        changedProperties.add (property.getKey ());
+      }
+    }
+    return changedProperties;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PROPERTIES [CLASS CACHE]
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final static Map<Class<?>, Map<String, Method>> PROPERTIES = new ConcurrentHashMap<> ();
+
+  /** Returns the names of the (comparable) properties of given settings class.
+   *
+   * @param settingsClass The settings class, non-{@code null}.
+   *
+   * @return The (unmodifiable) property names, in declaration order.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public static Set<String> getPropertyNames (final Class<? extends InstrumentSettings> settingsClass)
+  {
+    if (settingsClass == null)
+      throw new IllegalArgumentException ();
+    return getProperties (settingsClass).keySet ();
+  }
+
+  private static Map<String, Method> getProperties (final Class<?> settingsClass)
+  {
+    return InstrumentSettingsChange.PROPERTIES.computeIfAbsent (settingsClass, InstrumentSettingsChange::findProperties);
+  }
+
+  private static Map<String, Method> findProperties (final Class<?> settingsClass)
+  {
+    final Map<String, Method> properties = new LinkedHashMap<> ();
+    final List<Method> methods = new ArrayList<> ();
+    // Declared methods of superclasses first; note that getMethods () has no defined order at all.
+    for (Class<?> c = settingsClass; c != null && c != Object.class; c = c.getSuperclass ())
+      methods.addAll (0, Arrays.asList (c.getDeclaredMethods ()));
+    for (final Method method : methods)
+    {
+      if (! Modifier.isPublic (method.getModifiers ())
+        || Modifier.isStatic (method.getModifiers ())
+        || method.isSynthetic ()
+        || method.isBridge ()
+        || method.getParameterCount () != 0)
+        continue;
+      final String name = method.getName ();
+      final Class<?> type = method.getReturnType ();
+      final String propertyName;
+      if (name.startsWith ("get") && name.length () > 3 && type != void.class)
+        propertyName = decapitalize (name.substring (3));
+      else if (name.startsWith ("is") && name.length () > 2 && (type == boolean.class || type == Boolean.class))
+        propertyName = decapitalize (name.substring (2));
+      else
+        continue;
+      if (name.equals ("getBytes") || properties.containsKey (propertyName) || ! isValueType (type))
+        continue;
+      try
+      {
+        // Methods of non-public classes (e.g., anonymous settings classes) must be made accessible.
+        method.setAccessible (true);
+      }
+      catch (SecurityException se)
+      {
+        continue;
+      }
+      properties.put (propertyName, method);
+    }
+    return Collections.unmodifiableMap (properties);
+  }
+
+  private static boolean isValueType (final Class<?> type)
+  {
+    if (type.isPrimitive () || type.isArray () || type.isEnum () || type.isInterface ())
+      return true;
+    try
+    {
+      return type.getMethod ("equals", Object.class).getDeclaringClass () != Object.class;
+    }
+    catch (NoSuchMethodException nsme)
+    {
+      return false;
+    }
+  }
+
+  private static String decapitalize (final String name)
+  {
+    if (name.length () > 1 && Character.isUpperCase (name.charAt (1)) && Character.isUpperCase (name.charAt (0)))
+      return name;
+    return Character.toLowerCase (name.charAt (0)) + name.substring (1);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** An asynchronous subscription of an {@link InstrumentListener} to an {@link Instrument}.
+ *
+ * <p>
+ * Unlike a listener registered through {@link Instrument#addInstrumentListener},
+ * which is notified synchronously from the dispatcher of the instrument,
+ * a subscribed listener is notified from its own {@link Executor},
+ * through its own bounded queue of pending notifications.
+ * A slow subscriber therefore never stalls the delivery to other listeners;
+ * it merely builds up lag, and, eventually, loses notifications.
+ *
+ * <p>
+ * Notifications are delivered one at a time, in order.
+ * The {@link Policy} of the subscription determines whether pending (undelivered) status and settings
+ * notifications are replaced by newer ones (conflation).
+ * In addition, readings can be decimated to a maximum rate;
+ * the latest reading skipped is delivered when the minimum interval between readings expires,
+ * so subscribers always end up with the most recent reading.
+ * Notifications arriving while the queue is full are dropped.
+ * Lag, conflation, decimation and drops are exposed through counters on the subscription.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ * @see Instrument#subscribe
+ *
+ */
+public final class InstrumentSubscription
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (InstrumentSubscription.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // POLICY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The delivery policy for status and settings notifications.
+   *
+   */
+  public enum Policy
+  {
+
+    /** Every status and settings notification is delivered (unless the queue overflows).
+     *
+     */
+    LOSSLESS,
+
+    /** A pending status or settings notification is replaced in place by a newer one of the same kind.
+     *
+     * <p>
+     * Subscribers thus only see the latest status and settings,
+     * and never have more than one status and one settings notification pending.
+     * A replaced settings change is merged with its replacement;
+     * see {@link InstrumentSettingsChange#merge}.
+     *
+     */
+    CONFLATE_LATEST;
+
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static int DEFAULT_CAPACITY = 64;
+
+  private InstrumentSubscription (
+    final Instrument instrument,
+    final InstrumentListener listener,
+    final Policy policy,
+    final int capacity,
+    final double maxReadingRate_Hz,
+    final Executor executor)
+  {
+    if (instrument == null || listener == null || policy == null || capacity <= 0 || maxReadingRate_Hz < 0)
+      throw new IllegalArgumentException ();
+    this.instrument = instrument;
+    this.listener = listener;
+    this.policy = policy;
+    this.capacity = capacity;
+    this.minReadingInterval_ns = maxReadingRate_Hz > 0 ? (long) (1.0e9 / maxReadingRate_Hz) : 0L;
+    this.executor = InstrumentExecutors.newSerialExecutor (executor != null ? executor : InstrumentExecutors.getDispatcherPool ());
+  }
+
+  /** Subscribes a listener to an instrument.
+   *
+   * @param instrument        The instrument, non-{@code null}.
+   * @param listener          The listener, non-{@code null}.
+   * @param policy            The delivery policy for status and settings notifications, non-{@code null}.
+   * @param capacity          The capacity of the queue of pending notifications, strictly positive.
+   * @param maxReadingRate_Hz The maximum rate of reading notifications in Hertz; zero for no limit.
+   * @param executor          The executor on which to notify the listener
+   *                            (e.g., {@link javax.swing.SwingUtilities#invokeLater} for Swing components);
+   *                            {@code null} for the shared dispatcher pool.
+   *
+   * @return The new (active) subscription.
+   *
+   * @throws IllegalArgumentException If the instrument, listener or policy is {@code null},
+   *                                    or the capacity or maximum reading rate is out of range.
+   *
+   * @see InstrumentExecutors#getDispatcherPool
+   *
+   */
+  public static InstrumentSubscription subscribe (
+    final Instrument instrument,
+    final InstrumentListener listener,
+    final Policy policy,
+    final int capacity,
+    final double maxReadingRate_Hz,
+    final Executor executor)
+  {
+    final InstrumentSubscription subscription =
+      new InstrumentSubscription (instrument, listener, policy, capacity, maxReadingRate_Hz, executor);
+    instrument.addInstrumentListener (subscription.instrumentListener);
+    return subscription;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // INSTRUMENT
+  // LISTENER
+  // POLICY
+  // CAPACITY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final Instrument instrument;
+
+  public final Instrument getInstrument ()
+  {
+    return this.instrument;
+  }
+
+  private final InstrumentListener listener;
+
+  public final InstrumentListener getListener ()
+  {
+    return this.listener;
+  }
+
+  private final Policy policy;
+
+  public final Policy getPolicy ()
+  {
+    return this.policy;
+  }
+
+  private final int capacity;
+
+  public final int getCapacity ()
+  {
+    return this.capacity;
+  }
+
+  private final long minReadingInterval_ns;
+
+  private final Executor executor;
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CANCEL
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private volatile boolean cancelled = false;
+
+  /** Cancels this subscription.
+   *
+   * <p>
+   * Pending notifications are discarded;
+   * a notification currently being delivered is not interrupted.
+   *
+   */
+  public final void cancel ()
+  {
+    this.instrument.removeInstrumentListener (this.instrumentListener);
+    this.cancelled = true;
+    synchronized (this.events)
+    {
+      this.events.clear ();
+      this.pendingStatusEvent = null;
+      this.pendingSettingsEvent = null;
+      this.decimatedReading = null;
+    }
+  }
+
+  public final boolean isCancelled ()
+  {
+    return this.cancelled;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COUNTERS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // All guarded by the lock on this.events.
+  private int maxLag = 0;
+  private long deliveredCount = 0;
+  private long conflatedCount = 0;
+  private long decimatedCount = 0;
+  private long dropCount = 0;
+
+  /** Returns the current lag, i.e., the number of pending (undelivered) notifications.
+   *
+   * @return The current lag.
+   *
+   */
+  public final int getLag ()
+  {
+    synchronized (this.events)
+    {
+      return this.events.size ();
+    }
+  }
+
+  /** Returns the maximum lag observed (the high-water mark of the queue).
+   *
+   * @return The maximum lag observed.
+   *
+   */
+  public final int getMaxLag ()
+  {
+    synchronized (this.events)
+    {
+      return this.maxLag;
+    }
+  }
+
+  public final long getDeliveredCount ()
+  {
+    synchronized (this.events)
+    {
+      return this.deliveredCount;
+    }
+  }
+
+  /** Returns the number of status and settings notifications replaced by newer ones before delivery.
+   *
+   * @return The number of conflated notifications.
+   *
+   * @see Policy#CONFLATE_LATEST
+   *
+   */
+  public final long getConflatedCount ()
+  {
+    synchronized (this.events)
+    {
+      return this.conflatedCount;
+    }
+  }
+
+  /** Returns the number of reading notifications skipped due to the maximum reading rate.
+   *
+   * <p>
+   * A decimated reading that is delivered after all upon expiry of the minimum interval between readings
+   * is not counted.
+   *
+   * @return The number of decimated reading notifications.
+   *
+   */
+  public final long getDecimatedCount ()
+  {
+    synchronized (this.events)
+    {
+      return this.decimatedCount;
+    }
+  }
+
+  /** Returns the number of notifications dropped because the queue was full.
+   *
+   * @return The number of dropped notifications.
+   *
+   */
+  public final long getDropCount ()
+  {
+    synchronized (this.events)
+    {
+      return this.dropCount;
+    }
+  }
+
+  public final void resetCounters ()
+  {
+    synchronized (this.events)
+    {
+      this.maxLag = this.events.size ();
+      this.deliveredCount = 0;
+      this.conflatedCount = 0;
+      this.decimatedCount = 0;
+      this.dropCount = 0;
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // EVENTS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private enum EventType
+  {
+    STATUS,
+    SETTINGS,
+    READING,
+    DEBUG;
+  }
+
+  private final static class Event
+  {
+
+    private Event (final EventType type, final Object object)
+    {
+      this.type = type;
+      this.object = object;
+    }
+
+    private final EventType type;
+
+    // May be replaced (conflation) while pending; guarded by the lock on InstrumentSubscription.this.events.
+    private Object object;
+
+    private Object[] debugArgs = null;
+
+  }
+
+  private final Queue<Event> events = new ArrayDeque<> ();
+
+  // Guarded by the lock on this.events.
+  private Event pendingStatusEvent = null;
+
+  // Guarded by the lock on this.events.
+  private Event pendingSettingsEvent = null;
+
+  // Guarded by the lock on this.events.
+  private long lastReadingTime_ns = 0L;
+
+  // Guarded by the lock on this.events.
+  private boolean lastReadingTimeValid = false;
+
+  // The latest reading skipped due to the maximum reading rate, awaiting expiry of the minimum interval.
+  // Guarded by the lock on this.events.
+  private Object decimatedReading = null;
+
+  // Guarded by the lock on this.events.
+  private boolean decimatedReadingScheduled = false;
+
+  private void offer (final EventType type, final Object object, final Object[] debugArgs)
+  {
+    if (this.cancelled)
+      return;
+    final boolean added;
+    synchronized (this.events)
+    {
+      added = enqueue (type, object, debugArgs);
+    }
+    // One delivery task per event; each task delivers (at most) one event.
+    if (added)
+      this.executor.execute (this::deliverNext);
+  }
+
+  // On the scheduler thread.
+  private void offerDecimatedReading ()
+  {
+    final boolean added;
+    synchronized (this.events)
+    {
+      this.decimatedReadingScheduled = false;
+      final Object reading = this.decimatedReading;
+      this.decimatedReading = null;
+      if (reading == null || this.cancelled)
+        return;
+      // Re-decimated (and rescheduled) if a newer reading restarted the interval in the meantime.
+      added = enqueue (EventType.READING, reading, null);
+    }
+    if (added)
+      this.executor.execute (this::deliverNext);
+  }
+
+  // Must be called with the lock on this.events held; returns whether an event was added to the queue.
+  private boolean enqueue (final EventType type, final Object object, final Object[] debugArgs)
+  {
+    if (this.policy == Policy.CONFLATE_LATEST)
+    {
+      if (type == EventType.STATUS && this.pendingStatusEvent != null)
+      {
+        this.pendingStatusEvent.object = object;
+        this.conflatedCount++;
+        return false;
+      }
+      if (type == EventType.SETTINGS && this.pendingSettingsEvent != null)
+      {
+        // Conflated settings changes are merged, so the subscriber still sees all changed values.
+        this.pendingSettingsEvent.object =
+          ((InstrumentSettingsChange) this.pendingSettingsEvent.object).merge ((InstrumentSettingsChange) object);
+        this.conflatedCount++;
+        return false;
+      }
+    }
+    if (type == EventType.READING && this.minReadingInterval_ns > 0)
+    {
+      final long now_ns = System.nanoTime ();
+      if (this.lastReadingTimeValid && now_ns - this.lastReadingTime_ns < this.minReadingInterval_ns)
+      {
+        // Keep the latest reading; it is delivered when the interval expires, unless superseded before.
+        if (this.decimatedReading != null)
+          this.decimatedCount++;
+        this.decimatedReading = object;
+        if (! this.decimatedReadingScheduled)
+        {
+          this.decimatedReadingScheduled = true;
+          InstrumentExecutors.getScheduler ().schedule (
+            this::offerDecimatedReading,
+            this.lastReadingTime_ns + this.minReadingInterval_ns - now_ns,
+            TimeUnit.NANOSECONDS);
+        }
+        return false;
+      }
+      if (this.decimatedReading != null)
+      {
+        // Superseded by the current reading.
+        this.decimatedReading = null;
+        this.decimatedCount++;
+      }
+      this.lastReadingTime_ns = now_ns;
+      this.lastReadingTimeValid = true;
+    }
+    if (this.events.size () >= this.capacity)
+    {
+      this.dropCount++;
+      return false;
+    }
+    final Event event = new Event (type, object);
+    event.debugArgs = debugArgs;
+    this.events.add (event);
+    if (type == EventType.STATUS)
+      this.pendingStatusEvent = event;
+    else if (type == EventType.SETTINGS)
+      this.pendingSettingsEvent = event;
+    this.maxLag = Math.max (this.maxLag, this.events.size ());
+    return true;
+  }
+
+  private void deliverNext ()
+  {
+    final Event event;
+    final Object object;
+    synchronized (this.events)
+    {
+      event = this.events.poll ();
+      if (event == null)
+        return;
+      if (event == this.pendingStatusEvent)
+        this.pendingStatusEvent = null;
+      else if (event == this.pendingSettingsEvent)
+        this.pendingSettingsEvent = null;
+      object = event.object;
+      this.deliveredCount++;
+    }
+    if (this.cancelled)
+      return;
+    try
+    {
+      switch (event.type)
+      {
+        case STATUS:
+          this.listener.newInstrumentStatus (this.instrument, (InstrumentStatus) object);
+          break;
+        case SETTINGS:
+          this.listener.newInstrumentSettingsChange (this.instrument, (InstrumentSettingsChange) object);
+          break;
+        case READING:
+          this.listener.newInstrumentReading (this.instrument, (InstrumentReading) object);
+          break;
+        case DEBUG:
+        {
+          final Object[] a = event.debugArgs;
+          this.listener.newInstrumentDebug ((Instrument) a[0], (int) a[1],
+            (InstrumentStatus) a[2], (InstrumentSettings) a[3], (InstrumentReading) a[4], a[5], a[6], a[7]);
+          break;
+        }
+        default:
+          throw new RuntimeException ();
+      }
+    }
+    catch (Exception e)
+    {
+      LOG.log (Level.WARNING, "Exception (ignored) from subscriber {0} on {1}: {2}.",
+        new Object[]{this.listener, this.instrument, e});
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // INSTRUMENT LISTENER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final InstrumentListener instrumentListener = new InstrumentListener ()
+  {
+
+    @Override
+    public final void newInstrumentStatus (final Instrument instrument, final InstrumentStatus instrumentStatus)
+    {
+      InstrumentSubscription.this.offer (EventType.STATUS, instrumentStatus, null);
+    }
+
+    @Override
+    public final void newInstrumentSettings (final Instrument instrument, final InstrumentSettings instrumentSettings)
+    {
+      InstrumentSubscription.this.offer (EventType.SETTINGS, new InstrumentSettingsChange (null, instrumentSettings), null);
+    }
+
+    @Override
+    public final void newInstrumentSettingsChange (
+      final Instrument instrument,
+      final InstrumentSettingsChange instrumentSettingsChange)
+    {
+      InstrumentSubscription.this.offer (EventType.SETTINGS, instrumentSettingsChange, null);
+    }
+
+    @Override
+    public final void newInstrumentReading (final Instrument instrument, final InstrumentReading instrumentReading)
+    {
+      InstrumentSubscription.this.offer (EventType.READING, instrumentReading, null);
+    }
+
+    @Override
+    public final void newInstrumentDebug (
+      final Instrument instrument,
+      final int debugId,
+      final InstrumentStatus instrumentStatus,
+      final InstrumentSettings instrumentSettings,
+      final InstrumentReading instrumentReading,
+      final Object debugObject1,
+      final Object debugObject2,
+      final Object debugObject3)
+    {
+      InstrumentSubscription.this.offer (EventType.DEBUG, null, new Object[]{
+        instrument,
+        debugId,
+        instrumentStatus,
+        instrumentSettings,
+        instrumentReading,
+        debugObject1,
+        debugObject2,
+        debugObject3});
+    }
+
+  };
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
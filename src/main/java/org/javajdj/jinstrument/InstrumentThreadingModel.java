@@ -0,0 +1,57 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+/** The threading model of the sub-services of an {@link AbstractInstrument}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ * @see InstrumentExecutors#setDefaultThreadingModel
+ * 
+ */
+public enum InstrumentThreadingModel
+{
+
+  /** Each sub-service (collector, dispatcher, command processor, etc.) runs in its own (platform) thread (the default).
+   *
+   */
+  DEDICATED_THREADS,
+  
+  /** Periodic collectors and dispatchers run on a shared pool of (platform) threads.
+   * 
+   * <p>
+   * Periodic collectors are triggered from a shared scheduler, and run on the shared worker pool.
+   * Dispatchers run on a separate shared dispatcher pool, in (serial) order for each individual instrument.
+   * The instrument's command processor (and initializer) still run in their own threads.
+   * 
+   * @see InstrumentExecutors#getWorkerPool
+   * @see InstrumentExecutors#getDispatcherPool
+   * 
+   */
+  SHARED_POOL,
+  
+  /** As {@link #SHARED_POOL}, but with a virtual thread for each task instead of a shared pool of platform threads.
+   * 
+   * <p>
+   * Requires a Java runtime with virtual threads (Java 21 or later).
+   * 
+   * @see InstrumentExecutors#isVirtualThreadsSupported
+   * 
+   */
+  VIRTUAL_THREADS;
+  
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.util.Objects;
+
+/** Detects significant changes in successive reading values for the adaptive reading collector in {@link AbstractInstrument}.
+ *
+ * <p>
+ * Numerical reading values ({@link Number}s and {@code double[]} traces of equal length) are never compared for equality,
+ * since a noisy signal would then be reported as changed on every reading,
+ * keeping the reading collector at its minimum polling interval.
+ * Instead, the detector maintains an (exponentially smoothed) estimate of the noise,
+ * i.e., the distance between successive reading values,
+ * and reports a change only if the distance from the reference value exceeds
+ * {@link #NOISE_THRESHOLD_FACTOR} times that estimate.
+ * The reference value is only replaced upon a reported change (hysteresis),
+ * so that a slow drift is eventually reported as well.
+ *
+ * <p>
+ * The distance between two {@link Number}s is their absolute difference;
+ * the distance between two {@code double[]} traces of equal length is the maximum absolute difference of their elements.
+ * All other reading values are compared for (deep) equality.
+ *
+ * <p>
+ * Not thread-safe; a detector is supposed to be used from a single (reading dispatcher) thread.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+final class ReadingChangeDetector
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  ReadingChangeDetector ()
+  {
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // NOISE ESTIMATE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The factor (6) applied to the noise estimate to obtain the change threshold.
+   *
+   */
+  public final static double NOISE_THRESHOLD_FACTOR = 6;
+
+  /** The smoothing factor (1/16) applied to new distances in the noise estimate.
+   *
+   */
+  public final static double NOISE_SMOOTHING_FACTOR = 0.0625;
+
+  private double noiseEstimate = 0;
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CHANGE DETECTION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private Object referenceValue = null;
+
+  private Object lastValue = null;
+
+  private boolean initialized = false;
+
+  /** Reports a new reading value and returns whether it represents a significant change.
+   *
+   * <p>
+   * The first reading value reported is always considered a change.
+   *
+   * @param readingValue The new reading value, may be {@code null}.
+   *
+   * @return Whether the reading value represents a significant change.
+   *
+   */
+  final boolean isChanged (final Object readingValue)
+  {
+    if (! this.initialized)
+    {
+      this.initialized = true;
+      this.referenceValue = readingValue;
+      this.lastValue = readingValue;
+      return true;
+    }
+    final double lastDistance = ReadingChangeDetector.distance (this.lastValue, readingValue);
+    this.lastValue = readingValue;
+    final double referenceDistance = ReadingChangeDetector.distance (this.referenceValue, readingValue);
+    if (Double.isNaN (lastDistance) || Double.isNaN (referenceDistance))
+    {
+      // Not comparable numerically.
+      final boolean changed = ! Objects.deepEquals (this.referenceValue, readingValue);
+      this.referenceValue = readingValue;
+      return changed;
+    }
+    final boolean changed = referenceDistance > ReadingChangeDetector.NOISE_THRESHOLD_FACTOR * this.noiseEstimate;
+    this.noiseEstimate += ReadingChangeDetector.NOISE_SMOOTHING_FACTOR * (lastDistance - this.noiseEstimate);
+    if (changed)
+      this.referenceValue = readingValue;
+    return changed;
+  }
+
+  /** Returns the numerical distance between two reading values.
+   *
+   * @param a The one value, may be {@code null}.
+   * @param b The other value, may be {@code null}.
+   *
+   * @return The distance, or {@link Double#NaN} if the values cannot be compared numerically.
+   *
+   */
+  private static double distance (final Object a, final Object b)
+  {
+    if (a instanceof Number && b instanceof Number)
+    {
+      final double d = Math.abs (((Number) a).doubleValue () - ((Number) b).doubleValue ());
+      return Double.isFinite (d) ? d : Double.NaN;
+    }
+    if (a instanceof double[] && b instanceof double[] && ((double[]) a).length == ((double[]) b).length)
+    {
+      final double[] da = (double[]) a;
+      final double[] db = (double[]) b;
+      double d = 0;
+      for (int i = 0; i < da.length; i++)
+        d = Math.max (d, Math.abs (da[i] - db[i]));
+      return Double.isFinite (d) ? d : Double.NaN;
+    }
+    return Double.NaN;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -18,6 +18,7 @@ package org.javajdj.jinstrument.controller.gpib;
 
 import java.util.List;
 import org.javajdj.jinstrument.AbstractController;
+import org.javajdj.jinstrument.ControllerCommand;
 import org.javajdj.jservice.Service;
 
 /** Abstract base implementation of {@link GpibController}.
@@ -39,6 +40,66 @@ implements GpibController
   public AbstractGpibController (final String name, final List<Runnable> runnables, final List<Service> targetServices)
   {
     super (name, runnables, targetServices);
+    addRunnable (this.serviceRequestPoller.runnable);
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // GpibController
+  // SERVICE REQUEST POLLER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  private final GpibServiceRequestPoller serviceRequestPoller = new GpibServiceRequestPoller (this);
+  
+  @Override
+  public final GpibServiceRequestPoller getServiceRequestPoller ()
+  {
+    return this.serviceRequestPoller;
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // AbstractController
+  // COMMAND QUEUE KEY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the {@link GpibAddress} of given command as its class for the round-robin command-queue disciplines.
+   * 
+   * <p>
+   * Hence, with these disciplines, each device on the bus has its own sub-queue.
+   * Atomic sequences and repeat-until commands are single commands (on a single device),
+   * and retain their atomicity.
+   * 
+   * @return The {@link GpibAddress} of the command, {@code null} if it is not a {@link GpibControllerCommand}
+   *         or if it has no address.
+   * 
+   */
+  @Override
+  protected Object getCommandQueueKey (final ControllerCommand controllerCommand)
+  {
+    if (controllerCommand instanceof GpibControllerCommand)
+      return ((GpibControllerCommand) controllerCommand).getAddress ();
+    else
+      return null;
+  }
+  
+  /** Sets the weight of given device for the deficit round-robin command-queue discipline.
+   * 
+   * @param address The GPIB address of the device, non-{@code null}.
+   * @param weight  The weight, strictly positive; the default is unity.
+   * 
+   * @throws IllegalArgumentException If the address is {@code null} or the weight is zero or negative.
+   * 
+   * @see #setCommandQueueWeight
+   * 
+   */
+  public final void setDeviceWeight (final GpibAddress address, final int weight)
+  {
+    if (address == null)
+      throw new IllegalArgumentException ();
+    setCommandQueueWeight (address, weight);
   }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -16,9 +16,16 @@
  */
 package org.javajdj.jinstrument.controller.gpib;
 
+import java.util.Map;
+import java.util.function.Consumer;
 import org.javajdj.jinstrument.*;
 
 /** Default implementation of a {@link GpibControllerCommand}.
+ * 
+ * <p>
+ * The opcode, GPIB address, bytes to write, number of bytes (lines) to read
+ * and the read-line termination and read-EOI framing modes are held in typed fields;
+ * see {@link DefaultControllerCommand}.
  * 
  * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
  * 
@@ -28,6 +35,12 @@ public class DefaultGpibControllerCommand
   implements GpibControllerCommand
 {
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
   public DefaultGpibControllerCommand (
     final String command,
     final String arg1, final Object val1,
@@ -67,4 +80,198 @@ public class DefaultGpibControllerCommand
     this (command, null, null, null, null, null, null, null, null);
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // POOLING [GpibControllerCommandPool]
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  final void reinitialize (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2,
+    final String arg3, final Object val3,
+    final String arg4, final Object val4)
+  {
+    initialize (command, arg1, val1, arg2, val2, arg3, val3, arg4, val4);
+  }
+  
+  final void setPool (final Consumer<? super DefaultControllerCommand> recycler)
+  {
+    setRecycler (recycler);
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TYPED FIELDS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  // No field initializers; see DefaultControllerCommand.clearTypedFields.
+  
+  private GpibControllerCommandOpcode opcode;
+  
+  private GpibAddress address;
+  
+  private byte[] writeBytes;
+  
+  private boolean hasReadN;
+  
+  private int readN;
+  
+  private ReadlineTerminationMode readlineTerminationMode;
+  
+  private ReadEOIFramingMode readEOIFramingMode;
+  
+  @Override
+  protected boolean isTypedField (final String key)
+  {
+    switch (key)
+    {
+      case GpibControllerCommand.CCARG_GPIB_ADDRESS:
+      case GpibControllerCommand.CCARG_GPIB_WRITE_BYTES:
+      case GpibControllerCommand.CCARG_GPIB_READ_N:
+      case GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE:
+      case GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE:
+        return true;
+      default:
+        return super.isTypedField (key);
+    }
+  }
+
+  @Override
+  protected Object getTypedField (final String key)
+  {
+    switch (key)
+    {
+      case GpibControllerCommand.CCARG_GPIB_ADDRESS:
+        return this.address != null ? this.address : DefaultControllerCommand.ABSENT;
+      case GpibControllerCommand.CCARG_GPIB_WRITE_BYTES:
+        return this.writeBytes != null ? this.writeBytes : DefaultControllerCommand.ABSENT;
+      case GpibControllerCommand.CCARG_GPIB_READ_N:
+        return this.hasReadN ? (Object) this.readN : DefaultControllerCommand.ABSENT;
+      case GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE:
+        return this.readlineTerminationMode != null ? this.readlineTerminationMode : DefaultControllerCommand.ABSENT;
+      case GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE:
+        return this.readEOIFramingMode != null ? this.readEOIFramingMode : DefaultControllerCommand.ABSENT;
+      default:
+        return super.getTypedField (key);
+    }
+  }
+
+  @Override
+  protected void setTypedField (final String key, final Object value)
+  {
+    final boolean absent = (value == DefaultControllerCommand.ABSENT);
+    switch (key)
+    {
+      case GpibControllerCommand.CCARG_GPIB_ADDRESS:
+        this.address = absent ? null : (GpibAddress) value;
+        break;
+      case GpibControllerCommand.CCARG_GPIB_WRITE_BYTES:
+        this.writeBytes = absent ? null : (byte[]) value;
+        break;
+      case GpibControllerCommand.CCARG_GPIB_READ_N:
+        this.hasReadN = ! absent && value != null;
+        this.readN = this.hasReadN ? (Integer) value : -1;
+        break;
+      case GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE:
+        this.readlineTerminationMode = absent ? null : (ReadlineTerminationMode) value;
+        break;
+      case GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE:
+        this.readEOIFramingMode = absent ? null : (ReadEOIFramingMode) value;
+        break;
+      case ControllerCommand.CC_COMMAND_KEY:
+        super.setTypedField (key, value);
+        this.opcode = GpibControllerCommandOpcode.fromCommandString (getCommand ());
+        break;
+      default:
+        super.setTypedField (key, value);
+        break;
+    }
+  }
+
+  @Override
+  protected void addTypedFields (final Map<String, Object> map)
+  {
+    super.addTypedFields (map);
+    for (final String key : DefaultGpibControllerCommand.TYPED_KEYS)
+    {
+      final Object value = getTypedField (key);
+      if (value != DefaultControllerCommand.ABSENT)
+        map.put (key, value);
+    }
+  }
+
+  @Override
+  protected void clearTypedFields ()
+  {
+    super.clearTypedFields ();
+    this.opcode = null;
+    this.address = null;
+    this.writeBytes = null;
+    this.hasReadN = false;
+    this.readN = -1;
+    this.readlineTerminationMode = null;
+    this.readEOIFramingMode = null;
+  }
+  
+  private final static String[] TYPED_KEYS =
+  {
+    GpibControllerCommand.CCARG_GPIB_ADDRESS,
+    GpibControllerCommand.CCARG_GPIB_WRITE_BYTES,
+    GpibControllerCommand.CCARG_GPIB_READ_N,
+    GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE,
+    GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE
+  };
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // GpibControllerCommand
+  // TYPED ACCESS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  @Override
+  public final GpibControllerCommandOpcode getOpcode ()
+  {
+    return this.opcode;
+  }
+
+  @Override
+  public final GpibAddress getAddress ()
+  {
+    return this.address;
+  }
+
+  @Override
+  public final byte[] getWriteBytes ()
+  {
+    return this.writeBytes;
+  }
+
+  @Override
+  public final int getReadN ()
+  {
+    return this.hasReadN ? this.readN : -1;
+  }
+
+  @Override
+  public final ReadlineTerminationMode getReadlineTerminationMode ()
+  {
+    return this.readlineTerminationMode;
+  }
+
+  @Override
+  public final ReadEOIFramingMode getReadEOIFramingMode ()
+  {
+    return this.readEOIFramingMode;
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    
 }
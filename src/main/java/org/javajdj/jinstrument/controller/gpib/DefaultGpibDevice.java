@@ -19,16 +19,13 @@ package org.javajdj.jinstrument.controller.gpib;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.javajdj.jinstrument.Controller;
 import org.javajdj.jinstrument.ControllerCommand;
-import org.javajdj.jinstrument.ControllerListener;
 import org.javajdj.jservice.support.Service_FromMix;
 
 /** Implementation of {@link GpibDevice}.
@@ -120,6 +117,54 @@ public class DefaultGpibDevice
     return this.address;
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COMMAND POOL
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  private volatile GpibControllerCommandPool commandPool = null;
+  
+  /** Returns the (optional) pool for the commands issued from
+   * {@link #serialPollSync}, {@link #readEOISync} and {@link #writeAndReadEOISync}.
+   * 
+   * @return The command pool, {@code null} if pooling is disabled (the default).
+   * 
+   */
+  public final GpibControllerCommandPool getCommandPool ()
+  {
+    return this.commandPool;
+  }
+  
+  /** Sets the (optional) pool for the commands issued from
+   * {@link #serialPollSync}, {@link #readEOISync} and {@link #writeAndReadEOISync}.
+   * 
+   * <p>
+   * The {@code generate...Command} methods never return pooled commands.
+   * 
+   * @param commandPool The command pool, {@code null} to disable pooling.
+   * 
+   * @see GpibControllerCommandPool
+   * 
+   */
+  public final void setCommandPool (final GpibControllerCommandPool commandPool)
+  {
+    this.commandPool = commandPool;
+  }
+  
+  private GpibControllerCommand obtainCommand (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2,
+    final String arg3, final Object val3)
+  {
+    final GpibControllerCommandPool pool = this.commandPool;
+    if (pool != null)
+      return pool.obtain (command, arg1, val1, arg2, val2, arg3, val3);
+    else
+      return new DefaultGpibControllerCommand (command, arg1, val1, arg2, val2, arg3, val3);
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // GpibDevice
@@ -160,36 +205,31 @@ public class DefaultGpibDevice
     // XXX
     //
     // This piece of code needs some review.
-    // (1) There should be some easier BlockingQueue type that we can use (just entry or something like that).
-    // (2) Upon timeout here, we modify the command, but that might have been done already by the controller.
-    // (3) Shouldn't we remove the command from the controller queue upon timeout?
-    // (4) Isn't it easier to put this complexity into the controller itself?
+    // (1) Upon timeout here, we modify the command, but that might have been done already by the controller.
+    // (2) Shouldn't we remove the command from the controller queue upon timeout?
     //
     // XXX
     //
-    final BlockingQueue<ControllerCommand> queue = new LinkedBlockingQueue<> ();
-    final ControllerListener listener = (final Controller controller, final ControllerCommand controllerCommand) ->
-    {
-      if (controller == getController () && controllerCommand == command)
-        queue.add (command);
-    };
-    getController ().addControllerListener (listener);
+    // We wait on the command's own completion future instead of registering a (temporary) ControllerListener;
+    // the latter requires copying the controller's listener set twice for each command,
+    // and having each processed command delivered to each (temporary) listener.
+    //
     doControllerCommandAsync (command, null, null, timeout_ms);
     try
     {
-      if (queue.poll (timeout_ms, TimeUnit.MILLISECONDS) == null)
-      {
-        final TimeoutException toe = new TimeoutException ();
-        command.put (ControllerCommand.CCRET_EXCEPTION_KEY, toe);
-      }
+      command.getCompletionFuture ().get (timeout_ms, TimeUnit.MILLISECONDS);
     }
-    catch (InterruptedException ie)
+    catch (ExecutionException ee)
     {
-      command.put (ControllerCommand.CCRET_EXCEPTION_KEY, ie);
+      // EMPTY; the exception is noted on the command.
     }
-    finally
+    catch (TimeoutException te)
+    {
+      command.put (ControllerCommand.CCRET_EXCEPTION_KEY, te);
+    }
+    catch (InterruptedException ie)
     {
-      getController ().removeControllerListener (listener);
+      command.put (ControllerCommand.CCRET_EXCEPTION_KEY, ie);
     }
     if (command.containsKey (ControllerCommand.CCRET_EXCEPTION_KEY))
     {
@@ -320,9 +360,19 @@ public class DefaultGpibDevice
   public byte serialPollSync (final long timeout_ms)
     throws InterruptedException, IOException, TimeoutException, UnsupportedOperationException
   {
-    final GpibControllerCommand command = generateSerialPollCommand ();
-    doControllerCommandSync (command, timeout_ms);
-    return (byte) command.get (GpibControllerCommand.CCRET_VALUE_KEY);
+    final GpibControllerCommand command = obtainCommand (GpibControllerCommand.CCCMD_GPIB_SERIAL_POLL,
+      GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address,
+      null, null,
+      null, null);
+    try
+    {
+      doControllerCommandSync (command, timeout_ms);
+      return (byte) command.getReturnValue ();
+    }
+    finally
+    {
+      command.release ();
+    }
   }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -375,8 +425,17 @@ public class DefaultGpibDevice
   @Override
   public GpibControllerCommand generateReadEOICommand ()
   {
+    return generateReadEOICommand (ReadEOIFramingMode.UNKNOWN);
+  }
+  
+  @Override
+  public GpibControllerCommand generateReadEOICommand (final ReadEOIFramingMode readEOIFramingMode)
+  {
+    if (readEOIFramingMode == null)
+      throw new IllegalArgumentException ();
     final GpibControllerCommand command = new DefaultGpibControllerCommand (GpibControllerCommand.CCCMD_GPIB_READ_EOI,
-      GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address);
+      GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address,
+      GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE, readEOIFramingMode);
     return command;
   }
   
@@ -397,9 +456,42 @@ public class DefaultGpibDevice
   public byte[] readEOISync (final long timeout_ms)
     throws InterruptedException, IOException, TimeoutException
   {
-    final GpibControllerCommand command = generateReadEOICommand ();
-    doControllerCommandSync (command, timeout_ms);
-    return (byte[]) command.get (GpibControllerCommand.CCRET_VALUE_KEY);
+    return readEOISync (ReadEOIFramingMode.UNKNOWN, timeout_ms);
+  }
+
+  @Override
+  public void readEOIAsync (
+    final ReadEOIFramingMode readEOIFramingMode,
+    final Long queueingTimeout_ms,
+    final Long processingTimeout_ms,
+    final Long sojournTimeout_ms)
+  {
+    doControllerCommandAsync (
+      generateReadEOICommand (readEOIFramingMode),
+      queueingTimeout_ms,
+      processingTimeout_ms,
+      sojournTimeout_ms);
+  }
+
+  @Override
+  public byte[] readEOISync (final ReadEOIFramingMode readEOIFramingMode, final long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    if (readEOIFramingMode == null)
+      throw new IllegalArgumentException ();
+    final GpibControllerCommand command = obtainCommand (GpibControllerCommand.CCCMD_GPIB_READ_EOI,
+      GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address,
+      GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE, readEOIFramingMode,
+      null, null);
+    try
+    {
+      doControllerCommandSync (command, timeout_ms);
+      return (byte[]) command.getReturnValue ();
+    }
+    finally
+    {
+      command.release ();
+    }
   }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -532,9 +624,18 @@ public class DefaultGpibDevice
   @Override
   public GpibControllerCommand generateWriteAndReadEOICommand (final byte[] bytes)
   {
+    return generateWriteAndReadEOICommand (bytes, ReadEOIFramingMode.UNKNOWN);
+  }
+  
+  @Override
+  public GpibControllerCommand generateWriteAndReadEOICommand (final byte[] bytes, final ReadEOIFramingMode readEOIFramingMode)
+  {
+    if (readEOIFramingMode == null)
+      throw new IllegalArgumentException ();
     final GpibControllerCommand command = new DefaultGpibControllerCommand (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_EOI,
       GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address,
-      GpibControllerCommand.CCARG_GPIB_WRITE_BYTES, bytes);
+      GpibControllerCommand.CCARG_GPIB_WRITE_BYTES, bytes,
+      GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE, readEOIFramingMode);
     return command;
   }
   
@@ -556,9 +657,43 @@ public class DefaultGpibDevice
   public byte[] writeAndReadEOISync (final byte[] bytes, final long timeout_ms)
     throws InterruptedException, IOException, TimeoutException
   {
-    final GpibControllerCommand command = generateWriteAndReadEOICommand (bytes);
-    doControllerCommandSync (command, timeout_ms);
-    return (byte[]) command.get (GpibControllerCommand.CCRET_VALUE_KEY);
+    return writeAndReadEOISync (bytes, ReadEOIFramingMode.UNKNOWN, timeout_ms);
+  }
+  
+  @Override
+  public void writeAndReadEOIAsync (
+    final byte[] bytes,
+    final ReadEOIFramingMode readEOIFramingMode,
+    final Long queueingTimeout_ms,
+    final Long processingTimeout_ms,
+    final Long sojournTimeout_ms)
+  {
+    doControllerCommandAsync (
+      generateWriteAndReadEOICommand (bytes, readEOIFramingMode),
+      queueingTimeout_ms,
+      processingTimeout_ms,
+      sojournTimeout_ms);
+  }
+
+  @Override
+  public byte[] writeAndReadEOISync (final byte[] bytes, final ReadEOIFramingMode readEOIFramingMode, final long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    if (readEOIFramingMode == null)
+      throw new IllegalArgumentException ();
+    final GpibControllerCommand command = obtainCommand (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_EOI,
+      GpibControllerCommand.CCARG_GPIB_ADDRESS, this.address,
+      GpibControllerCommand.CCARG_GPIB_WRITE_BYTES, bytes,
+      GpibControllerCommand.CCARG_GPIB_READ_EOI_FRAMING_MODE, readEOIFramingMode);
+    try
+    {
+      doControllerCommandSync (command, timeout_ms);
+      return (byte[]) command.getReturnValue ();
+    }
+    finally
+    {
+      command.release ();
+    }
   }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -27,4 +27,11 @@ public interface GpibController
   extends Controller
 {
   
+  /** Returns the (single) GPIB Service Request poller for the bus of this controller.
+   * 
+   * @return The Service Request poller, non-{@code null}.
+   * 
+   */
+  GpibServiceRequestPoller getServiceRequestPoller ();
+  
 }
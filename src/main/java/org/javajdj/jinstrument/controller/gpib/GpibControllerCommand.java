@@ -45,6 +45,7 @@ public interface GpibControllerCommand
   
   public final static String CCARG_GPIB_ADDRESS = "gpibArgAddress";
   public final static String CCARG_GPIB_READLN_TERMINATION_MODE = "gpibArgReadlnTerminationMode";
+  public final static String CCARG_GPIB_READ_EOI_FRAMING_MODE = "gpibArgReadEOIFramingMode";
   public final static String CCARG_GPIB_READ_N = "gpibArgReadN";
   public final static String CCARG_GPIB_WRITE_BYTES = "gpibArgWriteBytes";
   public final static String CCARG_GPIB_ATOMIC_SEQUENCE = "gpibArgAtomicSequence";
@@ -52,4 +53,54 @@ public interface GpibControllerCommand
   public final static String CCARG_GPIB_ATOMIC_REPEAT_UNTIL_CONDITION = "gpibArgAtomicRepeatUntilCondition";
   public final static String CCARG_GPIB_USER_RUNNABLE = "gpibArgUserRunnable";
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TYPED ACCESS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the opcode of this command.
+   * 
+   * @return The opcode, {@code null} if the command {@code String} is not a known (GPIB) command.
+   * 
+   * @see GpibControllerCommandOpcode#fromCommandString
+   * 
+   */
+  GpibControllerCommandOpcode getOpcode ();
+  
+  /** Returns the value stored under {@link #CCARG_GPIB_ADDRESS}.
+   * 
+   * @return The GPIB address, {@code null} if not set.
+   * 
+   */
+  GpibAddress getAddress ();
+  
+  /** Returns the value stored under {@link #CCARG_GPIB_WRITE_BYTES}.
+   * 
+   * @return The bytes to write, {@code null} if not set; the array is not copied.
+   * 
+   */
+  byte[] getWriteBytes ();
+  
+  /** Returns the value stored under {@link #CCARG_GPIB_READ_N}.
+   * 
+   * @return The number of bytes or lines to read, {@code -1} if not set.
+   * 
+   */
+  int getReadN ();
+  
+  /** Returns the value stored under {@link #CCARG_GPIB_READLN_TERMINATION_MODE}.
+   * 
+   * @return The read-line termination mode, {@code null} if not set.
+   * 
+   */
+  ReadlineTerminationMode getReadlineTerminationMode ();
+  
+  /** Returns the value stored under {@link #CCARG_GPIB_READ_EOI_FRAMING_MODE}.
+   * 
+   * @return The read-EOI framing mode, {@code null} if not set.
+   * 
+   */
+  ReadEOIFramingMode getReadEOIFramingMode ();
+  
 }
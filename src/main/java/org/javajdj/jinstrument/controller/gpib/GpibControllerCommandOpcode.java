@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.javajdj.jinstrument.ControllerCommand;
+
+/** The (known) operations of a {@link GpibControllerCommand}.
+ *
+ * <p>
+ * Each opcode corresponds one-to-one with a command {@code String}
+ * (the value stored under {@link ControllerCommand#CC_COMMAND_KEY}),
+ * and allows controllers to dispatch commands without {@code String} comparisons.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public enum GpibControllerCommandOpcode
+{
+
+  RESET_CONTROLLER                  (ControllerCommand.CCCMD_RESET_CONTROLLER),
+  NOP                               (ControllerCommand.CCCMD_NOP),
+  PROBE                             (ControllerCommand.CCCMD_PROPE),
+  GET_SETTINGS                      (ControllerCommand.CCCMD_GET_SETTINGS),
+  SELECTED_DEVICE_CLEAR             (GpibControllerCommand.CCCMD_GPIB_SELECTED_DEVICE_CLEAR),
+  POLL_SERVICE_REQUEST              (GpibControllerCommand.CCCMD_GPIB_POLL_SERVICE_REQUEST),
+  SERIAL_POLL                       (GpibControllerCommand.CCCMD_GPIB_SERIAL_POLL),
+  POLL_SERVICE_REQUEST_STATUS_BYTE  (GpibControllerCommand.CCCMD_GPIB_POLL_SERVICE_REQUEST_STATUS_BYTE),
+  READ_EOI                          (GpibControllerCommand.CCCMD_GPIB_READ_EOI),
+  READLN                            (GpibControllerCommand.CCCMD_GPIB_READLN),
+  READ_N                            (GpibControllerCommand.CCCMD_GPIB_READ_N),
+  WRITE                             (GpibControllerCommand.CCCMD_GPIB_WRITE),
+  WRITE_AND_READ_EOI                (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_EOI),
+  WRITE_AND_READLN                  (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READLN),
+  WRITE_AND_READ_N                  (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_N),
+  WRITE_AND_READLN_N                (GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READLN_N),
+  ATOMIC_SEQUENCE                   (GpibControllerCommand.CCCMD_GPIB_ATOMIC_SEQUENCE),
+  ATOMIC_REPEAT_UNTIL               (GpibControllerCommand.CCCMD_GPIB_ATOMIC_REPEAT_UNTIL),
+  USER_RUNNABLE                     (GpibControllerCommand.CCCMD_GPIB_USER_RUNNABLE);
+
+  private GpibControllerCommandOpcode (final String commandString)
+  {
+    this.commandString = commandString;
+  }
+
+  private final String commandString;
+
+  /** Returns the command {@code String} corresponding to this opcode.
+   *
+   * @return The command {@code String}, non-{@code null}.
+   *
+   */
+  public final String getCommandString ()
+  {
+    return this.commandString;
+  }
+
+  private final static Map<String, GpibControllerCommandOpcode> FROM_COMMAND_STRING = new HashMap<> ();
+
+  static
+  {
+    for (final GpibControllerCommandOpcode opcode : GpibControllerCommandOpcode.values ())
+      GpibControllerCommandOpcode.FROM_COMMAND_STRING.put (opcode.commandString, opcode);
+  }
+
+  /** Returns the opcode corresponding to given command {@code String}.
+   *
+   * @param commandString The command {@code String}, may be {@code null}.
+   *
+   * @return The opcode, {@code null} if the command {@code String} is {@code null} or unknown.
+   *
+   */
+  public static GpibControllerCommandOpcode fromCommandString (final String commandString)
+  {
+    return commandString == null ? null : GpibControllerCommandOpcode.FROM_COMMAND_STRING.get (commandString);
+  }
+
+}
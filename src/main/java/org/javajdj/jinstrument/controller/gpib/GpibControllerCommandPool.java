@@ -0,0 +1,134 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.javajdj.jinstrument.ControllerCommand;
+import org.javajdj.jinstrument.DefaultControllerCommand;
+
+/** A bounded pool of {@link DefaultGpibControllerCommand}s.
+ *
+ * <p>
+ * Meant for high-rate commands issued (synchronously) from a single place,
+ * like serial polls, reads and write-and-reads in {@link DefaultGpibDevice}.
+ * Commands obtained from the pool carry two references;
+ * see {@link ControllerCommand#release}.
+ * If the pool is empty, a new command is created;
+ * if the pool is full, released commands are left to the garbage collector.
+ *
+ * <p>
+ * Pooled commands must not be retained (e.g., by controller listeners) after their last release.
+ * Controllers do not release commands while controller logging is active,
+ * in which case the commands are simply not recycled.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public final class GpibControllerCommandPool
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The default capacity (16) of a pool.
+   *
+   */
+  public final static int DEFAULT_CAPACITY = 16;
+
+  public GpibControllerCommandPool (final int capacity)
+  {
+    if (capacity <= 0)
+      throw new IllegalArgumentException ();
+    this.freeCommands = new ArrayBlockingQueue<> (capacity);
+  }
+
+  public GpibControllerCommandPool ()
+  {
+    this (GpibControllerCommandPool.DEFAULT_CAPACITY);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // OBTAIN / RECYCLE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final BlockingQueue<DefaultGpibControllerCommand> freeCommands;
+
+  private final AtomicLong numberOfCreatedCommands = new AtomicLong ();
+
+  private final Consumer<DefaultControllerCommand> recycler = this::recycle;
+
+  private void recycle (final DefaultControllerCommand command)
+  {
+    // Drop references to (potentially large) arguments and return values before pooling.
+    command.clear ();
+    this.freeCommands.offer ((DefaultGpibControllerCommand) command);
+  }
+
+  /** Obtains a command from the pool, or creates a new one if the pool is empty.
+   *
+   * <p>
+   * The arguments are as in the constructors of {@link DefaultGpibControllerCommand}.
+   *
+   * @return The command, with two outstanding references.
+   *
+   * @throws IllegalArgumentException If the command is {@code null} or empty,
+   *                                  or if any of the argument names is empty.
+   *
+   */
+  public final DefaultGpibControllerCommand obtain (
+    final String command,
+    final String arg1, final Object val1,
+    final String arg2, final Object val2,
+    final String arg3, final Object val3)
+  {
+    DefaultGpibControllerCommand controllerCommand = this.freeCommands.poll ();
+    if (controllerCommand == null)
+    {
+      controllerCommand = new DefaultGpibControllerCommand (command, arg1, val1, arg2, val2, arg3, val3);
+      this.numberOfCreatedCommands.incrementAndGet ();
+    }
+    else
+      controllerCommand.reinitialize (command, arg1, val1, arg2, val2, arg3, val3, null, null);
+    controllerCommand.setPool (this.recycler);
+    return controllerCommand;
+  }
+
+  /** Returns the number of commands created by this pool (as opposed to being recycled).
+   *
+   * @return The number of commands created by this pool.
+   *
+   */
+  public final long getNumberOfCreatedCommands ()
+  {
+    return this.numberOfCreatedCommands.get ();
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -30,6 +30,16 @@ public interface GpibDevice
   extends Device
 {
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // Device
+  // CONTROLLER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  @Override
+  public GpibController getController ();
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // Device
@@ -144,6 +154,19 @@ public interface GpibDevice
   
   byte[] readEOISync (long timeout_ms)
     throws InterruptedException, IOException, TimeoutException, UnsupportedOperationException;
+  
+  GpibControllerCommand generateReadEOICommand (ReadEOIFramingMode readEOIFramingMode)
+    throws UnsupportedOperationException;
+  
+  void readEOIAsync (
+    ReadEOIFramingMode readEOIFramingMode,
+    Long queueingTimeout_ms,
+    Long processingTimeout_ms,
+    Long sojournTimeout_ms)
+    throws UnsupportedOperationException;
+  
+  byte[] readEOISync (ReadEOIFramingMode readEOIFramingMode, long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException, UnsupportedOperationException;
     
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -221,6 +244,20 @@ public interface GpibDevice
   byte[] writeAndReadEOISync (byte[] bytes, long timeout_ms)
     throws InterruptedException, IOException, TimeoutException, UnsupportedOperationException;
   
+  GpibControllerCommand generateWriteAndReadEOICommand (byte[] bytes, ReadEOIFramingMode readEOIFramingMode)
+    throws UnsupportedOperationException;
+  
+  void writeAndReadEOIAsync (
+    byte[] bytes,
+    ReadEOIFramingMode readEOIFramingMode,
+    Long queueingTimeout_ms,
+    Long processingTimeout_ms,
+    Long sojournTimeout_ms)
+    throws UnsupportedOperationException;
+  
+  byte[] writeAndReadEOISync (byte[] bytes, ReadEOIFramingMode readEOIFramingMode, long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException, UnsupportedOperationException;
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // WRITE AND READ N
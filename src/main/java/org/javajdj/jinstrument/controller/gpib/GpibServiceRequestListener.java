@@ -0,0 +1,39 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib;
+
+/** A listener for GPIB Service Requests from a specific device, as detected by a {@link GpibServiceRequestPoller}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+@FunctionalInterface
+public interface GpibServiceRequestListener
+{
+  
+  /** Notifies the listener of a Service Request from the device.
+   * 
+   * <p>
+   * Invoked from the poller thread; implementations should return quickly.
+   * 
+   * @param address    The GPIB address of the device.
+   * @param statusByte The status byte obtained from the device through a Serial Poll (with bit 6 set).
+   * 
+   */
+  void serviceRequest (GpibAddress address, byte statusByte);
+  
+}
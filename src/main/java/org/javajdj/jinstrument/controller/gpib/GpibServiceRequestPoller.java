@@ -0,0 +1,416 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.javajdj.jinstrument.ControllerCommand;
+
+/** A single GPIB Service Request poller for all (registered) devices on a bus.
+ *
+ * <p>
+ * Instead of having each instrument probe its own device for a Service Request
+ * (a combined SRQ-poll and serial-poll for each instrument in each period),
+ * the poller periodically issues a single (bus-wide) SRQ-poll at the controller,
+ * and only serial-polls the registered devices if the SRQ line is asserted.
+ * Status bytes with bit 6 set are delivered to the {@link GpibServiceRequestListener} of the device.
+ * Hence, idle bus load is independent of the number of registered devices.
+ *
+ * <p>
+ * The polling period is the minimum of the periods of the registered devices;
+ * the periods are re-evaluated on each cycle.
+ * Devices may supply a semaphore for access to the controller;
+ * if a permit cannot be acquired (without blocking), the device is not serial-polled in that cycle.
+ * The SRQ-poll itself does not address any device, and is never skipped.
+ *
+ * <p>
+ * The poller is owned by its controller, and runs (as a sub-service) while the controller is active
+ * and at least one device is registered.
+ * Exceptions are logged, and do not affect the status of the controller.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ * @see GpibController#getServiceRequestPoller
+ *
+ */
+public final class GpibServiceRequestPoller
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final String LOG_NAME = GpibServiceRequestPoller.class.getName ();
+
+  private static final Logger LOG = Logger.getLogger (LOG_NAME);
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  GpibServiceRequestPoller (final GpibController controller)
+  {
+    if (controller == null)
+      throw new IllegalArgumentException ();
+    this.controller = controller;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONTROLLER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final GpibController controller;
+
+  public final GpibController getController ()
+  {
+    return this.controller;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TIMEOUT
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static long DEFAULT_TIMEOUT_MS = 1000L;
+
+  private volatile long timeout_ms = GpibServiceRequestPoller.DEFAULT_TIMEOUT_MS;
+
+  /** Returns the timeout (sojourn at the controller) of the individual SRQ-poll and serial-poll commands.
+   *
+   * @return The timeout in milliseconds.
+   *
+   */
+  public final long getTimeout_ms ()
+  {
+    return this.timeout_ms;
+  }
+
+  /** Sets the timeout (sojourn at the controller) of the individual SRQ-poll and serial-poll commands.
+   *
+   * @param timeout_ms The timeout in milliseconds, strictly positive.
+   *
+   * @throws IllegalArgumentException If the timeout is zero or negative.
+   *
+   */
+  public final void setTimeout_ms (final long timeout_ms)
+  {
+    if (timeout_ms <= 0)
+      throw new IllegalArgumentException ();
+    this.timeout_ms = timeout_ms;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // REGISTRATIONS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final static class Registration
+  {
+
+    private Registration (
+      final GpibAddress address,
+      final GpibServiceRequestListener listener,
+      final DoubleSupplier period_s,
+      final Supplier<Semaphore> controllerAccessSemaphore)
+    {
+      this.address = address;
+      this.listener = listener;
+      this.period_s = period_s;
+      this.controllerAccessSemaphore = controllerAccessSemaphore;
+    }
+
+    private final GpibAddress address;
+
+    private final GpibServiceRequestListener listener;
+
+    private final DoubleSupplier period_s;
+
+    private final Supplier<Semaphore> controllerAccessSemaphore;
+
+  }
+
+  // Guarded by the lock on this.registrations.
+  private final Map<GpibAddress, Registration> registrations = new LinkedHashMap<> ();
+
+  /** Registers a device with this poller.
+   *
+   * <p>
+   * The period and semaphore suppliers are consulted on each cycle of the poller;
+   * they must be fast and non-blocking.
+   * Any existing registration for the address is replaced.
+   *
+   * @param address                   The GPIB address of the device, non-{@code null}.
+   * @param listener                  The listener for Service Requests from the device, non-{@code null}.
+   * @param period_s                  The supplier of the (maximum) polling period in seconds for the device, non-{@code null}.
+   * @param controllerAccessSemaphore The supplier of the controller-access semaphore for the device;
+   *                                    may be {@code null} and may supply {@code null}.
+   *
+   * @throws IllegalArgumentException If the address, listener or period supplier is {@code null}.
+   *
+   * @see #unregister
+   *
+   */
+  public final void register (
+    final GpibAddress address,
+    final GpibServiceRequestListener listener,
+    final DoubleSupplier period_s,
+    final Supplier<Semaphore> controllerAccessSemaphore)
+  {
+    if (address == null || listener == null || period_s == null)
+      throw new IllegalArgumentException ();
+    synchronized (this.registrations)
+    {
+      this.registrations.put (address, new Registration (address, listener, period_s, controllerAccessSemaphore));
+      this.registrations.notifyAll ();
+    }
+  }
+
+  /** Unregisters a device from this poller.
+   *
+   * <p>
+   * The registration is only removed if it (still) holds given listener.
+   *
+   * @param address  The GPIB address of the device.
+   * @param listener The listener of the device.
+   *
+   */
+  public final void unregister (final GpibAddress address, final GpibServiceRequestListener listener)
+  {
+    synchronized (this.registrations)
+    {
+      final Registration registration = this.registrations.get (address);
+      if (registration != null && registration.listener == listener)
+        this.registrations.remove (address);
+    }
+  }
+
+  /** Returns whether a device is registered with this poller.
+   *
+   * @param address The GPIB address of the device.
+   *
+   * @return Whether the device is registered.
+   *
+   */
+  public final boolean isRegistered (final GpibAddress address)
+  {
+    synchronized (this.registrations)
+    {
+      return this.registrations.containsKey (address);
+    }
+  }
+
+  // Waits for at least one registration; returns a snapshot.
+  private List<Registration> awaitRegistrations ()
+    throws InterruptedException
+  {
+    synchronized (this.registrations)
+    {
+      while (this.registrations.isEmpty ())
+        this.registrations.wait ();
+      return new ArrayList<> (this.registrations.values ());
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COMMANDS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The capacity (4) of the command pool of the poller.
+   *
+   * <p>
+   * The poller issues its commands one at a time,
+   * so the pool only needs to cover commands still held by the controller after a timeout at the poller.
+   *
+   */
+  public final static int COMMAND_POOL_CAPACITY = 4;
+
+  // The poller issues (at least) one command per period for as long as it runs.
+  private final GpibControllerCommandPool commandPool =
+    new GpibControllerCommandPool (GpibServiceRequestPoller.COMMAND_POOL_CAPACITY);
+
+  private Object doCommandSync (final GpibControllerCommand command)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    try
+    {
+      final long timeout_ms = this.timeout_ms;
+      command.setSojournTimeout (Duration.ofMillis (timeout_ms));
+      this.controller.addCommand (command);
+      try
+      {
+        command.getCompletionFuture ().get (timeout_ms, TimeUnit.MILLISECONDS);
+      }
+      catch (ExecutionException ee)
+      {
+        // EMPTY; the exception is noted on the command.
+      }
+      final Exception e = command.getReturnException ();
+      if (e == null)
+        return command.getReturnValue ();
+      else if (e instanceof InterruptedException)
+        throw (InterruptedException) e;
+      else if (e instanceof IOException)
+        throw (IOException) e;
+      else if (e instanceof TimeoutException)
+        throw (TimeoutException) e;
+      else if (e instanceof RuntimeException)
+        throw (RuntimeException) e;
+      else
+        throw new IOException (e);
+    }
+    finally
+    {
+      command.release ();
+    }
+  }
+
+  private boolean pollServiceRequest ()
+    throws InterruptedException, IOException, TimeoutException
+  {
+    // No address: the controller reports the (bus-wide) SRQ status.
+    return (boolean) doCommandSync (this.commandPool.obtain (GpibControllerCommand.CCCMD_GPIB_POLL_SERVICE_REQUEST,
+      null, null,
+      null, null,
+      null, null));
+  }
+
+  private byte serialPoll (final GpibAddress address)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    return (byte) doCommandSync (this.commandPool.obtain (GpibControllerCommand.CCCMD_GPIB_SERIAL_POLL,
+      GpibControllerCommand.CCARG_GPIB_ADDRESS, address,
+      null, null,
+      null, null));
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // POLLER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private void serialPollRegistrations (final List<Registration> registrations)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    for (final Registration registration : registrations)
+    {
+      final Semaphore controllerAccessSemaphore =
+        registration.controllerAccessSemaphore != null ? registration.controllerAccessSemaphore.get () : null;
+      if (controllerAccessSemaphore != null && ! controllerAccessSemaphore.tryAcquire ())
+      {
+        LOG.log (Level.FINE, "GPIB Service Request Poller skips serial poll due to lock on {0} at {1}.",
+          new Object[]{registration.address, this.controller});
+        continue;
+      }
+      final byte statusByte;
+      try
+      {
+        statusByte = serialPoll (registration.address);
+      }
+      finally
+      {
+        if (controllerAccessSemaphore != null)
+          controllerAccessSemaphore.release ();
+      }
+      if ((statusByte & 0x40) != 0)
+        registration.listener.serviceRequest (registration.address, statusByte);
+    }
+  }
+
+  /** The poller (to be run as a sub-service of the controller).
+   *
+   */
+  final Runnable runnable = () ->
+  {
+    LOG.log (Level.INFO, "Starting GPIB Service Request Poller on {0}.", GpibServiceRequestPoller.this.controller);
+    while (! Thread.currentThread ().isInterrupted ())
+    {
+      try
+      {
+        final List<Registration> registrations = awaitRegistrations ();
+        double period_s = Double.POSITIVE_INFINITY;
+        for (final Registration registration : registrations)
+          period_s = Math.min (period_s, registration.period_s.getAsDouble ());
+        final long startTime_ns = System.nanoTime ();
+        try
+        {
+          if (pollServiceRequest ())
+            serialPollRegistrations (registrations);
+        }
+        catch (TimeoutException | IOException | UnsupportedOperationException e)
+        {
+          LOG.log (Level.WARNING, "Exception (ignored) in GPIB Service Request Poller on {0}: {1}.",
+            new Object[]{GpibServiceRequestPoller.this.controller, e});
+        }
+        final long remainingSleep_ns = (long) (period_s * 1.0e9) - (System.nanoTime () - startTime_ns);
+        if (remainingSleep_ns > 0)
+          TimeUnit.NANOSECONDS.sleep (remainingSleep_ns);
+        else
+          // Always yield the controller for at least a moment.
+          Thread.sleep (1L);
+      }
+      catch (InterruptedException ie)
+      {
+        break;
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in GPIB Service Request Poller on {0}: {1}.",
+          new Object[]{GpibServiceRequestPoller.this.controller, Arrays.toString (e.getStackTrace ())});
+        try
+        {
+          Thread.sleep (GpibServiceRequestPoller.this.timeout_ms);
+        }
+        catch (InterruptedException ie)
+        {
+          break;
+        }
+      }
+    }
+    LOG.log (Level.INFO, "Terminating (by request) GPIB Service Request Poller on {0}.", GpibServiceRequestPoller.this.controller);
+  };
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
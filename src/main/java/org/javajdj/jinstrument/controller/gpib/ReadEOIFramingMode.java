@@ -0,0 +1,54 @@
+/* 
+ * Copyright 2010-2019 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package org.javajdj.jinstrument.controller.gpib;
+
+/** Possible (a-priori known) structures of a message read from a (typically GPIB) device up to EOI.
+ * 
+ * <p>
+ * Some controllers cannot report the EOI condition on the bus in-band and unambiguously;
+ * they append a (configurable) end-of-transmission character instead,
+ * which may also legitimately appear in binary data.
+ * Knowing the structure of the message allows such controllers to
+ * detect the end of the message deterministically, i.e., without lingering for more data.
+ * 
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ * 
+ */
+public enum ReadEOIFramingMode
+{
+  
+  /** Nothing is known about the message; it may contain arbitrary binary data.
+   * 
+   */
+  UNKNOWN,
+  
+  /** The message consists of 7-bit (ASCII) text only.
+   * 
+   */
+  TEXT,
+  
+  /** The message consists of 7-bit (ASCII) text, optionally with embedded length-prefixed binary blocks.
+   * 
+   * <p>
+   * Supported binary blocks are IEEE 488.2 definite-length arbitrary blocks ({@code #<n><n-digit length><data>}),
+   * and Tektronix (binary) blocks ({@code %<16-bit big-endian length><data>}),
+   * in which the length includes the trailing checksum byte.
+   * 
+   */
+  BINARY_BLOCK;
+  
+}
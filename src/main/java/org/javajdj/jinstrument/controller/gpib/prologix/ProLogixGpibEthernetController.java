@@ -17,17 +17,13 @@
 package org.javajdj.jinstrument.controller.gpib.prologix;
 
 import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -39,13 +35,16 @@ import org.javajdj.jinstrument.ControllerCommand;
 import org.javajdj.jinstrument.ControllerListener;
 import org.javajdj.jinstrument.config.Configurable;
 import org.javajdj.jinstrument.config.Configuration;
+import org.javajdj.jinstrument.util.ByteRingBuffer;
 import org.javajdj.jinstrument.util.Util;
 import org.javajdj.jinstrument.controller.gpib.AbstractGpibController;
 import org.javajdj.jinstrument.controller.gpib.BusType_GPIB;
 import org.javajdj.jinstrument.controller.gpib.DefaultGpibBus;
 import org.javajdj.jinstrument.controller.gpib.GpibAddress;
 import org.javajdj.jinstrument.controller.gpib.GpibControllerCommand;
+import org.javajdj.jinstrument.controller.gpib.GpibControllerCommandOpcode;
 import org.javajdj.jinstrument.controller.gpib.GpibDevice;
+import org.javajdj.jinstrument.controller.gpib.ReadEOIFramingMode;
 import org.javajdj.jinstrument.controller.gpib.ReadlineTerminationMode;
 
 /** Implementation of {@link Controller} for the Prologix GPIB-ETHERNET controller.
@@ -87,7 +86,6 @@ public final class ProLogixGpibEthernetController
     this.tcpConnectPort = tcpConnectPort;
     this.buses = new Bus[] {new DefaultGpibBus (getControllerUrl () + "/1")};
     addRunnable (new SocketManager ());
-    addRunnable (new SocketReader ());
   }
   
   public ProLogixGpibEthernetController (final String ipAddress)
@@ -178,7 +176,21 @@ public final class ProLogixGpibEthernetController
   
   private final int tcpConnectPort;
 
-  private volatile Socket socket = null;
+  // The connection to the ProLogix controller, managed by the shared I/O runtime.
+  private volatile ProLogixIoRuntime.Connection connection = null;
+
+  // The (buffered) output stream of the connection; set and cleared along with the connection.
+  private volatile OutputStream socketOutputStream = null;
+  
+  /** The size of the buffer for bytes written to the socket.
+   * 
+   * <p>
+   * Writes to the ProLogix controller are collected in this buffer and only sent at explicit flush points,
+   * typically right before we wait for a response, so that all controller commands and data for a single transaction
+   * leave in a single TCP segment.
+   * 
+   */
+  public final static int SOCKET_WRITE_BUFFER_SIZE = 1024;
 
   public final static long DEFAULT_COMMAND_PROCESSING_TIMEOUT_MS = 10000L;
   
@@ -193,7 +205,14 @@ public final class ProLogixGpibEthernetController
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-  private final static int SOCKET_TIMEOUT_S = 1;
+  private void closeConnection ()
+  {
+    final ProLogixIoRuntime.Connection connection = this.connection;
+    this.socketOutputStream = null;
+    this.connection = null;
+    if (connection != null)
+      connection.close ();
+  }
   
   private class SocketManager implements Runnable
   {
@@ -202,29 +221,28 @@ public final class ProLogixGpibEthernetController
     public final void run ()
     {
       LOG.log (Level.INFO, "Starting Socket Manager on {0}.", ProLogixGpibEthernetController.this);
-      if (ProLogixGpibEthernetController.this.socket != null)
+      if (ProLogixGpibEthernetController.this.connection != null)
       {
         LOG.log (Level.SEVERE, "Inproper cleanup of socket!");
-        try
-        {
-          ProLogixGpibEthernetController.this.socket.close ();
-        }
-        catch (IOException ioe)
-        {
-          LOG.log (Level.WARNING, "IOException while closing socket: {0}.", ioe.getStackTrace ());
-        }
-        finally
-        {
-          ProLogixGpibEthernetController.this.socket = null;
-        }
+        ProLogixGpibEthernetController.this.closeConnection ();
       }
       boolean error = false;
       try
       {          
-        final Socket socket =
-          new Socket (ProLogixGpibEthernetController.this.ipAddress, ProLogixGpibEthernetController.this.tcpConnectPort);
-        ProLogixGpibEthernetController.this.socket = socket;
-        ProLogixGpibEthernetController.this.socket.setSoTimeout (SOCKET_TIMEOUT_S);
+        ProLogixGpibEthernetController.this.proLogixInvalidateSessionState ();
+        // Reading from the socket is taken care of by the shared I/O runtime.
+        final ProLogixIoRuntime.Connection connection = ProLogixIoRuntime.getInstance ().connect (
+          ProLogixGpibEthernetController.this.ipAddress,
+          ProLogixGpibEthernetController.this.tcpConnectPort,
+          ProLogixGpibEthernetController.this.readBytes,
+          () ->
+          {
+            LOG.log (Level.WARNING, "Connection lost on {0}!", ProLogixGpibEthernetController.this);
+            error ();
+          });
+        ProLogixGpibEthernetController.this.socketOutputStream =
+          new BufferedOutputStream (connection.getOutputStream (), ProLogixGpibEthernetController.SOCKET_WRITE_BUFFER_SIZE);
+        ProLogixGpibEthernetController.this.connection = connection;
         //
         // Below we preconfigure the ProLogix controller. Most configuration settings should NOT be changed
         // in the implementations of command processing, since various parts of that implementation
@@ -232,7 +250,7 @@ public final class ProLogixGpibEthernetController
         // The only exception is "++eot_enable" which may be temporarily set for reception of (typically) binary blobs of data
         // from the device (like binary trace data), along with a suitable "eot_char" setting.
         // 
-        proLogixCommandWritelnControllerCommand ("++mode 1");       // Controller Mode on ProLogix (instead of Device Mode).
+        proLogixCommandSetControllerMode ();                        // Controller Mode on ProLogix (instead of Device Mode).
         proLogixCommandWritelnControllerCommand ("++ifc");          // Become Controller-In-Charge on GPIB bus;
                                                                     // Interface Clear on GPIB.
         proLogixCommandWritelnControllerCommand ("++eoi 1");        // Enable EOI assertion with
@@ -248,11 +266,12 @@ public final class ProLogixGpibEthernetController
                                                                     // must add command termination themselves.
                                                                     // AND: the controller implementation (us) must escape
                                                                     // all CR, LF, ESC, and '+' characters.
-        proLogixCommandWritelnControllerCommand ("++eot_enable 0"); // Do not append any character (to client) when EOI detected.
+        proLogixCommandSetEOT (false, LF_BYTE);                     // Do not append any character (to client) when EOI detected.
         proLogixCommandWritelnControllerCommand ("++auto 0");       // Do NOT automatically address instruments to talk
                                                                     // after sending them a command in order to read their response.
                                                                     // Meaning we must issue the read commands,
                                                                     // if applicable, ourselves.
+        proLogixFlush ();
       }
       catch (UnknownHostException uhe)
       {
@@ -272,54 +291,26 @@ public final class ProLogixGpibEthernetController
       if (error)
       {
         LOG.log (Level.INFO, "Terminating Socket Manager (error) on {0}.", ProLogixGpibEthernetController.this);
-        if (ProLogixGpibEthernetController.this.socket != null)
-        {
-          try
-          {
-            ProLogixGpibEthernetController.this.socket.close ();
-          }
-          catch (IOException ioe)
-          {
-            LOG.log (Level.WARNING, "IOException while closing socket: {0}.", ioe.getStackTrace ());
-          }
-          finally
-          {
-            ProLogixGpibEthernetController.this.socket = null;
-          }
-        }
+        ProLogixGpibEthernetController.this.closeConnection ();
         error ();
         return;
       }
       // At this point, opening the socket and writing to it (in order to pre-configure the controller) has succeeded.
-      // and the 'socket' member has been set appropriately.
-      // For now, we stay alive, do nothing but sleep, until interrupted.
-      while (! Thread.currentThread ().isInterrupted ())
-      {
-        try
-        {
-          Thread.currentThread ().join (1000L);
-        }
-        catch (InterruptedException ie)
-        {
-          break;
-        }
-      }
-      // At this point, we know we have been interrupted.
-      // Try to close the socket to the client, report any errors while doing so,
-      // but make sure the 'socket' member is set to null a posteriori.
-      // Finally report termination of the Thread in the logs.
+      // and the 'connection' member has been set appropriately.
+      // For now, we stay alive, and wait (without periodic wake-ups) until interrupted.
       try
       {
-        ProLogixGpibEthernetController.this.socket.close ();
+        Thread.currentThread ().join ();
       }
-      catch (IOException ioe)
+      catch (InterruptedException ie)
       {
-        LOG.log (Level.WARNING, "IOException while closing socket: {0}.", ioe.getStackTrace ());
-      }
-      finally
-      {
-        ProLogixGpibEthernetController.this.socket = null;
+        // Expected; fall through.
       }
+      // At this point, we know we have been interrupted.
+      // Close the connection, and make sure the 'connection' member is set to null a posteriori.
+      // Finally report termination of the Thread in the logs.
+      ProLogixGpibEthernetController.this.proLogixInvalidateSessionState ();
+      ProLogixGpibEthernetController.this.closeConnection ();
       LOG.log (Level.INFO, "Terminated Socket Manager (by request) on {0}.", ProLogixGpibEthernetController.this);
     }
     
@@ -327,71 +318,27 @@ public final class ProLogixGpibEthernetController
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
-  // SOCKET READER
+  // RECEIVE BUFFER
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-  private final LinkedBlockingQueue<Byte> readBytes = new LinkedBlockingQueue<> ();
+  /** The capacity of the internal receive buffer.
+   * 
+   * <p>
+   * This comfortably holds the largest known (binary) trace transfers, like a Tek-2440 {@code CURVE?}
+   * or a HP-8566B {@code O3} trace.
+   * If the buffer is full, the I/O runtime suspends reading from the socket until there is room again.
+   * 
+   */
+  public final static int RECEIVE_BUFFER_CAPACITY = 65536;
   
-  private class SocketReader implements Runnable
-  {
-    
-    @Override
-    public final void run ()
-    {
-      LOG.log (Level.INFO, "Starting Socket Reader on {0}.", ProLogixGpibEthernetController.this);
-      while (! Thread.currentThread ().isInterrupted ())
-      {
-        try
-        {
-          // We allows ourselves a limited number of I/O Exceptions due to switching and initializing the
-          // ProLogixGpibEthernetController.this.socket in SocketManager.
-          // (We may have been started ahead of SocketManager...)
-          int remainIOExceptions = 3;
-          // References are atomic.
-          // Note that ProLogixGpibEthernetController.this.socket is volatile!
-          final Socket socket = ProLogixGpibEthernetController.this.socket;
-          if (socket == null)
-            Thread.sleep (1000L);
-          else
-          {
-            try
-            {
-              final int byteRead = socket.getInputStream ().read ();
-              // LOG.log (Level.FINE, "Read byte: {0}.", Util.bytesToHex (new byte[] {(byte) byteRead}));
-              if (byteRead >= 0)
-                if (! ProLogixGpibEthernetController.this.readBytes.offer ((byte) byteRead))
-                  LOG.log (Level.WARNING, "Buffer overflow on read bytes!");
-            }
-            catch (SocketTimeoutException ste)
-            {
-              // Nothing to do here...
-              // Provides opportunity to refresh the socket variable.
-            }
-            catch (IOException ioe)
-            {
-              if (--remainIOExceptions <= 0)
-              {
-                LOG.log (Level.WARNING, "Terminating Socket Reader on {0}: Too many I/O Exceptions!",
-                  ProLogixGpibEthernetController.this);
-                error ();
-                return;
-              }
-              // Nothing to do here...
-              // Provides opportunity to refresh the socket variable.
-            }
-          }
-        }
-        catch (InterruptedException ie)
-        {
-          LOG.log (Level.INFO, "Terminating Socket Reader (by request) on {0}.", ProLogixGpibEthernetController.this);
-          return;
-        }
-      }
-      LOG.log (Level.INFO, "Terminating Socket Reader (by request) on {0}.", ProLogixGpibEthernetController.this);
-    }
-    
-  }
+  /** The size of the (reusable) buffer used to read from the socket.
+   * 
+   */
+  public final static int SOCKET_READ_BUFFER_SIZE = 4096;
+  
+  // Single producer (the I/O runtime), single consumer (the command processor).
+  private final ByteRingBuffer readBytes = new ByteRingBuffer (ProLogixGpibEthernetController.RECEIVE_BUFFER_CAPACITY);
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -405,8 +352,7 @@ public final class ProLogixGpibEthernetController
    * This is the lowest-level read access to the controller.
    * 
    * <p>
-   * Data from the controller is read continuously by an internal service {@code Thread},
-   * the Socket Reader,
+   * Data from the controller is read continuously by the shared {@link ProLogixIoRuntime},
    * and put into an internal buffer.
    * This methods reads a single byte from that buffer (or times out trying to).
    * 
@@ -423,10 +369,33 @@ public final class ProLogixGpibEthernetController
   private byte proLogixReadByte (final long timeout_ms)
     throws InterruptedException, TimeoutException
   {
-    final Byte byteRead = this.readBytes.poll (timeout_ms, TimeUnit.MILLISECONDS);
-    if (byteRead == null)
-      throw new TimeoutException ();
-    return byteRead;
+    return this.readBytes.take (timeout_ms);
+  }
+  
+  /** Reads at least one and at most a given number of bytes from the ProLogix controller (through the internal buffer).
+   * 
+   * <p>
+   * This is the bulk version of {@link #proLogixReadByte}.
+   * It waits for at least one byte to arrive, and then copies all bytes available in the internal buffer,
+   * up to the given maximum, in one go.
+   * 
+   * @param bytes      The destination array.
+   * @param offset     The offset in the destination array.
+   * @param length     The maximum number of bytes to read.
+   * @param timeout_ms The timeout in milliseconds.
+   * 
+   * @return The number of bytes read, strictly positive.
+   * 
+   * @throws InterruptedException If we were interrupted while waiting for a byte to arrive from the socket.
+   * @throws TimeoutException     If we waited for a next byte in vain for at least the provided timeout period.
+   * 
+   * @see #proLogixReadByte
+   * 
+   */
+  private int proLogixReadBytes (final byte[] bytes, final int offset, final int length, final long timeout_ms)
+    throws InterruptedException, TimeoutException
+  {
+    return this.readBytes.read (bytes, offset, length, timeout_ms);
   }
   
   // Used for values returned by controller commands (i.e., not originating from the device).
@@ -463,6 +432,8 @@ public final class ProLogixGpibEthernetController
     if (timeout_ms <= 0)
       throw new TimeoutException ();
     final long deadline_millis = System.currentTimeMillis () + timeout_ms;
+    // Make sure whatever we asked for actually leaves...
+    proLogixFlush ();
     final ByteArrayOutputStream baos = new ByteArrayOutputStream ();
     for (;;)
     {
@@ -602,16 +573,9 @@ public final class ProLogixGpibEthernetController
    */
   private void proLogixClearReadBuffer ()
   {
-    final List<Byte> drainedBytes = new ArrayList<> ();
-    this.readBytes.drainTo (drainedBytes);
-    if (! drainedBytes.isEmpty ())
+    if (this.readBytes.available () > 0)
     {
-      final byte[] bytes = new byte[drainedBytes.size ()];
-      // Below yields an ArrayStoreException...
-      // System.arraycopy (drainedBytes.toArray (), 0, bytes, 0, bytes.length);
-      int i = 0;
-      for (final Byte b : drainedBytes)
-        bytes[i++] = b;
+      final byte[] bytes = this.readBytes.drain ();
       LOG.log (Level.WARNING, "Draining bytes {0}.", Util.bytesToHex (bytes));
       queueLogRx (Instant.now (), bytes);
       queueLogMessage (Instant.now (), "Draining bytes " + Util.bytesToHex (bytes) + ".");
@@ -630,6 +594,10 @@ public final class ProLogixGpibEthernetController
    * This is the lowest-level processCommand_write access to the controller.
    * 
    * <p>
+   * The bytes are written into the socket's output buffer, and are not necessarily sent
+   * before the next invocation of {@link #proLogixFlush}.
+   * 
+   * <p>
    * Caller assumes responsibility of proper termination of the byte array if applicable,
    * as well as of escaping characters in the byte array in order to avoid them being swallowed by the controller.
    * 
@@ -652,10 +620,53 @@ public final class ProLogixGpibEthernetController
     if (bytes == null)
       throw new IllegalArgumentException ();
     queueLogTx (Instant.now (), bytes);
-    final Socket socket = this.socket; // Single assignment; object references are atomic.
-    if (socket == null)
+    final OutputStream outputStream = this.socketOutputStream; // Single assignment; object references are atomic.
+    if (outputStream == null)
+    {
+      proLogixInvalidateSessionState ();
       throw new IOException ();
-    this.socket.getOutputStream ().write (bytes);
+    }
+    try
+    {
+      outputStream.write (bytes);
+    }
+    catch (IOException ioe)
+    {
+      proLogixInvalidateSessionState ();
+      throw ioe;
+    }
+  }
+  
+  /** Sends all bytes written (buffered) so far to the ProLogix controller.
+   * 
+   * <p>
+   * Must be invoked before waiting for a response from the controller,
+   * and at the end of processing a (top-level) command.
+   * 
+   * @throws IOException If the socket is {@code null},
+   *                       or if writing to the socket failed with an {@link IOException}.
+   * 
+   * @see #proLogixWriteRaw(byte[])
+   * 
+   */
+  private void proLogixFlush ()
+    throws IOException
+  {
+    final OutputStream outputStream = this.socketOutputStream; // Single assignment; object references are atomic.
+    if (outputStream == null)
+    {
+      proLogixInvalidateSessionState ();
+      throw new IOException ();
+    }
+    try
+    {
+      outputStream.flush ();
+    }
+    catch (IOException ioe)
+    {
+      proLogixInvalidateSessionState ();
+      throw ioe;
+    }
   }
     
   /** Sends a given (ASCII) string unprocessed to the ProLogix controller.
@@ -783,9 +794,6 @@ public final class ProLogixGpibEthernetController
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // PROLOGIX WRITE / WRITELN CONTROLLER COMMAND
-  // PROLIGIX SWITCH CURRENT ADDRESS
-  // PROLOGIX SET READ AFTER WRITE
-  // PROLOGIX SET EOT
   //
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   
@@ -799,22 +807,82 @@ public final class ProLogixGpibEthernetController
     proLogixWriteRaw (command + new String (new byte[]{COMMAND_TERMINATOR_TO_PROLOGIX}, Charset.forName ("US-ASCII")));
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PROLOGIX SESSION STATE CACHE
+  // PROLOGIX SET CONTROLLER MODE
+  // PROLOGIX SWITCH CURRENT ADDRESS
+  // PROLOGIX SET EOT
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  // The (believed) current state of the ProLogix controller with respect to mode, device address and EOT settings.
+  // A null value (or -1 for the EOT settings) means that the state is unknown,
+  // and the corresponding command must be (re)sent to the controller.
+  // The state is invalidated upon (re)connect, upon controller reset, and upon I/O errors.
+  
+  private volatile Boolean proLogixControllerMode = null;
+  
+  private volatile GpibAddress proLogixCurrentDeviceAddress = null;
+  
+  private volatile int proLogixEotEnable = -1;
+  
+  private volatile int proLogixEotChar = -1;
+  
+  /** Invalidates the cached state of the ProLogix controller.
+   * 
+   * <p>
+   * Forces the next mode, address and EOT settings to be sent to the controller.
+   * 
+   */
+  private void proLogixInvalidateSessionState ()
+  {
+    this.proLogixControllerMode = null;
+    this.proLogixCurrentDeviceAddress = null;
+    this.proLogixEotEnable = -1;
+    this.proLogixEotChar = -1;
+  }
+  
+  private void proLogixCommandSetControllerMode ()
+    throws IOException, InterruptedException
+  {
+    if (Boolean.TRUE.equals (this.proLogixControllerMode))
+      return;
+    proLogixCommandWritelnControllerCommand ("++mode 1");
+    this.proLogixControllerMode = true;
+  }
+  
   private void proLogixCommandSwitchCurrentDeviceAddress (final GpibAddress address)
   throws IOException, InterruptedException
   {
     if (address == null)
       throw new IllegalArgumentException ();
+    // Just in case the controller has been reset in the mean time.
+    proLogixCommandSetControllerMode ();
+    if (address.equals (this.proLogixCurrentDeviceAddress))
+      return;
     String switchDeviceCommandString = "++addr " + Byte.toString (address.getPad ());
     if (address.hasSad ())
       switchDeviceCommandString += (" " + Byte.toString (address.getSad ()));
     proLogixCommandWritelnControllerCommand (switchDeviceCommandString);
+    this.proLogixCurrentDeviceAddress = address;
   }
 
   private void proLogixCommandSetEOT (final boolean eotEnable, final byte eotChar)
     throws IOException, InterruptedException
   {
-    proLogixCommandWritelnControllerCommand ("++eot_enable " + (eotEnable ? "1" : "0"));  
-    proLogixCommandWritelnControllerCommand ("++eot_char " + Integer.toString (eotChar & 0xff));  
+    final int eotEnableInt = eotEnable ? 1 : 0;
+    if (this.proLogixEotEnable != eotEnableInt)
+    {
+      proLogixCommandWritelnControllerCommand ("++eot_enable " + Integer.toString (eotEnableInt));
+      this.proLogixEotEnable = eotEnableInt;
+    }
+    // The EOT character is irrelevant if EOT is disabled; leave it as is in that case.
+    if (eotEnable && this.proLogixEotChar != (eotChar & 0xff))
+    {
+      proLogixCommandWritelnControllerCommand ("++eot_char " + Integer.toString (eotChar & 0xff));
+      this.proLogixEotChar = eotChar & 0xff;
+    }
   }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -841,7 +909,9 @@ public final class ProLogixGpibEthernetController
   {
     if (timeout_ms <= 0)
       throw new TimeoutException ();
+    proLogixInvalidateSessionState ();
     proLogixCommandWritelnControllerCommand (RESET_CONTROLLER_COMMAND);    
+    proLogixInvalidateSessionState ();
   }
   
   private void processCommand_nop (
@@ -993,19 +1063,159 @@ public final class ProLogixGpibEthernetController
     return (serialPollStatusByte & 0x40) != 0 ? serialPollStatusByte : null;
   }
   
+  /** The time to wait for more data after receiving {@link #DEFAULT_EOT} in unframed (binary) EOI reads.
+   * 
+   * <p>
+   * Only used with {@link ReadEOIFramingMode#UNKNOWN}, or when the framing cannot be determined from the data.
+   * 
+   */
   private final static long EOI_LINGER_MS = 50L;
   
+  // Scratch buffer for bulk reads; only used from the command processor.
+  private final byte[] rxChunk = new byte[ProLogixGpibEthernetController.SOCKET_READ_BUFFER_SIZE];
+  
+  /** Finds the end-of-transmission character appended by the ProLogix after EOI, given the framing of the message.
+   * 
+   * <p>
+   * In {@link ReadEOIFramingMode#TEXT}, the end-of-transmission character (which has its most-significant bit set)
+   * cannot appear in the message itself.
+   * In {@link ReadEOIFramingMode#BINARY_BLOCK}, the scanner tracks the lengths of embedded binary blocks
+   * and skips over them, so that the end-of-transmission character is unambiguous outside of binary blocks.
+   * 
+   * <p>
+   * If the framing turns out to be unsupported (e.g., an IEEE 488.2 indefinite-length block),
+   * the scanner gives up, and the caller must fall back to lingering.
+   * 
+   */
+  private final static class EOIFramingScanner
+  {
+    
+    private final static int S_TEXT            = 0;
+    private final static int S_TEK_LENGTH_MSB  = 1;
+    private final static int S_TEK_LENGTH_LSB  = 2;
+    private final static int S_IEEE_DIGITS     = 3;
+    private final static int S_IEEE_LENGTH     = 4;
+    private final static int S_BLOCK           = 5;
+    private final static int S_UNFRAMED        = 6;
+    
+    private final ReadEOIFramingMode framingMode;
+    
+    private final byte eot;
+    
+    private int state = S_TEXT;
+    
+    private long remaining = 0;
+    
+    private int digits = 0;
+    
+    private EOIFramingScanner (final ReadEOIFramingMode framingMode, final byte eot)
+    {
+      if (framingMode == null || framingMode == ReadEOIFramingMode.UNKNOWN)
+        throw new IllegalArgumentException ();
+      this.framingMode = framingMode;
+      this.eot = eot;
+    }
+    
+    private boolean isUnframed ()
+    {
+      return this.state == S_UNFRAMED;
+    }
+    
+    /** Scans the next chunk of received bytes.
+     * 
+     * @param bytes The bytes.
+     * @param size  The number of bytes to scan.
+     * 
+     * @return The index of the end-of-transmission character in the chunk, or {@code -1} if not found.
+     * 
+     */
+    private int scan (final byte[] bytes, final int size)
+    {
+      int i = 0;
+      while (i < size && this.state != S_UNFRAMED)
+      {
+        final byte b = bytes[i];
+        switch (this.state)
+        {
+          case S_TEXT:
+            if (b == this.eot)
+              return i;
+            if (this.framingMode == ReadEOIFramingMode.BINARY_BLOCK)
+            {
+              if (b == '%')
+                this.state = S_TEK_LENGTH_MSB;
+              else if (b == '#')
+                this.state = S_IEEE_DIGITS;
+            }
+            i++;
+            break;
+          case S_TEK_LENGTH_MSB:
+            this.remaining = (b & 0xff) << 8;
+            this.state = S_TEK_LENGTH_LSB;
+            i++;
+            break;
+          case S_TEK_LENGTH_LSB:
+            this.remaining |= (b & 0xff);
+            this.state = this.remaining > 0 ? S_BLOCK : S_TEXT;
+            i++;
+            break;
+          case S_IEEE_DIGITS:
+            if (b >= '1' && b <= '9')
+            {
+              this.digits = b - '0';
+              this.remaining = 0;
+              this.state = S_IEEE_LENGTH;
+            }
+            else
+              this.state = S_UNFRAMED; // Indefinite-length (#0) or malformed block.
+            i++;
+            break;
+          case S_IEEE_LENGTH:
+            if (b < '0' || b > '9')
+              this.state = S_UNFRAMED;
+            else
+            {
+              this.remaining = 10 * this.remaining + (b - '0');
+              if (--this.digits == 0)
+                this.state = this.remaining > 0 ? S_BLOCK : S_TEXT;
+            }
+            i++;
+            break;
+          case S_BLOCK:
+          {
+            final int skip = (int) Math.min (this.remaining, size - i);
+            this.remaining -= skip;
+            if (this.remaining == 0)
+              this.state = S_TEXT;
+            i += skip;
+            break;
+          }
+          default:
+            throw new RuntimeException ();
+        }
+      }
+      return -1;
+    }
+    
+  }
+  
   private byte[] processCommand_readEOI (
     final GpibAddress gpibAddress,
+    final ReadEOIFramingMode readEOIFramingMode,
     final long timeout_ms,
     final boolean topLevel)
     throws IOException, InterruptedException, TimeoutException
   {
     if (gpibAddress == null)
       throw new IllegalArgumentException ();
-    if (timeout_ms <= EOI_LINGER_MS)
+    final EOIFramingScanner scanner =
+      (readEOIFramingMode == null || readEOIFramingMode == ReadEOIFramingMode.UNKNOWN)
+        ? null
+        : new EOIFramingScanner (readEOIFramingMode, DEFAULT_EOT);
+    final long linger_ms = (scanner == null ? EOI_LINGER_MS : 0L);
+    if (timeout_ms <= linger_ms)
       throw new TimeoutException ();
-    final long deadline_millis = System.currentTimeMillis () + timeout_ms - EOI_LINGER_MS;
+    final long deadline_millis = System.currentTimeMillis () + timeout_ms - linger_ms;
     if (topLevel)
     {
       proLogixClearReadBuffer ();
@@ -1013,40 +1223,53 @@ public final class ProLogixGpibEthernetController
       proLogixCommandSetEOT (true, DEFAULT_EOT);
     }
     proLogixCommandWritelnControllerCommand (READ_EOI_COMMAND);
+    proLogixFlush ();
     final ByteArrayOutputStream baos = new ByteArrayOutputStream ();
     for (;;)
     {
-      long now_millis = System.currentTimeMillis ();
+      final long now_millis = System.currentTimeMillis ();
       if (now_millis >= deadline_millis)
       {
         if (baos.size () > 0)
           queueLogRx (Instant.now (), baos.toByteArray ());
         throw new TimeoutException ();
       }
-      byte byteRead = proLogixReadByte (deadline_millis - now_millis);
-      while (byteRead == DEFAULT_EOT)
+      final int size = proLogixReadBytes (this.rxChunk, 0, this.rxChunk.length, deadline_millis - now_millis);
+      final int sizeBefore = baos.size ();
+      baos.write (this.rxChunk, 0, size);
+      if (scanner != null)
+      {
+        // Deterministic end-of-message detection from the framing; no lingering required.
+        final int eotIndex = scanner.scan (this.rxChunk, size);
+        if (eotIndex >= 0)
+        {
+          final byte[] bytesReadWithEot = baos.toByteArray ();
+          queueLogRx (Instant.now (), bytesReadWithEot); // Includes DEFAULT_EOT; for proper Rx Logging...
+          final byte[] bytesRead = new byte[sizeBefore + eotIndex];
+          System.arraycopy (bytesReadWithEot, 0, bytesRead, 0, bytesRead.length);
+          return bytesRead;
+        }
+        if (! scanner.isUnframed ())
+          continue;
+      }
+      // Read whatever is available in bulk; a DEFAULT_EOT followed by more data is just data,
+      // so only the last byte received so far can be the end-of-message marker.
+      if (this.rxChunk[size - 1] == DEFAULT_EOT)
       {
         if (System.currentTimeMillis () >= deadline_millis)
         {
-          baos.write (byteRead);
           queueLogRx (Instant.now (), baos.toByteArray ());      
           throw new TimeoutException ();
         }
-        try
+        if (! this.readBytes.await (EOI_LINGER_MS))
         {
-          final byte nextByteRead = proLogixReadByte (EOI_LINGER_MS);
-          baos.write (byteRead);
-          byteRead = nextByteRead;
-        }
-        catch (TimeoutException te)
-        {
-          final byte[] bytesRead = baos.toByteArray ();
-          baos.write (byteRead); // DEFALT_EOT; for proper Rx Logging...
-          queueLogRx (Instant.now (), baos.toByteArray ());
+          final byte[] bytesReadWithEot = baos.toByteArray ();
+          queueLogRx (Instant.now (), bytesReadWithEot); // Includes DEFAULT_EOT; for proper Rx Logging...
+          final byte[] bytesRead = new byte[bytesReadWithEot.length - 1];
+          System.arraycopy (bytesReadWithEot, 0, bytesRead, 0, bytesRead.length);
           return bytesRead;
         }
       }
-      baos.write (byteRead);
     }
   }
   
@@ -1109,15 +1332,17 @@ public final class ProLogixGpibEthernetController
     }
     proLogixCommandWritelnControllerCommand (READ_EOI_COMMAND);
     // proLogixCommandWritelnControllerCommand (READ_COMMAND);
+    proLogixFlush ();
     final byte[] bytes = new byte[N];
-    for (int i = 0; i < N; i++)
+    int i = 0;
+    while (i < N)
     {
       try
       {
-        long now_millis = System.currentTimeMillis ();
+        final long now_millis = System.currentTimeMillis ();
         if (now_millis >= deadline_millis)
           throw new TimeoutException ();
-        bytes[i] = proLogixReadByte (deadline_millis - now_millis);
+        i += proLogixReadBytes (bytes, i, N - i, deadline_millis - now_millis);
       }
       catch (Exception e)
       {
@@ -1157,6 +1382,7 @@ public final class ProLogixGpibEthernetController
   private byte[] processCommand_writeAndReadEOI (
     final GpibAddress gpibAddress,
     final byte[] bytes,
+    final ReadEOIFramingMode readEOIFramingMode,
     final long timeout_ms,
     final boolean topLevel)
     throws IOException, InterruptedException, TimeoutException
@@ -1173,7 +1399,7 @@ public final class ProLogixGpibEthernetController
       proLogixCommandSetEOT (true, DEFAULT_EOT);
     }
     processCommand_write (gpibAddress, bytes, timeout_ms, false); // Will do the cooking...
-    return processCommand_readEOI (gpibAddress, deadline_millis - System.currentTimeMillis (), false);
+    return processCommand_readEOI (gpibAddress, readEOIFramingMode, deadline_millis - System.currentTimeMillis (), false);
   }
   
   private byte[] processCommand_writeAndReadln (
@@ -1329,6 +1555,8 @@ public final class ProLogixGpibEthernetController
       proLogixCommandSwitchCurrentDeviceAddress (gpibAddress);
       proLogixCommandSetEOT (false, LF_BYTE);
     }
+    // The runnable may interact with the controller in ways unknown to us.
+    proLogixFlush ();
     runnable.run ();
   }
   
@@ -1349,147 +1577,200 @@ public final class ProLogixGpibEthernetController
   protected final void processCommand (final ControllerCommand controllerCommand, final long timeout_ms, final boolean topLevel)
     throws UnsupportedOperationException, IOException, InterruptedException, TimeoutException
   {
-    final String commandString = (String) controllerCommand.get (ControllerCommand.CC_COMMAND_KEY);
+    // Dispatch on the (cached) opcode and use the typed accessors of GpibControllerCommand;
+    // all GPIB-specific commands must be GpibControllerCommands.
+    final GpibControllerCommand gpibCommand;
+    final GpibControllerCommandOpcode opcode;
+    if (controllerCommand instanceof GpibControllerCommand)
+    {
+      gpibCommand = (GpibControllerCommand) controllerCommand;
+      opcode = gpibCommand.getOpcode ();
+    }
+    else
+    {
+      gpibCommand = null;
+      opcode = GpibControllerCommandOpcode.fromCommandString (controllerCommand.getCommand ());
+    }
     try
     {
       if (timeout_ms <= 0)
         throw new TimeoutException ();
-      switch (commandString)
+      if (opcode == null)
+        throw new UnsupportedOperationException ();
+      switch (opcode)
       {
-        case ControllerCommand.CCCMD_RESET_CONTROLLER:
+        case RESET_CONTROLLER:
           processCommand_resetController (timeout_ms, topLevel);
           break;
-        case ControllerCommand.CCCMD_NOP:
+        case NOP:
           processCommand_nop (timeout_ms, topLevel);
           break;
-        case ControllerCommand.CCCMD_GET_SETTINGS:
+        case GET_SETTINGS:
           throw new UnsupportedOperationException ();
-        case GpibControllerCommand.CCCMD_GPIB_SELECTED_DEVICE_CLEAR:
+        case SELECTED_DEVICE_CLEAR:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
           processCommand_selectedDeviceClear (address, timeout_ms, topLevel);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_POLL_SERVICE_REQUEST:
+        case POLL_SERVICE_REQUEST:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
           final boolean srq = processCommand_pollServiceRequest (address, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, srq);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, srq);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_SERIAL_POLL:
+        case SERIAL_POLL:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
           final byte statusByte = processCommand_serialPoll (address, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, statusByte);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, statusByte);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_POLL_SERVICE_REQUEST_STATUS_BYTE:
+        case POLL_SERVICE_REQUEST_STATUS_BYTE:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
           final Byte statusByte = processCommand_pollServiceRequestStatusByte (address, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, statusByte);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, statusByte);
           break;          
         }
-        case GpibControllerCommand.CCCMD_GPIB_READ_EOI:
+        case READ_EOI:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytesRead = processCommand_readEOI (address, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final ReadEOIFramingMode readEOIFramingMode = gpibCommand.getReadEOIFramingMode ();
+          final byte[] bytesRead = processCommand_readEOI (address, readEOIFramingMode, timeout_ms, topLevel);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_READLN:
+        case READLN:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final ReadlineTerminationMode readlineTerminationMode =
-            (ReadlineTerminationMode) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final ReadlineTerminationMode readlineTerminationMode = gpibCommand.getReadlineTerminationMode ();
           final byte[] bytesRead = processCommand_readln (address, readlineTerminationMode, timeout_ms, topLevel, true);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_READ_N:
+        case READ_N:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final int N = (int) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READ_N);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final int N = gpibCommand.getReadN ();
           final byte[] bytesRead = processCommand_readN (address, N, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_WRITE:
+        case WRITE:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytes = (byte[]) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_WRITE_BYTES);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final byte[] bytes = gpibCommand.getWriteBytes ();
           processCommand_write (address, bytes, timeout_ms, topLevel);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_EOI:
+        case WRITE_AND_READ_EOI:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytes = (byte[]) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_WRITE_BYTES);
-          final byte[] bytesRead = processCommand_writeAndReadEOI (address, bytes, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final byte[] bytes = gpibCommand.getWriteBytes ();
+          final ReadEOIFramingMode readEOIFramingMode = gpibCommand.getReadEOIFramingMode ();
+          final byte[] bytesRead = processCommand_writeAndReadEOI (address, bytes, readEOIFramingMode, timeout_ms, topLevel);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READLN:
+        case WRITE_AND_READLN:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytes = (byte[]) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_WRITE_BYTES);
-          final ReadlineTerminationMode readlineTerminationMode =
-            (ReadlineTerminationMode) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final byte[] bytes = gpibCommand.getWriteBytes ();
+          final ReadlineTerminationMode readlineTerminationMode = gpibCommand.getReadlineTerminationMode ();
           final byte[] bytesRead = processCommand_writeAndReadln (address, bytes, readlineTerminationMode, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READ_N:
+        case WRITE_AND_READ_N:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytes = (byte[]) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_WRITE_BYTES);
-          final int N = (int) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READ_N);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final byte[] bytes = gpibCommand.getWriteBytes ();
+          final int N = gpibCommand.getReadN ();
           final byte[] bytesRead = processCommand_writeAndReadN (address, bytes, N, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_WRITE_AND_READLN_N:
+        case WRITE_AND_READLN_N:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final byte[] bytes = (byte[]) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_WRITE_BYTES);
-          final ReadlineTerminationMode readlineTerminationMode =
-            (ReadlineTerminationMode) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READLN_TERMINATION_MODE);
-          final int N = (int) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_READ_N);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final byte[] bytes = gpibCommand.getWriteBytes ();
+          final ReadlineTerminationMode readlineTerminationMode = gpibCommand.getReadlineTerminationMode ();
+          final int N = gpibCommand.getReadN ();
           final byte[][] bytesRead = processCommand_writeAndReadlnN (
             address, bytes, readlineTerminationMode, N, timeout_ms, topLevel);
-          controllerCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
+          gpibCommand.put (GpibControllerCommand.CCRET_VALUE_KEY, bytesRead);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_ATOMIC_SEQUENCE:
+        case ATOMIC_SEQUENCE:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final Object sequence = controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_SEQUENCE);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final Object sequence = gpibCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_SEQUENCE);
           final ControllerCommand[] controllerCommands = new ControllerCommand[Array.getLength (sequence)];
           System.arraycopy (sequence, 0, controllerCommands, 0, controllerCommands.length);
           processCommand_atomicSequence (address, controllerCommands, timeout_ms, topLevel);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_ATOMIC_REPEAT_UNTIL:
+        case ATOMIC_REPEAT_UNTIL:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
           final GpibControllerCommand commandToRepeat =
-            (GpibControllerCommand) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_REPEAT_UNTIL_COMMAND);
+            (GpibControllerCommand) gpibCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_REPEAT_UNTIL_COMMAND);
           final Function<GpibControllerCommand, Boolean> condition =
-            (Function) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_REPEAT_UNTIL_CONDITION);
+            (Function) gpibCommand.get (GpibControllerCommand.CCARG_GPIB_ATOMIC_REPEAT_UNTIL_CONDITION);
           processCommand_atomicRepeatUntil (address, commandToRepeat, condition, timeout_ms, topLevel);
           break;
         }
-        case GpibControllerCommand.CCCMD_GPIB_USER_RUNNABLE:
+        case USER_RUNNABLE:
         {
-          final GpibAddress address = (GpibAddress) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_ADDRESS);
-          final Runnable runnable = (Runnable) controllerCommand.get (GpibControllerCommand.CCARG_GPIB_USER_RUNNABLE);
+          if (gpibCommand == null)
+            throw new UnsupportedOperationException ();
+          final GpibAddress address = gpibCommand.getAddress ();
+          final Runnable runnable = (Runnable) gpibCommand.get (GpibControllerCommand.CCARG_GPIB_USER_RUNNABLE);
           processCommand_userRunnable (address, runnable, timeout_ms, topLevel);
           break;
         }
         default:
           throw new UnsupportedOperationException ();
       }
+      // Send whatever is left in the output buffer (e.g., from write-only commands).
+      if (topLevel)
+        proLogixFlush ();
+    }
+    catch (IOException ioe)
+    {
+      // We can no longer trust our view on the state of the ProLogix controller.
+      proLogixInvalidateSessionState ();
+      throw ioe;
     }
     finally
     {
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.javajdj.jinstrument.util.ByteRingBuffer;
+
+/** A shared {@link Selector}-based I/O runtime for {@link ProLogixGpibEthernetController}s.
+ *
+ * <p>
+ * Instead of dedicating a reader thread to each ProLogix connection,
+ * all connections in the JVM are multiplexed onto a small, fixed number of I/O threads,
+ * each running its own {@link Selector}.
+ * Received bytes are moved (without blocking) into the receive buffer of the owning controller;
+ * if that buffer is full, reading from the connection is suspended until there is room again.
+ * Writes are performed directly (and non-blocking) from the writing thread.
+ *
+ * <p>
+ * The number of I/O threads is taken from the system property {@value #NUMBER_OF_IO_THREADS_PROPERTY_NAME}
+ * upon first use, and defaults to {@value #DEFAULT_NUMBER_OF_IO_THREADS}.
+ * The I/O threads are daemon threads.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public final class ProLogixIoRuntime
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (ProLogixIoRuntime.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static String NUMBER_OF_IO_THREADS_PROPERTY_NAME = "org.javajdj.jinstrument.prologix.ioThreads";
+
+  public final static int DEFAULT_NUMBER_OF_IO_THREADS = 1;
+
+  private ProLogixIoRuntime (final int numberOfIoThreads)
+    throws IOException
+  {
+    if (numberOfIoThreads <= 0)
+      throw new IllegalArgumentException ();
+    this.ioLoops = new IoLoop[numberOfIoThreads];
+    for (int i = 0; i < numberOfIoThreads; i++)
+      this.ioLoops[i] = new IoLoop (i);
+  }
+
+  private static ProLogixIoRuntime INSTANCE = null;
+
+  /** Returns the (single) I/O runtime, creating and starting it if needed.
+   *
+   * @return The I/O runtime.
+   *
+   * @throws IOException If a {@link Selector} could not be opened.
+   *
+   */
+  public static synchronized ProLogixIoRuntime getInstance ()
+    throws IOException
+  {
+    if (ProLogixIoRuntime.INSTANCE == null)
+      ProLogixIoRuntime.INSTANCE = new ProLogixIoRuntime (Math.max (1,
+        Integer.getInteger (ProLogixIoRuntime.NUMBER_OF_IO_THREADS_PROPERTY_NAME,
+          ProLogixIoRuntime.DEFAULT_NUMBER_OF_IO_THREADS)));
+    return ProLogixIoRuntime.INSTANCE;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // I/O LOOPS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final IoLoop[] ioLoops;
+
+  private final AtomicInteger nextIoLoop = new AtomicInteger (0);
+
+  public final int getNumberOfIoThreads ()
+  {
+    return this.ioLoops.length;
+  }
+
+  /** The time between attempts to move received bytes into a full receive buffer.
+   *
+   */
+  private final static long SUSPENDED_RETRY_MS = 1L;
+
+  private final static class IoLoop
+    implements Runnable
+  {
+
+    private IoLoop (final int index)
+      throws IOException
+    {
+      this.selector = Selector.open ();
+      final Thread thread = new Thread (this, "ProLogix I/O Runtime #" + index);
+      thread.setDaemon (true);
+      thread.start ();
+    }
+
+    private final Selector selector;
+
+    private final Queue<Connection> pendingRegistrations = new ConcurrentLinkedQueue<> ();
+
+    // Only accessed from the I/O thread.
+    private final Set<Connection> suspended = new HashSet<> ();
+
+    private void register (final Connection connection)
+    {
+      this.pendingRegistrations.add (connection);
+      this.selector.wakeup ();
+    }
+
+    @Override
+    public final void run ()
+    {
+      LOG.log (Level.INFO, "Starting {0}.", Thread.currentThread ().getName ());
+      for (;;)
+      {
+        try
+        {
+          if (this.suspended.isEmpty ())
+            this.selector.select ();
+          else
+            this.selector.select (ProLogixIoRuntime.SUSPENDED_RETRY_MS);
+          Connection connection;
+          while ((connection = this.pendingRegistrations.poll ()) != null)
+          {
+            try
+            {
+              if (connection.isOpen ())
+                connection.key = connection.channel.register (this.selector, SelectionKey.OP_READ, connection);
+            }
+            catch (ClosedChannelException cce)
+            {
+              // Closed in the meantime; nothing to do.
+            }
+          }
+          final Iterator<Connection> suspendedIterator = this.suspended.iterator ();
+          while (suspendedIterator.hasNext ())
+          {
+            final Connection suspendedConnection = suspendedIterator.next ();
+            if ((! suspendedConnection.isOpen ()) || suspendedConnection.resume ())
+              suspendedIterator.remove ();
+          }
+          final Iterator<SelectionKey> keyIterator = this.selector.selectedKeys ().iterator ();
+          while (keyIterator.hasNext ())
+          {
+            final SelectionKey key = keyIterator.next ();
+            keyIterator.remove ();
+            if (key.isValid () && key.isReadable ())
+            {
+              final Connection readableConnection = (Connection) key.attachment ();
+              if (! readableConnection.onReadable ())
+                this.suspended.add (readableConnection);
+            }
+          }
+        }
+        catch (Exception e)
+        {
+          // Should not happen; we must not terminate since we serve all connections.
+          LOG.log (Level.SEVERE, "Exception in {0}: {1}.", new Object[]{Thread.currentThread ().getName (), e});
+        }
+      }
+    }
+
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONNECT
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public final static int CONNECT_TIMEOUT_MS = 5000;
+
+  /** Opens a connection and registers it with (one of the I/O threads of) this runtime.
+   *
+   * <p>
+   * The connection is established synchronously (in the calling thread).
+   *
+   * @param host        The host name or IP address, non-{@code null}.
+   * @param tcpPort     The TCP port.
+   * @param receiveSink The buffer into which received bytes are moved, non-{@code null}.
+   *                      The I/O runtime is its (single) producer.
+   * @param onError     An optional action to take when the connection fails (e.g., closed by the remote end);
+   *                      it is invoked on a separate thread, and not invoked upon {@link Connection#close}.
+   *
+   * @return The connection.
+   *
+   * @throws IllegalArgumentException If the host or receive sink is {@code null} or the port is illegal.
+   * @throws UnknownHostException     If the host could not be resolved.
+   * @throws IOException              If the connection could not be established.
+   *
+   */
+  public final Connection connect (
+    final String host,
+    final int tcpPort,
+    final ByteRingBuffer receiveSink,
+    final Runnable onError)
+    throws IOException
+  {
+    if (host == null || tcpPort < 0 || tcpPort > 65535 || receiveSink == null)
+      throw new IllegalArgumentException ();
+    final InetSocketAddress address = new InetSocketAddress (host, tcpPort);
+    if (address.isUnresolved ())
+      throw new UnknownHostException (host);
+    final SocketChannel channel = SocketChannel.open ();
+    try
+    {
+      // We do our own coalescing of writes (with explicit flushes); disable Nagle's algorithm.
+      channel.socket ().setTcpNoDelay (true);
+      channel.socket ().connect (address, ProLogixIoRuntime.CONNECT_TIMEOUT_MS);
+      channel.configureBlocking (false);
+    }
+    catch (IOException ioe)
+    {
+      channel.close ();
+      throw ioe;
+    }
+    final IoLoop ioLoop = this.ioLoops[Math.floorMod (this.nextIoLoop.getAndIncrement (), this.ioLoops.length)];
+    final Connection connection = new Connection (host + ":" + tcpPort, channel, receiveSink, onError, ioLoop);
+    ioLoop.register (connection);
+    return connection;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONNECTION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** A connection managed by the I/O runtime.
+   *
+   */
+  public final static class Connection
+  {
+
+    private Connection (
+      final String name,
+      final SocketChannel channel,
+      final ByteRingBuffer receiveSink,
+      final Runnable onError,
+      final IoLoop ioLoop)
+    {
+      this.name = name;
+      this.channel = channel;
+      this.receiveSink = receiveSink;
+      this.onError = onError;
+      this.ioLoop = ioLoop;
+    }
+
+    private final String name;
+
+    private final SocketChannel channel;
+
+    private final ByteRingBuffer receiveSink;
+
+    private final Runnable onError;
+
+    private final IoLoop ioLoop;
+
+    private volatile boolean closed = false;
+
+    // Only accessed from the I/O thread.
+    private SelectionKey key = null;
+
+    // Only accessed from the I/O thread; holds received bytes not yet moved into the receive sink.
+    private final ByteBuffer readBuffer = ByteBuffer.allocate (ProLogixGpibEthernetController.SOCKET_READ_BUFFER_SIZE);
+
+    @Override
+    public final String toString ()
+    {
+      return "ProLogixIoRuntime.Connection[" + this.name + "]";
+    }
+
+    public final boolean isOpen ()
+    {
+      return ! this.closed;
+    }
+
+    /** Closes the connection; does nothing if already closed.
+     *
+     */
+    public final void close ()
+    {
+      if (this.closed)
+        return;
+      this.closed = true;
+      try
+      {
+        this.channel.close ();
+      }
+      catch (IOException ioe)
+      {
+        LOG.log (Level.WARNING, "IOException while closing {0}: {1}.", new Object[]{this, ioe});
+      }
+      this.ioLoop.selector.wakeup ();
+    }
+
+    // Called from the I/O thread; returns false if reading must be suspended because the receive sink is full.
+    private boolean onReadable ()
+    {
+      try
+      {
+        this.readBuffer.clear ();
+        final int bytesRead = this.channel.read (this.readBuffer);
+        if (bytesRead < 0)
+          throw new EOFException ();
+        this.readBuffer.flip ();
+        this.receiveSink.offer (this.readBuffer);
+        if (this.readBuffer.hasRemaining ())
+        {
+          this.key.interestOps (0);
+          return false;
+        }
+        return true;
+      }
+      catch (IOException ioe)
+      {
+        failed (ioe);
+        return true;
+      }
+    }
+
+    // Called from the I/O thread; returns true if reading has been resumed.
+    private boolean resume ()
+    {
+      this.receiveSink.offer (this.readBuffer);
+      if (this.readBuffer.hasRemaining ())
+        return false;
+      if (this.key.isValid ())
+        this.key.interestOps (SelectionKey.OP_READ);
+      return true;
+    }
+
+    private void failed (final IOException ioe)
+    {
+      if (this.closed)
+        return;
+      LOG.log (Level.WARNING, "I/O failure on {0}: {1}.", new Object[]{this, ioe});
+      close ();
+      if (this.onError != null)
+        // Never run client code on the I/O thread.
+        new Thread (this.onError, "ProLogix I/O Runtime Error Notifier").start ();
+    }
+
+    private final OutputStream outputStream = new OutputStream ()
+    {
+
+      @Override
+      public final void write (final int b)
+        throws IOException
+      {
+        write (new byte[]{(byte) b}, 0, 1);
+      }
+
+      @Override
+      public final void write (final byte[] bytes, final int offset, final int length)
+        throws IOException
+      {
+        if (Connection.this.closed)
+          throw new IOException ("Connection closed: " + Connection.this + ".");
+        final ByteBuffer src = ByteBuffer.wrap (bytes, offset, length);
+        while (src.hasRemaining ())
+        {
+          if (Connection.this.channel.write (src) == 0)
+          {
+            // The socket send buffer is full; back off briefly.
+            if (Thread.currentThread ().isInterrupted ())
+              throw new InterruptedIOException ();
+            LockSupport.parkNanos (TimeUnit.MILLISECONDS.toNanos (ProLogixIoRuntime.SUSPENDED_RETRY_MS));
+          }
+        }
+      }
+
+    };
+
+    /** Returns the (unbuffered) output stream for this connection.
+     *
+     * <p>
+     * Writes are non-blocking on the underlying channel;
+     * if the socket send buffer is full, the writing thread backs off until there is room.
+     * Writes must not be issued concurrently from multiple threads.
+     *
+     * @return The output stream.
+     *
+     */
+    public final OutputStream getOutputStream ()
+    {
+      return this.outputStream;
+    }
+
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
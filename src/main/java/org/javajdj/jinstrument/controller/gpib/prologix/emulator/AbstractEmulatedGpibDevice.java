@@ -0,0 +1,252 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** A scriptable {@link EmulatedGpibDevice} for instruments with a textual (ASCII) command language.
+ *
+ * <p>
+ * Messages received from the controller are split into program message units at {@code ';'}, CR and LF.
+ * Each unit is split into a header (up to the first space) and an (optional) argument;
+ * the header is looked up (case-insensitive) in a table of handlers, see {@link #setHandler}.
+ * The output of a handler, if any, is appended to the output buffer of the device,
+ * which is returned (and cleared) upon the next {@link #talk}.
+ *
+ * <p>
+ * If the output buffer is empty upon {@link #talk}, the device may still produce output through {@link #talkIdle},
+ * which is the natural place for instruments that "spontaneously" produce readings when addressed to talk.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public abstract class AbstractEmulatedGpibDevice
+  implements EmulatedGpibDevice
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (AbstractEmulatedGpibDevice.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  protected AbstractEmulatedGpibDevice ()
+  {
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CHARSET
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  protected final static Charset US_ASCII = Charset.forName ("US-ASCII");
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // HANDLERS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final Map<String, Function<String, byte[]>> handlers = new HashMap<> ();
+
+  /** Sets (or removes) the handler for given program message unit header.
+   *
+   * <p>
+   * The handler is passed the (trimmed) argument of the program message unit, the empty string if absent,
+   * and returns the bytes to append to the output buffer of the device, or {@code null} if there is no output.
+   * Handlers are invoked while holding the lock on this device.
+   *
+   * @param header  The header, e.g., {@code "ID?"}, matched case-insensitive.
+   * @param handler The handler, {@code null} to remove the handler for the header.
+   *
+   * @throws IllegalArgumentException If the header is {@code null} or empty.
+   *
+   */
+  public final synchronized void setHandler (final String header, final Function<String, byte[]> handler)
+  {
+    if (header == null || header.trim ().isEmpty ())
+      throw new IllegalArgumentException ();
+    if (handler != null)
+      this.handlers.put (header.trim ().toUpperCase (), handler);
+    else
+      this.handlers.remove (header.trim ().toUpperCase ());
+  }
+
+  /** Sets a fixed textual response to given query.
+   *
+   * @param query    The query, e.g., {@code "ID?"}.
+   * @param response The response, including any line terminator; {@code null} to remove the handler.
+   *
+   * @see #setHandler
+   *
+   */
+  public final void setQueryResponse (final String query, final String response)
+  {
+    setHandler (query, response != null ? (argument) -> response.getBytes (US_ASCII) : null);
+  }
+
+  /** Invoked for program message units without a registered handler.
+   *
+   * <p>
+   * The default implementation logs and ignores the unit.
+   *
+   * @param header   The header (upper case).
+   * @param argument The argument, the empty string if absent.
+   *
+   * @return The bytes to append to the output buffer, {@code null} if there is no output.
+   *
+   */
+  protected byte[] onUnknownCommand (final String header, final String argument)
+  {
+    LOG.log (Level.FINE, "Ignoring unknown command {0} {1} on {2}.", new Object[]{header, argument, this});
+    return null;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // EmulatedGpibDevice
+  // LISTEN / TALK
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream ();
+
+  @Override
+  public synchronized void listen (final byte[] bytes)
+  {
+    if (bytes == null)
+      throw new IllegalArgumentException ();
+    for (final String unit : new String (bytes, US_ASCII).split ("[;\r\n]"))
+    {
+      final String trimmedUnit = unit.trim ();
+      if (trimmedUnit.isEmpty ())
+        continue;
+      final int space = trimmedUnit.indexOf (' ');
+      final String header = (space < 0 ? trimmedUnit : trimmedUnit.substring (0, space)).toUpperCase ();
+      final String argument = space < 0 ? "" : trimmedUnit.substring (space + 1).trim ();
+      final Function<String, byte[]> handler = this.handlers.get (header);
+      final byte[] response = handler != null ? handler.apply (argument) : onUnknownCommand (header, argument);
+      if (response != null)
+        this.output.write (response, 0, response.length);
+    }
+  }
+
+  /** Produces output when the device is addressed to talk while its output buffer is empty.
+   *
+   * <p>
+   * The default implementation returns {@code null}.
+   * Invoked while holding the lock on this device.
+   *
+   * @return The output, {@code null} or empty if the device has nothing to say.
+   *
+   */
+  protected byte[] talkIdle ()
+  {
+    return null;
+  }
+
+  @Override
+  public synchronized byte[] talk ()
+  {
+    if (this.output.size () == 0)
+      return talkIdle ();
+    final byte[] bytes = this.output.toByteArray ();
+    this.output.reset ();
+    return bytes;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // EmulatedGpibDevice
+  // SERIAL POLL / SERVICE REQUEST
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private byte statusByte = 0;
+
+  /** Sets the serial poll status byte of the device (all bits, including the request-for-service bit 6).
+   *
+   * @param statusByte The new status byte.
+   *
+   */
+  public final synchronized void setStatusByte (final byte statusByte)
+  {
+    this.statusByte = statusByte;
+  }
+
+  /** Requests service (asserts SRQ) until the next serial poll of the device.
+   *
+   */
+  public final synchronized void requestService ()
+  {
+    this.statusByte |= 0x40;
+  }
+
+  @Override
+  public synchronized byte serialPoll ()
+  {
+    final byte statusByteCopy = this.statusByte;
+    this.statusByte &= ~0x40;
+    return statusByteCopy;
+  }
+
+  @Override
+  public synchronized boolean isServiceRequest ()
+  {
+    return (this.statusByte & 0x40) != 0;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // EmulatedGpibDevice
+  // DEVICE CLEAR / TRIGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  @Override
+  public synchronized void deviceClear ()
+  {
+    this.output.reset ();
+  }
+
+  @Override
+  public synchronized void trigger ()
+  {
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+/** A (model of a) device on the GPIB bus of a {@link ProLogixGpibEthernetEmulator}.
+ *
+ * <p>
+ * Implementations must be thread-safe; the emulator may access a device from multiple client sessions.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public interface EmulatedGpibDevice
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LISTEN / TALK
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Delivers a message (with EOI asserted on the last byte) from the controller to the device.
+   *
+   * @param bytes The message, non-{@code null}.
+   *
+   */
+  void listen (byte[] bytes);
+
+  /** Returns the next message the device has to send to the controller when addressed to talk.
+   *
+   * <p>
+   * The (emulated) device asserts EOI on the last byte of the message.
+   *
+   * @return The next message, {@code null} or empty if the device has nothing to say.
+   *
+   */
+  byte[] talk ();
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SERIAL POLL / SERVICE REQUEST
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Serial polls the device.
+   *
+   * <p>
+   * Following ANSI/IEEE Standard 488.1-1987, serial polling the device clears its request for service.
+   *
+   * @return The serial poll status byte; bit 6 indicates whether the device requested service.
+   *
+   */
+  byte serialPoll ();
+
+  /** Returns whether the device currently asserts SRQ.
+   *
+   * @return Whether the device currently asserts SRQ.
+   *
+   */
+  boolean isServiceRequest ();
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DEVICE CLEAR / TRIGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Performs a (selected) device clear on the device.
+   *
+   */
+  void deviceClear ();
+
+  /** Triggers the device (Group Execute Trigger).
+   *
+   */
+  void trigger ();
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
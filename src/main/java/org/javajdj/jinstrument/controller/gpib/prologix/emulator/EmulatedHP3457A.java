@@ -0,0 +1,156 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+
+/** A (canned) emulation of a HP-3457A Digital Multi Meter.
+ *
+ * <p>
+ * Responds to a fixed set of queries (with configurable responses through {@link #setQueryResponse}),
+ * accepts (and ignores) all other commands, except {@code OFORMAT} and {@code ISCALE?}.
+ * When addressed to talk without pending query responses, the meter produces a reading
+ * taken from a configurable {@link DoubleSupplier},
+ * formatted according to the current output format
+ * ({@code ASCII}: 16 bytes including CR/LF; {@code SINT}, {@code DINT}, {@code SREAL}: 2, 4 and 4 bytes, respectively).
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class EmulatedHP3457A
+  extends AbstractEmulatedGpibDevice
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public EmulatedHP3457A ()
+  {
+    super ();
+    setQueryResponse ("ID?",     "HP3457A\r\n");
+    setQueryResponse ("OPT?",    "0\r\n");
+    setQueryResponse ("ERR?",    "0\r\n");
+    setQueryResponse ("AUXERR?", "0\r\n");
+    setQueryResponse ("STB?",    "0\r\n");
+    setQueryResponse ("CALNUM?", "1\r\n");
+    setQueryResponse ("NPLC?",   "10\r\n");
+    setQueryResponse ("LFREQ?",  "50\r\n");
+    setQueryResponse ("LINE?",   "50\r\n");
+    setQueryResponse ("MSIZE?",  "20000,14848\r\n");
+    setQueryResponse ("MCOUNT?", "0\r\n");
+    setQueryResponse ("MATH?",   "0,0\r\n");
+    setQueryResponse ("TARM?",   "1\r\n");
+    setQueryResponse ("TRIG?",   "1\r\n");
+    setQueryResponse ("NRDGS?",  "1,1\r\n");
+    setQueryResponse ("AZERO?",  "1\r\n");
+    setQueryResponse ("TERM?",   "1\r\n");
+    setQueryResponse ("RANGE?",  "30\r\n");
+    setHandler ("ISCALE?", (argument) -> (String.format (Locale.US, "%+.7E", this.integerScale) + "\r\n").getBytes (US_ASCII));
+    setHandler ("OFORMAT", (argument) ->
+    {
+      this.outputFormat = argument.trim ().toUpperCase ();
+      return null;
+    });
+    setHandler ("RESET", (argument) ->
+    {
+      this.outputFormat = "ASCII";
+      return null;
+    });
+    setHandler ("PRESET", (argument) ->
+    {
+      this.outputFormat = "ASCII";
+      return null;
+    });
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // READINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // Only accessed with the lock on this device held.
+  private String outputFormat = "ASCII";
+
+  private volatile double integerScale = 1.0E-6;
+
+  /** Sets the integer scale (the value of the least-significant bit in {@code SINT} and {@code DINT} readings).
+   *
+   * @param integerScale The integer scale, strictly positive.
+   *
+   * @throws IllegalArgumentException If the argument is zero or negative.
+   *
+   */
+  public final void setIntegerScale (final double integerScale)
+  {
+    if (integerScale <= 0)
+      throw new IllegalArgumentException ();
+    this.integerScale = integerScale;
+  }
+
+  private volatile DoubleSupplier readingSupplier = () -> 1.0 + 1.0E-5 * Math.random ();
+
+  /** Sets the supplier of readings.
+   *
+   * @param readingSupplier The supplier of readings, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final void setReadingSupplier (final DoubleSupplier readingSupplier)
+  {
+    if (readingSupplier == null)
+      throw new IllegalArgumentException ();
+    this.readingSupplier = readingSupplier;
+  }
+
+  @Override
+  protected byte[] talkIdle ()
+  {
+    final double reading = this.readingSupplier.getAsDouble ();
+    switch (this.outputFormat)
+    {
+      case "SINT":
+        return ByteBuffer.allocate (2).putShort ((short) Math.round (reading / this.integerScale)).array ();
+      case "DINT":
+        return ByteBuffer.allocate (4).putInt ((int) Math.round (reading / this.integerScale)).array ();
+      case "SREAL":
+        return ByteBuffer.allocate (4).putFloat ((float) reading).array ();
+      case "ASCII":
+      default:
+        return (String.format (Locale.US, "%+.7E", reading) + "\r\n").getBytes (US_ASCII);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "EmulatedHP3457A";
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+import java.util.Locale;
+import java.util.function.IntToDoubleFunction;
+
+/** A (canned) emulation of a HP-8566B Spectrum Analyzer.
+ *
+ * <p>
+ * Supports {@code TA} (with output format {@code O3}: {@value #TRACE_LENGTH} CR/LF-terminated ASCII values in dBm),
+ * {@code OL} (the 80-byte learn string, reflecting center frequency, span, resolution and video bandwidths,
+ * sweep time, reference level and attenuation),
+ * and the corresponding setters {@code CF}, {@code SP}, {@code RB}, {@code VB}, {@code ST}, {@code RL} and {@code AT}
+ * (without unit conversion; values are taken in MHz, Hz, seconds, dBm and dB, respectively).
+ * All other commands are accepted and ignored.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class EmulatedHP8566B
+  extends AbstractEmulatedGpibDevice
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public EmulatedHP8566B ()
+  {
+    super ();
+    setHandler ("TA", (argument) -> trace ());
+    setHandler ("OL", (argument) -> learnString ());
+    setHandler ("CF", (argument) -> { this.centerFrequency_MHz = parseValue (argument, this.centerFrequency_MHz); return null; });
+    setHandler ("SP", (argument) -> { this.span_MHz = parseValue (argument, this.span_MHz); return null; });
+    setHandler ("RB", (argument) -> { this.resolutionBandwidth_Hz = parseValue (argument, this.resolutionBandwidth_Hz); return null; });
+    setHandler ("VB", (argument) -> { this.videoBandwidth_Hz = parseValue (argument, this.videoBandwidth_Hz); return null; });
+    setHandler ("ST", (argument) -> { this.sweepTime_s = parseValue (argument, this.sweepTime_s); return null; });
+    setHandler ("RL", (argument) -> { this.referenceLevel_dBm = parseValue (argument, this.referenceLevel_dBm); return null; });
+    setHandler ("AT", (argument) -> { this.rfAttenuation_dB = parseValue (argument, this.rfAttenuation_dB); return null; });
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SETTINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // Only accessed with the lock on this device held.
+  private double centerFrequency_MHz = 1000.0;
+
+  private double span_MHz = 100.0;
+
+  private double resolutionBandwidth_Hz = 1.0E6;
+
+  private double videoBandwidth_Hz = 1.0E6;
+
+  private double sweepTime_s = 0.05;
+
+  private double referenceLevel_dBm = 0.0;
+
+  private double rfAttenuation_dB = 10.0;
+
+  private static double parseValue (final String argument, final double oldValue)
+  {
+    try
+    {
+      return Double.parseDouble (argument.trim ().split (" ")[0]);
+    }
+    catch (NumberFormatException nfe)
+    {
+      return oldValue;
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // TRACE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The number of points (1001) in a trace.
+   *
+   */
+  public final static int TRACE_LENGTH = 1001;
+
+  private volatile IntToDoubleFunction traceFunction =
+    (i) -> -80.0 + 5.0 * Math.random () + 60.0 * Math.exp (- (i - 500) * (i - 500) / 200.0);
+
+  /** Sets the function producing the trace value in dBm for each point index.
+   *
+   * @param traceFunction The trace function, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final void setTraceFunction (final IntToDoubleFunction traceFunction)
+  {
+    if (traceFunction == null)
+      throw new IllegalArgumentException ();
+    this.traceFunction = traceFunction;
+  }
+
+  private byte[] trace ()
+  {
+    final IntToDoubleFunction function = this.traceFunction;
+    final StringBuilder sb = new StringBuilder ();
+    for (int i = 0; i < EmulatedHP8566B.TRACE_LENGTH; i++)
+      sb.append (String.format (Locale.US, "%.2f", function.applyAsDouble (i))).append ("\r\n");
+    return sb.toString ().getBytes (US_ASCII);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LEARN STRING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final static double[] BANDWIDTHS_HZ =
+    {10, 30, 100, 300, 1000, 3000, 10000, 30000, 100000, 300000, 1000000, 3000000};
+
+  private final static int[] BANDWIDTH_CODES =
+    { 2,  3,   4,   5,    6,    9,    10,    11,     12,     13,      14,      15};
+
+  private static int bandwidthCode (final double bandwidth_Hz)
+  {
+    int best = 0;
+    for (int i = 1; i < EmulatedHP8566B.BANDWIDTHS_HZ.length; i++)
+      if (Math.abs (EmulatedHP8566B.BANDWIDTHS_HZ[i] - bandwidth_Hz) < Math.abs (EmulatedHP8566B.BANDWIDTHS_HZ[best] - bandwidth_Hz))
+        best = i;
+    return EmulatedHP8566B.BANDWIDTH_CODES[best];
+  }
+
+  // Writes a value as 12 BCD digits (from 10^5 down to 10^-6) into 6 bytes.
+  private static void putBcd (final byte[] bytes, final int offset, final double value)
+  {
+    final String digits = String.format (Locale.US, "%012d", Math.max (0L, Math.min (999999999999L, Math.round (value * 1.0E6))));
+    for (int i = 0; i < 6; i++)
+      bytes[offset + i] = (byte) (((digits.charAt (2 * i) - '0') << 4) | (digits.charAt (2 * i + 1) - '0'));
+  }
+
+  private byte[] learnString ()
+  {
+    final byte[] ol = new byte[80];
+    ol[0] = (byte) 0x1f;
+    ol[79] = (byte) 0xa2;
+    putBcd (ol, 3, this.centerFrequency_MHz);
+    putBcd (ol, 11, this.span_MHz);
+    putBcd (ol, 65, this.sweepTime_s);
+    ol[26] = (byte) ((bandwidthCode (this.resolutionBandwidth_Hz) << 4) | bandwidthCode (this.videoBandwidth_Hz));
+    ol[22] = (byte) (Math.max (0, Math.min (7, (int) Math.round (this.rfAttenuation_dB / 10.0))));
+    // Reference level: 10 * (10 * a + b - 64) + c + 0.1 * d.
+    final long tenths = Math.max (-6400L, Math.min (3599L, Math.round (this.referenceLevel_dBm * 10.0)));
+    final long tens = Math.floorDiv (tenths, 100L) + 64L;
+    final long remainder = Math.floorMod (tenths, 100L);
+    ol[23] = (byte) (((tens / 10) << 4) | (tens % 10));
+    ol[24] = (byte) (((remainder / 10) << 4) | (remainder % 10));
+    return ol;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "EmulatedHP8566B";
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/** A (canned) emulation of a Tektronix 2440 Digital Storage Oscilloscope.
+ *
+ * <p>
+ * Supports {@code ID?}, {@code ERR?}, {@code SET?} (with a canned, configurable response),
+ * {@code LLS?}, {@code DATA} ({@code SOURCE} and {@code ENCDG}), {@code START}, {@code STOP}, {@code PATH}
+ * and {@code CURVE?}.
+ * Curves are returned as binary blocks ({@code %}, 16-bit big-endian length, data, checksum)
+ * of {@value #SAMPLE_LENGTH} samples,
+ * taken from a configurable waveform per data source (by default, sine waves);
+ * with the partial encodings ({@code RPPARTIAL} and {@code RIPARTIAL}),
+ * only the samples between the {@code START} and {@code STOP} positions (inclusive) are returned.
+ * The response to {@code SET?} reflects the current data encoding, data source, and start and stop positions.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class EmulatedTek2440
+  extends AbstractEmulatedGpibDevice
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  public EmulatedTek2440 ()
+  {
+    super ();
+    setQueryResponse ("ID?", "ID TEK/2440,V81.1,\"EMULATED\"");
+    setHandler ("ERR?", (argument) -> text (this.path ? "ERR 0" : "0"));
+    setHandler ("SET?", (argument) -> text (processSet ()));
+    setHandler ("LLS?", (argument) -> binaryBlock (this.path ? "LLSET " : "", this.llsData));
+    setHandler ("DAT", this::processData);
+    setHandler ("DATA", this::processData);
+    setHandler ("PATH", (argument) ->
+    {
+      this.path = argument.toUpperCase ().startsWith ("ON");
+      return null;
+    });
+    setHandler ("STAR", this::processStart);
+    setHandler ("START", this::processStart);
+    setHandler ("STO", this::processStop);
+    setHandler ("STOP", this::processStop);
+    setHandler ("CURV?", this::processCurve);
+    setHandler ("CURVE?", this::processCurve);
+    for (final String source : new String[]{"CH1", "CH2", "ADD", "MUL"})
+      setWaveform (source, sineWave (source.hashCode () & 0x7, 32 + 16 * (source.hashCode () & 0x3)));
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SET? RESPONSE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The default (canned) response to {@code SET?}.
+   *
+   * <p>
+   * The response is in the format used with {@code PATH OFF}: both channels on, 100 mV/div, 1 ms/div,
+   * {@code RPBINARY} encoding on data source {@code CH1}.
+   *
+   */
+  public final static String DEFAULT_SET_RESPONSE = ""
+    + "VIEW,LO;"
+    + "1.0E-1,0,0,DC,OFF,OFF;"
+    + "1.0E-1,0,0,DC,OFF,OFF;"
+    + "ON,ON,OFF,OFF,YT;"
+    + "AUTO,CH1,DC,OFF,0.0,PLUS,4,0,A;"
+    + "NORMAL,OFF,CONT,2,OFF;"
+    + "OFF,0,0;"
+    + "OFF,CH1,BASE,BASE,BASE,V,0,SEC,V,0,SEC,0,0,0,0,0,0,0,ABSOLUTE,ONE;"
+    + "ACQUIRE;"
+    + "RUNSAFT,OFF,CH1,DC,0,PLUS,4;"
+    + "ASWEEP,512,1.0E-3,1.0E-3,1;"
+    + "HEX,ASYNC,#HXXXX_XXXX_XXXX_XX;"
+    + "DIV1,DIV1;"
+    + "CH1;"
+    + "EMPTY,EMPTY,EMPTY,EMPTY;"
+    + "FULL;"
+    + "OFF,1;"
+    + "50,50,50,50,ON;"
+    + "OFF,OFF,OFF,PERIOD,CH1,CH2,FREQUENCY,CH1,CH2,PK2PK,CH1,CH2,MEAN,CH1,CH2,"
+      + "PERCENT,90,0,PERCENT,50,0,PERCENT,10,0,PERCENT,50,0,MINMAX;"
+    + "HPGL,ON,ON,ON,ON,A4;"
+    + "ON;"
+    + "INDEPENDENT,512,512,512,512;"
+    + "OFF;"
+    + "ON;"
+    + "RPBINARY,REF1,CH1,CH2;"
+    + "OFF;"
+    + "OFF;"
+    + "PLUS;"
+    + "OFF;"
+    + "ON;"
+    + "OFF;"
+    + "ON;"
+    + "0;"
+    + "ON;"
+    + "0;"
+    + "OFF;"
+    + "ON;"
+    + "OFF;"
+    + "OFF;"
+    + "OFF;"
+    + "ON;"
+    + "0,OFF;"
+    + "1;"
+    + "1024;"
+    + "OFF";
+
+  private volatile String setResponse = EmulatedTek2440.DEFAULT_SET_RESPONSE;
+
+  /** Sets the (canned) response to {@code SET?}.
+   *
+   * <p>
+   * In the format used with {@code PATH OFF}, the data settings (the 25th part)
+   * and the start and stop positions (the 43rd and 44th parts) are replaced
+   * with the current data encoding, data source, and start and stop positions.
+   *
+   * @param setResponse The response, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final void setSetResponse (final String setResponse)
+  {
+    if (setResponse == null)
+      throw new IllegalArgumentException ();
+    this.setResponse = setResponse;
+  }
+
+  // The indices of the (PATH OFF) parts of the SET? response we keep up to date.
+  private final static int SET_DATA_INDEX = 24;
+  private final static int SET_START_INDEX = 42;
+  private final static int SET_STOP_INDEX = 43;
+
+  private String processSet ()
+  {
+    final String[] parts = this.setResponse.split (";", -1);
+    if (parts.length <= EmulatedTek2440.SET_STOP_INDEX || parts[0].trim ().toUpperCase ().startsWith ("AUTOS"))
+      return this.setResponse;
+    final String[] dataParts = parts[EmulatedTek2440.SET_DATA_INDEX].split (",", -1);
+    if (dataParts.length == 4)
+    {
+      dataParts[0] = this.dataEncoding;
+      dataParts[2] = this.dataSource;
+      parts[EmulatedTek2440.SET_DATA_INDEX] = String.join (",", dataParts);
+    }
+    parts[EmulatedTek2440.SET_START_INDEX] = Integer.toString (this.start);
+    parts[EmulatedTek2440.SET_STOP_INDEX] = Integer.toString (this.stop);
+    return String.join (";", parts);
+  }
+
+  private volatile byte[] llsData = new byte[0];
+
+  /** Sets the (canned) data returned (as a binary block) in response to {@code LLS?}.
+   *
+   * @param llsData The data, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final void setLlsData (final byte[] llsData)
+  {
+    if (llsData == null)
+      throw new IllegalArgumentException ();
+    this.llsData = llsData.clone ();
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PATH / DATA SOURCE / DATA ENCODING / START / STOP
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // Only accessed with the lock on this device held.
+  private boolean path = false;
+
+  private String dataSource = "CH1";
+
+  // In full (long) form, as reported in the SET? response.
+  private String dataEncoding = "RPBINARY";
+
+  // One-based, inclusive.
+  private int start = 1;
+
+  private int stop = EmulatedTek2440.SAMPLE_LENGTH;
+
+  private byte[] processData (final String argument)
+  {
+    for (final String part : argument.split (","))
+    {
+      final String[] keyValue = part.trim ().toUpperCase ().split (":");
+      if (keyValue.length != 2)
+        continue;
+      if (keyValue[0].startsWith ("SOU"))
+        this.dataSource = keyValue[1].trim ();
+      else if (keyValue[0].startsWith ("ENC"))
+        switch (keyValue[1].trim ().length () >= 3 ? keyValue[1].trim ().substring (0, 3) : keyValue[1].trim ())
+        {
+          case "ASC": this.dataEncoding = "ASCII";     break;
+          case "RPB": this.dataEncoding = "RPBINARY";  break;
+          case "RIB": this.dataEncoding = "RIBINARY";  break;
+          case "RPP": this.dataEncoding = "RPPARTIAL"; break;
+          case "RIP": this.dataEncoding = "RIPARTIAL"; break;
+          default:    break;
+        }
+    }
+    return null;
+  }
+
+  private static Integer parsePosition (final String argument)
+  {
+    try
+    {
+      final int position = (int) Math.round (Double.parseDouble (argument.trim ()));
+      return (position >= 1 && position <= EmulatedTek2440.SAMPLE_LENGTH) ? position : null;
+    }
+    catch (NumberFormatException nfe)
+    {
+      return null;
+    }
+  }
+
+  // Like the instrument, we refuse to let the start position pass the stop position.
+  private byte[] processStart (final String argument)
+  {
+    final Integer position = EmulatedTek2440.parsePosition (argument);
+    if (position != null && position <= this.stop)
+      this.start = position;
+    return null;
+  }
+
+  private byte[] processStop (final String argument)
+  {
+    final Integer position = EmulatedTek2440.parsePosition (argument);
+    if (position != null && position >= this.start)
+      this.stop = position;
+    return null;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // WAVEFORMS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The number of samples (1024) in a curve.
+   *
+   */
+  public final static int SAMPLE_LENGTH = 1024;
+
+  private final Map<String, byte[]> waveforms = new HashMap<> ();
+
+  /** Sets the waveform for given data source.
+   *
+   * @param source   The data source, e.g., {@code "CH1"} or {@code "ADD"}.
+   * @param waveform The waveform as {@value #SAMPLE_LENGTH} signed digitizing levels (zero at center screen).
+   *
+   * @throws IllegalArgumentException If the source is {@code null} or the waveform is {@code null} or of illegal length.
+   *
+   */
+  public final synchronized void setWaveform (final String source, final byte[] waveform)
+  {
+    if (source == null || waveform == null || waveform.length != EmulatedTek2440.SAMPLE_LENGTH)
+      throw new IllegalArgumentException ();
+    this.waveforms.put (source.trim ().toUpperCase (), waveform.clone ());
+  }
+
+  private static byte[] sineWave (final int periods, final int amplitude)
+  {
+    final byte[] waveform = new byte[EmulatedTek2440.SAMPLE_LENGTH];
+    for (int i = 0; i < waveform.length; i++)
+      waveform[i] = (byte) Math.round (amplitude * Math.sin (2 * Math.PI * (periods + 1) * i / waveform.length));
+    return waveform;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CURVE?
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private byte[] processCurve (final String argument)
+  {
+    final byte[] waveform = this.waveforms.getOrDefault (this.dataSource, new byte[EmulatedTek2440.SAMPLE_LENGTH]);
+    final boolean partial = this.dataEncoding.endsWith ("PARTIAL");
+    final int first = partial ? this.start - 1 : 0;
+    final byte[] data = new byte[partial ? this.stop - this.start + 1 : waveform.length];
+    switch (this.dataEncoding)
+    {
+      case "RIBINARY":
+      case "RIPARTIAL":
+        System.arraycopy (waveform, first, data, 0, data.length);
+        break;
+      case "RPBINARY":
+      case "RPPARTIAL":
+      default:
+        for (int i = 0; i < data.length; i++)
+          data[i] = (byte) (waveform[first + i] + 128);
+        break;
+    }
+    return binaryBlock (this.path ? "CURVE " : "", data);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // UTILITIES
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static byte[] text (final String string)
+  {
+    return string.getBytes (US_ASCII);
+  }
+
+  /** Creates a Tektronix binary block.
+   *
+   * <p>
+   * The block consists of the header, a {@code '%'}, the 16-bit big-endian byte count (data plus checksum),
+   * the data, and the checksum (the two's complement of the modulo-256 sum of the byte count and data bytes).
+   *
+   */
+  private static byte[] binaryBlock (final String header, final byte[] data)
+  {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream ();
+    final byte[] headerBytes = (header + "%").getBytes (US_ASCII);
+    baos.write (headerBytes, 0, headerBytes.length);
+    final int count = data.length + 1;
+    int sum = (count >> 8) + (count & 0xff);
+    baos.write (count >> 8);
+    baos.write (count & 0xff);
+    for (final byte b : data)
+    {
+      baos.write (b);
+      sum += b & 0xff;
+    }
+    baos.write ((- sum) & 0xff);
+    return baos.toByteArray ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "EmulatedTek2440";
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
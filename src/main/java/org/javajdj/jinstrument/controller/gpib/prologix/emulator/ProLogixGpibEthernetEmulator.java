@@ -0,0 +1,651 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.javajdj.jinstrument.controller.gpib.prologix.ProLogixGpibEthernetController;
+
+/** A loopback emulator of the ProLogix GPIB-ETHERNET controller.
+ *
+ * <p>
+ * The emulator is a local TCP server that speaks the ProLogix {@code ++} command set
+ * ({@code ++addr}, {@code ++read [eoi|char]}, {@code ++spoll}, {@code ++srq}, {@code ++clr},
+ * {@code ++eot_enable}, {@code ++eot_char}, {@code ++eos}, {@code ++auto}, {@code ++rst}, and a few more),
+ * including the escaping rules for data bytes
+ * (an {@code ESC} before {@code LF}, {@code CR}, {@code ESC} and {@code '+'};
+ * an unescaped {@code LF} or {@code CR} terminates the line).
+ * It hosts {@link EmulatedGpibDevice}s at primary GPIB addresses.
+ *
+ * <p>
+ * Each GPIB transaction (writing a message to a device, reading from a device, serial polling a device)
+ * incurs a configurable per-transaction latency plus a configurable per-byte latency,
+ * in order to mimic the timing of a real bus.
+ *
+ * <p>
+ * Each client connection is served by its own thread, with its own controller state (address, EOT settings, etc.).
+ * Upon {@link #close}, all client connections are closed.
+ *
+ * @see ProLogixGpibEthernetController
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public final class ProLogixGpibEthernetEmulator
+  implements AutoCloseable
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LOGGER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private static final Logger LOG = Logger.getLogger (ProLogixGpibEthernetEmulator.class.getName ());
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The default TCP port (1234) of the ProLogix GPIB-ETHERNET controller.
+   *
+   */
+  public final static int DEFAULT_PORT = 1234;
+
+  /** Creates the emulator (without starting it).
+   *
+   * @param port The TCP port to listen on (on the loopback interface); zero for an ephemeral port.
+   *
+   * @throws IllegalArgumentException If the port is out of range.
+   *
+   * @see #start
+   * @see #getPort
+   *
+   */
+  public ProLogixGpibEthernetEmulator (final int port)
+  {
+    if (port < 0 || port > 65535)
+      throw new IllegalArgumentException ();
+    this.requestedPort = port;
+  }
+
+  /** Creates the emulator on an ephemeral port (without starting it).
+   *
+   */
+  public ProLogixGpibEthernetEmulator ()
+  {
+    this (0);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // DEVICES
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final Map<Integer, EmulatedGpibDevice> devices = new ConcurrentHashMap<> ();
+
+  /** Puts (or removes) a device at given primary GPIB address.
+   *
+   * @param pad    The primary address, between zero and 30 inclusive.
+   * @param device The device; {@code null} to remove the device at given address.
+   *
+   * @throws IllegalArgumentException If the address is out of range.
+   *
+   */
+  public final void setDevice (final int pad, final EmulatedGpibDevice device)
+  {
+    if (pad < 0 || pad > 30)
+      throw new IllegalArgumentException ();
+    if (device != null)
+      this.devices.put (pad, device);
+    else
+      this.devices.remove (pad);
+  }
+
+  /** Returns the device at given primary GPIB address.
+   *
+   * @param pad The primary address.
+   *
+   * @return The device at given address, {@code null} if there is none.
+   *
+   */
+  public final EmulatedGpibDevice getDevice (final int pad)
+  {
+    return this.devices.get (pad);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // LATENCY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private volatile long transactionLatency_ns = 0L;
+
+  private volatile long byteLatency_ns = 0L;
+
+  /** Sets the latency of each GPIB transaction.
+   *
+   * @param transactionLatency_us The latency in microseconds, non-negative.
+   *
+   * @throws IllegalArgumentException If the argument is negative.
+   *
+   */
+  public final void setTransactionLatency_us (final long transactionLatency_us)
+  {
+    if (transactionLatency_us < 0)
+      throw new IllegalArgumentException ();
+    this.transactionLatency_ns = TimeUnit.MICROSECONDS.toNanos (transactionLatency_us);
+  }
+
+  /** Sets the latency of each byte transferred over the GPIB bus.
+   *
+   * @param byteLatency_us The latency in microseconds, non-negative.
+   *
+   * @throws IllegalArgumentException If the argument is negative.
+   *
+   */
+  public final void setByteLatency_us (final long byteLatency_us)
+  {
+    if (byteLatency_us < 0)
+      throw new IllegalArgumentException ();
+    this.byteLatency_ns = TimeUnit.MICROSECONDS.toNanos (byteLatency_us);
+  }
+
+  private void transactionDelay (final int numberOfBytes)
+    throws InterruptedException
+  {
+    final long delay_ns = this.transactionLatency_ns + numberOfBytes * this.byteLatency_ns;
+    if (delay_ns > 0)
+      TimeUnit.NANOSECONDS.sleep (delay_ns);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // START / CLOSE / PORT
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final int requestedPort;
+
+  private ServerSocket serverSocket = null;
+
+  private final Set<Socket> sockets = new HashSet<> ();
+
+  /** Starts the emulator.
+   *
+   * @throws IOException           If the server socket could not be created.
+   * @throws IllegalStateException If the emulator was already started.
+   *
+   */
+  public final synchronized void start ()
+    throws IOException
+  {
+    if (this.serverSocket != null)
+      throw new IllegalStateException ();
+    this.serverSocket = new ServerSocket (this.requestedPort, 50, InetAddress.getLoopbackAddress ());
+    final ServerSocket acceptingSocket = this.serverSocket;
+    final Thread acceptor = new Thread (() ->
+    {
+      while (! acceptingSocket.isClosed ())
+      {
+        try
+        {
+          final Socket socket = acceptingSocket.accept ();
+          socket.setTcpNoDelay (true);
+          synchronized (this)
+          {
+            this.sockets.add (socket);
+          }
+          final Thread sessionThread = new Thread (new Session (socket), "ProLogix Emulator Session " + socket);
+          sessionThread.setDaemon (true);
+          sessionThread.start ();
+        }
+        catch (IOException ioe)
+        {
+          if (! acceptingSocket.isClosed ())
+            LOG.log (Level.WARNING, "IOException while accepting connection on {0}: {1}.", new Object[]{this, ioe});
+        }
+      }
+    }, "ProLogix Emulator Acceptor " + this.serverSocket.getLocalPort ());
+    acceptor.setDaemon (true);
+    acceptor.start ();
+  }
+
+  /** Returns the (local) TCP port the emulator listens on.
+   *
+   * @return The TCP port.
+   *
+   * @throws IllegalStateException If the emulator has not been started.
+   *
+   */
+  public final synchronized int getPort ()
+  {
+    if (this.serverSocket == null)
+      throw new IllegalStateException ();
+    return this.serverSocket.getLocalPort ();
+  }
+
+  /** Stops the emulator and closes all client connections.
+   *
+   */
+  @Override
+  public final synchronized void close ()
+  {
+    if (this.serverSocket != null)
+    {
+      try
+      {
+        this.serverSocket.close ();
+      }
+      catch (IOException ioe)
+      {
+        LOG.log (Level.WARNING, "IOException while closing server socket on {0}: {1}.", new Object[]{this, ioe});
+      }
+    }
+    for (final Socket socket : this.sockets)
+    {
+      try
+      {
+        socket.close ();
+      }
+      catch (IOException ioe)
+      {
+        LOG.log (Level.WARNING, "IOException while closing socket on {0}: {1}.", new Object[]{this, ioe});
+      }
+    }
+    this.sockets.clear ();
+  }
+
+  @Override
+  public final String toString ()
+  {
+    return "ProLogixGpibEthernetEmulator:" + this.requestedPort;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SESSION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final static byte LF_BYTE = (byte) 10;
+
+  private final static byte CR_BYTE = (byte) 13;
+
+  private final static byte ESC_BYTE = (byte) 27;
+
+  private final static byte PLUS_BYTE = (byte) 43;
+
+  private final static Charset US_ASCII = Charset.forName ("US-ASCII");
+
+  /** The version string reported upon {@code ++ver}.
+   *
+   */
+  public final static String VERSION_STRING = "Prologix GPIB-ETHERNET Controller version 01.06.06.00 (Emulated)";
+
+  /** A client connection to the emulator, with its own (ProLogix) controller state.
+   *
+   */
+  private final class Session
+    implements Runnable
+  {
+
+    private final Socket socket;
+
+    private OutputStream outputStream = null;
+
+    private int mode;
+
+    private int address;
+
+    private int auto;
+
+    private int eoi;
+
+    private int eos;
+
+    private int eotEnable;
+
+    private int eotChar;
+
+    private int readTimeout_ms;
+
+    // Bytes of a message from a device that have not been read yet (e.g., due to ++read 10).
+    private final Map<Integer, ByteBuffer> pendingTalk = new HashMap<> ();
+
+    private Session (final Socket socket)
+    {
+      this.socket = socket;
+      reset ();
+    }
+
+    private void reset ()
+    {
+      this.mode = 1;
+      this.address = 0;
+      this.auto = 0;
+      this.eoi = 1;
+      this.eos = 0;
+      this.eotEnable = 0;
+      this.eotChar = 0;
+      this.readTimeout_ms = 500;
+      this.pendingTalk.clear ();
+    }
+
+    @Override
+    public final void run ()
+    {
+      try (final Socket s = this.socket)
+      {
+        final InputStream inputStream = new BufferedInputStream (s.getInputStream ());
+        this.outputStream = new BufferedOutputStream (s.getOutputStream ());
+        final ByteArrayOutputStream line = new ByteArrayOutputStream ();
+        boolean escape = false;
+        boolean firstByteEscaped = false;
+        int b;
+        while ((b = inputStream.read ()) >= 0)
+        {
+          if (escape)
+          {
+            if (line.size () == 0)
+              firstByteEscaped = true;
+            line.write (b);
+            escape = false;
+          }
+          else if ((byte) b == ESC_BYTE)
+            escape = true;
+          else if ((byte) b == LF_BYTE || (byte) b == CR_BYTE)
+          {
+            processLine (line.toByteArray (), firstByteEscaped);
+            line.reset ();
+            firstByteEscaped = false;
+          }
+          else
+            line.write (b);
+          if (inputStream.available () == 0)
+            this.outputStream.flush ();
+        }
+      }
+      catch (InterruptedException ie)
+      {
+        LOG.log (Level.INFO, "Session interrupted on {0}.", ProLogixGpibEthernetEmulator.this);
+      }
+      catch (IOException ioe)
+      {
+        LOG.log (Level.FINE, "Session closed on {0}: {1}.", new Object[]{ProLogixGpibEthernetEmulator.this, ioe});
+      }
+      finally
+      {
+        synchronized (ProLogixGpibEthernetEmulator.this)
+        {
+          ProLogixGpibEthernetEmulator.this.sockets.remove (this.socket);
+        }
+      }
+    }
+
+    private void processLine (final byte[] bytes, final boolean firstByteEscaped)
+      throws IOException, InterruptedException
+    {
+      if (bytes.length == 0)
+        return;
+      if ((! firstByteEscaped) && bytes.length >= 2 && bytes[0] == PLUS_BYTE && bytes[1] == PLUS_BYTE)
+        processControllerCommand (new String (bytes, 2, bytes.length - 2, US_ASCII).trim ());
+      else
+        processData (bytes);
+    }
+
+    private void respond (final String string)
+      throws IOException
+    {
+      this.outputStream.write ((string + "\r\n").getBytes (US_ASCII));
+    }
+
+    private int parseIntArgument (final String argument, final int min, final int max, final int oldValue)
+    {
+      try
+      {
+        final int value = Integer.parseInt (argument.trim ());
+        if (value >= min && value <= max)
+          return value;
+      }
+      catch (NumberFormatException nfe)
+      {
+        // EMPTY
+      }
+      LOG.log (Level.WARNING, "Illegal argument {0} on {1}.", new Object[]{argument, ProLogixGpibEthernetEmulator.this});
+      return oldValue;
+    }
+
+    private void processControllerCommand (final String commandString)
+      throws IOException, InterruptedException
+    {
+      final int space = commandString.indexOf (' ');
+      final String command = (space < 0 ? commandString : commandString.substring (0, space)).toLowerCase ();
+      final String argument = space < 0 ? "" : commandString.substring (space + 1).trim ();
+      final boolean query = argument.isEmpty ();
+      switch (command)
+      {
+        case "addr":
+          if (query)
+            respond (Integer.toString (this.address));
+          else
+            this.address = parseIntArgument (argument.split (" ")[0], 0, 30, this.address);
+          break;
+        case "mode":
+          if (query)
+            respond (Integer.toString (this.mode));
+          else
+            this.mode = parseIntArgument (argument, 0, 1, this.mode);
+          break;
+        case "auto":
+          if (query)
+            respond (Integer.toString (this.auto));
+          else
+            this.auto = parseIntArgument (argument, 0, 1, this.auto);
+          break;
+        case "eoi":
+          if (query)
+            respond (Integer.toString (this.eoi));
+          else
+            this.eoi = parseIntArgument (argument, 0, 1, this.eoi);
+          break;
+        case "eos":
+          if (query)
+            respond (Integer.toString (this.eos));
+          else
+            this.eos = parseIntArgument (argument, 0, 3, this.eos);
+          break;
+        case "eot_enable":
+          if (query)
+            respond (Integer.toString (this.eotEnable));
+          else
+            this.eotEnable = parseIntArgument (argument, 0, 1, this.eotEnable);
+          break;
+        case "eot_char":
+          if (query)
+            respond (Integer.toString (this.eotChar));
+          else
+            this.eotChar = parseIntArgument (argument, 0, 255, this.eotChar);
+          break;
+        case "read_tmo_ms":
+          if (query)
+            respond (Integer.toString (this.readTimeout_ms));
+          else
+            this.readTimeout_ms = parseIntArgument (argument, 1, 3000, this.readTimeout_ms);
+          break;
+        case "read":
+          if (query || "eoi".equalsIgnoreCase (argument))
+            read (-1);
+          else
+            read (parseIntArgument (argument, 0, 255, -1));
+          break;
+        case "spoll":
+        {
+          final int pad = query ? this.address : parseIntArgument (argument.split (" ")[0], 0, 30, this.address);
+          final EmulatedGpibDevice device = ProLogixGpibEthernetEmulator.this.devices.get (pad);
+          transactionDelay (1);
+          respond (Integer.toString (device != null ? (device.serialPoll () & 0xff) : 0));
+          break;
+        }
+        case "srq":
+        {
+          boolean srq = false;
+          for (final EmulatedGpibDevice device : ProLogixGpibEthernetEmulator.this.devices.values ())
+            srq |= device.isServiceRequest ();
+          respond (srq ? "1" : "0");
+          break;
+        }
+        case "clr":
+        {
+          final EmulatedGpibDevice device = ProLogixGpibEthernetEmulator.this.devices.get (this.address);
+          this.pendingTalk.remove (this.address);
+          transactionDelay (1);
+          if (device != null)
+            device.deviceClear ();
+          break;
+        }
+        case "trg":
+        {
+          final EmulatedGpibDevice device = ProLogixGpibEthernetEmulator.this.devices.get (this.address);
+          transactionDelay (1);
+          if (device != null)
+            device.trigger ();
+          break;
+        }
+        case "rst":
+          reset ();
+          break;
+        case "ver":
+          respond (ProLogixGpibEthernetEmulator.VERSION_STRING);
+          break;
+        case "ifc":
+        case "loc":
+        case "llo":
+        case "savecfg":
+          break;
+        default:
+          LOG.log (Level.WARNING, "Unrecognized command ++{0} on {1}.",
+            new Object[]{commandString, ProLogixGpibEthernetEmulator.this});
+          break;
+      }
+    }
+
+    private void processData (final byte[] bytes)
+      throws IOException, InterruptedException
+    {
+      final EmulatedGpibDevice device = ProLogixGpibEthernetEmulator.this.devices.get (this.address);
+      if (device == null)
+      {
+        LOG.log (Level.WARNING, "No device at address {0} on {1}; data ignored.",
+          new Object[]{this.address, ProLogixGpibEthernetEmulator.this});
+        return;
+      }
+      final byte[] message;
+      switch (this.eos)
+      {
+        case 0:  message = concat (bytes, new byte[]{CR_BYTE, LF_BYTE}); break;
+        case 1:  message = concat (bytes, new byte[]{CR_BYTE});          break;
+        case 2:  message = concat (bytes, new byte[]{LF_BYTE});          break;
+        default: message = bytes;                                        break;
+      }
+      transactionDelay (message.length);
+      // A new message to the device discards any unread output from it.
+      this.pendingTalk.remove (this.address);
+      device.listen (message);
+      if (this.auto == 1)
+        read (-1);
+    }
+
+    /** Reads from the device at the current address until EOI or given terminator.
+     *
+     * @param terminator The terminator, or -1 to read until EOI.
+     *
+     */
+    private void read (final int terminator)
+      throws IOException, InterruptedException
+    {
+      final EmulatedGpibDevice device = ProLogixGpibEthernetEmulator.this.devices.get (this.address);
+      if (device == null)
+        return;
+      ByteBuffer pending = this.pendingTalk.get (this.address);
+      if (pending == null || ! pending.hasRemaining ())
+      {
+        final byte[] message = device.talk ();
+        if (message == null || message.length == 0)
+        {
+          // Like the real controller, we return nothing after the read timeout.
+          this.pendingTalk.remove (this.address);
+          return;
+        }
+        pending = ByteBuffer.wrap (message);
+        this.pendingTalk.put (this.address, pending);
+      }
+      int end = pending.limit ();
+      if (terminator >= 0)
+        for (int i = pending.position (); i < pending.limit (); i++)
+          if ((pending.get (i) & 0xff) == terminator)
+          {
+            end = i + 1;
+            break;
+          }
+      final byte[] chunk = new byte[end - pending.position ()];
+      pending.get (chunk);
+      final boolean eoiSeen = ! pending.hasRemaining ();
+      transactionDelay (chunk.length);
+      this.outputStream.write (chunk);
+      if (eoiSeen && this.eotEnable == 1)
+        this.outputStream.write (this.eotChar);
+    }
+
+  }
+
+  private static byte[] concat (final byte[] a, final byte[] b)
+  {
+    final byte[] c = new byte[a.length + b.length];
+    System.arraycopy (a, 0, c, 0, a.length);
+    System.arraycopy (b, 0, c, a.length, b.length);
+    return c;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
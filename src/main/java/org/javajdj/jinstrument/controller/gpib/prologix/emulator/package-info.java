@@ -0,0 +1,25 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+/** A loopback emulator of the ProLogix GPIB-ETHERNET controller with pluggable (emulated) GPIB devices.
+ * 
+ * <p>
+ * The emulator allows exercising (and benchmarking) the ProLogix controller implementation
+ * and instrument implementations without real hardware.
+ * 
+ **/
+package org.javajdj.jinstrument.controller.gpib.prologix.emulator;
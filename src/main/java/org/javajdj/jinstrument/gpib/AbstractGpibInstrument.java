@@ -21,15 +21,20 @@ import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.javajdj.jinstrument.AbstractInstrument;
+import org.javajdj.jinstrument.InstrumentExecutors;
+import org.javajdj.jinstrument.InstrumentThreadingModel;
 import org.javajdj.jinstrument.controller.gpib.GpibController;
 import org.javajdj.jinstrument.controller.gpib.GpibControllerCommand;
 import org.javajdj.jinstrument.controller.gpib.GpibDevice;
+import org.javajdj.jinstrument.controller.gpib.GpibServiceRequestListener;
+import org.javajdj.jinstrument.controller.gpib.ReadEOIFramingMode;
 import org.javajdj.jinstrument.controller.gpib.ReadlineTerminationMode;
 import org.javajdj.jservice.Service;
 
@@ -81,8 +86,11 @@ public abstract class AbstractGpibInstrument
       addCommandProcessorServices,
       addAcquisitionServices,
       addHousekeepingServices);
-    if (addServiceRequestPollingServices)
-      addRunnable (this.gpibInstrumentServiceRequestCollector);
+    this.serviceRequestCollector = addServiceRequestPollingServices;
+    if (getThreadingModel () != InstrumentThreadingModel.DEDICATED_THREADS)
+      // Registration and dispatching are handled by the shared sub-services.
+      return;
+    // Registration is handled in startService and stopService.
     addRunnable (this.gpibServiceRequestDispatcher);
   }
   
@@ -128,6 +136,7 @@ public abstract class AbstractGpibInstrument
   protected final byte selectedDeviceCLearSync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     // XXX Review 20211206: Why do we serial sync here, instead of SDC???
     final byte statusByte = getDevice ().serialPollSync (getSelectedDeviceClearTimeout_ms ());
     return statusByte;
@@ -174,6 +183,7 @@ public abstract class AbstractGpibInstrument
   protected final boolean pollServiceRequestSync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final boolean serviceRequest = getDevice ().pollServiceRequestSync (getPollServiceRequestTimeout_ms ());
     return serviceRequest;
   }
@@ -211,6 +221,7 @@ public abstract class AbstractGpibInstrument
   protected final byte serialPollSync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte statusByte = getDevice ().serialPollSync (getSerialPollTimeout_ms ());
     return statusByte;
   }
@@ -251,6 +262,7 @@ public abstract class AbstractGpibInstrument
   protected final Byte pollServiceRequestStatusByteSync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final Byte statusByte = getDevice ().pollServiceRequestStatusByteSync (getPollServiceRequestStatusByteTimeout_ms ());
     return statusByte;
   }
@@ -293,10 +305,39 @@ public abstract class AbstractGpibInstrument
   protected final byte[] readEOISync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte[] bytes = getDevice ().readEOISync (getReadEOITimeout_ms ());
     return bytes;
   }
   
+  protected final byte[] readEOISync (final ReadEOIFramingMode readEOIFramingMode)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    flushBatchedWritesSync ();
+    final byte[] bytes = getDevice ().readEOISync (readEOIFramingMode, getReadEOITimeout_ms ());
+    return bytes;
+  }
+  
+  /** Reads a 7-bit text message up to EOI.
+   * 
+   * <p>
+   * Knowing that the message is text allows the controller to detect its end without delay.
+   * 
+   * @return The text message read.
+   * 
+   * @throws InterruptedException If interrupted while waiting.
+   * @throws IOException          If an I/O Exception occurred.
+   * @throws TimeoutException     If a timeout occurred.
+   * 
+   * @see ReadEOIFramingMode#TEXT
+   * 
+   */
+  protected final String readEOITextSync ()
+    throws InterruptedException, IOException, TimeoutException
+  {
+    return new String (readEOISync (ReadEOIFramingMode.TEXT), Charset.forName ("US-ASCII"));
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // READ N
@@ -335,6 +376,7 @@ public abstract class AbstractGpibInstrument
   protected final byte[] readNSync (final int N)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte[] bytes = getDevice ().readNSync (N, getReadNTimeout_ms ());
     return bytes;
   }
@@ -360,6 +402,7 @@ public abstract class AbstractGpibInstrument
   protected final String readlnSync ()
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte[] bytes = getDevice ().readlnSync (getReadlineTerminationMode (), getReadlineTimeout_ms ());
     return new String (bytes, Charset.forName ("US-ASCII"));
   }
@@ -385,7 +428,10 @@ public abstract class AbstractGpibInstrument
   protected void writeSync (final String string, final long timeout_ms)
     throws InterruptedException, IOException, TimeoutException
   {
-    getDevice ().writeSync (string.getBytes (Charset.forName ("US-ASCII")), timeout_ms);
+    if (getBatchedWriteSeparator () != null && isProcessingCommandBatch ())
+      addBatchedWriteSync (string, timeout_ms);
+    else
+      getDevice ().writeSync (string.getBytes (Charset.forName ("US-ASCII")), timeout_ms);
   }
   
   protected final void writeSync (final String string)
@@ -394,6 +440,135 @@ public abstract class AbstractGpibInstrument
     writeSync (string, getWriteTimeout_ms ());
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // WRITE BATCHING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the separator for merging multiple messages into a single write (e.g., {@code ";"}).
+   * 
+   * <p>
+   * If non-{@code null}, writes issued while processing a batch of commands
+   * (see {@link #isBatchableCommand} and {@link #isProcessingCommandBatch})
+   * are merged into a single message, which is written to the device upon completion of the batch,
+   * before any other I/O with the device, or when the merged message would exceed {@link #getBatchedWriteMaxLength}.
+   * Trailing carriage returns and line feeds of the individual messages are removed;
+   * the merged message is terminated like the last message merged.
+   * 
+   * <p>
+   * The default implementation returns {@code null}, disabling merging of writes.
+   * 
+   * @return The separator for merging multiple messages into a single write, {@code null} if not supported.
+   * 
+   */
+  protected String getBatchedWriteSeparator ()
+  {
+    return null;
+  }
+  
+  /** Returns the maximum length of a merged message, typically derived from the size of the input buffer of the device.
+   * 
+   * <p>
+   * The default implementation returns {@link #DEFAULT_BATCHED_WRITE_MAX_LENGTH}.
+   * 
+   * @return The maximum length of a merged message (in characters, including the termination).
+   * 
+   * @see #getBatchedWriteSeparator
+   * 
+   */
+  protected int getBatchedWriteMaxLength ()
+  {
+    return AbstractGpibInstrument.DEFAULT_BATCHED_WRITE_MAX_LENGTH;
+  }
+  
+  /** The default maximum length of a merged message.
+   * 
+   */
+  public final static int DEFAULT_BATCHED_WRITE_MAX_LENGTH = 128;
+  
+  // Only accessed from the thread processing a command batch.
+  private final StringBuilder batchedWrite = new StringBuilder ();
+  private String batchedWriteTermination = "";
+  private long batchedWriteTimeout_ms = 0;
+  
+  private void addBatchedWriteSync (final String string, final long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    final String separator = getBatchedWriteSeparator ();
+    int end = string.length ();
+    while (end > 0 && (string.charAt (end - 1) == '\r' || string.charAt (end - 1) == '\n'))
+      end--;
+    final String body = string.substring (0, end);
+    final String termination = string.substring (end);
+    if (this.batchedWrite.length () > 0)
+    {
+      final boolean needsSeparator = this.batchedWrite.lastIndexOf (separator) != this.batchedWrite.length () - separator.length ();
+      final int newLength = this.batchedWrite.length () + (needsSeparator ? separator.length () : 0) + string.length ();
+      if (newLength > getBatchedWriteMaxLength ())
+        flushBatchedWritesSync ();
+      else if (needsSeparator)
+        this.batchedWrite.append (separator);
+    }
+    this.batchedWrite.append (body);
+    this.batchedWriteTermination = termination;
+    this.batchedWriteTimeout_ms = Math.max (this.batchedWriteTimeout_ms, timeout_ms);
+  }
+  
+  /** Writes the pending merged message (if any) to the device.
+   * 
+   * <p>
+   * Does nothing unless invoked from the thread processing a command batch.
+   * 
+   * @throws InterruptedException If interrupted while waiting.
+   * @throws IOException          If an I/O Exception occurred.
+   * @throws TimeoutException     If a timeout occurred.
+   * 
+   * @see #getBatchedWriteSeparator
+   * 
+   */
+  protected final void flushBatchedWritesSync ()
+    throws InterruptedException, IOException, TimeoutException
+  {
+    if (! isProcessingCommandBatch () || this.batchedWrite.length () == 0)
+      return;
+    final String string = this.batchedWrite.toString () + this.batchedWriteTermination;
+    final long timeout_ms = this.batchedWriteTimeout_ms;
+    discardBatchedWrites ();
+    getDevice ().writeSync (string.getBytes (Charset.forName ("US-ASCII")), timeout_ms);
+  }
+  
+  private void discardBatchedWrites ()
+  {
+    this.batchedWrite.setLength (0);
+    this.batchedWriteTermination = "";
+    this.batchedWriteTimeout_ms = 0;
+  }
+  
+  @Override
+  protected void beginCommandBatch ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    super.beginCommandBatch ();
+    discardBatchedWrites ();
+  }
+  
+  @Override
+  protected void endCommandBatch (final boolean commit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    try
+    {
+      if (commit)
+        flushBatchedWritesSync ();
+    }
+    finally
+    {
+      discardBatchedWrites ();
+      super.endCommandBatch (commit);
+    }
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // WRITE AND READ EOI
@@ -409,6 +584,7 @@ public abstract class AbstractGpibInstrument
   protected final byte[] writeAndReadEOISync (final byte[] bytes)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     return getDevice ().writeAndReadEOISync (bytes, getReadEOITimeout_ms ());
   }
   
@@ -418,6 +594,41 @@ public abstract class AbstractGpibInstrument
     return writeAndReadEOISync (string.getBytes (Charset.forName ("US-ASCII")));
   }
   
+  protected final byte[] writeAndReadEOISync (final byte[] bytes, final ReadEOIFramingMode readEOIFramingMode)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    flushBatchedWritesSync ();
+    return getDevice ().writeAndReadEOISync (bytes, readEOIFramingMode, getReadEOITimeout_ms ());
+  }
+  
+  protected final byte[] writeAndReadEOISync (final String string, final ReadEOIFramingMode readEOIFramingMode)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    return writeAndReadEOISync (string.getBytes (Charset.forName ("US-ASCII")), readEOIFramingMode);
+  }
+  
+  /** Writes a (query) string and reads the 7-bit text message returned up to EOI.
+   * 
+   * <p>
+   * Knowing that the message is text allows the controller to detect its end without delay.
+   * 
+   * @param string The string to write, non-{@code null}.
+   * 
+   * @return The text message read.
+   * 
+   * @throws InterruptedException If interrupted while waiting.
+   * @throws IOException          If an I/O Exception occurred.
+   * @throws TimeoutException     If a timeout occurred.
+   * 
+   * @see ReadEOIFramingMode#TEXT
+   * 
+   */
+  protected final String writeAndReadEOITextSync (final String string)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    return new String (writeAndReadEOISync (string, ReadEOIFramingMode.TEXT), Charset.forName ("US-ASCII"));
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // WRITE AND READ N
@@ -434,12 +645,37 @@ public abstract class AbstractGpibInstrument
   protected final byte[] writeAndReadNSync (final String string, final int N)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte[] bytes = getDevice ().writeAndReadNSync (string.getBytes (Charset.forName ("US-ASCII")),
       N,
       getReadNTimeout_ms ());
     return bytes;
   }
   
+  /** Writes a string and reads a fixed number of bytes from the instrument, with an explicit timeout.
+   * 
+   * <p>
+   * Meant for (large) block transfers for which the default read-N timeout is inadequate.
+   * 
+   * @param string     The string to write.
+   * @param N          The number of bytes to read.
+   * @param timeout_ms The timeout in milliseconds.
+   * 
+   * @return The bytes read.
+   * 
+   * @see #getReadNTimeout_ms
+   * 
+   */
+  protected final byte[] writeAndReadNSync (final String string, final int N, final long timeout_ms)
+    throws InterruptedException, IOException, TimeoutException
+  {
+    flushBatchedWritesSync ();
+    final byte[] bytes = getDevice ().writeAndReadNSync (string.getBytes (Charset.forName ("US-ASCII")),
+      N,
+      timeout_ms);
+    return bytes;
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // WRITE AND READ LINE
@@ -456,6 +692,7 @@ public abstract class AbstractGpibInstrument
   protected final String writeAndReadlnSync (final String string)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     final byte[] bytes = getDevice ().writeAndReadlnSync (
       string.getBytes (Charset.forName ("US-ASCII")),
       getReadlineTerminationMode (),
@@ -479,6 +716,7 @@ public abstract class AbstractGpibInstrument
   protected final void atomicSequenceSync (final GpibControllerCommand[] sequence)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     getDevice ().atomicSequenceSync (sequence, getAtomicSequenceTimeout_ms ());
   }
   
@@ -503,6 +741,7 @@ public abstract class AbstractGpibInstrument
   protected final void userRunnableSync (final Runnable runnable)
     throws InterruptedException, IOException, TimeoutException
   {
+    flushBatchedWritesSync ();
     getDevice ().userRunnableSync (runnable, getUserRunnableTimeout_ms ());
   }
   
@@ -589,10 +828,10 @@ public abstract class AbstractGpibInstrument
    * <i>while</i> the instrument is processing a sequence of commands that should not be interrupted.
    * 
    * <p>
-   * As long as the service-request collector thread cannot acquire a permit from the semaphore, it simply skips srq acquisition,
-   * and reports this in the log.
-   * Note that the thread never blocks on the semaphore (it just attempts to acquire the permit every time it want to
-   * access the controller, which is periodically).
+   * As long as the service-request poller at the controller cannot acquire a permit from the semaphore,
+   * it simply skips the serial poll of this instrument, and reports this in the log.
+   * Note that the poller never blocks on the semaphore (it just attempts to acquire the permit every time it wants to
+   * serial-poll the instrument, which is only when the SRQ line is asserted).
    * 
    * <p>
    * The semaphore is absent by default, and can only be set once (anytime) during the lifetime of this object.
@@ -612,129 +851,34 @@ public abstract class AbstractGpibInstrument
     this.controllerAccessSemaphore = controllerAccessSemaphore;
   }
   
-  private final Runnable gpibInstrumentServiceRequestCollector = () ->
+  private final GpibServiceRequestListener gpibServiceRequestListener =
+    (address, statusByte) -> AbstractGpibInstrument.this.gpibServiceRequestFromInstrument (statusByte);
+  
+  private final boolean serviceRequestCollector;
+  
+  // The collector merely registers the instrument with the (single) Service Request poller at the controller,
+  // which issues one SRQ-poll per period for the whole bus, and only serial-polls registered devices
+  // if the SRQ line is asserted. The period and the controller-access semaphore are re-evaluated by the poller
+  // on each cycle. Hence, the collector does not need a thread (or task) of its own.
+  private void registerGpibInstrumentServiceRequestCollector ()
   {
-    LOG.log (Level.INFO, "Starting GPIB Instrument Service Request Collector on {0}.", AbstractGpibInstrument.this.toString ());
-    boolean hadException = false;
-    while (! Thread.currentThread ().isInterrupted ())
-    {
-      try
-      {
-        if (hadException)
-        {
-          // Quick and dirty method to prevent continuous operation in case of (early) ignored Exceptions.
-          // We should actually compensate for the time spent already...
-          Thread.sleep ((long) (AbstractGpibInstrument.this.getGpibInstrumentServiceRequestCollectorPeriod_s () * 1000));
-          hadException = false;
-        }
-        // We must take a one-time reference copy of the semaphore as it may be set by a concurrent thread.
-        final Semaphore controllerAccessSemaphore = AbstractGpibInstrument.this.controllerAccessSemaphore;
-        final boolean controllerAccess;
-        if (controllerAccessSemaphore != null)
-          controllerAccess = controllerAccessSemaphore.tryAcquire ();
-        else
-          controllerAccess = true;
-        // Mark start of sojourn.
-        final long timeBeforeProbe_ms = System.currentTimeMillis ();
-        // Obtain SRQ status from the instrument.
-        final Byte statusByte;
-        try
-        {
-          if (controllerAccess)
-            statusByte = AbstractGpibInstrument.this.pollServiceRequestStatusByteSync ();
-          else
-          {
-            statusByte = null;
-            LOG.log (Level.WARNING, "GPIB Instrument Service Request Collector skips SRQ acquisition due to lock on {0}.",
-              AbstractGpibInstrument.this.toString ());
-          }
-        }
-        finally
-        {
-          if (controllerAccessSemaphore != null && controllerAccess)
-            controllerAccessSemaphore.release ();
-        }
-        // Report a Service Request Status Byte.
-        // Note: This will insert the Service Request into a blocking queue for
-        // further processing by the gpibServiceRequestDispatcher.
-        if (statusByte != null)
-          AbstractGpibInstrument.this.gpibServiceRequestFromInstrument (statusByte);          
-        // Mark end of sojourn.
-        final long timeAfterProbeAndDelivery_ms = System.currentTimeMillis ();
-        // Calculate sojourn.
-        final long sojourn_ms = timeAfterProbeAndDelivery_ms - timeBeforeProbe_ms;
-        //
-        // Find out the remaining time to wait in order to respect the given period.
-        //
-        // Before 20220123, there was a subtle, yet massive bug in the statement below...
-        //
-        // Original line, with the incorrect (long) cast on double x instead of on (x * 1000):
-        //   final long remainingSleep_ms =
-        //     ((long) AbstractGpibInstrument.this.getGpibInstrumentServiceRequestCollectorPeriod_s () * 1000) - sojourn_ms;
-        //
-        // This would cast all less-than-unit values of
-        // AbstractGpibInstrument.this.getGpibInstrumentServiceRequestCollectorPeriod_s ()
-        // to a zero long value; leading to complaints in the log like
-        // "GPIB Instrument Service Request Collector cannot meet timing reading".
-        //
-        // The line below did by now obvious magic fixes; I checked similar constructs in this file
-        // and in AbstractInstrument, but found no other occurrences of this error.
-        //
-        // XXX But quite some implementations will at this time have
-        // a rather pessimistic views on the achievable SRQ polling rate...
-        //
-        // XXX Isn't there a jservice construct for this??
-        //
-        final long remainingSleep_ms =
-          (long) (AbstractGpibInstrument.this.getGpibInstrumentServiceRequestCollectorPeriod_s () * 1000)
-          - sojourn_ms;
-        if (remainingSleep_ms < 0)
-        {
-          LOG.log (Level.WARNING, "GPIB Instrument Service Request Collector cannot meet timing reading on {0}.",
-            AbstractGpibInstrument.this.toString ());
-          hadException = true;
-        }
-        else if (remainingSleep_ms > 0)
-          Thread.sleep (remainingSleep_ms);
-      }
-      catch (InterruptedException ie)
-      {
-        LOG.log (Level.INFO, "Terminating (by request) GPIB Instrument Service Request Collector on {0}.",
-          AbstractGpibInstrument.this.toString ());
-        return;
-      }
-      catch (TimeoutException te)
-      {
-        LOG.log (Level.WARNING, "TimeoutException (ignored) in GPIB Instrument Service Request Collector on {0}: {1}.",
-          new Object[]{AbstractGpibInstrument.this.toString (), Arrays.toString (te.getStackTrace ())});
-        hadException = true;
-      }
-      catch (IOException ioe)
-      {
-        LOG.log (Level.WARNING, "Terminating (IOException) GPIB Instrument Service Request Collector on {0}: {1}.",
-          new Object[]{AbstractGpibInstrument.this.toString (), Arrays.toString (ioe.getStackTrace ())});
-        error ();
-        return;
-      }
-      catch (UnsupportedOperationException usoe)
-      {
-        LOG.log (Level.WARNING,
-          "Terminating (UnsupportedOperationException) GPIB Instrument Service Request Collector on {0}: {1}.",
-          new Object[]{AbstractGpibInstrument.this.toString (), Arrays.toString (usoe.getStackTrace ())});
-        error ();
-        return;
-      }
-      catch (Exception e)
-      {
-        LOG.log (Level.WARNING, "Terminating (Exception) GPIB Instrument Service Request Collector on {0}: {1}.",
-          new Object[]{AbstractGpibInstrument.this.toString (), Arrays.toString (e.getStackTrace ())});
-        error ();
-        return;
-      }
-    }
-    LOG.log (Level.INFO, "Terminating (by request) GPIB Instrument Service Request Collector on {0}.",
-      AbstractGpibInstrument.this.toString ());
-  };
+    if (! this.serviceRequestCollector)
+      return;
+    getDevice ().getController ().getServiceRequestPoller ().register (
+      getDevice ().getBusAddress (),
+      this.gpibServiceRequestListener,
+      this::getGpibInstrumentServiceRequestCollectorPeriod_s,
+      () -> this.controllerAccessSemaphore);
+  }
+  
+  private void unregisterGpibInstrumentServiceRequestCollector ()
+  {
+    if (! this.serviceRequestCollector)
+      return;
+    getDevice ().getController ().getServiceRequestPoller ().unregister (
+      getDevice ().getBusAddress (),
+      this.gpibServiceRequestListener);
+  }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -790,6 +934,8 @@ public abstract class AbstractGpibInstrument
   {
     if (! this.gpibServiceRequestQueue.offer (statusByte))
       LOG.log (Level.WARNING, "Overflow on GPIB Instrument Service Request Queue on {0}.", this);
+    else if (isSharedSubServicesActive ())
+      this.sharedServiceRequestExecutor.execute (this::dispatchGpibServiceRequests);
   }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -828,6 +974,73 @@ public abstract class AbstractGpibInstrument
       AbstractGpibInstrument.this.toString ());
   };
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // AbstractInstrument
+  // SHARED SUB-SERVICES
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  // Service Requests are handled one at a time on the shared worker executor (not on the dispatcher executor),
+  // since handlers typically talk to the instrument, and thus block on the controller.
+  private final Executor sharedServiceRequestExecutor =
+    getThreadingModel () != InstrumentThreadingModel.DEDICATED_THREADS
+      ? InstrumentExecutors.newSerialExecutor (InstrumentExecutors.getWorkerExecutor (getThreadingModel ()))
+      : null;
+  
+  private void dispatchGpibServiceRequests ()
+  {
+    Byte statusByte;
+    while (isSharedSubServicesActive () && (statusByte = this.gpibServiceRequestQueue.poll ()) != null)
+      try
+      {
+        onGpibServiceRequestFromInstrument (statusByte);
+      }
+      catch (Exception e)
+      {
+        LOG.log (Level.WARNING, "Exception (ignored) in GPIB Instrument Service Request Dispatcher on {0}: {1}.",
+          new Object[]{this, e});
+      }
+  }
+  
+  @Override
+  protected void startSharedSubServices ()
+  {
+    super.startSharedSubServices ();
+    this.sharedServiceRequestExecutor.execute (this::dispatchGpibServiceRequests);
+    registerGpibInstrumentServiceRequestCollector ();
+  }
+  
+  @Override
+  protected void stopSharedSubServices ()
+  {
+    unregisterGpibInstrumentServiceRequestCollector ();
+    super.stopSharedSubServices ();
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // Service
+  // START / STOP
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  @Override
+  public synchronized void startService ()
+  {
+    super.startService ();
+    if (getThreadingModel () == InstrumentThreadingModel.DEDICATED_THREADS)
+      registerGpibInstrumentServiceRequestCollector ();
+  }
+  
+  @Override
+  public synchronized void stopService ()
+  {
+    if (getThreadingModel () == InstrumentThreadingModel.DEDICATED_THREADS)
+      unregisterGpibInstrumentServiceRequestCollector ();
+    super.stopService ();
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // END OF FILE
@@ -21,11 +21,16 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -39,6 +44,7 @@ import org.javajdj.jinstrument.InstrumentType;
 import org.javajdj.junits.Unit;
 import org.javajdj.jinstrument.controller.gpib.DeviceType_GPIB;
 import org.javajdj.jinstrument.controller.gpib.GpibDevice;
+import org.javajdj.jinstrument.controller.gpib.ReadEOIFramingMode;
 import org.javajdj.jinstrument.gpib.dmm.AbstractGpibDigitalMultiMeter;
 import org.javajdj.jinstrument.DigitalMultiMeter;
 import org.javajdj.jinstrument.InstrumentStatus;
@@ -92,8 +98,11 @@ public class HP3457A_GPIB_Instrument
     // After fixing a related bug in AbstractGpibInstrument I could comfortably poll SRQ @200Hz (5 ms),
     // in absence of other instruments and other activities on this instrument.
     //
+    // SRQ polling is now shared among all instruments on the bus (a single SRQ-poll per period at the controller),
+    // so a shorter period no longer multiplies with the number of instruments.
+    //
     resetOptimizeSettingsUpdates ();
-    setGpibInstrumentServiceRequestCollectorPeriod_s (1.0 /* XXX for now XXX */); // Can go as low as 0.005.
+    setGpibInstrumentServiceRequestCollectorPeriod_s (0.1); // Can go as low as 0.005.
     setReadEOITimeout_ms (5000);
     this.safeMode = true;
     this.operationSemaphore = new Semaphore (1);
@@ -463,6 +472,12 @@ public class HP3457A_GPIB_Instrument
     {
       
       this.operationSemaphore.acquire ();
+      
+      // The instrument may have been replaced or recalibrated.
+      this.integerScaleCache.clear ();
+      
+      // The Device Clear and reset below disarm any continuous scan.
+      this.continuousScan = null;
     
       // Clear the command queue so we're not bothered by pending commands.
       clearCommandQueue ();
@@ -474,13 +489,13 @@ public class HP3457A_GPIB_Instrument
       // Put the instrument in a known and (to us) reasonable state.
       // Make sure we get the ID of the instrument.
       // All in one take (note that the command will be executed atomically on the controller).
-      final String id = new String (writeAndReadEOISync (
+      final String id = writeAndReadEOITextSync (
         "RESET"         // "RESET for reset () or "PRESET" for preset ()
         + ";END 2"      // setEoi ()
         + ";MEM 0"      // setReadingMemoryMode (HP3457A_GPIB_Settings.ReadingMemoryMode.OFF)
         + ";RQS 127"    // setServiceRequestMask (0x7f) // ALL
         + ";ID?;")      // getIdSync ()
-        , Charset.forName ("US-ASCII")).trim ();
+        .trim ();
       
       // Get the installed option synchronously.
       final HP3457A_GPIB_Settings.InstalledOption installedOption = processCommand_getInstalledOption ();
@@ -489,14 +504,14 @@ public class HP3457A_GPIB_Instrument
       final byte gpipAddress = getDevice ().getBusAddress ().getPad ();
       
       // Report new settings.
-      settingsReadFromInstrument (
-        HP3457A_GPIB_Settings.fromReset ()
-          .withEoi (true)
-          .withReadingMemoryMode (HP3457A_GPIB_Settings.ReadingMemoryMode.OFF)
-          .withServiceRequestMask ((byte) 0x7f)
-          .withId (id)
-          .withInstalledOption (installedOption)
-          .withGpibAddress (gpipAddress));
+      this.lastSettings = HP3457A_GPIB_Settings.fromReset ()
+        .withEoi (true)
+        .withReadingMemoryMode (HP3457A_GPIB_Settings.ReadingMemoryMode.OFF)
+        .withServiceRequestMask ((byte) 0x7f)
+        .withId (id)
+        .withInstalledOption (installedOption)
+        .withGpibAddress (gpipAddress);
+      settingsReadFromInstrument (this.lastSettings);
       
       // We do not query our status now since we only want to do what's necessary;
       // the status will follow soon enough through an SRQ.
@@ -635,7 +650,16 @@ public class HP3457A_GPIB_Instrument
   {
     if (settings == null || status == null)
       throw new RuntimeException ();
-    final byte[] readBytes = readEOISync ();
+    // Use the (known) structure of the reading for deterministic end-of-message detection.
+    final byte[] readBytes;
+    switch (settings.getReadingFormat ())
+    {
+      case ASCII: readBytes = readEOISync (ReadEOIFramingMode.TEXT); break;
+      case SINT:  readBytes = readNSync (2);                         break;
+      case DINT:  readBytes = readNSync (4);                         break;
+      case SREAL: readBytes = readNSync (4);                         break;
+      default:    readBytes = readEOISync ();                        break;
+    }
     if (readBytes == null)
     {
       LOG.log (Level.WARNING, "Null array returned attempting to get reading.");
@@ -674,7 +698,7 @@ public class HP3457A_GPIB_Instrument
           return null;          
         }
         final short iValue = (short)(((readBytes[0] & 0xff) << 8) | (readBytes[1] & 0xff));
-        final double integerScale = settings.isAutoRange () ? processCommand_getIntegerScale () : settings.getIntegerScale ();
+        final double integerScale = processCommand_getIntegerScale (settings, settings.getReadingFormat ());
         readingValue = integerScale * iValue;
         break;
       }
@@ -690,7 +714,7 @@ public class HP3457A_GPIB_Instrument
                                 | ((readBytes[1] & 0xff) << 16)
                                 | ((readBytes[2] & 0xff) << 8)
                                  | (readBytes[3] & 0xff));
-        final double integerScale = settings.isAutoRange () ? processCommand_getIntegerScale () : settings.getIntegerScale ();
+        final double integerScale = processCommand_getIntegerScale (settings, settings.getReadingFormat ());
         readingValue = integerScale * iValue;
         break;
       }
@@ -783,6 +807,9 @@ public class HP3457A_GPIB_Instrument
             auxiliaryErrorsShort);
         }
       }
+      // An armed continuous scan transfers (and reports) the readings in memory itself.
+      if (this.continuousScan != null)
+        return;
       if (status.isReady ()) // XXX Should we really proceed in case of errors/hardware errors?
       {
         // Check to see if we have any instrument settings already; we need them...
@@ -809,20 +836,33 @@ public class HP3457A_GPIB_Instrument
                 break;
               case FIFO:
               case LIFO:
-                try
-                {
-                  numberOfStoredReadings = (int) Math.round (Double.parseDouble (
-                    new String (writeAndReadEOISync ("MCOUNT?;"), Charset.forName ("US-ASCII")).trim ()));
-                  LOG.log (Level.WARNING, "Number of stored readings: {0}.", new Object[]{numberOfStoredReadings});
-                }
-                catch (NumberFormatException nfe)
-                {
-                  throw new IOException ();
-                }
+                numberOfStoredReadings = processCommand_getNumberOfStoredReadings ();
+                LOG.log (Level.FINE, "Number of stored readings: {0}.", new Object[]{numberOfStoredReadings});
                 break;
               default:
                 throw new IOException ();
             }
+            if (numberOfStoredReadings > 1 && getBinaryReadingSize_bytes (settings.getReadingFormat ()) > 0)
+            {
+              // Transfer all stored readings in a single block, instead of one transaction per reading.
+              final double integerScale = (settings.getReadingFormat () != HP3457A_GPIB_Settings.ReadingFormat.SREAL)
+                ? processCommand_getIntegerScale (settings, settings.getReadingFormat ())
+                : 1.0;
+              final double[] values =
+                processCommand_recallMemoryBlock (1, numberOfStoredReadings, settings.getReadingFormat (), integerScale);
+              // RMEM does not remove the readings from memory; clear it (MEM) as reading one-by-one would have.
+              writeSync ("MEM " + Integer.toString (settings.getReadingMemoryMode ().getCode ()) + ";");
+              // Report in order of acquisition; in LIFO mode, the most recent reading comes first.
+              if (settings.getReadingMemoryMode () == HP3457A_GPIB_Settings.ReadingMemoryMode.LIFO)
+                for (int i = 0, j = values.length - 1; i < j; i++, j--)
+                {
+                  final double value = values[i];
+                  values[i] = values[j];
+                  values[j] = value;
+                }
+              readingsReadFromInstrument (settings, values, null);
+              break;
+            }
             for (int i = 0; i < numberOfStoredReadings; i++)
             {
               final InstrumentReading reading = singleReading (settings, status);
@@ -2176,6 +2216,286 @@ public class HP3457A_GPIB_Instrument
     addCommand (new DefaultInstrumentCommand (HP3457A_InstrumentCommand.IC_HP3457A_TRIGGER));
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // HP3457A_GPIB_Instrument
+  // BURST ACQUISITION
+  // SCAN ACQUISITION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** The maximum number of readings (2^20) kept and returned by a single burst or (finite) scan acquisition.
+   * 
+   * <p>
+   * Use {@link #startContinuousScan} for longer acquisitions.
+   * 
+   */
+  public final static int MAXIMUM_NUMBER_OF_ACQUIRED_READINGS = 1 << 20;
+  
+  /** The maximum duration (1000 ms) of a single command of a continuous scan.
+   * 
+   * @see #startContinuousScan
+   * 
+   */
+  public final static long CONTINUOUS_SCAN_MAXIMUM_COMMAND_DURATION_MS = 1000L;
+  
+  // The current acquisition generation; burst and scan commands are tagged with the generation at the time of their creation,
+  // and stop (or are skipped) once the generation moves on.
+  private final AtomicLong acquisitionGeneration = new AtomicLong ();
+  
+  /** Acquires a burst of readings at the native rate of the instrument, and transfers them in a single block.
+   * 
+   * <p>
+   * The instrument takes {@code count} readings into its reading memory (FIFO),
+   * either as fast as it can (for a {@code null} interval), or paced by its internal timer.
+   * The readings are stored in, and transferred in, the given (binary) format,
+   * and transferred from reading memory in a single {@code RMEM} block transfer.
+   * Upon completion, the readings are reported to listeners as a single {@link HP3457A_GPIB_ReadingBlock},
+   * and the previous trigger, reading-memory, and output-format settings are restored.
+   * 
+   * <p>
+   * The reading-memory format is not part of the settings (see {@link HP3457A_GPIB_Settings});
+   * upon completion, the reading memory is cleared, and its format is reset to {@code SREAL}
+   * (as with {@link #setOutputFormat}), irrespective of the format in effect before the burst.
+   * 
+   * <p>
+   * Note that the integer formats ({@code SINT} and {@code DINT}) require a fixed range;
+   * with auto-ranging, {@code SREAL} is used instead.
+   * The {@code ASCII} format is not supported for bursts.
+   * 
+   * @param count      The number of readings, strictly positive.
+   * @param interval_s The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format     The (binary) format for storing and transferring the readings, non-{@code null}.
+   * @param timeout    The timeout.
+   * @param unit       The unit of the timeout.
+   * 
+   * @return The readings, in order of acquisition; empty if the burst was stopped before it started.
+   * 
+   * @throws IllegalArgumentException If the count is zero or negative, or exceeds {@link #MAXIMUM_NUMBER_OF_ACQUIRED_READINGS},
+   *                                  the interval is zero or negative,
+   *                                  or the format is {@code null} or {@code ASCII}.
+   * 
+   * @see #stopAcquisition
+   * @see HP3457A_GPIB_Settings#getMaxReadings_SINT
+   * @see HP3457A_GPIB_Settings#getMaxReadings_DINT
+   * @see HP3457A_GPIB_Settings#getMaxReadings_SREAL
+   * 
+   */
+  public final double[] acquireBurstSync (
+    final int count,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format,
+    final long timeout,
+    final TimeUnit unit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final InstrumentCommand command = generateBurstCommand (count, interval_s, format);
+    addAndProcessCommandSync (command, timeout, unit);
+    return (double[]) command.get (InstrumentCommand.IC_RETURN_VALUE_KEY);
+  }
+  
+  /** Acquires a burst of readings asynchronously.
+   * 
+   * @param count      The number of readings, strictly positive.
+   * @param interval_s The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format     The (binary) format for storing and transferring the readings, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the count is zero or negative, the interval is zero or negative,
+   *                                  or the format is {@code null} or {@code ASCII}.
+   * 
+   * @see #acquireBurstSync
+   * 
+   */
+  public final void acquireBurstASync (
+    final int count,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+    throws IOException, InterruptedException
+  {
+    addCommand (generateBurstCommand (count, interval_s, format));
+  }
+  
+  /** Acquires sweeps over a scan list (of the scanner card) into reading memory,
+   *  and returns a time series per channel.
+   * 
+   * <p>
+   * Each sweep takes a single reading on each channel in the scan list,
+   * and is transferred in a single block transfer
+   * while the instrument acquires the next sweep (double buffering in reading memory).
+   * The readings are also reported to listeners, as a {@link HP3457A_GPIB_ReadingBlock} per sweep.
+   * Upon completion, the scan list is cleared and the previous channel, trigger, reading-memory,
+   * and output-format settings are restored.
+   * As with bursts, the reading memory is cleared, and its format is reset to {@code SREAL}
+   * (see {@link #acquireBurstSync}).
+   * 
+   * <p>
+   * Note that the interval (if specified) applies to consecutive readings,
+   * so the interval between sweeps is the interval times the scan-list size.
+   * 
+   * @param scanList       The scan list (channel numbers), non-{@code null} and non-empty.
+   * @param numberOfSweeps The number of sweeps, strictly positive.
+   * @param interval_s     The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format         The (binary) format for storing and transferring the readings, non-{@code null}.
+   * @param timeout        The timeout.
+   * @param unit           The unit of the timeout.
+   * 
+   * @return The readings, indexed by position in the scan list, and sweep number;
+   *           if the scan was stopped, only the sweeps completed are returned.
+   * 
+   * @throws IllegalArgumentException If the scan list is {@code null} or empty, the number of sweeps is zero or negative,
+   *                                  the total number of readings exceeds {@link #MAXIMUM_NUMBER_OF_ACQUIRED_READINGS},
+   *                                  the interval is zero or negative,
+   *                                  or the format is {@code null} or {@code ASCII}.
+   * 
+   * @see #acquireBurstSync
+   * @see #startContinuousScan
+   * @see #stopAcquisition
+   * 
+   */
+  public final double[][] acquireScanSync (
+    final int[] scanList,
+    final int numberOfSweeps,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format,
+    final long timeout,
+    final TimeUnit unit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final InstrumentCommand command = generateScanCommand (scanList, numberOfSweeps, interval_s, format);
+    addAndProcessCommandSync (command, timeout, unit);
+    return (double[][]) command.get (InstrumentCommand.IC_RETURN_VALUE_KEY);
+  }
+  
+  /** Acquires sweeps over a scan list asynchronously.
+   * 
+   * @param scanList       The scan list (channel numbers), non-{@code null} and non-empty.
+   * @param numberOfSweeps The number of sweeps, strictly positive.
+   * @param interval_s     The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format         The (binary) format for storing and transferring the readings, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the scan list is {@code null} or empty, the number of sweeps is zero or negative,
+   *                                  the interval is zero or negative,
+   *                                  or the format is {@code null} or {@code ASCII}.
+   * 
+   * @see #acquireScanSync
+   * 
+   */
+  public final void acquireScanASync (
+    final int[] scanList,
+    final int numberOfSweeps,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+    throws IOException, InterruptedException
+  {
+    addCommand (generateScanCommand (scanList, numberOfSweeps, interval_s, format));
+  }
+  
+  /** Starts a continuous scan over a scan list, stopping any running or pending burst and scan acquisitions.
+   * 
+   * <p>
+   * A continuous scan acquires sweeps like {@link #acquireScanSync},
+   * and reports each sweep to listeners as a {@link HP3457A_GPIB_ReadingBlock},
+   * but does not keep the readings.
+   * It runs as a sequence of commands, each acquiring (double-buffered) sweeps until another command is queued,
+   * or for at most {@link #CONTINUOUS_SCAN_MAXIMUM_COMMAND_DURATION_MS};
+   * the scan then re-queues itself, so that other commands, status polls, and service requests
+   * get their turn in between sweeps.
+   * In between its commands, the scan stays armed on the instrument (with a sweep in progress);
+   * the previous settings are only restored once the scan stops, or before another command is processed,
+   * after which the scan is re-armed, picking up the settings in effect at that time.
+   * Service requests do not transfer readings while the scan is armed.
+   * 
+   * <p>
+   * The scan runs until {@link #stopAcquisition} is invoked, another continuous scan is started,
+   * or the command queue is cleared.
+   * 
+   * @param scanList   The scan list (channel numbers), non-{@code null} and non-empty.
+   * @param interval_s The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format     The (binary) format for storing and transferring the readings, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the scan list is {@code null} or empty, the interval is zero or negative,
+   *                                  or the format is {@code null} or {@code ASCII}.
+   * 
+   */
+  public final void startContinuousScan (
+    final int[] scanList,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+  {
+    final InstrumentCommand command = generateContinuousScanCommand (scanList, interval_s, format);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION,
+      this.acquisitionGeneration.incrementAndGet ());
+    addCommand (command);
+  }
+  
+  /** Stops all running and pending burst and scan acquisitions, including a continuous scan.
+   * 
+   * <p>
+   * A running acquisition stops after the burst or sweep in progress;
+   * finite acquisitions return the readings acquired so far.
+   * Pending acquisitions do not access the instrument at all.
+   * 
+   */
+  public final void stopAcquisition ()
+  {
+    this.acquisitionGeneration.incrementAndGet ();
+  }
+  
+  private InstrumentCommand generateContinuousScanCommand (
+    final int[] scanList,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+  {
+    final InstrumentCommand command = generateScanCommand (scanList, 1, interval_s, format);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_NUMBER_OF_SWEEPS, null);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_CONTINUOUS, true);
+    return command;
+  }
+  
+  private InstrumentCommand generateScanCommand (
+    final int[] scanList,
+    final int numberOfSweeps,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+  {
+    if (scanList == null
+      || scanList.length == 0
+      || numberOfSweeps <= 0
+      || (long) scanList.length * numberOfSweeps > HP3457A_GPIB_Instrument.MAXIMUM_NUMBER_OF_ACQUIRED_READINGS
+      || (interval_s != null && interval_s <= 0)
+      || format == null
+      || format == HP3457A_GPIB_Settings.ReadingFormat.ASCII)
+      throw new IllegalArgumentException ();
+    final InstrumentCommand command = new DefaultInstrumentCommand (
+      HP3457A_InstrumentCommand.IC_HP3457A_SCAN,
+      HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_LIST, scanList.clone (),
+      HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_NUMBER_OF_SWEEPS, numberOfSweeps,
+      HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_INTERVAL, interval_s);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_FORMAT, format);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION, this.acquisitionGeneration.get ());
+    return command;
+  }
+  
+  private InstrumentCommand generateBurstCommand (
+    final int count,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+  {
+    if (count <= 0
+      || count > HP3457A_GPIB_Instrument.MAXIMUM_NUMBER_OF_ACQUIRED_READINGS
+      || (interval_s != null && interval_s <= 0)
+      || format == null
+      || format == HP3457A_GPIB_Settings.ReadingFormat.ASCII)
+      throw new IllegalArgumentException ();
+    final InstrumentCommand command = new DefaultInstrumentCommand (
+      HP3457A_InstrumentCommand.IC_HP3457A_BURST,
+      HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_COUNT, count,
+      HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_INTERVAL, interval_s,
+      HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_FORMAT, format);
+    command.put (HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION, this.acquisitionGeneration.get ());
+    return command;
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // HP3457A_GPIB_Instrument - ONOFFICIAL
@@ -2287,7 +2607,7 @@ public class HP3457A_GPIB_Instrument
     final String queryString =
       instrumentCommandString.trim ().endsWith ("?") ? instrumentCommandString.trim ()
                                                      : (instrumentCommandString.trim () + "?");
-    final String queryReturn = new String (writeAndReadEOISync (queryString + ";"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync (queryString + ";").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final int queryReturnInt;
@@ -2348,7 +2668,7 @@ public class HP3457A_GPIB_Instrument
     final String queryString =
       instrumentCommandString.trim ().endsWith ("?") ? instrumentCommandString.trim ()
                                                      : (instrumentCommandString.trim () + "?");
-    final String queryReturn = new String (writeAndReadEOISync (queryString + ";"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync (queryString + ";").trim ();
     if (queryReturn == null)
       throw new IOException ();
     try
@@ -2428,7 +2748,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.TriggerEvent processCommand_getTriggerArmEvent ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("TARM?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("TARM?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP3457A_GPIB_Settings.TriggerEvent triggerArmEvent;
@@ -2460,7 +2780,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.TriggerEvent processCommand_getTriggerEvent ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("TRIG?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("TRIG?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP3457A_GPIB_Settings.TriggerEvent triggerEvent;
@@ -2492,7 +2812,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.TriggerEvent processCommand_getSampleEvent ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("NRDGS?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("NRDGS?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final String[] components = queryReturn.split (",");
@@ -2541,7 +2861,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.InstalledOption processCommand_getInstalledOption ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("OPT?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("OPT?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final int queryReturnInt;
@@ -2574,7 +2894,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.AutoZeroMode processCommand_getAutoZeroMode ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("AZERO?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("AZERO?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final int queryReturnInt;
@@ -2604,7 +2924,7 @@ public class HP3457A_GPIB_Instrument
   protected final HP3457A_GPIB_Settings.MeasurementTerminals processCommand_getMeasurementTerminals ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("TERM?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("TERM?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP3457A_GPIB_Settings.MeasurementTerminals terminals;
@@ -2622,7 +2942,7 @@ public class HP3457A_GPIB_Instrument
   protected final int processCommand_getCalibrationNumber ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("CALNUM?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("CALNUM?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final int calibrationNumber;
@@ -2643,6 +2963,839 @@ public class HP3457A_GPIB_Instrument
     return processCommand_getDouble ("ISCALE");
   }
   
+  /** The key into the integer-scale cache.
+   * 
+   * <p>
+   * The integer scale factor (ISCALE?) only depends on function, range, (integer) format and resolution.
+   * 
+   */
+  private static final class IntegerScaleKey
+  {
+    
+    private final DigitalMultiMeter.MeasurementMode measurementMode;
+    private final double range;
+    private final HP3457A_GPIB_Settings.ReadingFormat format;
+    private final double numberOfPowerLineCycles;
+    private final Resolution resolution;
+    
+    private IntegerScaleKey (final HP3457A_GPIB_Settings settings, final HP3457A_GPIB_Settings.ReadingFormat format)
+    {
+      this.measurementMode = settings.getMeasurementMode ();
+      this.range = settings.getRange ().getMaxAbsValue ();
+      this.format = format;
+      this.numberOfPowerLineCycles = settings.getNumberOfPowerLineCycles ();
+      this.resolution = settings.getResolution ();
+    }
+
+    @Override
+    public final int hashCode ()
+    {
+      return Objects.hash (this.measurementMode, this.range, this.format, this.numberOfPowerLineCycles, this.resolution);
+    }
+
+    @Override
+    public final boolean equals (final Object obj)
+    {
+      if (this == obj)
+        return true;
+      if (obj == null || getClass () != obj.getClass ())
+        return false;
+      final IntegerScaleKey other = (IntegerScaleKey) obj;
+      return this.measurementMode == other.measurementMode
+        && Double.doubleToLongBits (this.range) == Double.doubleToLongBits (other.range)
+        && this.format == other.format
+        && Double.doubleToLongBits (this.numberOfPowerLineCycles) == Double.doubleToLongBits (other.numberOfPowerLineCycles)
+        && this.resolution == other.resolution;
+    }
+    
+  }
+  
+  // Guarded by this.operationSemaphore.
+  private final Map<IntegerScaleKey, Double> integerScaleCache = new HashMap<> ();
+  
+  /** The settings last published by the driver (from {@link #processCommand} or upon initialization).
+   * 
+   * <p>
+   * Updated while holding the operation semaphore, and, unlike {@link #getCurrentInstrumentSettings},
+   * not lagging behind the settings dispatcher.
+   * 
+   */
+  private volatile HP3457A_GPIB_Settings lastSettings = null;
+  
+  /** The commands that (may) affect the integer scale factor, i.e., change function, range, resolution or NPLC.
+   * 
+   * <p>
+   * The integer-scale cache is cleared upon processing any of these commands.
+   * 
+   */
+  private final static Set<String> INTEGER_SCALE_AFFECTING_COMMANDS = Collections.unmodifiableSet (new HashSet<> (Arrays.asList (
+    InstrumentCommand.IC_RESOLUTION,
+    InstrumentCommand.IC_MEASUREMENT_MODE,
+    InstrumentCommand.IC_AUTO_RANGE,
+    InstrumentCommand.IC_RANGE,
+    HP3457A_InstrumentCommand.IC_HP3457A_POKE,
+    HP3457A_InstrumentCommand.IC_HP3457A_WRITE_CALIBRATION_DATA,
+    HP3457A_InstrumentCommand.IC_HP3457A_AUTO_CALIBRATE,
+    HP3457A_InstrumentCommand.IC_HP3457A_CALIBRATE,
+    HP3457A_InstrumentCommand.IC_HP3457A_CALL_SUBPROGRAM,
+    HP3457A_InstrumentCommand.IC_HP3457A_AC_DC_CURRENT,
+    HP3457A_InstrumentCommand.IC_HP3457A_AC_DC_VOLTS,
+    HP3457A_InstrumentCommand.IC_HP3457A_AC_CURRENT,
+    HP3457A_InstrumentCommand.IC_HP3457A_AC_VOLTS,
+    HP3457A_InstrumentCommand.IC_HP3457A_DC_CURRENT,
+    HP3457A_InstrumentCommand.IC_HP3457A_DC_VOLTS,
+    HP3457A_InstrumentCommand.IC_HP3457A_FREQUENCY,
+    HP3457A_InstrumentCommand.IC_HP3457A_PERIOD,
+    HP3457A_InstrumentCommand.IC_HP3457A_OHMS,
+    HP3457A_InstrumentCommand.IC_HP3457A_4WIRE_OHMS,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_AUTORANGE,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_FUNCTION,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_FUNCTION_FAST,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_RANGE,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_RESOLUTION,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_NUMBER_OF_DIGITS,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_ADC_NUMBER_OF_PLCS,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_MATH_OPERATION,
+    HP3457A_InstrumentCommand.IC_HP3457A_SET_PRESET_STATE,
+    HP3457A_InstrumentCommand.IC_HP3457A_RECALL_STATE,
+    HP3457A_InstrumentCommand.IC_HP3457A_RESET)));
+  
+  /** Returns the integer scale factor for given settings and (integer) format, using a cache.
+   * 
+   * <p>
+   * With a fixed range, the scale factor is obtained from the instrument ({@code ISCALE?})
+   * only the first time a particular combination of function, range, format and resolution is used;
+   * so it is effectively invalidated only if any of those change.
+   * With auto-ranging, the range (and hence the scale factor) may change in between readings,
+   * and the HP3457A does not report its range through its status byte;
+   * in that case, the scale factor is always obtained from the instrument (and not cached).
+   * Use the {@code SREAL} format for fast auto-ranged binary readings.
+   * 
+   * <p>
+   * The cache is only used (and filled) if given settings agree (in function, range, format and resolution)
+   * with the settings last published by the driver itself, which are known to be current
+   * as all changes to these go through {@link #processCommand} (holding the operation semaphore).
+   * The settings passed are typically obtained from {@link #getCurrentInstrumentSettings},
+   * which lag behind until the settings dispatcher has processed the new settings;
+   * in the mean time, the scale factor is obtained from the instrument.
+   * In addition, the cache is cleared upon processing any command that may affect the scale factor.
+   * 
+   * <p>
+   * The caller must hold the operation semaphore.
+   * 
+   * @param settings The settings, non-{@code null}.
+   * @param format   The (integer) format, non-{@code null}.
+   * 
+   * @return The integer scale factor.
+   * 
+   */
+  protected final double processCommand_getIntegerScale (
+    final HP3457A_GPIB_Settings settings,
+    final HP3457A_GPIB_Settings.ReadingFormat format)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    if (settings == null || format == null)
+      throw new IllegalArgumentException ();
+    if (settings.isAutoRange () || settings.getRange () == null)
+      return processCommand_getIntegerScale ();
+    // Only use the cache with settings known to be current, i.e., those last published by ourselves.
+    final HP3457A_GPIB_Settings lastSettings = this.lastSettings;
+    if (lastSettings == null || lastSettings.isAutoRange () || lastSettings.getRange () == null)
+      return processCommand_getIntegerScale ();
+    final IntegerScaleKey key;
+    try
+    {
+      key = new IntegerScaleKey (settings, format);
+      if (! key.equals (new IntegerScaleKey (lastSettings, format)))
+        return processCommand_getIntegerScale ();
+    }
+    catch (UnsupportedOperationException uoe)
+    {
+      return processCommand_getIntegerScale ();
+    }
+    final Double cachedIntegerScale = this.integerScaleCache.get (key);
+    if (cachedIntegerScale != null)
+      return cachedIntegerScale;
+    final double integerScale = processCommand_getIntegerScale ();
+    this.integerScaleCache.put (key, integerScale);
+    return integerScale;
+  }
+  
+  protected final int processCommand_getNumberOfStoredReadings ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final String queryReturn = writeAndReadEOITextSync ("MCOUNT?;").trim ();
+    try
+    {
+      return (int) Math.round (Double.parseDouble (queryReturn));
+    }
+    catch (NumberFormatException nfe)
+    {
+      throw new IOException ();
+    }
+  }
+  
+  /** Returns the size in bytes of a single reading in given binary format.
+   * 
+   * @param format The format.
+   * 
+   * @return The size in bytes of a single reading, zero for {@code ASCII} (or {@code null}).
+   * 
+   */
+  protected static int getBinaryReadingSize_bytes (final HP3457A_GPIB_Settings.ReadingFormat format)
+  {
+    if (format == null)
+      return 0;
+    switch (format)
+    {
+      case SINT:  return 2;
+      case DINT:  return 4;
+      case SREAL: return 4;
+      default:    return 0;
+    }
+  }
+  
+  /** The assumed minimum transfer rate (bytes per millisecond) for computing timeouts on block transfers.
+   * 
+   * <p>
+   * This is a conservative value; the HP3457A can send much faster over GPIB.
+   * 
+   */
+  private final static long BLOCK_TRANSFER_MIN_RATE_BYTES_PER_MS = 10L;
+  
+  /** Recalls (without removing them) the first readings from reading memory in a single block transfer.
+   * 
+   * <p>
+   * The readings are transferred in the (binary) output format;
+   * this saves a full bus transaction for each reading.
+   * 
+   * @param first        The (one-based) index in memory of the first reading to recall.
+   * @param count        The number of readings to recall.
+   * @param format       The output format, {@code SINT}, {@code DINT} or {@code SREAL}.
+   * @param integerScale The integer scale, ignored with {@code SREAL}.
+   * 
+   * @return The readings, in memory order (i.e., the most recent reading is last for FIFO, first for LIFO).
+   * 
+   * @throws IllegalArgumentException If the first index is not strictly positive, the count is negative,
+   *                                  or the format is not binary.
+   * 
+   */
+  protected final double[] processCommand_recallMemoryBlock (
+    final int first,
+    final int count,
+    final HP3457A_GPIB_Settings.ReadingFormat format,
+    final double integerScale)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final int readingSize_bytes = getBinaryReadingSize_bytes (format);
+    if (first <= 0 || count < 0 || readingSize_bytes == 0)
+      throw new IllegalArgumentException ();
+    if (count == 0)
+      return new double[0];
+    final int size_bytes = count * readingSize_bytes;
+    final byte[] bytes = writeAndReadNSync (
+      "RMEM " + Integer.toString (first) + "," + Integer.toString (count) + ";",
+      size_bytes,
+      getReadNTimeout_ms () + size_bytes / HP3457A_GPIB_Instrument.BLOCK_TRANSFER_MIN_RATE_BYTES_PER_MS);
+    if (bytes == null || bytes.length != size_bytes)
+    {
+      LOG.log (Level.WARNING, "Unexpected length of reading-memory block on instrument {0}.", new Object[]{this});
+      throw new IOException ();
+    }
+    final ByteBuffer byteBuffer = ByteBuffer.wrap (bytes); // Big-endian.
+    final double[] values = new double[count];
+    switch (format)
+    {
+      case SINT:
+        for (int i = 0; i < count; i++)
+          values[i] = integerScale * byteBuffer.getShort ();
+        break;
+      case DINT:
+        for (int i = 0; i < count; i++)
+          values[i] = integerScale * byteBuffer.getInt ();
+        break;
+      case SREAL:
+        for (int i = 0; i < count; i++)
+          values[i] = byteBuffer.getFloat ();
+        break;
+      default:
+        throw new RuntimeException ();
+    }
+    return values;
+  }
+  
+  /** The (absolute) value the HP3457A reports upon overload.
+   * 
+   */
+  final static double OVERLOAD_VALUE = 1.0E38;
+  
+  /** Reports a block of readings to listeners as a single {@link HP3457A_GPIB_ReadingBlock}.
+   * 
+   * <p>
+   * Reporting the readings individually would allocate a reading object per value,
+   * and (with large blocks) overflow the reading queue, losing (the oldest) readings.
+   * 
+   * @param settings The settings under which the readings were taken, non-{@code null}.
+   * @param values   The readings, in order of acquisition; the array is handed over to the reading block.
+   * @param scanList The scan list, {@code null} if not scanning.
+   * 
+   */
+  private void readingsReadFromInstrument (
+    final HP3457A_GPIB_Settings settings,
+    final double[] values,
+    final int[] scanList)
+  {
+    if (values.length > 0)
+      readingReadFromInstrument (new HP3457A_GPIB_ReadingBlock (settings, values, scanList));
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // HP3457A_GPIB_Instrument
+  // PROCESS COMMAND - BLOCK ACQUISITION ENGINE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Waits until the reading memory holds (at least) given number of readings.
+   * 
+   * <p>
+   * We only give up (with a {@link TimeoutException}) if the instrument stops making progress;
+   * the time to take a reading strongly depends on the settings.
+   * 
+   */
+  private void processCommand_awaitNumberOfStoredReadings (final int target, final Double interval_s)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    int numberOfStoredReadings = processCommand_getNumberOfStoredReadings ();
+    long lastProgress_ms = System.currentTimeMillis ();
+    while (numberOfStoredReadings < target)
+    {
+      Thread.sleep (interval_s != null
+        ? Math.max (1L, Math.min (100L, Math.round (1000.0 * interval_s * (target - numberOfStoredReadings))))
+        : 10L);
+      final int newNumberOfStoredReadings = processCommand_getNumberOfStoredReadings ();
+      if (newNumberOfStoredReadings > numberOfStoredReadings)
+      {
+        numberOfStoredReadings = newNumberOfStoredReadings;
+        lastProgress_ms = System.currentTimeMillis ();
+      }
+      else if (System.currentTimeMillis () - lastProgress_ms
+        > getReadNTimeout_ms () + (interval_s != null ? Math.round (1000.0 * interval_s) : 0L))
+      {
+        LOG.log (Level.WARNING, "Acquisition stalled at {0}/{1} stored readings on instrument {2}.",
+          new Object[]{numberOfStoredReadings, target, this});
+        throw new TimeoutException ();
+      }
+    }
+  }
+  
+  /** A block acquisition armed on the instrument.
+   * 
+   * <p>
+   * Each block is a single trigger ({@code TRIG SGL}) of {@code blockSize} readings ({@code NRDGS}).
+   * With a scan list, the scan advances automatically ({@code SADV AUTO}) with each reading,
+   * so a block with the size of the scan list is a single sweep over all channels.
+   * 
+   * <p>
+   * Blocks are double-buffered in reading memory:
+   * the next block is triggered before the current one is transferred,
+   * so the instrument acquires while the controller transfers.
+   * Reading memory is only cleared once all blocks in it have been transferred,
+   * and no block is in progress.
+   * 
+   * <p>
+   * Accessed only while holding the operation semaphore.
+   * 
+   * @see #processCommand_armBlockAcquisition
+   * @see #processCommand_transferBlocks
+   * @see #processCommand_disarmBlockAcquisition
+   * 
+   */
+  private static final class BlockAcquisition
+  {
+    
+    private final HP3457A_GPIB_Settings settings; // The settings before arming; restored upon disarming.
+    private final int[] scanList;
+    private final int blockSize;
+    private final Double interval_s;
+    private final HP3457A_GPIB_Settings.ReadingFormat format;
+    private final int blocksInMemory;
+    private final long generation;
+    
+    private double integerScale = 1.0;
+    private int triggered = 0;   // Number of blocks triggered since reading memory was last cleared.
+    private int transferred = 0; // Number of blocks transferred since reading memory was last cleared.
+    
+    private BlockAcquisition (
+      final HP3457A_GPIB_Settings settings,
+      final int[] scanList,
+      final int blockSize,
+      final Double interval_s,
+      final HP3457A_GPIB_Settings.ReadingFormat format,
+      final int blocksInMemory,
+      final long generation)
+    {
+      this.settings = settings;
+      this.scanList = scanList;
+      this.blockSize = blockSize;
+      this.interval_s = interval_s;
+      this.format = format;
+      this.blocksInMemory = blocksInMemory;
+      this.generation = generation;
+    }
+    
+  }
+  
+  /** Programs the instrument for a block acquisition into (cleared) reading memory, and triggers the first block.
+   * 
+   * <p>
+   * The integer formats are meaningless if the range may change in between readings;
+   * with auto-ranging, {@code SREAL} is used instead.
+   * 
+   * <p>
+   * If arming fails, the previous settings are restored.
+   * The caller must hold the operation semaphore.
+   * 
+   * @param settings        The current settings, non-{@code null}.
+   * @param scanList        The scan list, {@code null} for no scanning.
+   * @param blockSize       The number of readings in a block, strictly positive.
+   * @param interval_s      The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param requestedFormat The (binary) format requested.
+   * @param generation      The acquisition generation.
+   * 
+   * @return The armed acquisition.
+   * 
+   * @throws IllegalArgumentException If a block does not fit in (the known size of) the reading memory.
+   * 
+   */
+  private BlockAcquisition processCommand_armBlockAcquisition (
+    final HP3457A_GPIB_Settings settings,
+    final int[] scanList,
+    final int blockSize,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat requestedFormat,
+    final long generation)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final HP3457A_GPIB_Settings.ReadingFormat format =
+      (settings.isAutoRange () && requestedFormat != HP3457A_GPIB_Settings.ReadingFormat.SREAL)
+        ? HP3457A_GPIB_Settings.ReadingFormat.SREAL
+        : requestedFormat;
+    final int maxReadings = format == HP3457A_GPIB_Settings.ReadingFormat.SINT
+      ? settings.getMaxReadings_SINT ()
+      : settings.getMaxReadings_SREAL (); // Same as DINT.
+    // Number of blocks that fit in reading memory; unlimited if we do not know its size.
+    final int blocksInMemory = maxReadings > 0 ? maxReadings / blockSize : Integer.MAX_VALUE;
+    if (blocksInMemory == 0)
+      throw new IllegalArgumentException ();
+    final StringBuilder sb = new StringBuilder ();
+    // Hold triggering, and clear the reading memory (MFORMAT) before arming.
+    sb.append ("TRIG ").append (HP3457A_GPIB_Settings.TriggerEvent.HOLD.getCode ()).append (";");
+    sb.append ("MEM ").append (HP3457A_GPIB_Settings.ReadingMemoryMode.FIFO.getCode ()).append (";");
+    sb.append ("MFORMAT ").append (format.getCode ()).append (";");
+    sb.append ("OFORMAT ").append (format.getCode ()).append (";");
+    if (scanList != null)
+    {
+      sb.append ("SLIST");
+      for (final int channel : scanList)
+        sb.append (",").append (channel);
+      sb.append (";");
+      sb.append ("SADV ").append (HP3457A_GPIB_Settings.ScanAdvanceMode.AUTO.getCode ()).append (";");
+    }
+    sb.append ("NRDGS ").append (blockSize).append (",").append ((interval_s != null
+      ? HP3457A_GPIB_Settings.TriggerEvent.TIMER
+      : HP3457A_GPIB_Settings.TriggerEvent.AUTO).getCode ()).append (";");
+    if (interval_s != null)
+      sb.append ("TIMER ").append (interval_s).append (";");
+    final BlockAcquisition acquisition =
+      new BlockAcquisition (settings, scanList, blockSize, interval_s, format, blocksInMemory, generation);
+    writeSync (sb.toString ());
+    boolean armed = false;
+    try
+    {
+      if (format != HP3457A_GPIB_Settings.ReadingFormat.SREAL)
+        acquisition.integerScale = processCommand_getIntegerScale (settings, format);
+      writeSync ("TRIG " + Integer.toString (HP3457A_GPIB_Settings.TriggerEvent.SGL.getCode ()) + ";");
+      acquisition.triggered++;
+      armed = true;
+    }
+    finally
+    {
+      if (! armed)
+        processCommand_disarmBlockAcquisition (acquisition);
+    }
+    return acquisition;
+  }
+  
+  /** Transfers blocks of an armed block acquisition, each in a single block transfer.
+   * 
+   * <p>
+   * Each block is reported to listeners (as a single {@link HP3457A_GPIB_ReadingBlock}, with channels if scanning)
+   * right after its transfer.
+   * Unless it is the last block (to transfer, or because the acquisition generation is no longer current),
+   * the next block is triggered before the current one is transferred,
+   * so the acquisition remains armed, with a block in progress, upon return.
+   * 
+   * <p>
+   * If requested, the transfer yields (after the current block) as soon as another command is queued,
+   * or after {@link #CONTINUOUS_SCAN_MAXIMUM_COMMAND_DURATION_MS}.
+   * 
+   * <p>
+   * The caller must hold the operation semaphore.
+   * 
+   * @param acquisition    The armed acquisition, non-{@code null}.
+   * @param numberOfBlocks The (maximum) number of blocks to transfer, strictly positive.
+   * @param yieldToQueue   Whether to yield as soon as another command is queued, or the maximum command duration expired.
+   * @param values         The array to store the readings in (in order of acquisition),
+   *                         {@code null} if the readings need not be kept.
+   * 
+   * @return The number of blocks transferred.
+   * 
+   */
+  private int processCommand_transferBlocks (
+    final BlockAcquisition acquisition,
+    final int numberOfBlocks,
+    final boolean yieldToQueue,
+    final double[] values)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final long start_ms = System.currentTimeMillis ();
+    final int blockSize = acquisition.blockSize;
+    final String clearMemoryString = "MFORMAT " + Integer.toString (acquisition.format.getCode ()) + ";";
+    final String triggerString = "TRIG " + Integer.toString (HP3457A_GPIB_Settings.TriggerEvent.SGL.getCode ()) + ";";
+    int transferred = 0; // Number of blocks transferred.
+    while (transferred < numberOfBlocks)
+    {
+      processCommand_awaitNumberOfStoredReadings ((acquisition.transferred + 1) * blockSize, acquisition.interval_s);
+      final boolean last = transferred + 1 == numberOfBlocks
+        || acquisition.generation != this.acquisitionGeneration.get ();
+      final boolean yield = yieldToQueue && isContinuousScanYieldDue (start_ms);
+      // Start acquiring the next block (if it fits) before transferring the current one.
+      if (! last
+        && transferred + acquisition.triggered - acquisition.transferred < numberOfBlocks
+        && acquisition.triggered < acquisition.blocksInMemory)
+      {
+        writeSync (triggerString);
+        acquisition.triggered++;
+      }
+      final double[] block = processCommand_recallMemoryBlock (
+        acquisition.transferred * blockSize + 1,
+        blockSize,
+        acquisition.format,
+        acquisition.integerScale);
+      if (values != null)
+        System.arraycopy (block, 0, values, transferred * blockSize, blockSize);
+      readingsReadFromInstrument (acquisition.settings, block, acquisition.scanList);
+      transferred++;
+      acquisition.transferred++;
+      if (last)
+        break;
+      if (acquisition.triggered == acquisition.transferred)
+      {
+        // Memory is full (and idle); clear it and start over.
+        writeSync (clearMemoryString + triggerString);
+        acquisition.triggered = 1;
+        acquisition.transferred = 0;
+      }
+      if (yield)
+        break;
+    }
+    return transferred;
+  }
+  
+  /** Restores the settings in effect before a block acquisition was armed.
+   * 
+   * <p>
+   * The previous trigger, reading-memory, and output-format settings are restored,
+   * and the scan list (if used) is cleared.
+   * The reading-memory format is not tracked in the settings; it is reset to {@code SREAL} (clearing the reading memory).
+   * 
+   * <p>
+   * The caller must hold the operation semaphore.
+   * 
+   * @param acquisition The acquisition, non-{@code null}.
+   * 
+   */
+  private void processCommand_disarmBlockAcquisition (final BlockAcquisition acquisition)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final HP3457A_GPIB_Settings settings = acquisition.settings;
+    final StringBuilder rsb = new StringBuilder ();
+    rsb.append ("TRIG ").append (HP3457A_GPIB_Settings.TriggerEvent.HOLD.getCode ()).append (";");
+    if (acquisition.scanList != null)
+    {
+      rsb.append ("SLIST;");
+      if (settings.getInputChannel () != HP3457A_GPIB_Settings.InputChannel.None)
+        rsb.append ("CHAN ").append (settings.getInputChannel ().getCode ()).append (";");
+    }
+    rsb.append ("OFORMAT ").append (settings.getReadingFormat ().getCode ()).append (";");
+    // The memory format is not tracked in the settings; reset it to its default (see #acquireBurstSync).
+    rsb.append ("MFORMAT ").append (HP3457A_GPIB_Settings.ReadingFormat.SREAL.getCode ()).append (";");
+    rsb.append ("MEM ").append (settings.getReadingMemoryMode ().getCode ()).append (";");
+    rsb.append ("NRDGS ").append (settings.getNumberOfReadings ()).append (",")
+      .append (settings.getSampleEvent ().getCode ()).append (";");
+    rsb.append ("TIMER ").append (settings.getTimer_s ()).append (";");
+    rsb.append ("TRIG ").append (settings.getTriggerEvent ().getCode ()).append (";");
+    writeSync (rsb.toString ());
+  }
+  
+  /** Acquires blocks of readings into reading memory, and transfers each block in a single block transfer.
+   * 
+   * <p>
+   * Arms the acquisition, transfers the blocks, and restores the previous settings upon completion (or failure).
+   * The acquisition stops early (after the block in progress) if its generation is no longer current
+   * (see {@link #stopAcquisition}).
+   * An acquisition that is no longer current upon entry returns immediately, without accessing the instrument.
+   * 
+   * <p>
+   * The caller must hold the operation semaphore.
+   * 
+   * @param settings        The current settings, non-{@code null}.
+   * @param scanList        The scan list, {@code null} for no scanning.
+   * @param blockSize       The number of readings in a block, strictly positive.
+   * @param numberOfBlocks  The number of blocks, strictly positive.
+   * @param interval_s      The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param requestedFormat The (binary) format requested.
+   * @param generation      The acquisition generation.
+   * @param values          The array to store the readings in (in order of acquisition),
+   *                          {@code null} if the readings need not be kept.
+   * 
+   * @return The number of blocks transferred.
+   * 
+   * @throws IllegalArgumentException If an argument is illegal,
+   *                                  the values array is too small,
+   *                                  or a block does not fit in (the known size of) the reading memory.
+   * 
+   * @see #processCommand_armBlockAcquisition
+   * @see #processCommand_transferBlocks
+   * @see #processCommand_disarmBlockAcquisition
+   * 
+   */
+  private int processCommand_acquireBlocks (
+    final HP3457A_GPIB_Settings settings,
+    final int[] scanList,
+    final int blockSize,
+    final int numberOfBlocks,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat requestedFormat,
+    final long generation,
+    final double[] values)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    if (settings == null
+      || blockSize <= 0
+      || numberOfBlocks <= 0
+      || (interval_s != null && interval_s <= 0)
+      || getBinaryReadingSize_bytes (requestedFormat) == 0
+      || (scanList != null && scanList.length == 0)
+      || (values != null && values.length < (long) blockSize * numberOfBlocks))
+      throw new IllegalArgumentException ();
+    if (generation != this.acquisitionGeneration.get ())
+      return 0;
+    final BlockAcquisition acquisition =
+      processCommand_armBlockAcquisition (settings, scanList, blockSize, interval_s, requestedFormat, generation);
+    try
+    {
+      return processCommand_transferBlocks (acquisition, numberOfBlocks, false, values);
+    }
+    finally
+    {
+      processCommand_disarmBlockAcquisition (acquisition);
+    }
+  }
+  
+  // The continuous scan, armed on the instrument in between its commands; null if none.
+  // Guarded by this.operationSemaphore.
+  private BlockAcquisition continuousScan = null;
+  
+  /** Continues a continuous scan, arming it if needed.
+   * 
+   * <p>
+   * Sweeps are transferred until another command is queued, or for at most {@link #CONTINUOUS_SCAN_MAXIMUM_COMMAND_DURATION_MS}.
+   * Unless the scan stopped, it is left armed on the instrument, with a sweep in progress,
+   * so the next command of the scan can continue where this one left off.
+   * Any other command (or batch) disarms the scan before it is processed (see {@link #processCommand_disarmContinuousScan}),
+   * in which case the next command of the scan re-arms it (picking up the settings in effect at that time).
+   * 
+   * <p>
+   * The caller must hold the operation semaphore,
+   * and must have disarmed any continuous scan of another generation.
+   * 
+   * @param settings   The current settings, non-{@code null}.
+   * @param scanList   The scan list, non-{@code null} and non-empty.
+   * @param interval_s The interval between readings in seconds, {@code null} for the native rate of the instrument.
+   * @param format     The (binary) format requested.
+   * @param generation The acquisition generation of the scan.
+   * 
+   * @return Whether the scan is to be continued, i.e., its generation is still current.
+   * 
+   */
+  private boolean processCommand_continueScan (
+    final HP3457A_GPIB_Settings settings,
+    final int[] scanList,
+    final Double interval_s,
+    final HP3457A_GPIB_Settings.ReadingFormat format,
+    final long generation)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    if (this.continuousScan == null)
+    {
+      if (generation != this.acquisitionGeneration.get ())
+        return false;
+      this.continuousScan =
+        processCommand_armBlockAcquisition (settings, scanList, scanList.length, interval_s, format, generation);
+    }
+    boolean continued = false;
+    try
+    {
+      processCommand_transferBlocks (this.continuousScan, Integer.MAX_VALUE, true, null);
+      continued = generation == this.acquisitionGeneration.get ();
+    }
+    finally
+    {
+      if (! continued)
+        processCommand_disarmContinuousScan ();
+    }
+    return continued;
+  }
+  
+  /** Disarms the continuous scan (if any), restoring the settings in effect before it was armed.
+   * 
+   * <p>
+   * The caller must hold the operation semaphore.
+   * 
+   */
+  private void processCommand_disarmContinuousScan ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final BlockAcquisition acquisition = this.continuousScan;
+    if (acquisition != null)
+    {
+      // Forget about the scan even if disarming fails; the next command of the scan will re-arm it.
+      this.continuousScan = null;
+      processCommand_disarmBlockAcquisition (acquisition);
+    }
+  }
+  
+  private static boolean isContinuousScanCommand (final InstrumentCommand instrumentCommand, final long generation)
+  {
+    return HP3457A_InstrumentCommand.IC_HP3457A_SCAN.equals (instrumentCommand.get (InstrumentCommand.IC_COMMAND_KEY))
+      && Boolean.TRUE.equals (instrumentCommand.get (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_CONTINUOUS))
+      && Long.valueOf (generation).equals (instrumentCommand.get (HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION));
+  }
+  
+  private boolean isContinuousScanYieldDue (final long start_ms)
+  {
+    return getCommandQueueSize () > 0
+      || System.currentTimeMillis () - start_ms >= HP3457A_GPIB_Instrument.CONTINUOUS_SCAN_MAXIMUM_COMMAND_DURATION_MS;
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // AbstractInstrument
+  // AbstractGpibInstrument
+  // PROCESS COMMAND - BATCHING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns whether a command may be processed as part of a batch of commands.
+   * 
+   * <p>
+   * All commands except for {@link InstrumentCommand#IC_NOP_KEY}, {@link InstrumentCommand#IC_GET_SETTINGS_KEY}
+   * and the (long-running) burst and scan acquisitions
+   * ({@link HP3457A_InstrumentCommand#IC_HP3457A_BURST} and {@link HP3457A_InstrumentCommand#IC_HP3457A_SCAN})
+   * are batchable.
+   * A batch is processed while holding the operation semaphore;
+   * its writes are merged into a single message (flushed before any query),
+   * and the status is polled only once, at the end of the batch.
+   * 
+   * @see #getBatchedWriteSeparator
+   * @see #beginCommandBatch
+   * @see #endCommandBatch
+   * 
+   */
+  @Override
+  protected boolean isBatchableCommand (final InstrumentCommand instrumentCommand)
+  {
+    final Object commandString = instrumentCommand.get (InstrumentCommand.IC_COMMAND_KEY);
+    return commandString != null
+      && ! InstrumentCommand.IC_NOP_KEY.equals (commandString)
+      && ! InstrumentCommand.IC_GET_SETTINGS_KEY.equals (commandString)
+      && ! HP3457A_InstrumentCommand.IC_HP3457A_BURST.equals (commandString)
+      && ! HP3457A_InstrumentCommand.IC_HP3457A_SCAN.equals (commandString);
+  }
+  
+  /** Returns whether successfully processing a command speeds up the collectors in adaptive mode.
+   * 
+   * <p>
+   * The (self-re-queued) continuations of a continuous scan do not change the status or settings,
+   * and report their readings themselves, so they do not speed up the collectors.
+   * 
+   * @see #startContinuousScan
+   * 
+   */
+  @Override
+  protected boolean isCollectorBoostingCommand (final InstrumentCommand instrumentCommand)
+  {
+    return ! Boolean.TRUE.equals (instrumentCommand.get (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_CONTINUATION));
+  }
+  
+  @Override
+  protected String getBatchedWriteSeparator ()
+  {
+    return ";";
+  }
+  
+  @Override
+  protected void beginCommandBatch ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    super.beginCommandBatch ();
+    this.operationSemaphore.acquire ();
+    boolean disarmed = false;
+    try
+    {
+      // Batches never include (continuous) scans; see #isBatchableCommand.
+      processCommand_disarmContinuousScan ();
+      disarmed = true;
+    }
+    finally
+    {
+      if (! disarmed)
+        this.operationSemaphore.release ();
+    }
+  }
+  
+  @Override
+  protected void endCommandBatch (final boolean commit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    try
+    {
+      super.endCommandBatch (commit);
+    }
+    finally
+    {
+      this.operationSemaphore.release ();
+    }
+    if (commit)
+    {
+      this.operationSemaphore.acquire ();
+      final InstrumentStatus newInstrumentStatus;
+      try
+      {
+        final byte serialPollStatusByte = serialPollSync ();
+        newInstrumentStatus =
+          HP3457A_GPIB_Status.fromSerialPollStatusByte (serialPollStatusByte);
+      }
+      finally
+      {
+        this.operationSemaphore.release ();
+      }
+      statusReadFromInstrument (newInstrumentStatus);
+    }
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // AbstractInstrument
@@ -2654,7 +3807,8 @@ public class HP3457A_GPIB_Instrument
   protected final void processCommand (final InstrumentCommand instrumentCommand)
     throws IOException, InterruptedException, TimeoutException
   {
-    processCommand (instrumentCommand, true);
+    // Within a batch, we already hold the operation semaphore; see #beginCommandBatch.
+    processCommand (instrumentCommand, ! isProcessingCommandBatch ());
   }
   
   protected final void processCommand (final InstrumentCommand instrumentCommand, final boolean topLevel)
@@ -2674,10 +3828,19 @@ public class HP3457A_GPIB_Instrument
     if (topLevel)
       this.operationSemaphore.acquire ();
     final GpibDevice device = (GpibDevice) getDevice ();
-    HP3457A_GPIB_Settings instrumentSettings = (HP3457A_GPIB_Settings) getCurrentInstrumentSettings ();
+    // Start from the settings we last published ourselves; the current settings lag behind their dispatch.
+    HP3457A_GPIB_Settings instrumentSettings = this.lastSettings != null
+      ? this.lastSettings
+      : (HP3457A_GPIB_Settings) getCurrentInstrumentSettings ();
     HP3457A_GPIB_Settings newInstrumentSettings = null;
     try
     {
+      // A continuous scan stays armed in between its commands; disarm it before processing any other command.
+      if (this.continuousScan != null
+        && ! HP3457A_GPIB_Instrument.isContinuousScanCommand (instrumentCommand, this.continuousScan.generation))
+        processCommand_disarmContinuousScan ();
+      if (HP3457A_GPIB_Instrument.INTEGER_SCALE_AFFECTING_COMMANDS.contains (commandString))
+        this.integerScaleCache.clear ();
       switch (commandString)
       {
         case InstrumentCommand.IC_NOP_KEY:
@@ -2808,7 +3971,7 @@ public class HP3457A_GPIB_Instrument
             HP3457A_InstrumentCommand.ICARG_HP3457A_PEEK_ADDRESS);
           byte firstByte;
           final String queryReturn =
-            new String (writeAndReadEOISync ("PEEK " + Integer.toString (address) + ";"), Charset.forName ("US-ASCII")).trim ();
+            writeAndReadEOITextSync ("PEEK " + Integer.toString (address) + ";").trim ();
           final int value;
           try
           {
@@ -2841,7 +4004,7 @@ public class HP3457A_GPIB_Instrument
           for (int address = 0x40; address <= 0x1ff; address++)
           {
             final String queryReturn =
-              new String (writeAndReadEOISync ("PEEK " + address + ";"), Charset.forName ("US-ASCII")).trim ();
+              writeAndReadEOITextSync ("PEEK " + address + ";").trim ();
             final int value;
             try
             {
@@ -2996,7 +4159,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_AUXILIARY_ERROR:
         {
           // AUXERR?
-          final String queryReturn = new String (writeAndReadEOISync ("AUXERR?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("AUXERR?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final short auxiliaryError;
@@ -3266,7 +4429,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_ERROR:
         {
           // ERR?
-          final String queryReturn = new String (writeAndReadEOISync ("ERR?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("ERR?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final short errorShort;
@@ -3444,7 +4607,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_ID:
         {
           // ID?
-          final String queryReturn = new String (writeAndReadEOISync ("ID?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("ID?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, queryReturn);
@@ -3526,7 +4689,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_MATH_OPERATION:
         {
           // MATH?
-          final String queryReturn = new String (writeAndReadEOISync ("MATH?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("MATH?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final String[] components = queryReturn.split (",");
@@ -3550,7 +4713,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_NUMBER_OF_STORED_READINGS:
         {
           // MCOUNT?
-          final String queryReturn = new String (writeAndReadEOISync ("MCOUNT?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("MCOUNT?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final int count;
@@ -3621,7 +4784,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_MEMORY_SIZES:
         {
           // MSIZE?
-          final String queryReturn = new String (writeAndReadEOISync ("MSIZE?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("MSIZE?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final String[] components = queryReturn.split (",");
@@ -3714,7 +4877,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_NUMBER_OF_READINGS:
         {
           // NRDGS?
-          final String queryReturn = new String (writeAndReadEOISync ("NRDGS?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("NRDGS?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final String[] components = queryReturn.split (",");
@@ -3901,7 +5064,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_RANGE:
         {
           // RANGE?
-          final String queryReturn = new String (writeAndReadEOISync ("RANGE?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("RANGE?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final double range;
@@ -4067,7 +5230,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_SCAN_LIST_SIZE:
         {
           // SLIST?
-          final String queryReturn = new String (writeAndReadEOISync ("SLIST?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("SLIST?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final int scanListSize;
@@ -4118,7 +5281,7 @@ public class HP3457A_GPIB_Instrument
         case HP3457A_InstrumentCommand.IC_HP3457A_GET_STATUS_BYTE:
         {
           // STB?
-          final String queryReturn = new String (writeAndReadEOISync ("STB?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("STB?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           final byte statusByte;
@@ -4280,11 +5443,79 @@ public class HP3457A_GPIB_Instrument
           writeSync ("?;");
           break;
         }
+        case HP3457A_InstrumentCommand.IC_HP3457A_BURST:
+        {
+          // TRIG HOLD;MEM FIFO;MFORMAT;OFORMAT;NRDGS;TIMER;TRIG SGL;MCOUNT?;RMEM
+          if (instrumentSettings == null)
+            throw new IllegalStateException ();
+          final int count =
+            (int) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_COUNT);
+          final Double interval_s =
+            (Double) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_INTERVAL);
+          final HP3457A_GPIB_Settings.ReadingFormat format =
+            (HP3457A_GPIB_Settings.ReadingFormat) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_BURST_FORMAT);
+          final long generation =
+            (long) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION);
+          final double[] values = new double[count];
+          final int numberOfBlocks =
+            processCommand_acquireBlocks (instrumentSettings, null, count, 1, interval_s, format, generation, values);
+          instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, numberOfBlocks > 0 ? values : new double[0]);
+          break;
+        }
+        case HP3457A_InstrumentCommand.IC_HP3457A_SCAN:
+        {
+          // SLIST;SADV AUTO;TRIG HOLD;MEM FIFO;MFORMAT;OFORMAT;NRDGS;TIMER;{TRIG SGL;MCOUNT?;RMEM}
+          if (instrumentSettings == null)
+            throw new IllegalStateException ();
+          final int[] scanList =
+            (int[]) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_LIST);
+          final Double interval_s =
+            (Double) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_INTERVAL);
+          final HP3457A_GPIB_Settings.ReadingFormat format =
+            (HP3457A_GPIB_Settings.ReadingFormat) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_FORMAT);
+          final long generation =
+            (long) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION);
+          if (Boolean.TRUE.equals (instrumentCommand.get (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_CONTINUOUS)))
+          {
+            // Acquire sweeps until another command is queued (or for a limited time), then re-queue ourselves,
+            // leaving the scan armed.
+            if (processCommand_continueScan (instrumentSettings, scanList, interval_s, format, generation))
+            {
+              final InstrumentCommand nextCommand = generateContinuousScanCommand (scanList, interval_s, format);
+              nextCommand.put (HP3457A_InstrumentCommand.ICARG_HP3457A_ACQUISITION_GENERATION, generation);
+              nextCommand.put (HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_CONTINUATION, true);
+              addCommand (nextCommand);
+            }
+            break;
+          }
+          final int numberOfSweeps =
+            (int) instrumentCommand.get (
+              HP3457A_InstrumentCommand.ICARG_HP3457A_SCAN_NUMBER_OF_SWEEPS);
+          final double[] values = new double[scanList.length * numberOfSweeps];
+          final int numberOfSweepsAcquired = processCommand_acquireBlocks (
+            instrumentSettings, scanList, scanList.length, numberOfSweeps, interval_s, format, generation, values);
+          // De-interleave into a time series per channel (in scan-list order).
+          final double[][] timeSeries = new double[scanList.length][numberOfSweepsAcquired];
+          for (int i = 0; i < scanList.length * numberOfSweepsAcquired; i++)
+            timeSeries[i % scanList.length][i / scanList.length] = values[i];
+          instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, timeSeries);
+          break;
+        }
         default:
         {
           throw new UnsupportedOperationException ();
         }
       }
+      if (newInstrumentSettings != null)
+        this.lastSettings = newInstrumentSettings;
     }
     finally
     {
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.gpib.dmm.hp3457a;
+
+/** A block of readings from the HP-3457A, transferred from its reading memory in a single block transfer.
+ *
+ * <p>
+ * The block is reported to listeners as a single {@link HP3457A_GPIB_Reading}
+ * (so it passes through the reading queue of the instrument as a single element),
+ * with the most recent reading in the block as its reading value (and channel),
+ * for the benefit of listeners that are only interested in the latest value.
+ * Listeners interested in all readings use {@link #getNumberOfReadings} and {@link #getReading}
+ * (and {@link #getChannel} for scans).
+ * Like the reading value, the overflow (and error) flags of the block are those of its most recent reading;
+ * use {@link #isOverflow(int)} or {@link #isAnyOverflow} for the other readings.
+ *
+ * <p>
+ * The object is immutable.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class HP3457A_GPIB_ReadingBlock
+  extends HP3457A_GPIB_Reading
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Creates the reading block.
+   *
+   * @param settings The settings under which the readings were taken, non-{@code null}.
+   * @param values   The readings, in order of acquisition, non-{@code null} and non-empty;
+   *                   the array is not copied, so the caller must not modify it afterwards.
+   * @param scanList The scan list (channel numbers) if the readings were taken while scanning, {@code null} otherwise;
+   *                   the first reading is on the first channel in the list;
+   *                   the array is not copied, so the caller must not modify it afterwards.
+   *
+   * @throws IllegalArgumentException If the settings or values are {@code null}, there are no values,
+   *                                  or the scan list is empty.
+   *
+   */
+  public HP3457A_GPIB_ReadingBlock (
+    final HP3457A_GPIB_Settings settings,
+    final double[] values,
+    final int[] scanList)
+  {
+    this (
+      HP3457A_GPIB_ReadingBlock.checkArguments (settings, values, scanList),
+      values,
+      scanList,
+      HP3457A_GPIB_ReadingBlock.isOverflow (values[values.length - 1]));
+  }
+
+  private HP3457A_GPIB_ReadingBlock (
+    final HP3457A_GPIB_Settings settings,
+    final double[] values,
+    final int[] scanList,
+    final boolean overflow)
+  {
+    super (
+      settings,
+      HP3457A_GPIB_ReadingBlock.channel (values, scanList, values.length - 1),
+      values[values.length - 1],
+      settings.getReadingUnit (),
+      settings.getResolution (),
+      overflow,
+      overflow ? "[Over/Under]Flow" : null,
+      overflow,
+      false,  // uncalibrated
+      false); // uncorrected
+    this.values = values;
+    this.scanList = scanList;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // READINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final double[] values;
+
+  private final int[] scanList;
+
+  /** Returns the number of readings in the block.
+   *
+   * @return The number of readings in the block, strictly positive.
+   *
+   */
+  public final int getNumberOfReadings ()
+  {
+    return this.values.length;
+  }
+
+  /** Returns a reading in the block.
+   *
+   * @param i The index of the reading, in order of acquisition.
+   *
+   * @return The reading.
+   *
+   * @throws ArrayIndexOutOfBoundsException If the index is out of range.
+   *
+   */
+  public final double getReading (final int i)
+  {
+    return this.values[i];
+  }
+
+  /** Returns (a copy of) the readings in the block.
+   *
+   * @return A new array holding the readings in the block, in order of acquisition.
+   *
+   */
+  public final double[] getReadings ()
+  {
+    return this.values.clone ();
+  }
+
+  /** Returns whether a reading in the block overflowed.
+   *
+   * @param i The index of the reading, in order of acquisition.
+   *
+   * @return Whether the reading overflowed.
+   *
+   * @throws ArrayIndexOutOfBoundsException If the index is out of range.
+   *
+   */
+  public final boolean isOverflow (final int i)
+  {
+    return HP3457A_GPIB_ReadingBlock.isOverflow (this.values[i]);
+  }
+
+  /** Returns whether any reading in the block overflowed.
+   *
+   * @return Whether any reading in the block overflowed.
+   *
+   * @see #isOverflow(int)
+   *
+   */
+  public final boolean isAnyOverflow ()
+  {
+    for (final double value : this.values)
+      if (HP3457A_GPIB_ReadingBlock.isOverflow (value))
+        return true;
+    return false;
+  }
+
+  /** Returns the channel of a reading in the block.
+   *
+   * @param i The index of the reading, in order of acquisition.
+   *
+   * @return The channel, {@code null} if not scanning or if the channel is unknown.
+   *
+   * @throws ArrayIndexOutOfBoundsException If the index is out of range.
+   *
+   */
+  public final HP3457A_GPIB_Settings.InputChannel getChannel (final int i)
+  {
+    return HP3457A_GPIB_ReadingBlock.channel (this.values, this.scanList, i);
+  }
+
+  private static HP3457A_GPIB_Settings checkArguments (
+    final HP3457A_GPIB_Settings settings,
+    final double[] values,
+    final int[] scanList)
+  {
+    if (settings == null || values == null || values.length == 0 || (scanList != null && scanList.length == 0))
+      throw new IllegalArgumentException ();
+    return settings;
+  }
+
+  private static HP3457A_GPIB_Settings.InputChannel channel (final double[] values, final int[] scanList, final int i)
+  {
+    if (i < 0 || i >= values.length)
+      throw new ArrayIndexOutOfBoundsException ();
+    if (scanList == null)
+      return null;
+    try
+    {
+      return HP3457A_GPIB_Settings.InputChannel.fromCode (scanList[i % scanList.length]);
+    }
+    catch (IllegalArgumentException iae)
+    {
+      // Channel not known to us; leave the channel unspecified.
+      return null;
+    }
+  }
+
+  private static boolean isOverflow (final double value)
+  {
+    return Math.abs (value) >= HP3457A_GPIB_Instrument.OVERLOAD_VALUE;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
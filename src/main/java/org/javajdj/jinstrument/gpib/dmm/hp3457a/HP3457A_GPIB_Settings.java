@@ -17,6 +17,7 @@
 package org.javajdj.jinstrument.gpib.dmm.hp3457a;
 
 import java.util.logging.Logger;
+import org.javajdj.jinstrument.InstrumentChannel;
 import org.javajdj.jinstrument.InstrumentSettings;
 import org.javajdj.junits.Unit;
 import org.javajdj.jinstrument.DefaultDigitalMultiMeterSettings;
@@ -2111,6 +2112,7 @@ public final class HP3457A_GPIB_Settings
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
   public enum InputChannel
+    implements InstrumentChannel // So can be used as an InstrumentChannel for readings from scans.
   {
     
     None      (-1),
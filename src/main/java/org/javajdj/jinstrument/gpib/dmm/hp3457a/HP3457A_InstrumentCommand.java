@@ -405,6 +405,30 @@ public interface HP3457A_InstrumentCommand
   // ?
   public final static String IC_HP3457A_TRIGGER = "commandHp3457aTrigger";
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // COMPOSITE COMMANDS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // TRIG HOLD;MEM FIFO;MFORMAT;OFORMAT;NRDGS;TIMER;TRIG SGL;MCOUNT?;RMEM
+  public final static String IC_HP3457A_BURST = "commandHp3457aBurst";
+  public final static String ICARG_HP3457A_BURST_COUNT = "hp3457aBurstCount";
+  public final static String ICARG_HP3457A_BURST_INTERVAL = "hp3457aBurstInterval";
+  public final static String ICARG_HP3457A_BURST_FORMAT = "hp3457aBurstFormat";
+
+  // SLIST;SADV AUTO;TRIG HOLD;MEM FIFO;MFORMAT;OFORMAT;NRDGS;TIMER;{TRIG SGL;MCOUNT?;RMEM}
+  public final static String IC_HP3457A_SCAN = "commandHp3457aScan";
+  public final static String ICARG_HP3457A_SCAN_LIST = "hp3457aScanList";
+  public final static String ICARG_HP3457A_SCAN_NUMBER_OF_SWEEPS = "hp3457aScanNumberOfSweeps";
+  public final static String ICARG_HP3457A_SCAN_INTERVAL = "hp3457aScanInterval";
+  public final static String ICARG_HP3457A_SCAN_FORMAT = "hp3457aScanFormat";
+  public final static String ICARG_HP3457A_SCAN_CONTINUOUS = "hp3457aScanContinuous";
+  public final static String ICARG_HP3457A_SCAN_CONTINUATION = "hp3457aScanContinuation";
+
+  // Burst and scan acquisitions; see HP3457A_GPIB_Instrument.stopAcquisition.
+  public final static String ICARG_HP3457A_ACQUISITION_GENERATION = "hp3457aAcquisitionGeneration";
+
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // UPSUPPORTED COMMANDS
@@ -434,7 +434,7 @@ public class HP3478A_GPIB_Instrument
     final GpibControllerCommand getSettingsCommand = generateGetSettingsCommandB ();
     ((GpibDevice) getDevice ()).doControllerCommandSync (getSettingsCommand, getGetSettingsTimeout_ms ());
     final byte[] b = (byte[]) getSettingsCommand.get (GpibControllerCommand.CCRET_VALUE_KEY);
-    final HP3478A_GPIB_Settings settings = HP3478A_GPIB_Settings.fromB (b);
+    final HP3478A_GPIB_Settings settings = internInstrumentSettings (HP3478A_GPIB_Settings.fromB (b));
     return settings;
   }
  
@@ -466,7 +466,7 @@ public class HP3478A_GPIB_Instrument
       throw new IOException ();
     }
     // Collect settings and make sure they are valid (throws IllegalArgumentException otherwise).
-    final DigitalMultiMeterSettings settings = HP3478A_GPIB_Settings.fromB (preSettingsBytes);
+    final DigitalMultiMeterSettings settings = internInstrumentSettings (HP3478A_GPIB_Settings.fromB (preSettingsBytes));
     // While we're at it, report the settings read.
     settingsReadFromInstrument (settings);
     // XXX Few issues here:
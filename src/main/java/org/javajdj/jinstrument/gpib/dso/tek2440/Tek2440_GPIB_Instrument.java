@@ -17,7 +17,9 @@
 package org.javajdj.jinstrument.gpib.dso.tek2440;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,6 +35,7 @@ import org.javajdj.jinstrument.InstrumentStatus;
 import org.javajdj.jinstrument.InstrumentType;
 import org.javajdj.jinstrument.controller.gpib.DeviceType_GPIB;
 import org.javajdj.jinstrument.controller.gpib.GpibDevice;
+import org.javajdj.jinstrument.controller.gpib.ReadEOIFramingMode;
 import org.javajdj.jinstrument.gpib.dso.AbstractGpibDigitalStorageOscilloscope;
 import org.javajdj.jinstrument.InstrumentChannel;
 import org.javajdj.jinstrument.InstrumentListener;
@@ -78,6 +81,30 @@ public class Tek2440_GPIB_Instrument
     setGpibInstrumentServiceRequestCollectorPeriod_s (4.0);
     setPollServiceRequestTimeout_ms (3000);
     setSerialPollTimeout_ms (3000);
+    // Continuous (slider/knob) settings; a newer value replaces a pending one.
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_TIMEBASE,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_TIMEBASE_CHANNEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_HORIZONTAL_POSITION);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_VOLTS_PER_DIV,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_VOLTS_PER_DIV_CHANNEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_VARIABLE_Y,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_CHANNEL_VARIABLE_Y_CHANNEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_POSITION,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_CHANNEL_POSITION_CHANNEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_DISPLAY_INTENSITY,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_DISPLAY_INTENSITY_COMPONENT);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_POSITION,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_REFERENCE_POSITION_NUMBER);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_DELAY_EVENTS);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_DELAY_TIME,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_DELAY_TIME_TARGET);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_EXT_GAIN,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_EXT_GAIN_TARGET);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_LEVEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_POSITION);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_HOLDOFF);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_LEVEL);
+    registerConflatableCommand (Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_POSITION);
   }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -204,8 +231,7 @@ public class Tek2440_GPIB_Instrument
   protected final void initializeInstrumentSync ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final byte[] idBytes = writeAndReadEOISync ("ID?\n");
-    final String idString = new String (idBytes, Charset.forName ("US-ASCII"));
+    final String idString = writeAndReadEOITextSync ("ID?\n");
     setInstrumentId (idString);
     if (getCurrentInstrumentSettings () == null)
     {
@@ -231,7 +257,7 @@ public class Tek2440_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     final byte statusByte = serialPollSync ();
-    final String errString = new String (writeAndReadEOISync ("ERR?\n"), Charset.forName ("US-ASCII"));
+    final String errString = writeAndReadEOITextSync ("ERR?\n");
     // System.err.println ("Error String: " + errString);
     final InstrumentStatus instrumentStatus = new Tek2440_GPIB_Status (statusByte, errString);
     return instrumentStatus;
@@ -282,8 +308,11 @@ public class Tek2440_GPIB_Instrument
     }
     else
     {
-      settingsBytes = writeAndReadEOISync ("SET?\n");
-      settings = Tek2440_GPIB_Settings.fromSetData (settingsBytes);
+      settingsBytes = writeAndReadEOISync ("SET?\n", ReadEOIFramingMode.TEXT);
+      // Share structure with the current settings (if available).
+      final InstrumentSettings currentSettings = getCurrentInstrumentSettings ();
+      settings = Tek2440_GPIB_Settings.fromSetData (settingsBytes,
+        (currentSettings instanceof Tek2440_GPIB_Settings) ? (Tek2440_GPIB_Settings) currentSettings : null);
       // XXX DEBUG
       final byte[] debugSettingsBytes = writeAndReadEOISync ("LLS?\n");
       fireInstrumentDebug (
@@ -312,52 +341,140 @@ public class Tek2440_GPIB_Instrument
   {
     if (getCurrentInstrumentSettings () == null)
       initializeInstrumentSync ();
-    final Tek2440_GPIB_Settings settings = (Tek2440_GPIB_Settings) getCurrentInstrumentSettings ();
-    // XXX Smells like an EnumMap<DataSource...> here...
-    final boolean acqCh1 = settings.isVModeChannel1 ();
-    final boolean acqCh2 = settings.isVModeChannel2 ();
-    final boolean acqAdd = settings.isVModeAdd ();
-    final boolean acqMult = settings.isVModeMult ();
-    if (acqCh1)
+    final Tek2440_GPIB_Settings currentSettings = (Tek2440_GPIB_Settings) getCurrentInstrumentSettings ();
+    final Tek2440_GPIB_Settings settings = isPartialWaveformTransferOnDisplay ()
+      ? selectDisplayWindowSync (currentSettings)
+      : currentSettings;
+    final List<Tek2440_GPIB_Settings.DataSource> sources = new ArrayList<> ();
+    if (settings.isVModeChannel1 ())
+      sources.add (Tek2440_GPIB_Settings.DataSource.Ch1);
+    if (settings.isVModeChannel2 ())
+      sources.add (Tek2440_GPIB_Settings.DataSource.Ch2);
+    if (settings.isVModeAdd ())
+      sources.add (Tek2440_GPIB_Settings.DataSource.Add);
+    if (settings.isVModeMult ())
+      sources.add (Tek2440_GPIB_Settings.DataSource.Mult);
+    if (sources.isEmpty ())
+      return null;
+    // Fetch all curves back-to-back in a single message (and a single bus transaction),
+    // e.g., "DAT SOU:CH1;CURVE?;DAT SOU:CH2;CURVE?".
+    final StringBuilder sb = new StringBuilder ();
+    for (final Tek2440_GPIB_Settings.DataSource source : sources)
     {
-      final byte[] data;
-      data = writeAndReadEOISync ("DAT SOU:CH1;CURVE?\n");
-      final Tek2440_GPIB_Trace reading = new Tek2440_GPIB_Trace (settings, Tek2440_GPIB_Settings.DataSource.Ch1, data);
-      if (! (acqCh2 || acqAdd || acqMult))
-        return reading;
-      else
-        readingReadFromInstrument (reading);
+      if (sb.length () > 0)
+        sb.append (";");
+      sb.append ("DAT SOU:").append (getCurveQuerySourceString (source)).append (";CURVE?");
     }
-    if (acqCh2)
+    sb.append ("\n");
+    final byte[] data = writeAndReadEOISync (sb.toString (), ReadEOIFramingMode.BINARY_BLOCK);
+    final List<byte[]> curves = splitCurveResponses (data);
+    if (curves.size () != sources.size ())
     {
-      final byte[] data;
-      data = writeAndReadEOISync ("DAT SOU:CH2;CURVE?\n");
-      final Tek2440_GPIB_Trace reading = new Tek2440_GPIB_Trace (settings, Tek2440_GPIB_Settings.DataSource.Ch2, data);
-      if (! (acqAdd || acqMult))
-        return reading;
-      else
-        readingReadFromInstrument (reading);
+      LOG.log (Level.WARNING, "Expected {0} curves, got {1} on instrument {2}.",
+        new Object[]{sources.size (), curves.size (), this});
+      throw new IOException ();
     }
-    if (acqAdd)
+    // All traces share the same settings (snapshot); report all but the last one, which is returned.
+    for (int i = 0; i < sources.size () - 1; i++)
+      readingReadFromInstrument (new Tek2440_GPIB_Trace (settings, sources.get (i), curves.get (i)));
+    return new Tek2440_GPIB_Trace (settings, sources.get (sources.size () - 1), curves.get (curves.size () - 1));
+  }
+
+  /** Selects partial-waveform transfers of the part of the waveform on the instrument's display, if needed.
+   * 
+   * <p>
+   * The window is derived from the horizontal position in given settings.
+   * If the start and stop positions or the encoding in given settings do not match,
+   * the window and the partial variant of the binary encoding are selected on the instrument,
+   * after which the settings are read back (and reported).
+   * 
+   * @param settings The current settings, non-{@code null}.
+   * 
+   * @return The settings under which the curves are to be fetched and decoded.
+   * 
+   * @see #setPartialWaveformTransferOnDisplay
+   * 
+   */
+  private Tek2440_GPIB_Settings selectDisplayWindowSync (final Tek2440_GPIB_Settings settings)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final Tek2440_GPIB_Settings.DataEncoding encoding;
+    switch (settings.getDataEncoding ())
     {
-      final byte[] data;
-      data = writeAndReadEOISync ("DAT SOU:ADD;CURVE?\n");
-      final Tek2440_GPIB_Trace reading = new Tek2440_GPIB_Trace (settings, Tek2440_GPIB_Settings.DataSource.Add, data);
-      if (! (acqMult))
-        return reading;
-      else
-        readingReadFromInstrument (reading);
+      case RPBinary:
+      case RPPartial: encoding = Tek2440_GPIB_Settings.DataEncoding.RPPartial; break;
+      case RIBinary:
+      case RIPartial: encoding = Tek2440_GPIB_Settings.DataEncoding.RIPartial; break;
+      default:        return settings;
     }
-    if (acqMult)
+    final int start = Tek2440_GPIB_Instrument.getDisplayWindowStartPosition (settings);
+    final int stop = Tek2440_GPIB_Instrument.getDisplayWindowStopPosition (settings);
+    if (settings.getDataEncoding () == encoding
+      && settings.getWaveformAnalysisStart () == start
+      && settings.getWaveformAnalysisStop () == stop)
+      return settings;
+    writePartialWaveformTransferSync (settings, start, stop, encoding);
+    final Tek2440_GPIB_Settings newSettings = getSettingsFromInstrumentSync ();
+    settingsReadFromInstrument (newSettings);
+    return newSettings;
+  }
+  
+  private static String getCurveQuerySourceString (final Tek2440_GPIB_Settings.DataSource source)
+  {
+    switch (source)
     {
-      final byte[] data;
-      data = writeAndReadEOISync ("DAT SOU:MUL;CURVE?\n");
-      final Tek2440_GPIB_Trace reading = new Tek2440_GPIB_Trace (settings, Tek2440_GPIB_Settings.DataSource.Mult, data);
-      return reading;
+      case Ch1:  return "CH1";
+      case Ch2:  return "CH2";
+      case Add:  return "ADD";
+      case Mult: return "MUL";
+      default:   throw new IllegalArgumentException ();
     }
-    return null;
   }
-
+  
+  /** Splits the response to a (multi-)query of {@code CURVE?} into the responses for the individual curves.
+   * 
+   * <p>
+   * The individual responses are separated by semicolons,
+   * each consisting of an optional header (e.g., {@code CURVE}), followed by a Tektronix binary block
+   * ({@code %<16-bit big-endian length><data><checksum>}); the length includes the checksum.
+   * Each returned response includes its header and is suitable for constructing a {@link Tek2440_GPIB_Trace}.
+   * 
+   * @param bytes The response, non-{@code null}.
+   * 
+   * @return The individual responses, in order.
+   * 
+   * @throws IOException If the response has an illegal structure.
+   * 
+   */
+  private static List<byte[]> splitCurveResponses (final byte[] bytes)
+    throws IOException
+  {
+    if (bytes == null)
+      throw new IOException ();
+    final List<byte[]> curves = new ArrayList<> ();
+    int i = 0;
+    while (i < bytes.length)
+    {
+      // Skip separators and white space.
+      while (i < bytes.length && (bytes[i] == ';' || bytes[i] == ' ' || bytes[i] == '\r' || bytes[i] == '\n'))
+        i++;
+      if (i == bytes.length)
+        break;
+      final int start = i;
+      while (i < bytes.length && bytes[i] != '%')
+        i++;
+      if (i + 3 > bytes.length)
+        throw new IOException ();
+      final int length = ((bytes[i + 1] & 0xff) << 8) | (bytes[i + 2] & 0xff);
+      final int end = i + 3 + length;
+      if (end > bytes.length)
+        throw new IOException ();
+      curves.add (Arrays.copyOfRange (bytes, start, end));
+      i = end;
+    }
+    return curves;
+  }
+  
   @Override
   protected final void requestReadingFromInstrumentASync () throws IOException
   {
@@ -1858,6 +1975,228 @@ public class Tek2440_GPIB_Instrument
       Tek2440_InstrumentCommand.ICARG_TEK2440_DATA_TARGET, target));
   }
   
+  /** Selects partial-waveform transfers of given window of the waveform (e.g., a zoom window).
+   * 
+   * <p>
+   * Sets the waveform-analysis start and stop positions to the window,
+   * and the data encoding to given partial encoding,
+   * so that subsequent traces only carry the samples inside the window.
+   * Note that the start and stop positions also apply to the instrument's waveform analysis (measurements).
+   * Switches off partial-waveform transfers of the part of the waveform on the display,
+   * see {@link #setPartialWaveformTransferOnDisplay}.
+   * 
+   * <p>
+   * Full-waveform transfers are restored by setting a non-partial data encoding, see {@link #setDataEncoding}.
+   * 
+   * @param start    The (one-based) start position, between 1 and {@link #TEK2440_SAMPLES_PER_WAVEFORM} (inclusive).
+   * @param stop     The (one-based) stop position, between {@code start} and {@link #TEK2440_SAMPLES_PER_WAVEFORM}
+   *                 (inclusive).
+   * @param encoding The (partial) encoding, non-{@code null}.
+   * 
+   * @throws IllegalArgumentException If the window is illegal, or the encoding is {@code null} or not a partial encoding.
+   * 
+   * @see Tek2440_GPIB_Settings.DataEncoding#RPPartial
+   * @see Tek2440_GPIB_Settings.DataEncoding#RIPartial
+   * @see Tek2440_GPIB_Trace
+   * 
+   */
+  public void setPartialWaveformTransfer (
+    final int start,
+    final int stop,
+    final Tek2440_GPIB_Settings.DataEncoding encoding)
+    throws IOException, InterruptedException, UnsupportedOperationException
+  {
+    if (start < 1 || stop < start || stop > Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_WAVEFORM)
+      throw new IllegalArgumentException ();
+    if (encoding == null || ! Tek2440_GPIB_Trace.isPartialEncoding (encoding))
+      throw new IllegalArgumentException ();
+    setPartialWaveformTransferOnDisplay (false);
+    addCommand (new DefaultInstrumentCommand (
+      Tek2440_InstrumentCommand.IC_TEK2440_PARTIAL_WAVEFORM_TRANSFER,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_START_POSITION, start,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_STOP_POSITION, stop,
+      Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_ENCODING, encoding));
+  }
+  
+  public final static String PARTIAL_WAVEFORM_TRANSFER_ON_DISPLAY_PROPERTY_NAME = "partialWaveformTransferOnDisplay";
+  
+  public final static boolean DEFAULT_PARTIAL_WAVEFORM_TRANSFER_ON_DISPLAY = true;
+  
+  private volatile boolean partialWaveformTransferOnDisplay = DEFAULT_PARTIAL_WAVEFORM_TRANSFER_ON_DISPLAY;
+  
+  /** Returns whether traces only carry the part of the waveform on the instrument's display.
+   * 
+   * @return Whether traces only carry the part of the waveform on the instrument's display.
+   * 
+   * @see #setPartialWaveformTransferOnDisplay
+   * 
+   */
+  public final boolean isPartialWaveformTransferOnDisplay ()
+  {
+    return this.partialWaveformTransferOnDisplay;
+  }
+  
+  /** Sets whether traces only carry the part of the waveform on the instrument's display.
+   * 
+   * <p>
+   * If set (the default), each acquisition derives the display window from the horizontal position
+   * in the current settings, and, if the window or the encoding differs from the settings,
+   * sets the start and stop positions to the window and the data encoding to the partial variant of the binary encoding
+   * before fetching the curves.
+   * The window thus follows changes to the horizontal position,
+   * and traces carry {@link #TEK2440_SAMPLES_PER_DISPLAY} (plus one) instead of {@link #TEK2440_SAMPLES_PER_WAVEFORM} samples.
+   * With {@link Tek2440_GPIB_Settings.DataEncoding#ASCII} encoding, full waveforms are transferred.
+   * 
+   * <p>
+   * Selecting an explicit window through {@link #setPartialWaveformTransfer} switches this off.
+   * 
+   * @param partialWaveformTransferOnDisplay Whether traces only carry the part of the waveform on the instrument's display.
+   * 
+   * @see #getDisplayWindowStartPosition
+   * @see #getDisplayWindowStopPosition
+   * 
+   */
+  public final void setPartialWaveformTransferOnDisplay (final boolean partialWaveformTransferOnDisplay)
+  {
+    if (partialWaveformTransferOnDisplay == this.partialWaveformTransferOnDisplay)
+      return;
+    this.partialWaveformTransferOnDisplay = partialWaveformTransferOnDisplay;
+    fireSettingsChanged (
+      Tek2440_GPIB_Instrument.PARTIAL_WAVEFORM_TRANSFER_ON_DISPLAY_PROPERTY_NAME,
+      ! partialWaveformTransferOnDisplay,
+      partialWaveformTransferOnDisplay);
+  }
+  
+  /** Returns the (one-based) start position of the part of the waveform on the instrument's display.
+   * 
+   * <p>
+   * The display window holds {@link #TEK2440_SAMPLES_PER_DISPLAY} samples centered on the horizontal position,
+   * clipped to the waveform.
+   * 
+   * @param settings The settings, non-{@code null}.
+   * 
+   * @return The (one-based) start position of the part of the waveform on the instrument's display.
+   * 
+   * @see Tek2440_GPIB_Settings#getHorizontalPosition
+   * 
+   */
+  public static int getDisplayWindowStartPosition (final Tek2440_GPIB_Settings settings)
+  {
+    if (settings == null)
+      throw new IllegalArgumentException ();
+    final int n_min = (int) Math.floor (settings.getHorizontalPosition () - TEK2440_SAMPLES_PER_DISPLAY / 2.0);
+    return Math.max (0, Math.min (TEK2440_SAMPLES_PER_WAVEFORM - 1, n_min)) + 1;
+  }
+  
+  /** Returns the (one-based) stop position of the part of the waveform on the instrument's display.
+   * 
+   * @param settings The settings, non-{@code null}.
+   * 
+   * @return The (one-based) stop position of the part of the waveform on the instrument's display.
+   * 
+   * @see #getDisplayWindowStartPosition
+   * 
+   */
+  public static int getDisplayWindowStopPosition (final Tek2440_GPIB_Settings settings)
+  {
+    if (settings == null)
+      throw new IllegalArgumentException ();
+    final int n_max = (int) Math.ceil (settings.getHorizontalPosition () + TEK2440_SAMPLES_PER_DISPLAY / 2.0);
+    return Math.max (0, Math.min (TEK2440_SAMPLES_PER_WAVEFORM - 1, n_max)) + 1;
+  }
+  
+  private static String getPartialEncodingString (final Tek2440_GPIB_Settings.DataEncoding encoding)
+  {
+    switch (encoding)
+    {
+      case RIPartial: return "RIP";
+      case RPPartial: return "RPP";
+      default:        throw new IllegalArgumentException ();
+    }
+  }
+  
+  private void writePartialWaveformTransferSync (
+    final Tek2440_GPIB_Settings settings,
+    final int start,
+    final int stop,
+    final Tek2440_GPIB_Settings.DataEncoding encoding)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final String encodingString = Tek2440_GPIB_Instrument.getPartialEncodingString (encoding);
+    // Never let the start position pass the stop position, not even temporarily.
+    if (start > settings.getWaveformAnalysisStop ())
+      writeSync ("STO " + Integer.toString (stop) + ";STAR " + Integer.toString (start)
+        + ";DAT ENC:" + encodingString + "\r\n");
+    else
+      writeSync ("STAR " + Integer.toString (start) + ";STO " + Integer.toString (stop)
+        + ";DAT ENC:" + encodingString + "\r\n");
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // AbstractInstrument
+  // AbstractGpibInstrument
+  // PROCESS COMMAND - BATCHING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** The maximum length of a merged message.
+   * 
+   * <p>
+   * Conservative; well within the input buffer of the instrument.
+   * 
+   */
+  public final static int TEK2440_BATCHED_WRITE_MAX_LENGTH = 256;
+  
+  /** Returns whether a command may be processed as part of a batch of commands.
+   * 
+   * <p>
+   * All commands, except for {@link InstrumentCommand#IC_NOP_KEY} and {@link InstrumentCommand#IC_GET_SETTINGS_KEY},
+   * merely write to the instrument, and read back its settings;
+   * within a batch, the writes are merged into a single message,
+   * and the settings are read back only once, at the end of the batch.
+   * 
+   * @see #getBatchedWriteSeparator
+   * @see #endCommandBatch
+   * 
+   */
+  @Override
+  protected boolean isBatchableCommand (final InstrumentCommand instrumentCommand)
+  {
+    final Object commandString = instrumentCommand.get (InstrumentCommand.IC_COMMAND_KEY);
+    return commandString != null
+      && ! InstrumentCommand.IC_NOP_KEY.equals (commandString)
+      && ! InstrumentCommand.IC_GET_SETTINGS_KEY.equals (commandString);
+  }
+  
+  @Override
+  protected String getBatchedWriteSeparator ()
+  {
+    return ";";
+  }
+  
+  @Override
+  protected int getBatchedWriteMaxLength ()
+  {
+    return Tek2440_GPIB_Instrument.TEK2440_BATCHED_WRITE_MAX_LENGTH;
+  }
+  
+  @Override
+  protected void endCommandBatch (final boolean commit)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    super.endCommandBatch (commit);
+    if (commit)
+      settingsReadFromInstrument (getSettingsFromInstrumentSync ());
+  }
+  
+  private Tek2440_GPIB_Settings getSettingsFromInstrumentSyncAfterCommand ()
+    throws IOException, InterruptedException, TimeoutException
+  {
+    // Within a batch, we read back the settings only once, at the end of the batch.
+    return isProcessingCommandBatch () ? null : getSettingsFromInstrumentSync ();
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // AbstractInstrument
@@ -1905,7 +2244,7 @@ public class Tek2440_GPIB_Instrument
             case A_Intensified_B: writeSync ("HOR MOD:AIN\r\n"); break;
             default:              throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_TIMEBASE:
@@ -1922,7 +2261,7 @@ public class Tek2440_GPIB_Instrument
             case Channel2: writeSync ("HOR BSE:" + secondsPerDivision.getSecondsPerDivision_s ()  + "\r\n"); break;
             default:       throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_HORIZONTAL_POSITION:
@@ -1931,7 +2270,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_HORIZONTAL_POSITION);
           writeSync ("HOR POS:" + Double.toString (position) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_HORIZONTAL_EXTERNAL_EXPANSION:
@@ -1942,7 +2281,7 @@ public class Tek2440_GPIB_Instrument
           if (expansion == null)
             throw new IllegalArgumentException ();
           writeSync ("HOR EXTE:" + Integer.toString (expansion.toInt ()) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_VOLTS_PER_DIV:
@@ -1959,7 +2298,7 @@ public class Tek2440_GPIB_Instrument
             case Channel2: writeSync ("CH2 VOL:" + voltsPerDivision.getVoltsPerDivision_V () + "\r\n"); break;
             default:       throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_VARIABLE_Y:
@@ -1977,7 +2316,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_ENABLE:
@@ -1994,7 +2333,7 @@ public class Tek2440_GPIB_Instrument
             case Channel2: writeSync ("VMO CH2:" + (channelEnable ? "ON" : "OFF") + "\r\n"); break;
             default:       throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ADD_ENABLE:
@@ -2003,7 +2342,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ADD_ENABLE);
           writeSync ("VMO ADD:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MULT_ENABLE:
@@ -2012,7 +2351,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MULT_ENABLE);
           writeSync ("VMO MUL:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_VERTICAL_DISPLAY_MODE:
@@ -2026,7 +2365,7 @@ public class Tek2440_GPIB_Instrument
             case XY: writeSync ("VMO DISP:XY\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_COUPLING:
@@ -2060,7 +2399,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_50_OHMS:
@@ -2082,7 +2421,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_INVERT:
@@ -2104,7 +2443,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CHANNEL_POSITION:
@@ -2126,7 +2465,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DISPLAY_INTENSITY:
@@ -2151,7 +2490,7 @@ public class Tek2440_GPIB_Instrument
             default: throw new IllegalArgumentException ();
           }
           writeSync ("INTENSI " + componentString + Double.toString (intensity) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_POSITION_MODE:
@@ -2172,7 +2511,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_POSITION:
@@ -2193,7 +2532,7 @@ public class Tek2440_GPIB_Instrument
             case 4: writeSync ("REFP REF4:" + Double.toString (refPosition) + "\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_SOURCE:
@@ -2219,7 +2558,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("REFF REF4\r\n");  break;
             default: throw new IllegalArgumentException ();           
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_CLEAR:
@@ -2235,7 +2574,7 @@ public class Tek2440_GPIB_Instrument
             case 4: writeSync ("REFD REF4:EMP\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_WRITE:
@@ -2252,7 +2591,7 @@ public class Tek2440_GPIB_Instrument
             case 4: writeSync ("SAVER REF4\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_REFERENCE_DISPLAY:
@@ -2271,7 +2610,7 @@ public class Tek2440_GPIB_Instrument
             case 4: writeSync ("REFD REF4:" + (display? "ON" : "OFF") + "\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_LONG_RESPONSE:
@@ -2280,7 +2619,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_LONG_RESPONSE);
           writeSync ("LON " + (longResponse? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_USE_PATH:
@@ -2289,7 +2628,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_USE_PATH);
           writeSync ("PAT " + (usePath? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DELAY_EVENTS_MODE:
@@ -2298,7 +2637,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_DELAY_EVENTS_MODE);
           writeSync ("DLYE MOD:" + (delayEventsEnabled? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DELAY_EVENTS:
@@ -2307,7 +2646,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_DELAY_EVENTS);
           writeSync ("DLYE VAL:" + Integer.toString (delayEvents) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DELAY_TIMES_DELTA:
@@ -2316,7 +2655,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_DELAY_TIMES_DELTA);
           writeSync ("DLYT DELT:" + (delayTimesDelta? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DELAY_TIME:
@@ -2338,7 +2677,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_EXT_GAIN:
@@ -2360,7 +2699,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WORD_CLOCK:
@@ -2382,7 +2721,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WORD_RADIX:
@@ -2401,7 +2740,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WORD:
@@ -2422,7 +2761,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DISPLAY_VECTORS:
@@ -2431,7 +2770,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_DISPLAY_VECTORS);
           writeSync ("INTENSI VEC:" + (display? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DISPLAY_READOUT:
@@ -2440,7 +2779,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_DISPLAY_READOUT);
           writeSync ("REA " + (display? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_BANDWIDTH_LIMIT:
@@ -2456,7 +2795,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_INTERNAL_ERROR:
@@ -2465,7 +2804,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_INTERNAL_ERROR);
           writeSync ("INR " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_COMMAND_ERROR:
@@ -2474,7 +2813,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_COMMAND_ERROR);
           writeSync ("CER " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_EXECUTION_ERROR:
@@ -2483,7 +2822,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_EXECUTION_ERROR);
           writeSync ("EXR " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_EXECUTION_WARNING:
@@ -2492,7 +2831,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_EXECUTION_WARNING);
           writeSync ("EXW " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_COMMAND_COMPLETION:
@@ -2501,7 +2840,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_COMMAND_COMPLETION);
           writeSync ("OPC " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_ON_EVENT:
@@ -2510,7 +2849,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_ON_EVENT);
           writeSync ("RQS " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_DEVICE_DEPENDENT:
@@ -2519,7 +2858,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_DEVICE_DEPENDENT);
           writeSync ("DEVD " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_ON_USER_BUTTON:
@@ -2528,7 +2867,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_ON_USER_BUTTON);
           writeSync ("USE " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_SRQ_ON_PROBE_IDENTIFY_BUTTON:
@@ -2537,7 +2876,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_SRQ_ON_PROBE_IDENTIFY_BUTTON);
           writeSync ("PID " + (enable? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_GROUP_EXECUTE_TRIGGER_MODE:
@@ -2572,7 +2911,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_AUTO_SETUP_MODE:
@@ -2590,7 +2929,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_AUTO_SETUP_RESOLUTION:
@@ -2605,13 +2944,13 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_AUTO_SETUP:
         {
           writeSync ("AUTOS EXE\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ACQUISITION_MODE:
@@ -2627,7 +2966,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ACQUISITION_REPETITIVE:
@@ -2636,7 +2975,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ACQUISITION_REPETITIVE);
           writeSync ("ACQ REP:" + (repetitive ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ACQUISITION_NR_AVERAGED:
@@ -2647,7 +2986,7 @@ public class Tek2440_GPIB_Instrument
           if (number == null)
             throw new IllegalArgumentException ();
           writeSync ("ACQ NUMAV:" + number.toInt () + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ACQUISITION_NR_ENV_SWEEPS:
@@ -2661,7 +3000,7 @@ public class Tek2440_GPIB_Instrument
             writeSync ("ACQ NUME:CON\r\n");
           else
             writeSync ("ACQ NUME:" + number.getIntValue () + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ACQUISITION_SAVE_ON_DELTA:
@@ -2670,7 +3009,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ACQUISITION_SAVE_ON_DELTA);
           writeSync ("ACQ SAVD:" + (saveOnDelta ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_RUN_MODE:
@@ -2685,7 +3024,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_SMOOTHING:
@@ -2694,7 +3033,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_SMOOTHING);
           writeSync ("SMO " + (smoothing ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_MODE:
@@ -2711,7 +3050,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_SOURCE:
@@ -2730,7 +3069,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_COUPLING:
@@ -2749,7 +3088,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_SLOPE:
@@ -2764,7 +3103,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_LEVEL:
@@ -2773,7 +3112,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_A_TRIGGER_LEVEL);
           writeSync ("ATR LEV:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_POSITION:
@@ -2782,7 +3121,7 @@ public class Tek2440_GPIB_Instrument
             (Tek2440_GPIB_Settings.ATriggerPosition) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_A_TRIGGER_POSITION);
           writeSync ("ATR POS:" + Integer.toString (position.toInt ()) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_HOLDOFF:
@@ -2791,7 +3130,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_A_TRIGGER_HOLDOFF);
           writeSync ("ATR HOL:" + Double.toString (holdoff) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_A_TRIGGER_LOG_SOURCE:
@@ -2807,7 +3146,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_TRIGGER_A_B_SELECT:
@@ -2822,7 +3161,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_MODE:
@@ -2837,7 +3176,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_SOURCE:
@@ -2856,7 +3195,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_COUPLING:
@@ -2874,7 +3213,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_SLOPE:
@@ -2889,7 +3228,7 @@ public class Tek2440_GPIB_Instrument
             default:
               throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_LEVEL:
@@ -2898,7 +3237,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_B_TRIGGER_LEVEL);
           writeSync ("BTR LEV:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_POSITION:
@@ -2907,7 +3246,7 @@ public class Tek2440_GPIB_Instrument
             (Tek2440_GPIB_Settings.BTriggerPosition) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_B_TRIGGER_POSITION);
           writeSync ("BTR POS:" + Integer.toString (position.toInt ()) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_B_TRIGGER_EXTERNAL_CLOCK:
@@ -2916,7 +3255,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_B_TRIGGER_EXTERNAL_CLOCK);
           writeSync ("BTR EXTCL:" + (externalClock ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_ENABLE_DEBUG:
@@ -2925,7 +3264,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_ENABLE_DEBUG);
           writeSync ("DEB " + (enableDebug ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_SEQUENCER_ENABLE_FORMAT_CHARS:
@@ -2934,7 +3273,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_SEQUENCER_ENABLE_FORMAT_CHARS);
           writeSync ("FORM " + (sequencerEnableFormatChars ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_SEQUENCER_FORCE:
@@ -2943,7 +3282,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_SEQUENCER_FORCE);
           writeSync ("SETU FORC:" + (sequencerForce ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_SEQUENCER_ACTIONS_FROM_INT:
@@ -2952,7 +3291,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_SEQUENCER_ACTIONS_FROM_INT);
           writeSync ("SETU ACT:" + Integer.toString (actions) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_DEVICE_TYPE:
@@ -2966,7 +3305,7 @@ public class Tek2440_GPIB_Instrument
             case HPGL:     writeSync ("DEVI TYP:HPG\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_PAGE_SIZE:
@@ -2980,7 +3319,7 @@ public class Tek2440_GPIB_Instrument
             case US: writeSync ("DEVI PAG:US\r\n"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_GRATICULE:
@@ -2989,7 +3328,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_PRINT_GRATICULE);
           writeSync ("DEVI GRA:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_SETTINGS:
@@ -2998,7 +3337,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_PRINT_SETTING);
           writeSync ("DEVI SETTI:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_TEXT:
@@ -3007,7 +3346,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_PRINT_TEXT);
           writeSync ("DEVI TEX:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT_WAVEFORMS:
@@ -3016,7 +3355,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_PRINT_WAVEFORMS);
           writeSync ("DEVI WAV:" + (enable ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_PRINT:
@@ -3037,7 +3376,7 @@ public class Tek2440_GPIB_Instrument
             case On:  writeSync ("LOC ON\r\n");  break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WAVEFORM_ANALYSIS_LEVEL:
@@ -3046,7 +3385,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_WAVEFORM_ANALYSIS_LEVEL);
           writeSync ("LEV " + Integer.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WAVEFORM_ANALYSIS_DIRECTION:
@@ -3060,7 +3399,7 @@ public class Tek2440_GPIB_Instrument
             case Minus: writeSync ("DIR MINU\r\n"); break;
             default:    throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WAVEFORM_ANALYSIS_HYSTERESIS:
@@ -3069,7 +3408,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_WAVEFORM_ANALYSIS_HYSTERESIS);
           writeSync ("HYS " + Integer.toString (hysteresis) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WAVEFORM_ANALYSIS_START_POSITION:
@@ -3078,7 +3417,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_WAVEFORM_ANALYSIS_START_POSITION);
           writeSync ("STAR " + Integer.toString (position) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_WAVEFORM_ANALYSIS_STOP_POSITION:
@@ -3087,7 +3426,7 @@ public class Tek2440_GPIB_Instrument
             (int) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_WAVEFORM_ANALYSIS_STOP_POSITION);
           writeSync ("STO " + Integer.toString (position) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_FUNCTION:
@@ -3105,7 +3444,7 @@ public class Tek2440_GPIB_Instrument
             case V_dot_t:    writeSync ("CURS FUN:V.T\r\n");   break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_TARGET:
@@ -3129,7 +3468,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("CURS TAR:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_MODE:
@@ -3143,7 +3482,7 @@ public class Tek2440_GPIB_Instrument
             case Delta:    writeSync ("CURS MOD:DELT\r\n"); break;
             default:       throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_SELECT:
@@ -3157,7 +3496,7 @@ public class Tek2440_GPIB_Instrument
             case Two: writeSync ("CURS SEL:TWO\r\n"); break;
             default:  throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_VOLTS:
@@ -3172,7 +3511,7 @@ public class Tek2440_GPIB_Instrument
             case dB:      writeSync ("CURS UNI:VOL:DB\r\n");   break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_REF_VOLTS:
@@ -3187,7 +3526,7 @@ public class Tek2440_GPIB_Instrument
             case VoltsSquared: writeSync ("CURS REFV:UNI:VV\r\n"); break;
             default:           throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_VALUE_REF_VOLTS:
@@ -3196,7 +3535,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_VALUE_REF_VOLTS);
           writeSync ("CURS REFV:VAL:" + Double.toString (value) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_TIME:
@@ -3211,7 +3550,7 @@ public class Tek2440_GPIB_Instrument
             case Degrees: writeSync ("CURS UNI:TIM:DEG\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_REF_TIME:
@@ -3225,7 +3564,7 @@ public class Tek2440_GPIB_Instrument
             case ClockTicks: writeSync ("CURS REFT:UNI:CLK\r\n"); break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_VALUE_REF_TIME:
@@ -3234,7 +3573,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_VALUE_REF_TIME);
           writeSync ("CURS REFT:VAL:" + Double.toString (value) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_SLOPE:
@@ -3249,7 +3588,7 @@ public class Tek2440_GPIB_Instrument
             case dB:      writeSync ("CURS UNI:SLO:DB\r\n");   break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_REF_SLOPE_X:
@@ -3266,7 +3605,7 @@ public class Tek2440_GPIB_Instrument
             case ClockTicks:   writeSync ("CURS REFS:XUN:CLK\r\n"); break;
             default:           throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_UNIT_REF_SLOPE_Y:
@@ -3281,7 +3620,7 @@ public class Tek2440_GPIB_Instrument
             case VoltsSquared: writeSync ("CURS REFS:YUN:VV\r\n");  break;
             default:           throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_VALUE_REF_SLOPE:
@@ -3290,7 +3629,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_VALUE_REF_SLOPE);
           writeSync ("CURS REFS:VAL:" + Double.toString (value) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_ONE_X:
@@ -3299,7 +3638,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_ONE_X);
           writeSync ("CURS XPO:ONE:" + Double.toString (x) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_ONE_Y:
@@ -3308,7 +3647,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_ONE_Y);
           writeSync ("CURS YPO:ONE:" + Double.toString (y) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_ONE_T:
@@ -3317,7 +3656,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_ONE_T);
           writeSync ("CURS TPO:ONE:" + Double.toString (t) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_TWO_X:
@@ -3326,7 +3665,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_TWO_X);
           writeSync ("CURS XPO:TWO:" + Double.toString (x) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_TWO_Y:
@@ -3335,7 +3674,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_TWO_Y);
           writeSync ("CURS YPO:TWO:" + Double.toString (y) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_CURSOR_POSITION_TWO_T:
@@ -3344,7 +3683,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_CURSOR_POSITION_TWO_T);
           writeSync ("CURS TPO:TWO:" + Double.toString (t) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_METHOD:
@@ -3359,7 +3698,7 @@ public class Tek2440_GPIB_Instrument
             case MinMax:    writeSync ("MEAS MET:MINM\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_WINDOWING:
@@ -3368,7 +3707,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_WINDOWING);
           writeSync ("MEAS WIN:" + (windowing ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DISPLAY:
@@ -3377,7 +3716,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DISPLAY);
           writeSync ("MEAS DISP:" + (display ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DISPLAY_MARKERS:
@@ -3386,7 +3725,7 @@ public class Tek2440_GPIB_Instrument
             (boolean) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DISPLAY_MARKERS);
           writeSync ("MEAS MAR:" + (display ? "ON" : "OFF") + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL1_TYPE:
@@ -3420,7 +3759,7 @@ public class Tek2440_GPIB_Instrument
             case Width:      writeSync ("MEAS ONE:TYP:WID\r\n");  break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL1_SOURCE:
@@ -3444,7 +3783,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS ONE:SOU:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL1_DSOURCE:
@@ -3468,7 +3807,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS ONE:DSO:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL2_TYPE:
@@ -3502,7 +3841,7 @@ public class Tek2440_GPIB_Instrument
             case Width:      writeSync ("MEAS TWO:TYP:WID\r\n");  break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL2_SOURCE:
@@ -3526,7 +3865,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS TWO:SOU:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL2_DSOURCE:
@@ -3550,7 +3889,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS TWO:DSO:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL3_TYPE:
@@ -3584,7 +3923,7 @@ public class Tek2440_GPIB_Instrument
             case Width:      writeSync ("MEAS THR:TYP:WID\r\n");  break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL3_SOURCE:
@@ -3608,7 +3947,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS THR:SOU:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL3_DSOURCE:
@@ -3632,7 +3971,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS THR:DSO:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL4_TYPE:
@@ -3666,7 +4005,7 @@ public class Tek2440_GPIB_Instrument
             case Width:      writeSync ("MEAS FOU:TYP:WID\r\n");  break;
             default:         throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL4_SOURCE:
@@ -3690,7 +4029,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS FOU:SOU:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_CHANNEL4_DSOURCE:
@@ -3714,7 +4053,7 @@ public class Tek2440_GPIB_Instrument
             case Ref4:    writeSync ("MEAS FOU:DSO:REF4\r\n");  break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_PROXIMAL_UNIT:
@@ -3728,7 +4067,7 @@ public class Tek2440_GPIB_Instrument
             case Percents:  writeSync ("MEAS PROX:UNI:PERC\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_PROXIMAL_VOLTS_LEVEL:
@@ -3737,7 +4076,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_PROXIMAL_VOLTS_LEVEL);
           writeSync ("MEAS PROX:VLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_PROXIMAL_PERCENTS_LEVEL:
@@ -3746,7 +4085,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_PROXIMAL_PERCENTS_LEVEL);
           writeSync ("MEAS PROX:PLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_MESIAL_UNIT:
@@ -3760,7 +4099,7 @@ public class Tek2440_GPIB_Instrument
             case Percents:  writeSync ("MEAS MESI:UNI:PERC\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_MESIAL_VOLTS_LEVEL:
@@ -3769,7 +4108,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_MESIAL_VOLTS_LEVEL);
           writeSync ("MEAS MESI:VLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_MESIAL_PERCENTS_LEVEL:
@@ -3778,7 +4117,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_MESIAL_PERCENTS_LEVEL);
           writeSync ("MEAS MESI:PLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DMESIAL_UNIT:
@@ -3792,7 +4131,7 @@ public class Tek2440_GPIB_Instrument
             case Percents:  writeSync ("MEAS DME:UNI:PERC\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DMESIAL_VOLTS_LEVEL:
@@ -3801,7 +4140,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DMESIAL_VOLTS_LEVEL);
           writeSync ("MEAS DME:VLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DMESIAL_PERCENTS_LEVEL:
@@ -3810,7 +4149,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DMESIAL_PERCENTS_LEVEL);
           writeSync ("MEAS DME:PLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DISTAL_UNIT:
@@ -3824,7 +4163,7 @@ public class Tek2440_GPIB_Instrument
             case Percents:  writeSync ("MEAS DIST:UNI:PERC\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DISTAL_VOLTS_LEVEL:
@@ -3833,7 +4172,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DISTAL_VOLTS_LEVEL);
           writeSync ("MEAS DIST:VLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_MEASUREMENT_DISTAL_PERCENTS_LEVEL:
@@ -3842,7 +4181,7 @@ public class Tek2440_GPIB_Instrument
             (double) instrumentCommand.get (
               Tek2440_InstrumentCommand.ICARG_TEK2440_MEASUREMENT_DISTAL_PERCENTS_LEVEL);
           writeSync ("MEAS DIST:PLE:" + Double.toString (level) + "\r\n");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DATA_ENCODING:
@@ -3859,7 +4198,7 @@ public class Tek2440_GPIB_Instrument
             case RPPartial: writeSync ("DAT ENC:RPP\r\n"); break;
             default:        throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DATA_SOURCE:
@@ -3883,7 +4222,7 @@ public class Tek2440_GPIB_Instrument
             case MultDel: writeSync ("DAT SOU:MULTD\r\n"); break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DATA_DSOURCE:
@@ -3907,7 +4246,7 @@ public class Tek2440_GPIB_Instrument
             case MultDel: writeSync ("DAT DSOU:MULTD\r\n"); break;
             default:      throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         case Tek2440_InstrumentCommand.IC_TEK2440_DATA_TARGET:
@@ -3923,7 +4262,25 @@ public class Tek2440_GPIB_Instrument
             case Ref4: writeSync ("DAT TAR:REF4\r\n");  break;
             default:   throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
+          break;
+        }
+        case Tek2440_InstrumentCommand.IC_TEK2440_PARTIAL_WAVEFORM_TRANSFER:
+        {
+          final Tek2440_GPIB_Settings.DataEncoding encoding =
+            (Tek2440_GPIB_Settings.DataEncoding) instrumentCommand.get (
+              Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_ENCODING);
+          if (getCurrentInstrumentSettings () == null)
+            initializeInstrumentSync ();
+          final Tek2440_GPIB_Settings settings = (Tek2440_GPIB_Settings) getCurrentInstrumentSettings ();
+          final int start =
+            (int) instrumentCommand.get (
+              Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_START_POSITION);
+          final int stop =
+            (int) instrumentCommand.get (
+              Tek2440_InstrumentCommand.ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_STOP_POSITION);
+          writePartialWaveformTransferSync (settings, start, stop, encoding);
+          newInstrumentSettings = getSettingsFromInstrumentSyncAfterCommand ();
           break;
         }
         default:
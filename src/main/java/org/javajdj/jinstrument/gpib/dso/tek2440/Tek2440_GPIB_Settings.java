@@ -17,10 +17,12 @@
 package org.javajdj.jinstrument.gpib.dso.tek2440;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.javajdj.jinstrument.DefaultDigitalStorageOscilloscopeSettings;
@@ -246,7 +248,29 @@ public class Tek2440_GPIB_Settings
 
   public static Tek2440_GPIB_Settings fromSetData (final byte[] bytes)
   {
-    return parserFromSetData (bytes);
+    return parserFromSetData (bytes, null);
+  }
+  
+  /** Parses settings from {@code SET?} data, sharing structure with previous settings.
+   * 
+   * <p>
+   * If the data is identical to the data of the previous settings, the previous settings are returned.
+   * Otherwise, sub-settings (groups) whose source text is unchanged
+   * are reused from the previous settings instead of being parsed (and allocated) again.
+   * 
+   * @param bytes            The {@code SET?} data, non-{@code null}.
+   * @param previousSettings The previous settings, may be {@code null}.
+   * 
+   * @return The settings.
+   * 
+   * @throws IllegalArgumentException If the data cannot be parsed.
+   * 
+   */
+  public static Tek2440_GPIB_Settings fromSetData (final byte[] bytes, final Tek2440_GPIB_Settings previousSettings)
+  {
+    if (previousSettings != null && Arrays.equals (bytes, previousSettings.getBytes ()))
+      return previousSettings;
+    return parserFromSetData (bytes, previousSettings);
   }
   
   public static Tek2440_GPIB_Settings fromLlSetData (final byte[] bytes)
@@ -262,7 +286,7 @@ public class Tek2440_GPIB_Settings
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  private static Tek2440_GPIB_Settings parserFromSetData (final byte[] bytes)
+  private static Tek2440_GPIB_Settings parserFromSetData (final byte[] bytes, final Tek2440_GPIB_Settings previousSettings)
   {
     final String[] parts = new String (bytes, Charset.forName ("US-ASCII")).split (";");
     // Just make sure we have at least one part.
@@ -270,6 +294,8 @@ public class Tek2440_GPIB_Settings
       throw new IllegalArgumentException ();
     // See if PATh is ON.
     final boolean usePath = parts[0].trim ().toLowerCase ().startsWith ("autos");
+    // The parts of the previous settings, if available and in the same (PATh) format.
+    final String[] previousParts = getSharableParts (previousSettings, usePath);
     AutoSetupSettings autoSetupSettings = null;
     HorizontalSettings horizontalSettings = null;
     ChannelSettings ch1Settings = null;
@@ -317,181 +343,280 @@ public class Tek2440_GPIB_Settings
     MeasurementSettings measurementSettings = null;
     if (usePath)
     {
+      final Map<String, String> previousArgStrings = new HashMap<> ();
+      if (previousParts != null)
+        for (final String previousPart : previousParts)
+        {
+          final String[] previousPartParts = previousPart.trim ().split (" ", 2);
+          if (previousPartParts.length == 2)
+            previousArgStrings.put (previousPartParts[0].trim ().toLowerCase (), previousPartParts[1].trim ().toLowerCase ());
+        }
       for (final String part : parts)
       {
         final String[] partParts = part.trim ().split (" ", 2);
         final String keyString = partParts[0].trim ().toLowerCase ();
         final String argString = partParts[1].trim ().toLowerCase ();
+        final String previousArgString = previousArgStrings.get (keyString);
         switch (keyString)
         {
           case "autos":
           case "autosetup":
-            autoSetupSettings = parseAutoSetupSettings (argString);
+            autoSetupSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.autoSetupSettings,
+              Tek2440_GPIB_Settings::parseAutoSetupSettings);
             break;
           case "hor":
           case "horizontal":
-            horizontalSettings = parseHorizontalSettings (argString);
+            horizontalSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.horizontalSettings,
+              Tek2440_GPIB_Settings::parseHorizontalSettings);
             break;
           case "ch1":
-            ch1Settings = parseChannelSettings (argString, Tek2440_GPIB_Instrument.Tek2440Channel.Channel1);
+            ch1Settings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.channelSettings.get (Tek2440_GPIB_Instrument.Tek2440Channel.Channel1),
+              a -> parseChannelSettings (a, Tek2440_GPIB_Instrument.Tek2440Channel.Channel1));
             break;
           case "ch2":
-            ch2Settings = parseChannelSettings (argString, Tek2440_GPIB_Instrument.Tek2440Channel.Channel2);
+            ch2Settings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.channelSettings.get (Tek2440_GPIB_Instrument.Tek2440Channel.Channel2),
+              a -> parseChannelSettings (a, Tek2440_GPIB_Instrument.Tek2440Channel.Channel2));
             break;
           case "dat":
           case "data":
-            dataSettings = parseDataSettings (argString);
+            dataSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.dataSettings,
+              Tek2440_GPIB_Settings::parseDataSettings);
             break;
           case "vmo":
           case "vmode":
-            vModeSettings = parseVModeSettings (argString);
+            vModeSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.vModeSettings,
+              Tek2440_GPIB_Settings::parseVModeSettings);
             break;
           case "bwl":
           case "bwlimit":
-            bandwidthLimitSettings = parseBandwidthLimitSettings (argString);
+            bandwidthLimitSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.bandwidthLimitSettings,
+              Tek2440_GPIB_Settings::parseBandwidthLimitSettings);
             break;
           case "acq":
           case "acquire":
-            acquisitionSettings = parseAcquisitionSettings (argString);
+            acquisitionSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.acquisitionSettings,
+              Tek2440_GPIB_Settings::parseAcquisitionSettings);
             break;
           case "atr":
           case "atrigger":
-            aTriggerSettings = parseATriggerSettings (argString);
+            aTriggerSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.aTriggerSettings,
+              Tek2440_GPIB_Settings::parseATriggerSettings);
             break;
           case "btr":
           case "btrigger":
-            bTriggerSettings = parseBTriggerSettings (argString);
+            bTriggerSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.bTriggerSettings,
+              Tek2440_GPIB_Settings::parseBTriggerSettings);
             break;
           case "run":
-            runSettings = parseRunSettings (argString);
+            runSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.runSettings,
+              Tek2440_GPIB_Settings::parseRunSettings);
             break;
           case "dlyt":
           case "dlytime":
-            delayTimeSettings = parseDelayTimeSettings (argString);
+            delayTimeSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.delayTimeSettings,
+              Tek2440_GPIB_Settings::parseDelayTimeSettings);
             break;
           case "dlye":
           case "dlyevts":
-            delayEventsSettings = parseDelayEventsSettings (argString);
+            delayEventsSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.delayEventsSettings,
+              Tek2440_GPIB_Settings::parseDelayEventsSettings);
             break;
           case "smo":
           case "smooth":
-            smoothSettings = parseSmoothSettings (argString);
+            smoothSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.smoothSettings,
+              Tek2440_GPIB_Settings::parseSmoothSettings);
             break;
           case ("cer"):
-            commandErrorSRQSettings = parseCommandErrorSRQSettings (argString);
+            commandErrorSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.commandErrorSRQSettings,
+              Tek2440_GPIB_Settings::parseCommandErrorSRQSettings);
             break;
           case ("exr"):
-            executionErrorSRQSettings = parseExecutionErrorSRQSettings (argString);
+            executionErrorSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.executionErrorSRQSettings,
+              Tek2440_GPIB_Settings::parseExecutionErrorSRQSettings);
             break;
           case ("exw"):
-            executionWarningSRQSettings = parseExecutionWarningSRQSettings (argString);
+            executionWarningSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.executionWarningSRQSettings,
+              Tek2440_GPIB_Settings::parseExecutionWarningSRQSettings);
             break;
           case ("inr"):
-            internalErrorSRQSettings = parseInternalErrorSRQSettings (argString);
+            internalErrorSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.internalErrorSRQSettings,
+              Tek2440_GPIB_Settings::parseInternalErrorSRQSettings);
             break;
           case "lon":
           case "long":
-            longSettings = parseLongSettings (argString);
+            longSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.longSettings,
+              Tek2440_GPIB_Settings::parseLongSettings);
             break;
           case "pat":
           case "path":
-            pathSettings = parsePathSettings (argString);
+            pathSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.pathSettings,
+              Tek2440_GPIB_Settings::parsePathSettings);
             break;
           case "rqs":
-            serviceRequestSettings = parseServiceRequestSettings (argString);
+            serviceRequestSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.serviceRequestSettings,
+              Tek2440_GPIB_Settings::parseServiceRequestSettings);
             break;
           case "setw":
           case "setword":
-            wordSettings = parseWordSettings (argString);
+            wordSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.wordSettings,
+              Tek2440_GPIB_Settings::parseWordSettings);
             break;
           case "extg":
           case "extgain":
-            extGainSettings = parseExtGainSettings (argString);
+            extGainSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.extGainSettings,
+              Tek2440_GPIB_Settings::parseExtGainSettings);
             break;
           case "reff":
           case "reffrom":
-            refFromSettings = parseRefFromSettings (argString);
+            refFromSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.refFromSettings,
+              Tek2440_GPIB_Settings::parseRefFromSettings);
             break;
           case "refd":
           case "refdisp":
-            refDisplaySettings = parseRefDisplaySettings (argString);
+            refDisplaySettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.refDisplaySettings,
+              Tek2440_GPIB_Settings::parseRefDisplaySettings);
             break;
           case "refp":
           case "refpos":
-            refPositionSettings = parseRefPositionSettings (argString);
+            refPositionSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.refPositionSettings,
+              Tek2440_GPIB_Settings::parseRefPositionSettings);
             break;
           case "rea":
           case "readout":
-            readoutSettings = parseReadoutSettings (argString);
+            readoutSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.readoutSettings,
+              Tek2440_GPIB_Settings::parseReadoutSettings);
             break;
           case "deb":
           case "debug":
-            debugSettings = parseDebugSettings (argString);
+            debugSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.debugSettings,
+              Tek2440_GPIB_Settings::parseDebugSettings);
             break;
           case "devd":
           case "devdep":
-            deviceDependentSRQSettings = parseDeviceDependentSRQSettings (argString);
+            deviceDependentSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.deviceDependentSRQSettings,
+              Tek2440_GPIB_Settings::parseDeviceDependentSRQSettings);
             break;
           case "opc":
-            commandCompletionSRQSettings = parseCommandCompletionSRQSettings (argString);
+            commandCompletionSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.commandCompletionSRQSettings,
+              Tek2440_GPIB_Settings::parseCommandCompletionSRQSettings);
             break;
           case "pid":
-            probeIdentifyButtonSRQSettings = parseProbeIdentifyButtonSRQSettings (argString);
+            probeIdentifyButtonSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.probeIdentifyButtonSRQSettings,
+              Tek2440_GPIB_Settings::parseProbeIdentifyButtonSRQSettings);
             break;
           case "dir":
           case "direction":
-            directionSettings = parseDirectionSettings (argString);
+            directionSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.directionSettings,
+              Tek2440_GPIB_Settings::parseDirectionSettings);
             break;
           case "dt":
-            groupTriggerSRQSettings = parseGroupTriggerSRQSettings (argString);
+            groupTriggerSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.groupTriggerSRQSettings,
+              Tek2440_GPIB_Settings::parseGroupTriggerSRQSettings);
             break;
           case "form":
           case "format":
-            formatSettings = parseFormatSettings (argString);
+            formatSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.formatSettings,
+              Tek2440_GPIB_Settings::parseFormatSettings);
             break;
           case "hys":
           case "hysteresis":
-            hysteresisSettings = parseHysteresisSettings (argString);
+            hysteresisSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.hysteresisSettings,
+              Tek2440_GPIB_Settings::parseHysteresisSettings);
             break;
           case "lev":
           case "level":
-            levelSettings = parseLevelSettings (argString);
+            levelSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.levelSettings,
+              Tek2440_GPIB_Settings::parseLevelSettings);
             break;
           case "loc":
           case "lock":
-            lockSettings = parseLockSettings (argString);
+            lockSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.lockSettings,
+              Tek2440_GPIB_Settings::parseLockSettings);
             break;
           case "setu":
           case "setup":
-            setupSettings = parseSetupSettings (argString);
+            setupSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.setupSettings,
+              Tek2440_GPIB_Settings::parseSetupSettings);
             break;
           case "star":
           case "start":
-            startSettings = parseStartSettings (argString);
+            startSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.startSettings,
+              Tek2440_GPIB_Settings::parseStartSettings);
             break;
           case "sto":
           case "stop":
-            stopSettings = parseStopSettings (argString);
+            stopSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.stopSettings,
+              Tek2440_GPIB_Settings::parseStopSettings);
             break;
           case "use":
           case "user":
-            userButtonSRQSettings = parseUserButtonSRQSettings (argString);
+            userButtonSRQSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.userButtonSRQSettings,
+              Tek2440_GPIB_Settings::parseUserButtonSRQSettings);
             break;
           case "intensi":
           case "intensity":
-            intensitySettings = parseIntensitySettings (argString);
+            intensitySettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.intensitySettings,
+              Tek2440_GPIB_Settings::parseIntensitySettings);
             break;
           case "devi":
           case "device":
-            printDeviceSettings = parsePrintDeviceSettings (argString);
+            printDeviceSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.printDeviceSettings,
+              Tek2440_GPIB_Settings::parsePrintDeviceSettings);
             break;
           case "curs":
           case "cursor":
-            cursorSettings = parseCursorSettings (argString);
+            cursorSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.cursorSettings,
+              Tek2440_GPIB_Settings::parseCursorSettings);
             break;
           case "meas":
           case "measurement":
-            measurementSettings = parseMeasurementSettings (argString);
+            measurementSettings = shareOrParse (argString, previousArgString, previousSettings,
+              ps -> ps.measurementSettings,
+              Tek2440_GPIB_Settings::parseMeasurementSettings);
             break;
           default:
             LOG.log (Level.SEVERE, "Found unknown key ''{0}'' in part ''{1}''!",
@@ -509,51 +634,141 @@ public class Tek2440_GPIB_Settings
           parts.length);
         throw new IllegalArgumentException ();
       }
-      autoSetupSettings = parseAutoSetupSettingsNoPath (parts[0].trim ().toLowerCase ().split (","));
-      ch1Settings = parseChannelSettingsNoPath (parts[1].trim ().toLowerCase ().split (","));
-      ch2Settings = parseChannelSettingsNoPath (parts[2].trim ().toLowerCase ().split (","));
-      vModeSettings = parseVModeSettingsNoPath (parts[3].trim ().toLowerCase ().split (","));
-      aTriggerSettings = parseATriggerSettingsNoPath (parts[4].trim ().toLowerCase ().split (","));
-      acquisitionSettings = parseAcquisitionSettingsNoPath (parts[5].trim ().toLowerCase ().split (","));
-      delayTimeSettings = parseDelayTimeSettingsNoPath (parts[6].trim ().toLowerCase ().split (","));
-      cursorSettings = parseCursorSettingsNoPath (parts[7].trim ().toLowerCase ().split (","));
-      runSettings = parseRunsSettingsNoPath (parts[8].trim ().toLowerCase ().split (","));
-      bTriggerSettings = parseBTriggerSettingsNoPath (parts[9].trim ().toLowerCase ().split (","));
-      horizontalSettings = parseHorizontalSettingsNoPath (parts[10].trim ().toLowerCase ().split (","));
-      wordSettings = parseWordSettingsNoPath (parts[11].trim ().toLowerCase ().split (","));
-      extGainSettings = parseExtGainSettingsNoPath (parts[12].trim ().toLowerCase ().split (","));
-      refFromSettings = parseRefFromSettingsNoPath (parts[13].trim ().toLowerCase ().split (","));
-      refDisplaySettings = parseRefDisplaySettingsNoPath (parts[14].trim ().toLowerCase ().split (","));
-      bandwidthLimitSettings = parseBandwidthLimitSettingsNoPath (parts[15].trim ().toLowerCase ().split (","));
-      delayEventsSettings = parseDelayEventsSettingsNoPath (parts[16].trim ().toLowerCase ().split (","));
-      intensitySettings = parseIntensitySettingsNoPath (parts[17].trim ().toLowerCase ().split (","));
-      measurementSettings = parseMeasurementSettingsNoPath (parts[18].trim ().toLowerCase ().split (","));
-      printDeviceSettings = parsePrintDeviceSettingsNoPath (parts[19].trim ().toLowerCase ().split (","));
-      readoutSettings = parseReadoutSettingsNoPath (parts[20].trim ().toLowerCase ().split (","));
-      refPositionSettings = parseRefPositionSettingsNoPath (parts[21].trim ().toLowerCase ().split (","));
-      smoothSettings = parseSmoothSettingsNoPath (parts[22].trim ().toLowerCase ().split (","));
-      commandErrorSRQSettings = parseCommandErrorSRQSettingsNoPath (parts[23].trim ().toLowerCase ().split (","));
-      dataSettings = parseDataSettingsNoPath (parts[24].trim ().toLowerCase ().split (","));
-      debugSettings = parseDebugSettingsNoPath (parts[25].trim ().toLowerCase ().split (","));
-      deviceDependentSRQSettings = parseDeviceDependentSRQSettingsNoPath (parts[26].trim ().toLowerCase ().split (","));
-      directionSettings = parseDirectionSettingsNoPath (parts[27].trim ().toLowerCase ().split (","));
-      groupTriggerSRQSettings = parseGroupTriggerSRQSettingsNoPath (parts[28].trim ().toLowerCase ().split (","));
-      executionErrorSRQSettings = parseExecutionErrorSRQSettingsNoPath (parts[29].trim ().toLowerCase ().split (","));
-      executionWarningSRQSettings = parseExecutionWarningSRQSettingsNoPath (parts[30].trim ().toLowerCase ().split (","));
-      formatSettings = parseFormatSettingsNoPath (parts[31].trim ().toLowerCase ().split (","));
-      hysteresisSettings = parseHysteresisSettingsNoPath (parts[32].trim ().toLowerCase ().split (","));
-      internalErrorSRQSettings = parseInternalErrorSRQSettingsNoPath (parts[33].trim ().toLowerCase ().split (","));
-      levelSettings = parseLevelSettingsNoPath (parts[34].trim ().toLowerCase ().split (","));
-      lockSettings = parseLockSettingsNoPath (parts[35].trim ().toLowerCase ().split (","));
-      longSettings = parseLongSettingsNoPath (parts[36].trim ().toLowerCase ().split (","));
-      commandCompletionSRQSettings = parseCommandCompletionSRQSettingsNoPath (parts[37].trim ().toLowerCase ().split (","));
-      pathSettings = parsePathSettingsNoPath (parts[38].trim ().toLowerCase ().split (","));
-      probeIdentifyButtonSRQSettings = parseProbeIdentifyButtonSRQSettingsNoPath (parts[39].trim ().toLowerCase ().split (","));
-      serviceRequestSettings = parseServiceRequestSettingsNoPath (parts[40].trim ().toLowerCase ().split (","));
-      setupSettings = parseSetupSettingsNoPath (parts[41].trim ().toLowerCase ().split (","));
-      startSettings = parseStartSettingsNoPath (parts[42].trim ().toLowerCase ().split (","));
-      stopSettings = parseStopSettingsNoPath (parts[43].trim ().toLowerCase ().split (","));
-      userButtonSRQSettings = parseUserButtonSRQSettingsNoPath (parts[44].trim ().toLowerCase ().split (","));
+      autoSetupSettings = shareOrParseNoPath (parts, previousParts, 0, previousSettings,
+        ps -> ps.autoSetupSettings,
+        Tek2440_GPIB_Settings::parseAutoSetupSettingsNoPath);
+      ch1Settings = shareOrParseNoPath (parts, previousParts, 1, previousSettings,
+        ps -> ps.channelSettings.get (Tek2440_GPIB_Instrument.Tek2440Channel.Channel1),
+        Tek2440_GPIB_Settings::parseChannelSettingsNoPath);
+      ch2Settings = shareOrParseNoPath (parts, previousParts, 2, previousSettings,
+        ps -> ps.channelSettings.get (Tek2440_GPIB_Instrument.Tek2440Channel.Channel2),
+        Tek2440_GPIB_Settings::parseChannelSettingsNoPath);
+      vModeSettings = shareOrParseNoPath (parts, previousParts, 3, previousSettings,
+        ps -> ps.vModeSettings,
+        Tek2440_GPIB_Settings::parseVModeSettingsNoPath);
+      aTriggerSettings = shareOrParseNoPath (parts, previousParts, 4, previousSettings,
+        ps -> ps.aTriggerSettings,
+        Tek2440_GPIB_Settings::parseATriggerSettingsNoPath);
+      acquisitionSettings = shareOrParseNoPath (parts, previousParts, 5, previousSettings,
+        ps -> ps.acquisitionSettings,
+        Tek2440_GPIB_Settings::parseAcquisitionSettingsNoPath);
+      delayTimeSettings = shareOrParseNoPath (parts, previousParts, 6, previousSettings,
+        ps -> ps.delayTimeSettings,
+        Tek2440_GPIB_Settings::parseDelayTimeSettingsNoPath);
+      cursorSettings = shareOrParseNoPath (parts, previousParts, 7, previousSettings,
+        ps -> ps.cursorSettings,
+        Tek2440_GPIB_Settings::parseCursorSettingsNoPath);
+      runSettings = shareOrParseNoPath (parts, previousParts, 8, previousSettings,
+        ps -> ps.runSettings,
+        Tek2440_GPIB_Settings::parseRunsSettingsNoPath);
+      bTriggerSettings = shareOrParseNoPath (parts, previousParts, 9, previousSettings,
+        ps -> ps.bTriggerSettings,
+        Tek2440_GPIB_Settings::parseBTriggerSettingsNoPath);
+      horizontalSettings = shareOrParseNoPath (parts, previousParts, 10, previousSettings,
+        ps -> ps.horizontalSettings,
+        Tek2440_GPIB_Settings::parseHorizontalSettingsNoPath);
+      wordSettings = shareOrParseNoPath (parts, previousParts, 11, previousSettings,
+        ps -> ps.wordSettings,
+        Tek2440_GPIB_Settings::parseWordSettingsNoPath);
+      extGainSettings = shareOrParseNoPath (parts, previousParts, 12, previousSettings,
+        ps -> ps.extGainSettings,
+        Tek2440_GPIB_Settings::parseExtGainSettingsNoPath);
+      refFromSettings = shareOrParseNoPath (parts, previousParts, 13, previousSettings,
+        ps -> ps.refFromSettings,
+        Tek2440_GPIB_Settings::parseRefFromSettingsNoPath);
+      refDisplaySettings = shareOrParseNoPath (parts, previousParts, 14, previousSettings,
+        ps -> ps.refDisplaySettings,
+        Tek2440_GPIB_Settings::parseRefDisplaySettingsNoPath);
+      bandwidthLimitSettings = shareOrParseNoPath (parts, previousParts, 15, previousSettings,
+        ps -> ps.bandwidthLimitSettings,
+        Tek2440_GPIB_Settings::parseBandwidthLimitSettingsNoPath);
+      delayEventsSettings = shareOrParseNoPath (parts, previousParts, 16, previousSettings,
+        ps -> ps.delayEventsSettings,
+        Tek2440_GPIB_Settings::parseDelayEventsSettingsNoPath);
+      intensitySettings = shareOrParseNoPath (parts, previousParts, 17, previousSettings,
+        ps -> ps.intensitySettings,
+        Tek2440_GPIB_Settings::parseIntensitySettingsNoPath);
+      measurementSettings = shareOrParseNoPath (parts, previousParts, 18, previousSettings,
+        ps -> ps.measurementSettings,
+        Tek2440_GPIB_Settings::parseMeasurementSettingsNoPath);
+      printDeviceSettings = shareOrParseNoPath (parts, previousParts, 19, previousSettings,
+        ps -> ps.printDeviceSettings,
+        Tek2440_GPIB_Settings::parsePrintDeviceSettingsNoPath);
+      readoutSettings = shareOrParseNoPath (parts, previousParts, 20, previousSettings,
+        ps -> ps.readoutSettings,
+        Tek2440_GPIB_Settings::parseReadoutSettingsNoPath);
+      refPositionSettings = shareOrParseNoPath (parts, previousParts, 21, previousSettings,
+        ps -> ps.refPositionSettings,
+        Tek2440_GPIB_Settings::parseRefPositionSettingsNoPath);
+      smoothSettings = shareOrParseNoPath (parts, previousParts, 22, previousSettings,
+        ps -> ps.smoothSettings,
+        Tek2440_GPIB_Settings::parseSmoothSettingsNoPath);
+      commandErrorSRQSettings = shareOrParseNoPath (parts, previousParts, 23, previousSettings,
+        ps -> ps.commandErrorSRQSettings,
+        Tek2440_GPIB_Settings::parseCommandErrorSRQSettingsNoPath);
+      dataSettings = shareOrParseNoPath (parts, previousParts, 24, previousSettings,
+        ps -> ps.dataSettings,
+        Tek2440_GPIB_Settings::parseDataSettingsNoPath);
+      debugSettings = shareOrParseNoPath (parts, previousParts, 25, previousSettings,
+        ps -> ps.debugSettings,
+        Tek2440_GPIB_Settings::parseDebugSettingsNoPath);
+      deviceDependentSRQSettings = shareOrParseNoPath (parts, previousParts, 26, previousSettings,
+        ps -> ps.deviceDependentSRQSettings,
+        Tek2440_GPIB_Settings::parseDeviceDependentSRQSettingsNoPath);
+      directionSettings = shareOrParseNoPath (parts, previousParts, 27, previousSettings,
+        ps -> ps.directionSettings,
+        Tek2440_GPIB_Settings::parseDirectionSettingsNoPath);
+      groupTriggerSRQSettings = shareOrParseNoPath (parts, previousParts, 28, previousSettings,
+        ps -> ps.groupTriggerSRQSettings,
+        Tek2440_GPIB_Settings::parseGroupTriggerSRQSettingsNoPath);
+      executionErrorSRQSettings = shareOrParseNoPath (parts, previousParts, 29, previousSettings,
+        ps -> ps.executionErrorSRQSettings,
+        Tek2440_GPIB_Settings::parseExecutionErrorSRQSettingsNoPath);
+      executionWarningSRQSettings = shareOrParseNoPath (parts, previousParts, 30, previousSettings,
+        ps -> ps.executionWarningSRQSettings,
+        Tek2440_GPIB_Settings::parseExecutionWarningSRQSettingsNoPath);
+      formatSettings = shareOrParseNoPath (parts, previousParts, 31, previousSettings,
+        ps -> ps.formatSettings,
+        Tek2440_GPIB_Settings::parseFormatSettingsNoPath);
+      hysteresisSettings = shareOrParseNoPath (parts, previousParts, 32, previousSettings,
+        ps -> ps.hysteresisSettings,
+        Tek2440_GPIB_Settings::parseHysteresisSettingsNoPath);
+      internalErrorSRQSettings = shareOrParseNoPath (parts, previousParts, 33, previousSettings,
+        ps -> ps.internalErrorSRQSettings,
+        Tek2440_GPIB_Settings::parseInternalErrorSRQSettingsNoPath);
+      levelSettings = shareOrParseNoPath (parts, previousParts, 34, previousSettings,
+        ps -> ps.levelSettings,
+        Tek2440_GPIB_Settings::parseLevelSettingsNoPath);
+      lockSettings = shareOrParseNoPath (parts, previousParts, 35, previousSettings,
+        ps -> ps.lockSettings,
+        Tek2440_GPIB_Settings::parseLockSettingsNoPath);
+      longSettings = shareOrParseNoPath (parts, previousParts, 36, previousSettings,
+        ps -> ps.longSettings,
+        Tek2440_GPIB_Settings::parseLongSettingsNoPath);
+      commandCompletionSRQSettings = shareOrParseNoPath (parts, previousParts, 37, previousSettings,
+        ps -> ps.commandCompletionSRQSettings,
+        Tek2440_GPIB_Settings::parseCommandCompletionSRQSettingsNoPath);
+      pathSettings = shareOrParseNoPath (parts, previousParts, 38, previousSettings,
+        ps -> ps.pathSettings,
+        Tek2440_GPIB_Settings::parsePathSettingsNoPath);
+      probeIdentifyButtonSRQSettings = shareOrParseNoPath (parts, previousParts, 39, previousSettings,
+        ps -> ps.probeIdentifyButtonSRQSettings,
+        Tek2440_GPIB_Settings::parseProbeIdentifyButtonSRQSettingsNoPath);
+      serviceRequestSettings = shareOrParseNoPath (parts, previousParts, 40, previousSettings,
+        ps -> ps.serviceRequestSettings,
+        Tek2440_GPIB_Settings::parseServiceRequestSettingsNoPath);
+      setupSettings = shareOrParseNoPath (parts, previousParts, 41, previousSettings,
+        ps -> ps.setupSettings,
+        Tek2440_GPIB_Settings::parseSetupSettingsNoPath);
+      startSettings = shareOrParseNoPath (parts, previousParts, 42, previousSettings,
+        ps -> ps.startSettings,
+        Tek2440_GPIB_Settings::parseStartSettingsNoPath);
+      stopSettings = shareOrParseNoPath (parts, previousParts, 43, previousSettings,
+        ps -> ps.stopSettings,
+        Tek2440_GPIB_Settings::parseStopSettingsNoPath);
+      userButtonSRQSettings = shareOrParseNoPath (parts, previousParts, 44, previousSettings,
+        ps -> ps.userButtonSRQSettings,
+        Tek2440_GPIB_Settings::parseUserButtonSRQSettingsNoPath);
     }
     return new Tek2440_GPIB_Settings (
       bytes,
@@ -605,6 +820,53 @@ public class Tek2440_GPIB_Settings
       measurementSettings);
   }
   
+  private static String[] getSharableParts (final Tek2440_GPIB_Settings previousSettings, final boolean usePath)
+  {
+    if (previousSettings == null || previousSettings.getBytes () == null)
+      return null;
+    final String[] previousParts = new String (previousSettings.getBytes (), Charset.forName ("US-ASCII")).split (";");
+    if (previousParts.length == 0
+      || previousParts[0].trim ().toLowerCase ().startsWith ("autos") != usePath)
+      return null;
+    return previousParts;
+  }
+  
+  private static <S> S shareOrParse (
+    final String argString,
+    final String previousArgString,
+    final Tek2440_GPIB_Settings previousSettings,
+    final Function<Tek2440_GPIB_Settings, S> previousSubSettingsGetter,
+    final Function<String, S> parser)
+  {
+    if (previousArgString != null && previousArgString.equals (argString))
+    {
+      final S previousSubSettings = previousSubSettingsGetter.apply (previousSettings);
+      if (previousSubSettings != null)
+        return previousSubSettings;
+    }
+    return parser.apply (argString);
+  }
+  
+  private static <S> S shareOrParseNoPath (
+    final String[] parts,
+    final String[] previousParts,
+    final int index,
+    final Tek2440_GPIB_Settings previousSettings,
+    final Function<Tek2440_GPIB_Settings, S> previousSubSettingsGetter,
+    final Function<String[], S> parser)
+  {
+    final String part = parts[index].trim ().toLowerCase ();
+    if (previousParts != null
+      && previousParts.length == parts.length
+      && part.equals (previousParts[index].trim ().toLowerCase ()))
+    {
+      final S previousSubSettings = previousSubSettingsGetter.apply (previousSettings);
+      if (previousSubSettings != null)
+        return previousSubSettings;
+    }
+    return parser.apply (part.split (","));
+  }
+  
   private static boolean parseOnOff (final String argString)
   {
     switch (argString)
@@ -45,6 +45,14 @@ public class Tek2440_GPIB_Trace
   public final static int TEK_2440_SAMPLE_LENGTH = 1024;
   
   /** Creates the trace from data received in response to a "CURVE?" command.
+   * 
+   * <p>
+   * With the partial encodings ({@link Tek2440_GPIB_Settings.DataEncoding#RPPartial}
+   * and {@link Tek2440_GPIB_Settings.DataEncoding#RIPartial}),
+   * the data only holds the samples between the waveform-analysis start and stop positions (inclusive),
+   * and the sample at index zero in the trace is the sample at the start position in the full waveform.
+   * The N and X hints are corrected for this offset,
+   * so that the trace is shown at the same (display) position as a full waveform.
    * 
    * @param settings The current instrument settings.
    * @param channel  The channel to which the curve data applies; overrides the applicable data in {@code settings}.
@@ -80,13 +88,48 @@ public class Tek2440_GPIB_Trace
   
   private final static int HEADER_SAMPLE_LENGTH = 10;
   
-  private static double[] toSamples (
-    final Tek2440_GPIB_Settings settings,
-    final Tek2440_GPIB_Settings.DataSource channel,
-    final byte[] bytes)
+  /** Returns whether given encoding is a partial-waveform encoding.
+   * 
+   * @param encoding The encoding, non-{@code null}.
+   * 
+   * @return Whether given encoding is a partial-waveform encoding.
+   * 
+   */
+  public static boolean isPartialEncoding (final Tek2440_GPIB_Settings.DataEncoding encoding)
   {
-    if (settings == null || channel == null || bytes == null)
+    if (encoding == null)
+      throw new IllegalArgumentException ();
+    return encoding == Tek2440_GPIB_Settings.DataEncoding.RPPartial
+      || encoding == Tek2440_GPIB_Settings.DataEncoding.RIPartial;
+  }
+  
+  /** Returns the index in the full waveform of the first sample transferred under given settings.
+   * 
+   * <p>
+   * This is zero for full-waveform transfers, and the (zero-based) waveform-analysis start position
+   * for partial-waveform transfers.
+   * 
+   * @param settings The settings, non-{@code null}.
+   * 
+   * @return The index in the full waveform of the first sample transferred, between zero (inclusive)
+   *         and {@link #TEK_2440_SAMPLE_LENGTH} (exclusive).
+   * 
+   */
+  public static int getFirstSampleIndex (final Tek2440_GPIB_Settings settings)
+  {
+    if (settings == null)
       throw new IllegalArgumentException ();
+    if (! isPartialEncoding (settings.getDataEncoding ()))
+      return 0;
+    // The instrument's positions are one-based.
+    return Math.min (settings.getWaveformAnalysisStart (), settings.getWaveformAnalysisStop ()) - 1;
+  }
+  
+  /** Returns the offset of the length encoding of the binary block in the data, i.e., just past the percent sign.
+   * 
+   */
+  private static int toPastPercentSign (final byte[] bytes)
+  {
     if (bytes.length < HEADER_SAMPLE_LENGTH) // For now; we need a header sample to be more accurate.
       throw new IllegalArgumentException ();
     final String headerSample =
@@ -100,32 +143,66 @@ public class Tek2440_GPIB_Trace
       pastPercentSign = 1; // "%".length ();
     else
       throw new IllegalArgumentException ();
-    if (bytes.length < TEK_2440_SAMPLE_LENGTH + pastPercentSign + 2 /* length encoding */ + 1 /* checksum */)
+    return pastPercentSign;
+  }
+  
+  /** Returns the number of samples in the data, after checking it against the encoding in the settings.
+   * 
+   */
+  private static int toNumberOfSamples (
+    final Tek2440_GPIB_Settings settings,
+    final byte[] bytes)
+  {
+    final int pastPercentSign = toPastPercentSign (bytes);
+    if (bytes.length < pastPercentSign + 2 /* length encoding */)
       throw new IllegalArgumentException ();
-    if (! (bytes[pastPercentSign] == 0x04 && bytes[pastPercentSign + 1] == 0x01))
+    // The length encoding includes the checksum.
+    final int length = ((bytes[pastPercentSign] & 0xff) << 8) | (bytes[pastPercentSign + 1] & 0xff);
+    final int numberOfSamples = length - 1;
+    if (isPartialEncoding (settings.getDataEncoding ()))
+    {
+      if (numberOfSamples < 1 || numberOfSamples > TEK_2440_SAMPLE_LENGTH - getFirstSampleIndex (settings))
+        throw new IllegalArgumentException ();
+    }
+    else if (numberOfSamples != TEK_2440_SAMPLE_LENGTH)
       throw new IllegalArgumentException ();
-    final int header = pastPercentSign + 2;
-    return toSamples (settings, channel, bytes, header);
+    if (bytes.length < numberOfSamples + pastPercentSign + 2 /* length encoding */ + 1 /* checksum */)
+      throw new IllegalArgumentException ();
+    return numberOfSamples;
+  }
+  
+  private static double[] toSamples (
+    final Tek2440_GPIB_Settings settings,
+    final Tek2440_GPIB_Settings.DataSource channel,
+    final byte[] bytes)
+  {
+    if (settings == null || channel == null || bytes == null)
+      throw new IllegalArgumentException ();
+    final int numberOfSamples = toNumberOfSamples (settings, bytes);
+    final int header = toPastPercentSign (bytes) + 2;
+    return toSamples (settings, channel, bytes, header, numberOfSamples);
   }
 
   private static double[] toSamples (
     final Tek2440_GPIB_Settings settings,
     final Tek2440_GPIB_Settings.DataSource channel,
     final byte[] bytes,
-    final int header)
+    final int header,
+    final int numberOfSamples)
   {
     if (settings == null || channel == null || bytes == null)
       throw new IllegalArgumentException ();
-    final double[] samples = new double[TEK_2440_SAMPLE_LENGTH];
+    final double[] samples = new double[numberOfSamples];
     final Tek2440_GPIB_Settings.VoltsPerDivision voltsPerDiv = settings.getVoltsPerDivision (channel);
     final double voltsPerDiv_V = voltsPerDiv.getVoltsPerDivision_V ();
-    for (int i=0; i < TEK_2440_SAMPLE_LENGTH; i++)
+    for (int i=0; i < numberOfSamples; i++)
       switch (settings.getDataEncoding ())
       {
         case ASCII:
           // XXX
           throw new UnsupportedOperationException ();
         case RPBinary:
+        case RPPartial:
         {
           // Resolution: 1/25th of a division.
           // Implementation tested and proved correctly 20201215.
@@ -134,6 +211,7 @@ public class Tek2440_GPIB_Trace
           break;
         }
         case RIBinary:
+        case RIPartial:
         {
           // Resolution: 1/25th of a division.
           // Implementation tested and proved correctly 20201215.
@@ -141,12 +219,6 @@ public class Tek2440_GPIB_Trace
           samples[i] = voltsPerDiv_V * bytes[header + i] / YLevelsPerDiv;
           break;
         }
-        case RPPartial:
-          // XXX
-          throw new UnsupportedOperationException ();
-        case RIPartial:
-          // XXX
-          throw new UnsupportedOperationException ();
         default:
           throw new RuntimeException ();
       }
@@ -167,7 +239,9 @@ public class Tek2440_GPIB_Trace
     final double n_c = settings.getHorizontalPosition ();
     // The number of samples per display (as a double).
     final double Nd = Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_DISPLAY;
-    final double n_min = n_c - Nd / 2;
+    // The index in the full waveform of the first sample in the trace data (non-zero for partial transfers).
+    final double n_0 = getFirstSampleIndex (settings);
+    final double n_min = n_c - Nd / 2 - n_0;
     return n_min;
   }
   
@@ -185,7 +259,9 @@ public class Tek2440_GPIB_Trace
     final double n_c = settings.getHorizontalPosition ();
     // The number of samples per display (as a double).
     final double Nd = Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_DISPLAY;
-    final double n_max = n_c + Nd / 2;
+    // The index in the full waveform of the first sample in the trace data (non-zero for partial transfers).
+    final double n_0 = getFirstSampleIndex (settings);
+    final double n_max = n_c + Nd / 2 - n_0;
     return n_max;
   }
   
@@ -203,10 +279,14 @@ public class Tek2440_GPIB_Trace
     // The "index" in the trace data that is centered on the display of the Tek-2440 (and, by default, on our own display).
     // This index is made to correspond to zero in the (returned) X range.
     final double n_c = settings.getHorizontalPosition ();
+    // The index in the full waveform of the first sample in the trace data (non-zero for partial transfers).
+    final double n_0 = getFirstSampleIndex (settings);
+    // The number of samples in the trace data (less than N for partial transfers).
+    final double L = toNumberOfSamples (settings, bytes);
     // The relative ([-1, 1]) X position of the minimum (first) index value of the trace data.
-    final double minX_rel = - n_c / N;
+    final double minX_rel = (n_0 - n_c) / N;
     // The relative ([-1, 1]) X position of the maximum (last) index value of the trace data.
-    final double maxX_rel = (N - n_c) / N;
+    final double maxX_rel = (n_0 + L - n_c) / N;
     switch (channel)
     {
       case Ch1:
@@ -258,10 +338,14 @@ public class Tek2440_GPIB_Trace
     // The "index" in the trace data that is centered on the display of the Tek-2440 (and, by default, on our own display).
     // This index is made to correspond to zero in the (returned) X range.
     final double n_c = settings.getHorizontalPosition ();
+    // The index in the full waveform of the first sample in the trace data (non-zero for partial transfers).
+    final double n_0 = getFirstSampleIndex (settings);
+    // The number of samples in the trace data (less than N for partial transfers).
+    final double L = toNumberOfSamples (settings, bytes);
     // The relative ([-1, 1]) X position of the minimum (first) index value of the trace data.
-    final double minX_rel = - n_c / N;
+    final double minX_rel = (n_0 - n_c) / N;
     // The relative ([-1, 1]) X position of the maximum (last) index value of the trace data.
-    final double maxX_rel = (N - n_c) / N;
+    final double maxX_rel = (n_0 + L - n_c) / N;
     switch (channel)
     {
       case Ch1:
@@ -460,4 +460,9 @@ public interface Tek2440_InstrumentCommand
   public final static String IC_TEK2440_DATA_TARGET = "commandTek2440DataTarget";
   public final static String ICARG_TEK2440_DATA_TARGET = "tek2440DataTarget";
   
+  public final static String IC_TEK2440_PARTIAL_WAVEFORM_TRANSFER = "commandTek2440PartialWaveformTransfer";
+  public final static String ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_START_POSITION = "tek2440PartialWaveformTransferStart";
+  public final static String ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_STOP_POSITION = "tek2440PartialWaveformTransferStop";
+  public final static String ICARG_TEK2440_PARTIAL_WAVEFORM_TRANSFER_ENCODING = "tek2440PartialWaveformTransferEncoding";
+  
 }
@@ -17,7 +17,6 @@
 package org.javajdj.jinstrument.gpib.fg.hp3325b;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,6 +24,8 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.javajdj.jinstrument.controller.gpib.GpibDevice;
@@ -81,6 +82,17 @@ public class HP3325B_GPIB_Instrument
       false,      // addHousekeepingServices
       false);     // addServiceRequestPollingServices
     resetOptimizeSettingsUpdates ();
+    // Continuous (slider/knob) settings; a newer value replaces a pending one.
+    registerConflatableCommand (InstrumentCommand.IC_LF_FREQUENCY);
+    registerConflatableCommand (InstrumentCommand.IC_AMPLITUDE);
+    registerConflatableCommand (InstrumentCommand.IC_DC_OFFSET);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_MARKER_FREQUENCY);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_PHASE);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_SWEEP_START_FREQUENCY);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_SWEEP_STOP_FREQUENCY);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_SWEEP_TIME);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_MODULATION_SOURCE_FREQUENCY);
+    registerConflatableCommand (HP3325B_InstrumentCommand.IC_HP3325B_MODULATION_SOURCE_AMPLITUDE);
   }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -219,6 +231,9 @@ public class HP3325B_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     
+    // The base for write-through settings at the start of the read; see below.
+    final HP3325B_GPIB_Settings lastSettings = this.lastSettings.get ();
+    
     // FunctionGenerator
     
     final Waveform waveform = getSettingsFromInstrumentSync_Waveform ();
@@ -254,7 +269,7 @@ public class HP3325B_GPIB_Instrument
     final double sweepStartFrequency_Hz = getSettingsFromInstrumentSync_SweepStartFrequency_Hz ();
     final double sweepTime_s = getSettingsFromInstrumentSync_SweepTime_s ();
     
-    return new HP3325B_GPIB_Settings (
+    final HP3325B_GPIB_Settings settings = new HP3325B_GPIB_Settings (
       waveform,
       frequency_Hz,
       amplitude_Vpp,
@@ -282,12 +297,17 @@ public class HP3325B_GPIB_Instrument
       sweepStopFrequency_Hz,
       sweepStartFrequency_Hz,
       sweepTime_s);
+    // A full read resets the base for write-through settings,
+    // unless (on the command processor) a setter changed the base while we were reading (on the settings collector);
+    // in that case, the read may not reflect that setter.
+    this.lastSettings.compareAndSet (lastSettings, settings);
+    return settings;
   }
  
   private double getSettingsFromInstrumentSync_Double (final String property, final String unitString)
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryString = new String (writeAndReadEOISync (property + "?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryString = writeAndReadEOITextSync (property + "?\n").trim ();
     if (queryString.startsWith (property) && ! queryString.endsWith (unitString))
       throw new IOException ();
     if ((! queryString.startsWith (property)) && queryString.endsWith (unitString))
@@ -312,7 +332,7 @@ public class HP3325B_GPIB_Instrument
   private Waveform getSettingsFromInstrumentSync_Waveform ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String fuString = new String (writeAndReadEOISync ("FU?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String fuString = writeAndReadEOITextSync ("FU?\n").trim ();
     if (! fuString.startsWith ("FU"))
     {
       LOG.log (Level.WARNING, "Unexpected settings reading (prefix FU) from Instrument {0}: {1}!",
@@ -351,7 +371,7 @@ public class HP3325B_GPIB_Instrument
   private double getSettingsFromInstrumentSync_Amplitude_Vpp (final Waveform waveform)
     throws IOException, InterruptedException, TimeoutException
   {
-    final String amString = new String (writeAndReadEOISync ("AM?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String amString = writeAndReadEOITextSync ("AM?\n").trim ();
     // Initial sanity checks.
     if (! amString.startsWith ("AM"))
     {
@@ -397,7 +417,7 @@ public class HP3325B_GPIB_Instrument
   private double getSettingsFromInstrumentSync_DCOffset_V ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String ofString = new String (writeAndReadEOISync ("OF?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String ofString = writeAndReadEOITextSync ("OF?\n").trim ();
     // Initial sanity checks.
     if (! ofString.startsWith ("OF"))
     {
@@ -439,7 +459,7 @@ public class HP3325B_GPIB_Instrument
   private boolean getSettingsFromInstrumentSync_Boolean (final String property)
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync (property + "?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync (property + "?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != property.length () + 1 && queryReturn.length () != 1)
       || (queryReturn.length () == property.length () + 1 && ! queryReturn.startsWith (property)))
@@ -457,7 +477,7 @@ public class HP3325B_GPIB_Instrument
   private int getSettingsFromInstrumentSync_Integer1 (final String property)
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync (property + "?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync (property + "?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != property.length () + 1 && queryReturn.length () != 1)
       || (queryReturn.length () == property.length () + 1 && ! queryReturn.startsWith (property)))
@@ -476,7 +496,7 @@ public class HP3325B_GPIB_Instrument
   private int getSettingsFromInstrumentSync_Integer3 (final String property)
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync (property + "?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync (property + "?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != property.length () + 3 && queryReturn.length () != 3)
       || (queryReturn.length () == property.length () + 3 && ! queryReturn.startsWith (property)))
@@ -513,7 +533,7 @@ public class HP3325B_GPIB_Instrument
   private EnumSet<HP3325B_GPIB_Settings.ServiceRequestEnableMaskBit> getSettingsFromInstrumentSync_ServiceRequestEnableMask ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("ESTB?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("ESTB?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != 10 && queryReturn.length () != 3)
       // XXX Are there always three digits between ESTB and ENT?
@@ -558,7 +578,7 @@ public class HP3325B_GPIB_Instrument
   private boolean getSettingsFromInstrumentSync_HighVoltageOutput ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("HV?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("HV?\n").trim ();
     // XXX We do not support HEADER less operation here!
     switch (queryReturn)
     {
@@ -580,7 +600,7 @@ public class HP3325B_GPIB_Instrument
   private String getSettingsFromInstrumentSync_Id ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("ID?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("ID?\n").trim ();
     if (queryReturn == null || queryReturn.length () == 0)
       throw new IOException ();
     return queryReturn;
@@ -629,7 +649,7 @@ public class HP3325B_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // XXX Does not yet support non-HEADER operation.
-    final String queryString = new String (writeAndReadEOISync ("MOFU?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryString = writeAndReadEOITextSync ("MOFU?\n").trim ();
     if (! queryString.startsWith ("MOFU"))
     {
       LOG.log (Level.WARNING, "Unexpected settings reading (prefix MOFU) from Instrument {0}: {1}!",
@@ -666,7 +686,7 @@ public class HP3325B_GPIB_Instrument
   private EnumSet<HP3325B_GPIB_Settings.Option> getSettingsFromInstrumentSync_OptionsInstalled ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("OPT?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("OPT?\n").trim ();
     if (queryReturn == null || queryReturn.length () == 0)
       throw new IOException ();
     final EnumSet<HP3325B_GPIB_Settings.Option> optionsInstalled;
@@ -703,7 +723,7 @@ public class HP3325B_GPIB_Instrument
   private byte getSettingsFromInstrumentSync_statusByteRs232 ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("QSTB?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("QSTB?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != 3 && queryReturn.length () != 7)
       || (queryReturn.length () == 7 && ! queryReturn.startsWith ("QSTB")))
@@ -723,7 +743,7 @@ public class HP3325B_GPIB_Instrument
   private HP3325B_GPIB_Settings.RFOutputMode getSettingsFromInstrumentSync_RFOutputMode ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("RF?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("RF?\n").trim ();
     System.err.println ("RF? Query Return: " + queryReturn + ".");
     if (queryReturn == null
       || (queryReturn.length () != 1 && queryReturn.length () != 3)
@@ -742,7 +762,7 @@ public class HP3325B_GPIB_Instrument
   private HP3325B_GPIB_Settings.SweepMode getSettingsFromInstrumentSync_SweepMode ()
     throws IOException, InterruptedException, TimeoutException
   {
-    final String queryReturn = new String (writeAndReadEOISync ("SM?\n"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SM?\n").trim ();
     if (queryReturn == null
       || (queryReturn.length () != 1 && queryReturn.length () != 3)
       || (queryReturn.length () == 3 && ! queryReturn.startsWith ("SM")))
@@ -1339,6 +1359,53 @@ public class HP3325B_GPIB_Instrument
       HP3325B_InstrumentCommand.ICARG_HP3325B_SWEEP_TIME, sweepTime_s));
   }
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PROCESS COMMAND
+  // WRITE-THROUGH SETTINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the settings after a successful (simple) setter command.
+   * 
+   * <p>
+   * If write-through settings are enabled and current settings are available,
+   * the new settings are derived locally from the current settings,
+   * saving a full settings read-back (some twenty queries) from the instrument.
+   * Otherwise, the settings are read from the instrument.
+   * 
+   * @param derivation The derivation of the new settings from the current settings, non-{@code null}.
+   * 
+   * @return The new settings.
+   * 
+   * @throws IOException          If thrown while reading the settings from the instrument.
+   * @throws InterruptedException If thrown while reading the settings from the instrument.
+   * @throws TimeoutException     If thrown while reading the settings from the instrument.
+   * 
+   * @see #writeThroughSettings
+   * 
+   */
+  private InstrumentSettings getSettingsAfterSetterSync (final UnaryOperator<HP3325B_GPIB_Settings> derivation)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final HP3325B_GPIB_Settings newInstrumentSettings = writeThroughSettings (this.lastSettings.get (), derivation);
+    return newInstrumentSettings != null ? newInstrumentSettings : getSettingsFromInstrumentSync ();
+  }
+  
+  /** The settings last read from the instrument or derived locally, {@code null} if unknown.
+   * 
+   * <p>
+   * Maintained on the command-processor thread (and reset upon every full settings read
+   * that did not overlap with a change on the command-processor thread),
+   * this is the base for write-through settings.
+   * Unlike {@link #getCurrentInstrumentSettings}, which is only updated once the new settings have been dispatched,
+   * it reflects all setters processed so far, so back-to-back setters do not undo each other's changes.
+   * 
+   * @see #getSettingsAfterSetterSync
+   * 
+   */
+  private final AtomicReference<HP3325B_GPIB_Settings> lastSettings = new AtomicReference<> ();
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // AbstractInstrument
@@ -1396,7 +1463,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (3);
           writeSync ("FR" + df.format (frequency_Hz) + "HZ\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withFrequency_Hz (frequency_Hz));
           break;
         }
         case InstrumentCommand.IC_AMPLITUDE:
@@ -1405,7 +1472,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (3);
           writeSync ("AM" + df.format (amplitude_Vpp) + "VO\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withAmplitude_Vpp (amplitude_Vpp));
           break;
         }
         case InstrumentCommand.IC_DC_OFFSET:
@@ -1414,7 +1481,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (1);
           writeSync ("OF" + df.format (dcOffset_V * 1000) + "MV\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withDCOffset_V (dcOffset_V));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_AMPLITUDE_CALIBRATION:
@@ -1499,7 +1566,7 @@ public class HP3325B_GPIB_Instrument
           final boolean echo =
             (boolean) instrumentCommand.get (HP3325B_InstrumentCommand.ICARG_HP3325B_RS232_ECHO);
           writeSync (echo ? "ECHO1\r" : "ECHO0\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withRs232Echo (echo));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_ENHANCEMENTS_CONTROL:
@@ -1508,12 +1575,12 @@ public class HP3325B_GPIB_Instrument
             (boolean) instrumentCommand.get (
               HP3325B_InstrumentCommand.ICARG_HP3325B_ENHANCEMENTS_CONTROL);
           writeSync (enable ? "ENH1\r" : "ENH0\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withEnhancements (enable));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_ERROR:
         {
-          final String errReturn = new String (writeAndReadEOISync ("ERR?"), Charset.forName ("US-ASCII")).trim ();
+          final String errReturn = writeAndReadEOITextSync ("ERR?").trim ();
           if (errReturn == null
             || (errReturn.length () != 3 && errReturn.length () != 6)
             || (errReturn.length () == 6 && ! errReturn.startsWith ("ERR")))
@@ -1546,7 +1613,7 @@ public class HP3325B_GPIB_Instrument
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_EXTERNAL_REFERENCE_LOCKED:
         {
-          final String queryReturn = new String (writeAndReadEOISync ("EXTR?"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("EXTR?").trim ();
           if (queryReturn == null
             || (queryReturn.length () != 1 && queryReturn.length () != 5)
             || (queryReturn.length () == 5 && ! queryReturn.startsWith ("EXTR")))
@@ -1567,7 +1634,7 @@ public class HP3325B_GPIB_Instrument
             (boolean) instrumentCommand.get (
               HP3325B_InstrumentCommand.ICARG_HP3325B_RESPONSE_HEADER_CONTROL);
           writeSync (useHeader ? "HEAD1\r" : "HEAD0\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withUseResponseHeader (useHeader));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_HIGH_VOLTAGE_OUTPUT:
@@ -1581,7 +1648,7 @@ public class HP3325B_GPIB_Instrument
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_IDENTIFICATION:
         {
-          final String queryReturn = new String (writeAndReadEOISync ("ID?\r"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("ID?\r").trim ();
           if (queryReturn == null || queryReturn.length () == 0)
             throw new IOException ();
           instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, queryReturn);
@@ -1598,7 +1665,7 @@ public class HP3325B_GPIB_Instrument
             (boolean) instrumentCommand.get (
               HP3325B_InstrumentCommand.ICARG_HP3325B_AMPLITUDE_MODULATION);
           writeSync (enable ? "MA1\r" : "MA0\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withAmplitudeModulation (enable));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_DATA_TRANSFER_MODE:
@@ -1612,7 +1679,7 @@ public class HP3325B_GPIB_Instrument
             case Mode2: writeSync ("MD1\r"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withDataTransferMode (mode));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_MARKER_FREQUENCY:
@@ -1621,7 +1688,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (3);
           writeSync ("MF" + df.format (frequency_Hz) + "HZ\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withMarkerFrequency_Hz (frequency_Hz));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_MODULATION_SOURCE_AMPLITUDE:
@@ -1631,7 +1698,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (1);
           writeSync ("MOAM" + df.format (amplitude_Vpp) + "VO\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withModulationSourceAmplitude_Vpp (amplitude_Vpp));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_WRITE_MODULATION_SOURCE_ARBITRARY_WAVEFORM:
@@ -1666,7 +1733,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (1);
           writeSync ("MOFR" + df.format (frequency_Hz) + "HZ\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withModulationSourceFrequency_Hz (frequency_Hz));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_MODULATION_SOURCE_WAVEFORM_FUNCTION:
@@ -1682,7 +1749,7 @@ public class HP3325B_GPIB_Instrument
             case Arbitrary: writeSync ("MOFU3\r"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withModulationSourceWaveformFunction (waveformFunction));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_PHASE_MODULATION:
@@ -1691,7 +1758,7 @@ public class HP3325B_GPIB_Instrument
             (boolean) instrumentCommand.get (
               HP3325B_InstrumentCommand.ICARG_HP3325B_PHASE_MODULATION);
           writeSync (enable ? "MP1\r" : "MP0\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withPhaseModulation (enable));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_STATUS_BYTE_MASK:
@@ -1718,7 +1785,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (1);
           writeSync ("PH" + df.format (degrees) + "DE\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withPhase_degrees (degrees));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_RS232_STATUS_BYTE:
@@ -1752,7 +1819,7 @@ public class HP3325B_GPIB_Instrument
             case Rear:  writeSync ("RF2\r"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withRFOutputMode (mode));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_REMOTE:
@@ -1790,7 +1857,7 @@ public class HP3325B_GPIB_Instrument
             case Discrete:    writeSync ("SM3\r"); break;
             default: throw new IllegalArgumentException ();
           }
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withSweepMode (mode));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_SWEEP_STOP_FREQUENCY:
@@ -1800,7 +1867,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (3);
           writeSync ("SP" + df.format (frequency_Hz) + "HZ\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withSweepStopFrequency_Hz (frequency_Hz));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_STORE_STATE:
@@ -1826,7 +1893,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (3);
           writeSync ("ST" + df.format (frequency_Hz) + "HZ\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withSweepStartFrequency_Hz (frequency_Hz));
           break;
         }
         case HP3325B_InstrumentCommand.IC_HP3325B_SWEEP_TIME:
@@ -1836,7 +1903,7 @@ public class HP3325B_GPIB_Instrument
           final DecimalFormat df = new DecimalFormat ("#");
           df.setMaximumFractionDigits (1);
           writeSync ("TI" + df.format (time_s) + "SE\r");
-          newInstrumentSettings = getSettingsFromInstrumentSync ();
+          newInstrumentSettings = getSettingsAfterSetterSync (s -> s.withSweepTime_s (time_s));
           break;
         }
         default:
@@ -1848,7 +1915,11 @@ public class HP3325B_GPIB_Instrument
       // EMPTY
     }
     if (newInstrumentSettings != null)
+    {
+      if (newInstrumentSettings instanceof HP3325B_GPIB_Settings)
+        this.lastSettings.set ((HP3325B_GPIB_Settings) newInstrumentSettings);
       settingsReadFromInstrument (newInstrumentSettings);
+    }
   }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -17,6 +17,8 @@
 package org.javajdj.jinstrument.gpib.fg.hp3325b;
 
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Logger;
 import org.javajdj.jinstrument.DefaultFunctionGeneratorSettings;
@@ -102,6 +104,76 @@ public final class HP3325B_GPIB_Settings
     this.sweepStartFrequency_Hz = sweepStartFrequency_Hz;
     this.sweepTime_s = sweepTime_s;
   }
+
+  @SuppressWarnings ("unchecked")
+  private HP3325B_GPIB_Settings with (final Map<String, Object> map)
+  {
+    if (map == null)
+      throw new IllegalArgumentException ();
+    return new HP3325B_GPIB_Settings (
+      map.containsKey (WAVEFORM_KEY) ? (FunctionGenerator.Waveform) map.get (WAVEFORM_KEY) : getWaveform (),
+      map.containsKey (FREQUENCY_KEY) ? (double) map.get (FREQUENCY_KEY) : getFrequency_Hz (),
+      map.containsKey (AMPLITUDE_KEY) ? (double) map.get (AMPLITUDE_KEY) : getAmplitude_Vpp (),
+      map.containsKey (DC_OFFSET_KEY) ? (double) map.get (DC_OFFSET_KEY) : getDCOffset_V (),
+      map.containsKey (RS232_ECHO_KEY) ? (boolean) map.get (RS232_ECHO_KEY) : this.rs232Echo,
+      map.containsKey (ENHANCEMENTS_KEY) ? (boolean) map.get (ENHANCEMENTS_KEY) : this.enhancements,
+      this.errorCode,
+      map.containsKey (SERVICE_REQUEST_ENABLE_MASK_KEY) ? (EnumSet<ServiceRequestEnableMaskBit>) map.get (SERVICE_REQUEST_ENABLE_MASK_KEY) : this.serviceRequestEnableMask,
+      this.externalReferenceLocked,
+      map.containsKey (USE_RESPONSE_HEADER_KEY) ? (boolean) map.get (USE_RESPONSE_HEADER_KEY) : this.useResponseHeader,
+      map.containsKey (HIGH_VOLTAGE_OUTPUT_KEY) ? (boolean) map.get (HIGH_VOLTAGE_OUTPUT_KEY) : this.highVoltageOutput,
+      this.id,
+      map.containsKey (AMPLITUDE_MODULATION_KEY) ? (boolean) map.get (AMPLITUDE_MODULATION_KEY) : this.amplitudeModulation,
+      map.containsKey (DATA_TRANSFER_MODE_KEY) ? (DataTransferMode) map.get (DATA_TRANSFER_MODE_KEY) : this.dataTransferMode,
+      map.containsKey (MARKER_FREQUENCY_KEY) ? (double) map.get (MARKER_FREQUENCY_KEY) : this.markerFrequency_Hz,
+      map.containsKey (MODULATION_SOURCE_AMPLITUDE_KEY) ? (double) map.get (MODULATION_SOURCE_AMPLITUDE_KEY) : this.modulationSourceAmplitude_Vpp,
+      map.containsKey (MODULATION_SOURCE_FREQUENCY_KEY) ? (double) map.get (MODULATION_SOURCE_FREQUENCY_KEY) : this.modulationSourceFrequency_Hz,
+      map.containsKey (MODULATION_SOURCE_WAVEFORM_FUNCTION_KEY) ? (ModulationSourceWaveformFunction) map.get (MODULATION_SOURCE_WAVEFORM_FUNCTION_KEY) : this.modulationSourceWaveformFunction,
+      map.containsKey (PHASE_MODULATION_KEY) ? (boolean) map.get (PHASE_MODULATION_KEY) : this.phaseModulation,
+      this.optionsInstalled,
+      map.containsKey (PHASE_KEY) ? (double) map.get (PHASE_KEY) : this.phase_degrees,
+      this.statusByteRs232,
+      map.containsKey (RF_OUTPUT_MODE_KEY) ? (RFOutputMode) map.get (RF_OUTPUT_MODE_KEY) : this.rfOutputMode,
+      map.containsKey (SWEEP_MODE_KEY) ? (SweepMode) map.get (SWEEP_MODE_KEY) : this.sweepMode,
+      map.containsKey (SWEEP_STOP_FREQUENCY_KEY) ? (double) map.get (SWEEP_STOP_FREQUENCY_KEY) : this.sweepStopFrequency_Hz,
+      map.containsKey (SWEEP_START_FREQUENCY_KEY) ? (double) map.get (SWEEP_START_FREQUENCY_KEY) : this.sweepStartFrequency_Hz,
+      map.containsKey (SWEEP_TIME_KEY) ? (double) map.get (SWEEP_TIME_KEY) : this.sweepTime_s);
+  }
+  
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // FunctionGeneratorSettings
+  // WAVEFORM / FREQUENCY / AMPLITUDE / DC OFFSET
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  private final static String WAVEFORM_KEY = "waveform";
+  
+  public final HP3325B_GPIB_Settings withWaveform (final FunctionGenerator.Waveform waveform)
+  {
+    return with (new HashMap<String, Object> () {{ put (WAVEFORM_KEY, waveform); }});
+  }
+  
+  private final static String FREQUENCY_KEY = "frequency";
+  
+  public final HP3325B_GPIB_Settings withFrequency_Hz (final double frequency_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (FREQUENCY_KEY, frequency_Hz); }});
+  }
+  
+  private final static String AMPLITUDE_KEY = "amplitude";
+  
+  public final HP3325B_GPIB_Settings withAmplitude_Vpp (final double amplitude_Vpp)
+  {
+    return with (new HashMap<String, Object> () {{ put (AMPLITUDE_KEY, amplitude_Vpp); }});
+  }
+  
+  private final static String DC_OFFSET_KEY = "dcOffset";
+  
+  public final HP3325B_GPIB_Settings withDCOffset_V (final double dcOffset_V)
+  {
+    return with (new HashMap<String, Object> () {{ put (DC_OFFSET_KEY, dcOffset_V); }});
+  }
   
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -138,6 +210,13 @@ public final class HP3325B_GPIB_Settings
     return this.rs232Echo;
   }
   
+  private final static String RS232_ECHO_KEY = "rs232Echo";
+  
+  public final HP3325B_GPIB_Settings withRs232Echo (final boolean rs232Echo)
+  {
+    return with (new HashMap<String, Object> () {{ put (RS232_ECHO_KEY, rs232Echo); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // ENHANCEMENTS
@@ -150,6 +229,13 @@ public final class HP3325B_GPIB_Settings
   {
     return this.enhancements;
   }
+  
+  private final static String ENHANCEMENTS_KEY = "enhancements";
+  
+  public final HP3325B_GPIB_Settings withEnhancements (final boolean enhancements)
+  {
+    return with (new HashMap<String, Object> () {{ put (ENHANCEMENTS_KEY, enhancements); }});
+  }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
@@ -199,6 +285,13 @@ public final class HP3325B_GPIB_Settings
     return this.serviceRequestEnableMask;
   }
   
+  private final static String SERVICE_REQUEST_ENABLE_MASK_KEY = "serviceRequestEnableMask";
+  
+  public final HP3325B_GPIB_Settings withServiceRequestEnableMask (final EnumSet<ServiceRequestEnableMaskBit> serviceRequestEnableMask)
+  {
+    return with (new HashMap<String, Object> () {{ put (SERVICE_REQUEST_ENABLE_MASK_KEY, serviceRequestEnableMask); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // EXTERNAL REFERENCE LOCKED
@@ -225,6 +318,13 @@ public final class HP3325B_GPIB_Settings
     return this.useResponseHeader;
   }
   
+  private final static String USE_RESPONSE_HEADER_KEY = "useResponseHeader";
+  
+  public final HP3325B_GPIB_Settings withUseResponseHeader (final boolean useResponseHeader)
+  {
+    return with (new HashMap<String, Object> () {{ put (USE_RESPONSE_HEADER_KEY, useResponseHeader); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // HIGH VOLTAGE OUTPUT
@@ -238,6 +338,13 @@ public final class HP3325B_GPIB_Settings
     return this.highVoltageOutput;
   }
   
+  private final static String HIGH_VOLTAGE_OUTPUT_KEY = "highVoltageOutput";
+  
+  public final HP3325B_GPIB_Settings withHighVoltageOutput (final boolean highVoltageOutput)
+  {
+    return with (new HashMap<String, Object> () {{ put (HIGH_VOLTAGE_OUTPUT_KEY, highVoltageOutput); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // ID
@@ -264,6 +371,13 @@ public final class HP3325B_GPIB_Settings
     return this.amplitudeModulation;
   }
   
+  private final static String AMPLITUDE_MODULATION_KEY = "amplitudeModulation";
+  
+  public final HP3325B_GPIB_Settings withAmplitudeModulation (final boolean amplitudeModulation)
+  {
+    return with (new HashMap<String, Object> () {{ put (AMPLITUDE_MODULATION_KEY, amplitudeModulation); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // DATA TRANSFER MODE
@@ -283,6 +397,13 @@ public final class HP3325B_GPIB_Settings
     return this.dataTransferMode;
   }
   
+  private final static String DATA_TRANSFER_MODE_KEY = "dataTransferMode";
+  
+  public final HP3325B_GPIB_Settings withDataTransferMode (final DataTransferMode dataTransferMode)
+  {
+    return with (new HashMap<String, Object> () {{ put (DATA_TRANSFER_MODE_KEY, dataTransferMode); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // MARKER FREQUENCY
@@ -296,6 +417,13 @@ public final class HP3325B_GPIB_Settings
     return this.markerFrequency_Hz;
   }
   
+  private final static String MARKER_FREQUENCY_KEY = "markerFrequency";
+  
+  public final HP3325B_GPIB_Settings withMarkerFrequency_Hz (final double markerFrequency_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (MARKER_FREQUENCY_KEY, markerFrequency_Hz); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // MODULATION SOURCE AMPLITUDE
@@ -309,6 +437,13 @@ public final class HP3325B_GPIB_Settings
     return this.modulationSourceAmplitude_Vpp;
   }
   
+  private final static String MODULATION_SOURCE_AMPLITUDE_KEY = "modulationSourceAmplitude";
+  
+  public final HP3325B_GPIB_Settings withModulationSourceAmplitude_Vpp (final double modulationSourceAmplitude_Vpp)
+  {
+    return with (new HashMap<String, Object> () {{ put (MODULATION_SOURCE_AMPLITUDE_KEY, modulationSourceAmplitude_Vpp); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // MODULATION SOURCE FREQUENCY
@@ -322,6 +457,13 @@ public final class HP3325B_GPIB_Settings
     return this.modulationSourceFrequency_Hz;
   }
   
+  private final static String MODULATION_SOURCE_FREQUENCY_KEY = "modulationSourceFrequency";
+  
+  public final HP3325B_GPIB_Settings withModulationSourceFrequency_Hz (final double modulationSourceFrequency_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (MODULATION_SOURCE_FREQUENCY_KEY, modulationSourceFrequency_Hz); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // MODULATION SOURCE WAVEFORM
@@ -343,6 +485,13 @@ public final class HP3325B_GPIB_Settings
     return this.modulationSourceWaveformFunction;
   }
   
+  private final static String MODULATION_SOURCE_WAVEFORM_FUNCTION_KEY = "modulationSourceWaveformFunction";
+  
+  public final HP3325B_GPIB_Settings withModulationSourceWaveformFunction (final ModulationSourceWaveformFunction modulationSourceWaveformFunction)
+  {
+    return with (new HashMap<String, Object> () {{ put (MODULATION_SOURCE_WAVEFORM_FUNCTION_KEY, modulationSourceWaveformFunction); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // PHASE MODULATION
@@ -356,6 +505,13 @@ public final class HP3325B_GPIB_Settings
     return this.phaseModulation;
   }
   
+  private final static String PHASE_MODULATION_KEY = "phaseModulation";
+  
+  public final HP3325B_GPIB_Settings withPhaseModulation (final boolean phaseModulation)
+  {
+    return with (new HashMap<String, Object> () {{ put (PHASE_MODULATION_KEY, phaseModulation); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // OPTIONS INSTALLED
@@ -398,6 +554,13 @@ public final class HP3325B_GPIB_Settings
     return this.phase_degrees;
   }
   
+  private final static String PHASE_KEY = "phase";
+  
+  public final HP3325B_GPIB_Settings withPhase_degrees (final double phase_degrees)
+  {
+    return with (new HashMap<String, Object> () {{ put (PHASE_KEY, phase_degrees); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // STATUS BYTE RS-232
@@ -430,6 +593,13 @@ public final class HP3325B_GPIB_Settings
     return this.rfOutputMode;
   }
   
+  private final static String RF_OUTPUT_MODE_KEY = "rfOutputMode";
+  
+  public final HP3325B_GPIB_Settings withRFOutputMode (final RFOutputMode rfOutputMode)
+  {
+    return with (new HashMap<String, Object> () {{ put (RF_OUTPUT_MODE_KEY, rfOutputMode); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // SWEEP MODE
@@ -450,6 +620,13 @@ public final class HP3325B_GPIB_Settings
     return this.sweepMode;
   }
   
+  private final static String SWEEP_MODE_KEY = "sweepMode";
+  
+  public final HP3325B_GPIB_Settings withSweepMode (final SweepMode sweepMode)
+  {
+    return with (new HashMap<String, Object> () {{ put (SWEEP_MODE_KEY, sweepMode); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // SWEEP STOP FREQUENCY
@@ -463,6 +640,13 @@ public final class HP3325B_GPIB_Settings
     return this.sweepStopFrequency_Hz;
   }
   
+  private final static String SWEEP_STOP_FREQUENCY_KEY = "sweepStopFrequency";
+  
+  public final HP3325B_GPIB_Settings withSweepStopFrequency_Hz (final double sweepStopFrequency_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (SWEEP_STOP_FREQUENCY_KEY, sweepStopFrequency_Hz); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // SWEEP START FREQUENCY
@@ -476,6 +660,13 @@ public final class HP3325B_GPIB_Settings
     return this.sweepStartFrequency_Hz;
   }
   
+  private final static String SWEEP_START_FREQUENCY_KEY = "sweepStartFrequency";
+  
+  public final HP3325B_GPIB_Settings withSweepStartFrequency_Hz (final double sweepStartFrequency_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (SWEEP_START_FREQUENCY_KEY, sweepStartFrequency_Hz); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // SWEEP TIME
@@ -488,6 +679,13 @@ public final class HP3325B_GPIB_Settings
   {
     return this.sweepTime_s;
   }
+  
+  private final static String SWEEP_TIME_KEY = "sweepTime";
+  
+  public final HP3325B_GPIB_Settings withSweepTime_s (final double sweepTime_s)
+  {
+    return with (new HashMap<String, Object> () {{ put (SWEEP_TIME_KEY, sweepTime_s); }});
+  }
 
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
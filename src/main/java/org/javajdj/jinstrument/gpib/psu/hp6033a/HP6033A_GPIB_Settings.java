@@ -128,7 +128,8 @@ public final class HP6033A_GPIB_Settings
   @Override
   public boolean equals (Object obj)
   {
-    return super.equals (obj)
+    return this == obj
+      || super.equals (obj)
       && getClass () == obj.getClass ()
       && Double.doubleToLongBits (this.ovp_V) == Double.doubleToLongBits (((HP6033A_GPIB_Settings) obj).ovp_V)
       && Double.doubleToLongBits (this.delay_s) == Double.doubleToLongBits (((HP6033A_GPIB_Settings) obj).delay_s)
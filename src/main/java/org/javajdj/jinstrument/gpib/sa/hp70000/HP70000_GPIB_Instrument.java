@@ -21,6 +21,8 @@ import java.nio.charset.Charset;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.javajdj.jinstrument.DefaultInstrumentCommand;
@@ -205,9 +207,9 @@ public class HP70000_GPIB_Instrument
       final HP70000_GPIB_Settings settings = getSettingsFromInstrumentSyncImp ();
       if (settings == null)
         throw new IOException (); // Forces error state, so user can retry.
-      final String idString = new String (writeAndReadEOISync ("ID?;"), Charset.forName ("US-ASCII")).trim ();
-      final String idnString = new String (writeAndReadEOISync ("IDN?;"), Charset.forName ("US-ASCII")).trim ();
-      final String configurationString = new String (writeAndReadEOISync ("CONFIG?;"), Charset.forName ("US-ASCII")).trim ();
+      final String idString = writeAndReadEOITextSync ("ID?;").trim ();
+      final String idnString = writeAndReadEOITextSync ("IDN?;").trim ();
+      final String configurationString = writeAndReadEOITextSync ("CONFIG?;").trim ();
       final HP70000_GPIB_Settings.MeasureMode measureMode = getMeasureModeDirect ();
       final double sourcePower_dBm = getSourcePower_dBmDirect ();
       setSourceActiveDirect (false);
@@ -227,7 +229,7 @@ public class HP70000_GPIB_Instrument
       final double sourcePowerSweepRange_dB = getSourcePowerSweepRange_dBDirect ();
       final double sourceTracking_Hz = getSourceTracking_HzDirect ();
       setSourcePeakTrackingAutoDirect (false);
-      settingsReadFromInstrument (settings
+      final HP70000_GPIB_Settings initialSettings = settings
         .withId (idString)
         .withIdentificationNumber (idnString)
         .withConfigurationString (configurationString)
@@ -249,8 +251,9 @@ public class HP70000_GPIB_Instrument
         .withSourcePowerSweepActive (false)
         .withSourcePowerSweepRange_dB (sourcePowerSweepRange_dB)
         .withSourceTracking_Hz (sourceTracking_Hz)
-        .withSourcePeakTrackingAuto (false)
-        );
+        .withSourcePeakTrackingAuto (false);
+      this.lastSettings.set (initialSettings);
+      settingsReadFromInstrument (initialSettings);
     }
     finally
     {
@@ -343,6 +346,8 @@ public class HP70000_GPIB_Instrument
   protected HP70000_GPIB_Settings getSettingsFromInstrumentSyncImp ()
     throws IOException, InterruptedException, TimeoutException
   {
+    // The base for write-through settings at the start of the read; see below.
+    final HP70000_GPIB_Settings lastSettings = this.lastSettings.get ();
     // XXX TODO: Picking up the state (< 1000 bytes) takes a lot of time with zero benefits (currently).
     final GpibControllerCommand statePreampleCommand = generateWriteAndReadNCommand ("STATE?;", 14); // Fixed size!
     final GpibControllerCommand stateCommand = generateReadNCommand (1065); // N will be overwritten!
@@ -408,8 +413,8 @@ public class HP70000_GPIB_Instrument
     final String detString = 
       new String (((byte[]) atomicSequenceCommands[i++].get (GpibControllerCommand.CCRET_VALUE_KEY)), Charset.forName ("US-ASCII"))
         .trim ();
-    final HP70000_GPIB_Settings oldSettings = (HP70000_GPIB_Settings) getCurrentInstrumentSettings ();
-    return new HP70000_GPIB_Settings (
+    final HP70000_GPIB_Settings oldSettings = getLastSettings ();
+    final HP70000_GPIB_Settings settings = new HP70000_GPIB_Settings (
       state,
       Unit.UNIT_dBm, // XXX This needs proper checking; may be in LIN or zero-span...
       centerFrequency_MHz,
@@ -447,6 +452,30 @@ public class HP70000_GPIB_Instrument
       oldSettings != null ? oldSettings.getSourceTracking_Hz () : 0,  // XXX Read this every trace update with peak-tracking?
       oldSettings != null ? oldSettings.isSourcePeakTrackingAuto () : false
     );
+    // A full read resets the base for write-through settings,
+    // unless a setter changed the base while we were reading; in that case, the read may not reflect that setter.
+    this.lastSettings.compareAndSet (lastSettings, settings);
+    return settings;
+  }
+  
+  /** The settings last read from the instrument or derived locally, {@code null} if unknown.
+   * 
+   * <p>
+   * Maintained under the operation semaphore (and reset upon every full settings read
+   * that did not overlap with a change by a setter),
+   * this is the base for write-through settings and other local derivations of new settings.
+   * Unlike {@link #getCurrentInstrumentSettings}, which is only updated once the new settings have been dispatched,
+   * it reflects all setters processed so far, so back-to-back setters do not undo each other's changes.
+   * 
+   * @see #getSettingsAfterSetterSyncImp
+   * 
+   */
+  private final AtomicReference<HP70000_GPIB_Settings> lastSettings = new AtomicReference<> ();
+  
+  private HP70000_GPIB_Settings getLastSettings ()
+  {
+    final HP70000_GPIB_Settings lastSettings = this.lastSettings.get ();
+    return lastSettings != null ? lastSettings : (HP70000_GPIB_Settings) getCurrentInstrumentSettings ();
   }
  
   @Override
@@ -664,7 +693,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // MEASURE?
-    final String queryReturn = new String (writeAndReadEOISync ("MEASURE?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("MEASURE?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     switch (queryReturn)
@@ -727,7 +756,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCALC?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCALC?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCALC?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP70000_GPIB_Settings.SourceAlcMode sourceAlcMode;
@@ -788,7 +817,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCAM?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCAM?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCAM?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourceAmDepth_percent;
@@ -860,7 +889,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCAMF?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCAMF?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCAMF?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourceAmFrequency_Hz;
@@ -916,7 +945,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCAT?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCAT?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCAT?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourceAttenuation_dB;
@@ -988,7 +1017,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCBLNK?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCBLNK?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCBLNK?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final boolean sourceBlanking;
@@ -1042,7 +1071,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCMOD?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCMOD?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCMOD?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP70000_GPIB_Settings.SourceModulationInput sourceModulationInput;
@@ -1101,7 +1130,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCOSC?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCOSC?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCOSC?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final HP70000_GPIB_Settings.SourceOscillator sourceOscillator;
@@ -1160,7 +1189,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCPOFS?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCPOFS?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCPOFS?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourcePowerOffset_dB;
@@ -1216,7 +1245,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCPSTP?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCPSTP?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCPSTP?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourcePowerStepSize_dB;
@@ -1295,7 +1324,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCPSWP?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCPSWP?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCPSWP?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourcePowerSweepRange_dB;
@@ -1367,7 +1396,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCPWR?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCPWR?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCPWR?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourcePower_dBm; // XXX Are we sure that unit is always dBm?
@@ -1439,7 +1468,7 @@ public class HP70000_GPIB_Instrument
     throws IOException, InterruptedException, TimeoutException
   {
     // SRCTK?
-    final String queryReturn = new String (writeAndReadEOISync ("SRCTK?;"), Charset.forName ("US-ASCII")).trim ();
+    final String queryReturn = writeAndReadEOITextSync ("SRCTK?;").trim ();
     if (queryReturn == null)
       throw new IOException ();
     final double sourceTracking_Hz;
@@ -1525,6 +1554,45 @@ public class HP70000_GPIB_Instrument
       HP70000_InstrumentCommand.ICARG_HP70000_SET_SOURCE_PEAK_TRACKING_AUTO, sourcePeakTrackingAuto));
   }
     
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PROCESS COMMAND
+  // WRITE-THROUGH SETTINGS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Returns the settings after a successful setter command.
+   * 
+   * <p>
+   * If the new settings can be derived from the current settings
+   * (i.e., the setter does not affect coupled parameters),
+   * write-through settings are enabled and current settings are available,
+   * the new settings are derived locally, saving a full settings read-back from the instrument.
+   * Otherwise, the settings are read from the instrument.
+   * 
+   * @param derivable  Whether the new settings can be derived from the current settings.
+   * @param derivation The derivation of the new settings from the current settings, non-{@code null}.
+   * 
+   * @return The new settings.
+   * 
+   * @throws IOException          If thrown while reading the settings from the instrument.
+   * @throws InterruptedException If thrown while reading the settings from the instrument.
+   * @throws TimeoutException     If thrown while reading the settings from the instrument.
+   * 
+   * @see #writeThroughSettings
+   * 
+   */
+  private InstrumentSettings getSettingsAfterSetterSyncImp (
+    final boolean derivable,
+    final UnaryOperator<HP70000_GPIB_Settings> derivation)
+    throws IOException, InterruptedException, TimeoutException
+  {
+    final HP70000_GPIB_Settings newInstrumentSettings = derivable
+      ? writeThroughSettings (this.lastSettings.get (), derivation)
+      : null;
+    return newInstrumentSettings != null ? newInstrumentSettings : getSettingsFromInstrumentSyncImp ();
+  }
+    
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // AbstractInstrument
@@ -1556,7 +1624,7 @@ public class HP70000_GPIB_Instrument
     if (topLevel)
       this.operationSemaphore.acquire ();
     final GpibDevice device = (GpibDevice) getDevice ();
-    final HP70000_GPIB_Settings instrumentSettings = (HP70000_GPIB_Settings) getCurrentInstrumentSettings ();
+    final HP70000_GPIB_Settings instrumentSettings = getLastSettings ();
     InstrumentSettings newInstrumentSettings = null;
     try
     {
@@ -1573,21 +1641,30 @@ public class HP70000_GPIB_Instrument
         {
           final double centerFrequency_MHz = (double) instrumentCommand.get (InstrumentCommand.ICARG_RF_FREQUENCY_MHZ);
           writeSync ("CF " + centerFrequency_MHz + " MZ;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (true, s -> s.withCenterFrequency_MHz (centerFrequency_MHz));
           break;
         }
         case InstrumentCommand.IC_RF_SPAN:
         {
           final double span_MHz = (double) instrumentCommand.get (InstrumentCommand.ICARG_RF_SPAN_MHZ);
           writeSync ("SP " + span_MHz + " MZ;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          // The span affects coupled bandwidths and sweep time.
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (
+            instrumentSettings != null && ! (instrumentSettings.isResolutionBandwidthCoupled ()
+              || instrumentSettings.isVideoBandwidthCoupled ()
+              || instrumentSettings.isSweepTimeCoupled ()),
+            s -> s.withSpan_MHz (span_MHz));
           break;
         }
         case InstrumentCommand.IC_RESOLUTION_BANDWIDTH:
         {
           final double resolutionBandwidth_Hz = (double) instrumentCommand.get (InstrumentCommand.ICARG_RESOLUTION_BANDWIDTH_HZ);
           writeSync ("RB " + resolutionBandwidth_Hz + " HZ;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          // The resolution bandwidth affects a coupled video bandwidth and sweep time.
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (
+            instrumentSettings != null && ! (instrumentSettings.isVideoBandwidthCoupled ()
+              || instrumentSettings.isSweepTimeCoupled ()),
+            s -> s.withResolutionBandwidth_Hz (resolutionBandwidth_Hz));
           break;
         }
         case InstrumentCommand.IC_SET_RESOLUTION_BANDWIDTH_COUPLED:
@@ -1600,7 +1677,10 @@ public class HP70000_GPIB_Instrument
         {
           final double videoBandwidth_Hz = (double) instrumentCommand.get (InstrumentCommand.ICARG_VIDEO_BANDWIDTH_HZ);
           writeSync ("VB " + videoBandwidth_Hz + " HZ;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          // The video bandwidth affects a coupled sweep time.
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (
+            instrumentSettings != null && ! instrumentSettings.isSweepTimeCoupled (),
+            s -> s.withVideoBandwidth_Hz (videoBandwidth_Hz));
           break;
         }
         case InstrumentCommand.IC_SET_VIDEO_BANDWIDTH_COUPLED:
@@ -1613,7 +1693,7 @@ public class HP70000_GPIB_Instrument
         {
           final double sweepTime_s = (double) instrumentCommand.get (InstrumentCommand.ICARG_SWEEP_TIME_S);
           writeSync ("ST " + sweepTime_s + " SC;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (true, s -> s.withSweepTime_s (sweepTime_s));
           break;
         }
         case InstrumentCommand.IC_SET_SWEEP_TIME_COUPLED:
@@ -1626,14 +1706,17 @@ public class HP70000_GPIB_Instrument
         {
           final double referenceLevel_dBm = (double) instrumentCommand.get (InstrumentCommand.ICARG_REFERENCE_LEVEL_DBM);
           writeSync ("RL " + referenceLevel_dBm + " DM;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          // The reference level affects a coupled rf attenuation.
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (
+            instrumentSettings != null && ! instrumentSettings.isRfAttenuationCoupled (),
+            s -> s.withReferenceLevel_dBm (referenceLevel_dBm));
           break;
         }
         case InstrumentCommand.IC_RF_ATTENUATION:
         {
           final double rfAttenuation_dB = (double) instrumentCommand.get (InstrumentCommand.ICARG_RF_ATTENUATION_DB);
           writeSync ("AT " + rfAttenuation_dB + " DB;");
-          newInstrumentSettings = getSettingsFromInstrumentSyncImp ();
+          newInstrumentSettings = getSettingsAfterSetterSyncImp (true, s -> s.withRfAttenuation_dB (rfAttenuation_dB));
           break;
         }
         case InstrumentCommand.IC_SET_RF_ATTENUATION_COUPLED:
@@ -1653,7 +1736,7 @@ public class HP70000_GPIB_Instrument
         case HP70000_InstrumentCommand.IC_HP70000_GET_ID:
         {
           // ID?
-          final String queryReturn = new String (writeAndReadEOISync ("ID?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("ID?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, queryReturn);
@@ -1664,7 +1747,7 @@ public class HP70000_GPIB_Instrument
         case HP70000_InstrumentCommand.IC_HP70000_GET_IDENTIFICATION_NUMBER:
         {
           // IDN?
-          final String queryReturn = new String (writeAndReadEOISync ("IDN?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("IDN?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, queryReturn);
@@ -1675,7 +1758,7 @@ public class HP70000_GPIB_Instrument
         case HP70000_InstrumentCommand.IC_HP70000_GET_CONFIGURATION_STRING:
         {
           // CONFIG?
-          final String queryReturn = new String (writeAndReadEOISync ("CONFIG?;"), Charset.forName ("US-ASCII")).trim ();
+          final String queryReturn = writeAndReadEOITextSync ("CONFIG?;").trim ();
           if (queryReturn == null)
             throw new IOException ();
           instrumentCommand.put (InstrumentCommand.IC_RETURN_VALUE_KEY, queryReturn);
@@ -2087,6 +2170,8 @@ public class HP70000_GPIB_Instrument
     }
     if (newInstrumentSettings != null)
     {
+      if (newInstrumentSettings instanceof HP70000_GPIB_Settings)
+        this.lastSettings.set ((HP70000_GPIB_Settings) newInstrumentSettings);
       settingsReadFromInstrument (newInstrumentSettings);
       if (topLevel)
         statusReadFromInstrument (getStatusFromInstrumentSync (true));
@@ -132,17 +132,17 @@ public class HP70000_GPIB_Settings
     return new HP70000_GPIB_Settings (
       map.containsKey (BYTES_KEY) ? (byte[]) map.get (BYTES_KEY) : getBytes (),
       getReadingUnit (),
-      getCenterFrequency_MHz (),
-      getSpan_MHz (),
-      getResolutionBandwidth_Hz (),
-      isResolutionBandwidthCoupled (),
-      getVideoBandwidth_Hz (),
-      isVideoBandwidthCoupled (),
-      getSweepTime_s (),
-      isSweepTimeCoupled (),
-      getReferenceLevel_dBm (),
-      getRfAttenuation_dB (),
-      isRfAttenuationCoupled (),
+      map.containsKey (CENTER_FREQUENCY_KEY) ? (double) map.get (CENTER_FREQUENCY_KEY) : getCenterFrequency_MHz (),
+      map.containsKey (SPAN_KEY) ? (double) map.get (SPAN_KEY) : getSpan_MHz (),
+      map.containsKey (RESOLUTION_BANDWIDTH_KEY) ? (double) map.get (RESOLUTION_BANDWIDTH_KEY) : getResolutionBandwidth_Hz (),
+      map.containsKey (RESOLUTION_BANDWIDTH_KEY) ? false : isResolutionBandwidthCoupled (),
+      map.containsKey (VIDEO_BANDWIDTH_KEY) ? (double) map.get (VIDEO_BANDWIDTH_KEY) : getVideoBandwidth_Hz (),
+      map.containsKey (VIDEO_BANDWIDTH_KEY) ? false : isVideoBandwidthCoupled (),
+      map.containsKey (SWEEP_TIME_KEY) ? (double) map.get (SWEEP_TIME_KEY) : getSweepTime_s (),
+      map.containsKey (SWEEP_TIME_KEY) ? false : isSweepTimeCoupled (),
+      map.containsKey (REFERENCE_LEVEL_KEY) ? (double) map.get (REFERENCE_LEVEL_KEY) : getReferenceLevel_dBm (),
+      map.containsKey (RF_ATTENUATION_KEY) ? (double) map.get (RF_ATTENUATION_KEY) : getRfAttenuation_dB (),
+      map.containsKey (RF_ATTENUATION_KEY) ? false : isRfAttenuationCoupled (),
       map.containsKey (TRACE_LENGTH_KEY) ? (int) map.get (TRACE_LENGTH_KEY) : this.traceLength,
       map.containsKey (ID_KEY) ? (String) map.get (ID_KEY) : this.id,
       map.containsKey (CONFIGURATION_STRING_KEY) ? (String) map.get (CONFIGURATION_STRING_KEY) : this.configurationString,
@@ -175,6 +175,66 @@ public class HP70000_GPIB_Settings
     );
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SpectrumAnalyzerSettings
+  // CENTER FREQUENCY / SPAN / BANDWIDTHS / SWEEP TIME / REFERENCE LEVEL / RF ATTENUATION
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    
+  // Note: setting an (explicit) resolution bandwidth, video bandwidth, sweep time or rf attenuation
+  // decouples that parameter, as on the instrument.
+  // Parameters coupled to the parameter being set (if any) are NOT updated; this is left to the caller.
+  
+  private final static String CENTER_FREQUENCY_KEY = "centerFrequency";
+  
+  public final HP70000_GPIB_Settings withCenterFrequency_MHz (final double centerFrequency_MHz)
+  {
+    return with (new HashMap<String, Object> () {{ put (CENTER_FREQUENCY_KEY, centerFrequency_MHz); }});
+  }
+  
+  private final static String SPAN_KEY = "span";
+  
+  public final HP70000_GPIB_Settings withSpan_MHz (final double span_MHz)
+  {
+    return with (new HashMap<String, Object> () {{ put (SPAN_KEY, span_MHz); }});
+  }
+  
+  private final static String RESOLUTION_BANDWIDTH_KEY = "resolutionBandwidth";
+  
+  public final HP70000_GPIB_Settings withResolutionBandwidth_Hz (final double resolutionBandwidth_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (RESOLUTION_BANDWIDTH_KEY, resolutionBandwidth_Hz); }});
+  }
+  
+  private final static String VIDEO_BANDWIDTH_KEY = "videoBandwidth";
+  
+  public final HP70000_GPIB_Settings withVideoBandwidth_Hz (final double videoBandwidth_Hz)
+  {
+    return with (new HashMap<String, Object> () {{ put (VIDEO_BANDWIDTH_KEY, videoBandwidth_Hz); }});
+  }
+  
+  private final static String SWEEP_TIME_KEY = "sweepTime";
+  
+  public final HP70000_GPIB_Settings withSweepTime_s (final double sweepTime_s)
+  {
+    return with (new HashMap<String, Object> () {{ put (SWEEP_TIME_KEY, sweepTime_s); }});
+  }
+  
+  private final static String REFERENCE_LEVEL_KEY = "referenceLevel";
+  
+  public final HP70000_GPIB_Settings withReferenceLevel_dBm (final double referenceLevel_dBm)
+  {
+    return with (new HashMap<String, Object> () {{ put (REFERENCE_LEVEL_KEY, referenceLevel_dBm); }});
+  }
+  
+  private final static String RF_ATTENUATION_KEY = "rfAttenuation";
+  
+  public final HP70000_GPIB_Settings withRfAttenuation_dB (final double rfAttenuation_dB)
+  {
+    return with (new HashMap<String, Object> () {{ put (RF_ATTENUATION_KEY, rfAttenuation_dB); }});
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // InstrumentSettings
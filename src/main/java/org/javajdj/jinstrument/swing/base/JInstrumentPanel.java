@@ -27,8 +27,10 @@ import java.awt.event.ItemListener;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.BorderFactory;
@@ -48,6 +50,7 @@ import org.javajdj.jinstrument.DefaultInstrumentListener;
 import org.javajdj.jinstrument.Instrument;
 import org.javajdj.jinstrument.InstrumentListener;
 import org.javajdj.jinstrument.InstrumentSettings;
+import org.javajdj.jinstrument.InstrumentSettingsChange;
 import org.javajdj.jswing.jbyte.JBitsLong;
 import org.javajdj.jswing.jcenter.JCenter;
 import org.javajdj.jswing.jcolorcheckbox.JColorCheckBox;
@@ -532,6 +535,7 @@ public class JInstrumentPanel
         this.trueFalsePreListener.accept (newValue);
       if (this.showPendingUpdate && ae.getSource () instanceof JColorCheckBox.JBoolean)
         ((JColorCheckBox) ae.getSource ()).setDisplayedValue (null);
+      markUserEditPendingOn (ae.getSource ());
       try
       {
         this.instrumentSetter.set (newValue);
@@ -586,6 +590,7 @@ public class JInstrumentPanel
           return;
         if (this.preSetColor != null)
           source.setBackground (this.preSetColor);
+        markUserEditPendingOn (source);
         final N newN = JInstrumentSliderChangeListener_1Number.this.intToN.apply (source.getValue ());
         if (this.setter != null)
         {
@@ -649,6 +654,7 @@ public class JInstrumentPanel
           return;
         if (this.preSetColor != null)
           source.setBackground (this.preSetColor);
+        markUserEditPendingOn (source);
         try
         {
           this.setter.set (this.setter.intToArg (source.getValue ()));
@@ -708,6 +714,7 @@ public class JInstrumentPanel
           return;
         if (this.preSetColor != null)
           source.setBackground (this.preSetColor);
+        markUserEditPendingOn (source);
         try
         {
           this.setter.set (this.setter.intToArg (source.getValue ()));
@@ -785,6 +792,7 @@ public class JInstrumentPanel
         return;
       if (this.jTextField != null && this.preSetColor != null)
         this.jTextField.setBackground (this.preSetColor);
+      markUserEditPendingOn (this.jTextField);
       final String newValue = this.getter != null ? this.getter.apply () : this.jTextField.getText ();
       try
       {
@@ -882,6 +890,7 @@ public class JInstrumentPanel
         return;
       if (this.jTextField != null && this.preSetColor != null)
         this.jTextField.setBackground (this.preSetColor);
+      markUserEditPendingOn (this.jTextField);
       final String newValue = this.getter != null ? this.getter.apply () : this.jTextField.getText ();
       try
       {
@@ -985,6 +994,7 @@ public class JInstrumentPanel
         return;
       if (this.jTextField != null && this.preSetColor != null)
         this.jTextField.setBackground (this.preSetColor);
+      markUserEditPendingOn (this.jTextField);
       final String newValue = this.getter != null ? this.getter.apply () : this.jTextField.getText ();
       try
       {
@@ -1054,6 +1064,7 @@ public class JInstrumentPanel
           return;
         if (this.preSetColor != null)
           ((JComboBox) ie.getItemSelectable ()).setBackground (this.preSetColor);
+        markUserEditPendingOn (ie.getItemSelectable ());
         try
         {
           this.setter.set (newValue);
@@ -1105,6 +1116,7 @@ public class JInstrumentPanel
         return;
       if (this.preSetColor != null)
         this.jBitsLong.setBackground (this.preSetColor);
+      markUserEditPendingOn (this.jBitsLong);
       try
       {
         this.setter.set (newValue);
@@ -1118,6 +1130,128 @@ public class JInstrumentPanel
     
   }
   
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // SWING
+  // INSTRUMENT SETTINGS VALUE LISTENER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  
+  /** Marks a user edit pending on the {@link JInstrumentSettingsValueListener} registered on given component, if any.
+   * 
+   * @param component The component, may be {@code null} or have no such listener registered, in which case this method does nothing.
+   * 
+   * @see JInstrumentSettingsValueListener#markUserEditPending
+   * 
+   */
+  protected final void markUserEditPendingOn (final Object component)
+  {
+    if (component instanceof JComponent)
+    {
+      final Object listener = ((JComponent) component).getClientProperty (JInstrumentSettingsValueListener.USER_EDIT_PENDING_LISTENER_KEY);
+      if (listener instanceof JInstrumentSettingsValueListener)
+        ((JInstrumentSettingsValueListener) listener).markUserEditPending ();
+    }
+  }
+  
+  /** An {@link InstrumentListener} for a component displaying a single value from the instrument settings.
+   * 
+   * <p>
+   * The listener passes a settings change on to {@link #newInstrumentSettings} only if the value displayed,
+   * as obtained through the instrument getter of the component, actually changed,
+   * sparing the component (and the Swing Event Dispatch Thread) updates that do not affect it.
+   * The first settings change received is always passed on.
+   * 
+   * <p>
+   * If the listener is created for a specific component,
+   * it registers itself as client property {@link #USER_EDIT_PENDING_LISTENER_KEY} on that component,
+   * and the setter listeners in this class mark a user edit pending on it (through {@link #markUserEditPending})
+   * right before they invoke the instrument setter.
+   * The first settings change after such a mark is always passed on,
+   * even if the value did not change,
+   * so that the component clears its pending state and shows the instrument's value again
+   * if the instrument rejected (or clamped) the new value, or if the user re-entered the current value.
+   * 
+   * @see InstrumentSettingsChange#isChanged(Function)
+   * 
+   */
+  protected class JInstrumentSettingsValueListener
+    extends DefaultInstrumentListener
+  {
+    
+    /** The client-property key under which the listener registers itself on its component.
+     * 
+     */
+    public static final String USER_EDIT_PENDING_LISTENER_KEY = "JInstrumentSettingsValueListener";
+    
+    /** Creates the listener.
+     * 
+     * @param instrumentGetterSupplier A supplier of the instrument getter of the component, non-{@code null};
+     *                                   a supplier is needed because the listener is typically created
+     *                                   before the getter is set on the component.
+     * 
+     */
+    public JInstrumentSettingsValueListener (final Supplier<Function<InstrumentSettings, ?>> instrumentGetterSupplier)
+    {
+      this (instrumentGetterSupplier, null);
+    }
+    
+    /** Creates the listener for a specific component.
+     * 
+     * @param instrumentGetterSupplier A supplier of the instrument getter of the component, non-{@code null}.
+     * @param component                The component, may be {@code null};
+     *                                   if non-{@code null}, the listener registers itself on the component
+     *                                   as client property {@link #USER_EDIT_PENDING_LISTENER_KEY}.
+     * 
+     */
+    public JInstrumentSettingsValueListener (
+      final Supplier<Function<InstrumentSettings, ?>> instrumentGetterSupplier,
+      final JComponent component)
+    {
+      if (instrumentGetterSupplier == null)
+        throw new IllegalArgumentException ();
+      this.instrumentGetterSupplier = instrumentGetterSupplier;
+      if (component != null)
+        component.putClientProperty (USER_EDIT_PENDING_LISTENER_KEY, this);
+    }
+    
+    private final Supplier<Function<InstrumentSettings, ?>> instrumentGetterSupplier;
+    
+    private volatile boolean initialized = false;
+    
+    private final AtomicBoolean userEditPending = new AtomicBoolean (false);
+    
+    /** Marks a user edit pending on the component.
+     * 
+     * <p>
+     * The next settings change is passed on to {@link #newInstrumentSettings} irrespective of the value displayed.
+     * 
+     */
+    public final void markUserEditPending ()
+    {
+      this.userEditPending.set (true);
+    }
+    
+    @Override
+    public final void newInstrumentSettingsChange (
+      final Instrument instrument,
+      final InstrumentSettingsChange instrumentSettingsChange)
+    {
+      if (instrumentSettingsChange == null)
+        throw new IllegalArgumentException ();
+      final Function<InstrumentSettings, ?> instrumentGetter = this.instrumentGetterSupplier.get ();
+      final boolean userEditPending = this.userEditPending.getAndSet (false);
+      if (this.initialized
+        && (! userEditPending)
+        && instrumentGetter != null
+        && ! instrumentSettingsChange.isChanged (instrumentGetter))
+        return;
+      this.initialized = true;
+      newInstrumentSettings (instrument, instrumentSettingsChange.getNewSettings ());
+    }
+    
+  }
+  
   //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
   //
   // SWING
@@ -1327,7 +1461,7 @@ public class JInstrumentPanel
         false);
     }
       
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JBoolean_JBoolean.this.instrumentGetter, JBoolean_JBoolean.this)
     {
       
       @Override
@@ -1388,7 +1522,7 @@ public class JInstrumentPanel
         getGuiPreferencesUpdatePendingColor ()));
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JEnum_JComboBox.this.instrumentGetter, JEnum_JComboBox.this)
     {
       
       @Override
@@ -1476,7 +1610,7 @@ public class JInstrumentPanel
         intToN));
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JNumber_JSlider.this.instrumentGetter, JNumber_JSlider.this)
     {
       
       @Override
@@ -1743,7 +1877,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jbyte_JBitsLong.this.instrumentGetter, Jbyte_JBitsLong.this)
     {
       
       @Override
@@ -1817,7 +1951,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JByte_JBitsLong.this.instrumentGetter, JByte_JBitsLong.this)
     {
       
       @Override
@@ -1890,7 +2024,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jshort_JBitsLong.this.instrumentGetter, Jshort_JBitsLong.this)
     {
       
       @Override
@@ -1966,7 +2100,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JShort_JBitsLong.this.instrumentGetter, JShort_JBitsLong.this)
     {
       
       @Override
@@ -2040,7 +2174,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jint_JBitsLong.this.instrumentGetter, Jint_JBitsLong.this)
     {
       
       @Override
@@ -2114,7 +2248,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JInteger_JBitsLong.this.instrumentGetter, JInteger_JBitsLong.this)
     {
       
       @Override
@@ -2186,7 +2320,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jlong_JBitsLong.this.instrumentGetter, Jlong_JBitsLong.this)
     {
       
       @Override
@@ -2258,7 +2392,7 @@ public class JInstrumentPanel
         setBackground (getGuiPreferencesUpdatePendingColor ());
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JLong_JBitsLong.this.instrumentGetter, JLong_JBitsLong.this)
     {
       
       @Override
@@ -2357,7 +2491,7 @@ public class JInstrumentPanel
       this (null, null, settingString, instrumentGetter, instrumentSetter, showPendingUpdates);
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JString_JTextField.this.instrumentGetter, JString_JTextField.this)
     {
       
       @Override
@@ -2427,7 +2561,7 @@ public class JInstrumentPanel
         setEditable (false);
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jint_JTextField.this.instrumentGetter, Jint_JTextField.this)
     {
       
       @Override
@@ -2497,7 +2631,7 @@ public class JInstrumentPanel
         setEditable (false);
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> Jdouble_JTextField.this.instrumentGetter, Jdouble_JTextField.this)
     {
       
       @Override
@@ -2601,7 +2735,7 @@ public class JInstrumentPanel
       this (null, null, settingString, instrumentGetter, instrumentSetter, showPendingUpdates);
     }
     
-    private final InstrumentListener instrumentListener = new DefaultInstrumentListener ()
+    private final InstrumentListener instrumentListener = new JInstrumentSettingsValueListener (() -> JString_JTextArea.this.instrumentGetter, JString_JTextArea.this)
     {
       
       @Override
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.util;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** A bounded, array-backed, multi-producer/multi-consumer queue with a configurable overflow policy and statistics.
+ *
+ * <p>
+ * The queue is meant for passing (sub-service) events like instrument readings or command results
+ * from producer threads to a dispatcher.
+ * Storage is a circular array; apart from growing upon an increase of the capacity, the queue does not allocate.
+ *
+ * <p>
+ * What happens upon offering an element to a full queue is determined by the {@link OverflowPolicy}.
+ * The queue keeps track of its high-water mark (maximum size observed) and the number of elements lost due to overflow.
+ *
+ * @param <E> The element type.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public final class BoundedEventQueue<E>
+  implements BoundedEventQueueControl
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // OVERFLOW POLICY
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** The policy upon offering an element to a full queue.
+   *
+   */
+  public enum OverflowPolicy
+  {
+
+    /** The producer blocks until there is room in the queue.
+     *
+     */
+    BLOCK,
+
+    /** The oldest element in the queue is dropped in favor of the offered element.
+     *
+     */
+    DROP_OLDEST,
+
+    /** The offered element is dropped.
+     *
+     */
+    DROP_NEWEST,
+
+    /** The newest element in the queue is replaced with the offered element (latest-value semantics).
+     *
+     * <p>
+     * With a capacity of one, the queue holds just the latest value.
+     *
+     */
+    CONFLATE;
+
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Creates the queue.
+   *
+   * @param capacity       The capacity, strictly positive.
+   * @param overflowPolicy The overflow policy, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the capacity is zero or negative, or the policy is {@code null}.
+   *
+   */
+  public BoundedEventQueue (final int capacity, final OverflowPolicy overflowPolicy)
+  {
+    if (capacity <= 0 || overflowPolicy == null)
+      throw new IllegalArgumentException ();
+    this.elements = new Object[capacity];
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // STORAGE / LOCK
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final ReentrantLock lock = new ReentrantLock ();
+
+  private final Condition notEmpty = this.lock.newCondition ();
+
+  private final Condition notFull = this.lock.newCondition ();
+
+  // All guarded by this.lock.
+  private Object[] elements;
+  private int head = 0;
+  private int size = 0;
+  private int capacity;
+  private OverflowPolicy overflowPolicy;
+  private int highWaterMark = 0;
+  private long dropCount = 0;
+
+  private void enqueue (final E e)
+  {
+    this.elements[(this.head + this.size) % this.elements.length] = e;
+    this.size++;
+    if (this.size > this.highWaterMark)
+      this.highWaterMark = this.size;
+    this.notEmpty.signal ();
+  }
+
+  private E dequeue ()
+  {
+    @SuppressWarnings ("unchecked")
+    final E e = (E) this.elements[this.head];
+    this.elements[this.head] = null;
+    this.head = (this.head + 1) % this.elements.length;
+    this.size--;
+    this.notFull.signal ();
+    return e;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PRODUCER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Offers an element to the queue, applying the overflow policy if the queue is full.
+   *
+   * <p>
+   * This method only blocks with {@link OverflowPolicy#BLOCK};
+   * if interrupted while blocking, the element is not inserted, {@code false} is returned,
+   * and the interrupt status of the current thread is set.
+   *
+   * @param e The element, non-{@code null}.
+   *
+   * @return {@code false} if the element was dropped (or not inserted due to an interrupt), {@code true} otherwise.
+   *
+   * @throws IllegalArgumentException If the element is {@code null}.
+   *
+   */
+  public final boolean offer (final E e)
+  {
+    if (e == null)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      while (this.size >= this.capacity)
+        switch (this.overflowPolicy)
+        {
+          case BLOCK:
+            try
+            {
+              this.notFull.await ();
+            }
+            catch (InterruptedException ie)
+            {
+              Thread.currentThread ().interrupt ();
+              return false;
+            }
+            break;
+          case DROP_OLDEST:
+            dequeue ();
+            this.dropCount++;
+            break;
+          case DROP_NEWEST:
+            this.dropCount++;
+            return false;
+          case CONFLATE:
+            this.elements[(this.head + this.size - 1) % this.elements.length] = e;
+            this.dropCount++;
+            this.notEmpty.signal ();
+            return true;
+          default:
+            throw new RuntimeException ();
+        }
+      enqueue (e);
+      return true;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSUMER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Takes the oldest element from the queue, waiting for one if needed.
+   *
+   * @return The oldest element, non-{@code null}.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   *
+   */
+  public final E take ()
+    throws InterruptedException
+  {
+    this.lock.lockInterruptibly ();
+    try
+    {
+      while (this.size == 0)
+        this.notEmpty.await ();
+      return dequeue ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  /** Removes and returns the oldest element from the queue, if present.
+   *
+   * @return The oldest element, {@code null} if the queue is empty.
+   *
+   */
+  public final E poll ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.size == 0 ? null : dequeue ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  /** Removes all elements from the queue.
+   *
+   * <p>
+   * Removed elements are not counted as dropped.
+   *
+   */
+  public final void clear ()
+  {
+    this.lock.lock ();
+    try
+    {
+      while (this.size > 0)
+        dequeue ();
+      this.head = 0;
+      this.notFull.signalAll ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // BoundedEventQueueControl
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  @Override
+  public final int getCapacity ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.capacity;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final void setCapacity (final int capacity)
+  {
+    if (capacity <= 0)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      final int length = Math.max (capacity, this.size);
+      if (length != this.elements.length)
+      {
+        final Object[] elements = new Object[length];
+        for (int i = 0; i < this.size; i++)
+          elements[i] = this.elements[(this.head + i) % this.elements.length];
+        this.elements = elements;
+        this.head = 0;
+      }
+      this.capacity = capacity;
+      this.notFull.signalAll ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final OverflowPolicy getOverflowPolicy ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.overflowPolicy;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final void setOverflowPolicy (final OverflowPolicy overflowPolicy)
+  {
+    if (overflowPolicy == null)
+      throw new IllegalArgumentException ();
+    this.lock.lock ();
+    try
+    {
+      this.overflowPolicy = overflowPolicy;
+      // Blocked producers must re-evaluate the policy.
+      this.notFull.signalAll ();
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final int size ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.size;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final int getHighWaterMark ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.highWaterMark;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final long getDropCount ()
+  {
+    this.lock.lock ();
+    try
+    {
+      return this.dropCount;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  @Override
+  public final void resetStatistics ()
+  {
+    this.lock.lock ();
+    try
+    {
+      this.highWaterMark = this.size;
+      this.dropCount = 0;
+    }
+    finally
+    {
+      this.lock.unlock ();
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
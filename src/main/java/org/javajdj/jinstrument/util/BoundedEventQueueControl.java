@@ -0,0 +1,60 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.util;
+
+/** Configuration and statistics of a {@link BoundedEventQueue}, without access to its elements.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public interface BoundedEventQueueControl
+{
+
+  int getCapacity ();
+
+  /** Sets the capacity, leaving the current elements intact (even if beyond capacity).
+   *
+   * @param capacity The new capacity, strictly positive.
+   *
+   * @throws IllegalArgumentException If the capacity is zero or negative.
+   *
+   */
+  void setCapacity (int capacity);
+
+  BoundedEventQueue.OverflowPolicy getOverflowPolicy ();
+
+  void setOverflowPolicy (BoundedEventQueue.OverflowPolicy overflowPolicy);
+
+  int size ();
+
+  /** Returns the maximum size observed since construction or the last reset of the statistics.
+   *
+   * @return The high-water mark.
+   *
+   */
+  int getHighWaterMark ();
+
+  /** Returns the number of elements lost due to overflow since construction or the last reset of the statistics.
+   *
+   * @return The number of elements lost (dropped or replaced).
+   *
+   */
+  long getDropCount ();
+
+  void resetStatistics ();
+
+}
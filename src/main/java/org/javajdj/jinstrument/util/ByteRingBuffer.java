@@ -0,0 +1,330 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/** A bounded single-producer/single-consumer ring buffer of {@code byte}s.
+ *
+ * <p>
+ * The buffer is meant for moving raw bytes from a (socket) reader thread to a single consumer thread
+ * without per-byte allocation or locking.
+ * Exactly one thread may use the producer methods ({@link #put}, {@link #offer}),
+ * and exactly one (other) thread may use the consumer methods
+ * ({@link #take}, {@link #read}, {@link #await}, {@link #drain}).
+ * Violating this contract leads to undefined behavior.
+ *
+ * <p>
+ * The producer blocks if the buffer is full; the consumer blocks (with timeout) if the buffer is empty.
+ * Blocking is implemented through {@link LockSupport}; there are no locks involved.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public final class ByteRingBuffer
+{
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSTRUCTOR(S) / FACTORY / CLONING
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Creates the buffer.
+   *
+   * @param capacity The minimum capacity of the buffer; it is rounded up to the next power of two.
+   *
+   * @throws IllegalArgumentException If the capacity is zero, negative, or too large.
+   *
+   */
+  public ByteRingBuffer (final int capacity)
+  {
+    if (capacity <= 0 || capacity > (1 << 30))
+      throw new IllegalArgumentException ();
+    int c = 1;
+    while (c < capacity)
+      c <<= 1;
+    this.buffer = new byte[c];
+    this.mask = c - 1;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // STORAGE / INDICES / WAITERS
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  private final byte[] buffer;
+
+  private final int mask;
+
+  // Written by the consumer only.
+  private volatile long head = 0;
+
+  // Written by the producer only.
+  private volatile long tail = 0;
+
+  private volatile Thread consumerWaiter = null;
+
+  private volatile Thread producerWaiter = null;
+
+  /** Returns the capacity of the buffer.
+   *
+   * @return The capacity of the buffer (a power of two).
+   *
+   */
+  public final int getCapacity ()
+  {
+    return this.buffer.length;
+  }
+
+  /** Returns the number of bytes available to the consumer.
+   *
+   * <p>
+   * The result is a snapshot only, and may be outdated upon return.
+   *
+   * @return The number of bytes available to the consumer.
+   *
+   */
+  public final int available ()
+  {
+    return (int) (this.tail - this.head);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // PRODUCER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Writes all remaining bytes of a {@link ByteBuffer} into this buffer (producer only).
+   *
+   * <p>
+   * Blocks as long as there is no room in this buffer.
+   * Upon return, the source buffer has no remaining bytes.
+   *
+   * @param src The source buffer, non-{@code null}.
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   * @throws InterruptedException     If the calling thread was interrupted while waiting for room in the buffer.
+   *
+   */
+  public final void put (final ByteBuffer src)
+    throws InterruptedException
+  {
+    if (src == null)
+      throw new IllegalArgumentException ();
+    while (src.hasRemaining ())
+    {
+      final long t = this.tail;
+      int room = this.buffer.length - (int) (t - this.head);
+      while (room == 0)
+      {
+        if (Thread.interrupted ())
+          throw new InterruptedException ();
+        this.producerWaiter = Thread.currentThread ();
+        if (this.buffer.length - (int) (t - this.head) == 0)
+          LockSupport.park (this);
+        this.producerWaiter = null;
+        room = this.buffer.length - (int) (t - this.head);
+      }
+      final int offset = (int) (t & this.mask);
+      final int n = Math.min (Math.min (room, src.remaining ()), this.buffer.length - offset);
+      src.get (this.buffer, offset, n);
+      this.tail = t + n;
+      final Thread waiter = this.consumerWaiter;
+      if (waiter != null)
+        LockSupport.unpark (waiter);
+    }
+  }
+
+  /** Writes as many remaining bytes of a {@link ByteBuffer} into this buffer as there is room for (producer only).
+   *
+   * <p>
+   * Never blocks; the source buffer's position is advanced by the number of bytes written.
+   *
+   * @param src The source buffer, non-{@code null}.
+   *
+   * @return The number of bytes written, zero if the buffer is full (or the source buffer has no remaining bytes).
+   *
+   * @throws IllegalArgumentException If the argument is {@code null}.
+   *
+   */
+  public final int offer (final ByteBuffer src)
+  {
+    if (src == null)
+      throw new IllegalArgumentException ();
+    int total = 0;
+    while (src.hasRemaining ())
+    {
+      final long t = this.tail;
+      final int room = this.buffer.length - (int) (t - this.head);
+      if (room == 0)
+        break;
+      final int offset = (int) (t & this.mask);
+      final int n = Math.min (Math.min (room, src.remaining ()), this.buffer.length - offset);
+      src.get (this.buffer, offset, n);
+      this.tail = t + n;
+      total += n;
+    }
+    if (total > 0)
+    {
+      final Thread waiter = this.consumerWaiter;
+      if (waiter != null)
+        LockSupport.unpark (waiter);
+    }
+    return total;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // CONSUMER
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /** Waits until at least one byte is available to the consumer (consumer only).
+   *
+   * @param timeout_ms The timeout in milliseconds.
+   *
+   * @return {@code true} if at least one byte is available, {@code false} if the timeout expired.
+   *
+   * @throws InterruptedException If the calling thread was interrupted while waiting.
+   *
+   */
+  public final boolean await (final long timeout_ms)
+    throws InterruptedException
+  {
+    if (this.tail != this.head)
+      return true;
+    final long deadline_nanos = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (Math.max (0L, timeout_ms));
+    while (this.tail == this.head)
+    {
+      if (Thread.interrupted ())
+        throw new InterruptedException ();
+      final long remaining_nanos = deadline_nanos - System.nanoTime ();
+      if (remaining_nanos <= 0)
+        return false;
+      this.consumerWaiter = Thread.currentThread ();
+      if (this.tail == this.head)
+        LockSupport.parkNanos (this, remaining_nanos);
+      this.consumerWaiter = null;
+    }
+    return true;
+  }
+
+  private void releaseProducer ()
+  {
+    final Thread waiter = this.producerWaiter;
+    if (waiter != null)
+      LockSupport.unpark (waiter);
+  }
+
+  /** Takes a single byte from this buffer (consumer only).
+   *
+   * @param timeout_ms The timeout in milliseconds.
+   *
+   * @return The byte.
+   *
+   * @throws InterruptedException If the calling thread was interrupted while waiting for a byte.
+   * @throws TimeoutException     If no byte became available within the timeout.
+   *
+   */
+  public final byte take (final long timeout_ms)
+    throws InterruptedException, TimeoutException
+  {
+    if (! await (timeout_ms))
+      throw new TimeoutException ();
+    final long h = this.head;
+    final byte b = this.buffer[(int) (h & this.mask)];
+    this.head = h + 1;
+    releaseProducer ();
+    return b;
+  }
+
+  /** Reads at least one and at most a given number of bytes from this buffer (consumer only).
+   *
+   * <p>
+   * Waits (up to the timeout) for at least one byte to become available,
+   * and then copies all available bytes (up to the given maximum) into the destination array.
+   *
+   * @param dst        The destination array, non-{@code null}.
+   * @param offset     The offset in the destination array.
+   * @param length     The maximum number of bytes to read, strictly positive.
+   * @param timeout_ms The timeout in milliseconds.
+   *
+   * @return The number of bytes read, strictly positive.
+   *
+   * @throws IllegalArgumentException  If the destination array is {@code null} or the length is zero or negative.
+   * @throws IndexOutOfBoundsException If offset and/or length are inconsistent with the destination array.
+   * @throws InterruptedException      If the calling thread was interrupted while waiting for a byte.
+   * @throws TimeoutException          If no byte became available within the timeout.
+   *
+   */
+  public final int read (final byte[] dst, final int offset, final int length, final long timeout_ms)
+    throws InterruptedException, TimeoutException
+  {
+    if (dst == null || length <= 0)
+      throw new IllegalArgumentException ();
+    if (offset < 0 || offset + length > dst.length)
+      throw new IndexOutOfBoundsException ();
+    if (! await (timeout_ms))
+      throw new TimeoutException ();
+    final long h = this.head;
+    final int n = Math.min (length, (int) (this.tail - h));
+    final int start = (int) (h & this.mask);
+    final int firstPart = Math.min (n, this.buffer.length - start);
+    System.arraycopy (this.buffer, start, dst, offset, firstPart);
+    if (firstPart < n)
+      System.arraycopy (this.buffer, 0, dst, offset + firstPart, n - firstPart);
+    this.head = h + n;
+    releaseProducer ();
+    return n;
+  }
+
+  /** Removes and returns all bytes currently available (consumer only).
+   *
+   * @return The bytes removed from the buffer, non-{@code null} but may be empty.
+   *
+   */
+  public final byte[] drain ()
+  {
+    final int n = available ();
+    if (n == 0)
+      return new byte[0];
+    final byte[] bytes = new byte[n];
+    try
+    {
+      read (bytes, 0, n, 0L);
+    }
+    catch (InterruptedException | TimeoutException e)
+    {
+      // Cannot happen; the bytes are already available.
+      throw new RuntimeException (e);
+    }
+    return bytes;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  //
+  // END OF FILE
+  //
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link ReadingChangeDetector} in combination with {@link AdaptivePollingSchedule}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class ReadingChangeDetectorTest
+{
+
+  private static final int WARM_UP = 32;
+
+  private final Random random = new Random (2440);
+
+  // Mimics AbstractInstrument.processReading.
+  private static boolean report (
+    final ReadingChangeDetector detector,
+    final AdaptivePollingSchedule schedule,
+    final Object readingValue)
+  {
+    final boolean changed = detector.isChanged (readingValue);
+    if (changed)
+      schedule.boost ();
+    else
+      schedule.backOff ();
+    return changed;
+  }
+
+  @Test
+  public void steadyNoisySignalDoesNotSpeedUpPolling ()
+  {
+    final ReadingChangeDetector detector = new ReadingChangeDetector ();
+    final AdaptivePollingSchedule schedule = new AdaptivePollingSchedule (() -> 1.0);
+    int changes = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      final boolean changed = report (detector, schedule, 1.0 + 1.0e-3 * this.random.nextGaussian ());
+      if (i >= WARM_UP && changed)
+        changes++;
+    }
+    assertTrue ("too many changes reported on a steady signal: " + changes, changes < 5);
+    assertEquals (AdaptivePollingSchedule.MAXIMUM_FACTOR, schedule.getFactor (), 0.0);
+  }
+
+  @Test
+  public void steadyNoisyTraceDoesNotSpeedUpPolling ()
+  {
+    final ReadingChangeDetector detector = new ReadingChangeDetector ();
+    final AdaptivePollingSchedule schedule = new AdaptivePollingSchedule (() -> 1.0);
+    int changes = 0;
+    for (int i = 0; i < 200; i++)
+    {
+      final double[] trace = new double[512];
+      for (int j = 0; j < trace.length; j++)
+        trace[j] = Math.sin (j / 16.0) + 1.0e-2 * this.random.nextGaussian ();
+      final boolean changed = report (detector, schedule, trace);
+      if (i >= WARM_UP && changed)
+        changes++;
+    }
+    assertTrue ("too many changes reported on a steady trace: " + changes, changes < 4);
+    assertEquals (AdaptivePollingSchedule.MAXIMUM_FACTOR, schedule.getFactor (), 0.0);
+  }
+
+  @Test
+  public void stepInNoisySignalIsDetected ()
+  {
+    final ReadingChangeDetector detector = new ReadingChangeDetector ();
+    final AdaptivePollingSchedule schedule = new AdaptivePollingSchedule (() -> 1.0);
+    for (int i = 0; i < 200; i++)
+      report (detector, schedule, 1.0 + 1.0e-3 * this.random.nextGaussian ());
+    assertTrue (report (detector, schedule, 1.1 + 1.0e-3 * this.random.nextGaussian ()));
+    assertEquals (AdaptivePollingSchedule.MINIMUM_FACTOR, schedule.getFactor (), 0.0);
+  }
+
+  @Test
+  public void slowDriftIsEventuallyDetected ()
+  {
+    final ReadingChangeDetector detector = new ReadingChangeDetector ();
+    for (int i = 0; i < 200; i++)
+      detector.isChanged (1.0 + 1.0e-3 * this.random.nextGaussian ());
+    // Each step is well below the noise, but the accumulated drift is not.
+    boolean changed = false;
+    for (int i = 1; i <= 200 && ! changed; i++)
+      changed = detector.isChanged (1.0 + 1.0e-4 * i + 1.0e-3 * this.random.nextGaussian ());
+    assertTrue (changed);
+  }
+
+  @Test
+  public void nonNumericalValuesAreComparedForEquality ()
+  {
+    final ReadingChangeDetector detector = new ReadingChangeDetector ();
+    assertTrue (detector.isChanged ("A"));
+    assertFalse (detector.isChanged ("A"));
+    assertTrue (detector.isChanged ("B"));
+    assertTrue (detector.isChanged (null));
+    assertFalse (detector.isChanged (null));
+  }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.gpib.dso.tek2440;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.javajdj.jinstrument.DefaultInstrumentListener;
+import org.javajdj.jinstrument.Instrument;
+import org.javajdj.jinstrument.InstrumentReading;
+import org.javajdj.jinstrument.controller.gpib.DefaultGpibDevice;
+import org.javajdj.jinstrument.controller.gpib.GpibAddress;
+import org.javajdj.jinstrument.controller.gpib.prologix.ProLogixGpibEthernetController;
+import org.javajdj.jinstrument.controller.gpib.prologix.emulator.EmulatedTek2440;
+import org.javajdj.jinstrument.controller.gpib.prologix.emulator.ProLogixGpibEthernetEmulator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/** Smoke tests for {@link Tek2440_GPIB_Instrument} on the ProLogix controller and the loopback emulator.
+ *
+ * <p>
+ * The instrument, the controller and the emulated device are the real ones; only the GPIB bus is emulated.
+ * The waveforms contain every possible byte value, including end-of-line characters, semicolons and {@code '%'},
+ * so the binary-block framing of EOI reads has to track the length prefixes of the blocks
+ * in order to find the end of the message,
+ * and the multi-curve response has to be split on the blocks rather than on the separators.
+ * By default, traces only carry the part of the waveform on the display (partial-waveform transfers).
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class Tek2440_GPIB_InstrumentEmulatorTest
+{
+
+  private static final int PAD = 3;
+
+  private static final long TIMEOUT_MS = 10000L;
+
+  // Matches the (default) canned SET? response of the emulated instrument.
+  private static final double VOLTS_PER_DIV_V = 0.1;
+
+  // Matches the (default) canned SET? response of the emulated instrument (1 ms/div, 50 samples per division).
+  private static final double SECONDS_PER_SAMPLE_S = 1.0e-3 / Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_DIVISION;
+
+  private ProLogixGpibEthernetEmulator emulator;
+
+  private EmulatedTek2440 emulatedTek2440;
+
+  private ProLogixGpibEthernetController controller;
+
+  private Tek2440_GPIB_Instrument instrument;
+
+  @Before
+  public void setUp ()
+    throws IOException
+  {
+    this.emulatedTek2440 = new EmulatedTek2440 ();
+    this.emulatedTek2440.setWaveform ("CH1", Tek2440_GPIB_InstrumentEmulatorTest.allByteValues (0));
+    this.emulatedTek2440.setWaveform ("CH2", Tek2440_GPIB_InstrumentEmulatorTest.allByteValues (0x55));
+    this.emulator = new ProLogixGpibEthernetEmulator ();
+    this.emulator.setDevice (Tek2440_GPIB_InstrumentEmulatorTest.PAD, this.emulatedTek2440);
+    this.emulator.start ();
+    this.controller = new ProLogixGpibEthernetController ("127.0.0.1", this.emulator.getPort ());
+    this.controller.startService ();
+    this.instrument = new Tek2440_GPIB_Instrument (
+      new DefaultGpibDevice (this.controller, new GpibAddress ((byte) Tek2440_GPIB_InstrumentEmulatorTest.PAD)));
+  }
+
+  @After
+  public void tearDown ()
+  {
+    if (this.instrument != null)
+      this.instrument.stopService ();
+    if (this.controller != null)
+      this.controller.stopService ();
+    if (this.emulator != null)
+      this.emulator.close ();
+  }
+
+  // Each byte value appears (four times) in the waveform, starting at given offset.
+  private static byte[] allByteValues (final int offset)
+  {
+    final byte[] waveform = new byte[EmulatedTek2440.SAMPLE_LENGTH];
+    for (int i = 0; i < waveform.length; i++)
+      waveform[i] = (byte) (i + offset);
+    return waveform;
+  }
+
+  // The samples expected in given trace of the waveform with given offset,
+  // taken from the first sample index of the trace onwards.
+  private static double[] toSamples_V (final int offset, final Tek2440_GPIB_Trace trace)
+  {
+    final byte[] waveform = Tek2440_GPIB_InstrumentEmulatorTest.allByteValues (offset);
+    final int n_0 = Tek2440_GPIB_Trace.getFirstSampleIndex ((Tek2440_GPIB_Settings) trace.getInstrumentSettings ());
+    final double[] samples = new double[trace.getReadingValue ().length];
+    for (int i = 0; i < samples.length; i++)
+      samples[i] = Tek2440_GPIB_InstrumentEmulatorTest.VOLTS_PER_DIV_V * waveform[n_0 + i]
+        / Tek2440_GPIB_Instrument.TEK2440_DIGITIZING_LEVELS_PER_DIVISION;
+    return samples;
+  }
+
+  // The controller connects to the emulator asynchronously; retry until the instrument responds.
+  private Tek2440_GPIB_Settings readSettings ()
+    throws Exception
+  {
+    final long deadline_ms = System.currentTimeMillis () + Tek2440_GPIB_InstrumentEmulatorTest.TIMEOUT_MS;
+    while (true)
+      try
+      {
+        return this.instrument.getSettingsFromInstrumentSync ();
+      }
+      catch (IOException ioe)
+      {
+        if (System.currentTimeMillis () > deadline_ms)
+          throw ioe;
+        Thread.sleep (50L);
+      }
+  }
+
+  // Starts the instrument and waits for (at least) one trace from each of given sources.
+  private Map<Tek2440_GPIB_Settings.DataSource, Tek2440_GPIB_Trace> awaitTraces (
+    final Tek2440_GPIB_Settings.DataSource... sources)
+    throws Exception
+  {
+    readSettings ();
+    this.instrument.setReadingCollectorPeriod_s (0.1);
+    final Map<Tek2440_GPIB_Settings.DataSource, Tek2440_GPIB_Trace> traces = new ConcurrentHashMap<> ();
+    final CountDownLatch latch = new CountDownLatch (1);
+    this.instrument.addInstrumentListener (new DefaultInstrumentListener ()
+    {
+      @Override
+      public final void newInstrumentReading (final Instrument instrument, final InstrumentReading instrumentReading)
+      {
+        if (! (instrumentReading instanceof Tek2440_GPIB_Trace))
+          return;
+        final Tek2440_GPIB_Trace trace = (Tek2440_GPIB_Trace) instrumentReading;
+        traces.putIfAbsent ((Tek2440_GPIB_Settings.DataSource) trace.getInstrumentChannel (), trace);
+        if (traces.keySet ().containsAll (Arrays.asList (sources)))
+          latch.countDown ();
+      }
+    });
+    this.instrument.startService ();
+    assertTrue ("no traces received for " + Arrays.toString (sources),
+      latch.await (Tek2440_GPIB_InstrumentEmulatorTest.TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    return traces;
+  }
+
+  @Test
+  public void settingsAreReadOverEoi ()
+    throws Exception
+  {
+    final Tek2440_GPIB_Settings settings = readSettings ();
+    assertNotNull (settings);
+    assertTrue (settings.isVModeChannel1 ());
+    assertTrue (settings.isVModeChannel2 ());
+    assertEquals (Tek2440_GPIB_Settings.DataEncoding.RPBinary, settings.getDataEncoding ());
+  }
+
+  @Test
+  public void curveIsReadOverEoi ()
+    throws Exception
+  {
+    // Only Channel 1 on.
+    this.emulatedTek2440.setSetResponse (
+      EmulatedTek2440.DEFAULT_SET_RESPONSE.replace (";ON,ON,OFF,OFF,YT;", ";ON,OFF,OFF,OFF,YT;"));
+    final Tek2440_GPIB_Trace trace =
+      awaitTraces (Tek2440_GPIB_Settings.DataSource.Ch1).get (Tek2440_GPIB_Settings.DataSource.Ch1);
+    assertArrayEquals (Tek2440_GPIB_InstrumentEmulatorTest.toSamples_V (0, trace),
+      trace.getReadingValue (),
+      1.0e-12);
+  }
+
+  @Test
+  public void curvesOfAllEnabledChannelsAreReadInOneTransaction ()
+    throws Exception
+  {
+    final Map<Tek2440_GPIB_Settings.DataSource, Tek2440_GPIB_Trace> traces =
+      awaitTraces (Tek2440_GPIB_Settings.DataSource.Ch1, Tek2440_GPIB_Settings.DataSource.Ch2);
+    final Tek2440_GPIB_Trace trace1 = traces.get (Tek2440_GPIB_Settings.DataSource.Ch1);
+    final Tek2440_GPIB_Trace trace2 = traces.get (Tek2440_GPIB_Settings.DataSource.Ch2);
+    assertArrayEquals (Tek2440_GPIB_InstrumentEmulatorTest.toSamples_V (0, trace1),
+      trace1.getReadingValue (),
+      1.0e-12);
+    assertArrayEquals (Tek2440_GPIB_InstrumentEmulatorTest.toSamples_V (0x55, trace2),
+      trace2.getReadingValue (),
+      1.0e-12);
+  }
+
+  @Test
+  public void partialTraceCarriesTheDisplayWindow ()
+    throws Exception
+  {
+    // Horizontal position 900; the display window [650, 1150) is clipped to the waveform.
+    final int n_c = 900;
+    final int n_0 = n_c - Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_DISPLAY / 2;
+    final int L = Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_WAVEFORM - n_0;
+    this.emulatedTek2440.setSetResponse (
+      EmulatedTek2440.DEFAULT_SET_RESPONSE.replace (";ASWEEP,512,", ";ASWEEP," + n_c + ","));
+    final Tek2440_GPIB_Trace trace =
+      awaitTraces (Tek2440_GPIB_Settings.DataSource.Ch1).get (Tek2440_GPIB_Settings.DataSource.Ch1);
+    final Tek2440_GPIB_Settings settings = (Tek2440_GPIB_Settings) trace.getInstrumentSettings ();
+    assertEquals (Tek2440_GPIB_Settings.DataEncoding.RPPartial, settings.getDataEncoding ());
+    assertEquals (n_0 + 1, settings.getWaveformAnalysisStart ());
+    assertEquals (Tek2440_GPIB_Instrument.TEK2440_SAMPLES_PER_WAVEFORM, settings.getWaveformAnalysisStop ());
+    assertEquals (L, trace.getReadingValue ().length);
+    assertEquals (n_c - 250 - n_0, trace.getMinNHint (), 1.0e-9);
+    assertEquals (n_c + 250 - n_0, trace.getMaxNHint (), 1.0e-9);
+    assertEquals ((n_0 - n_c) * Tek2440_GPIB_InstrumentEmulatorTest.SECONDS_PER_SAMPLE_S, trace.getMinXHint (), 1.0e-12);
+    assertEquals ((n_0 + L - n_c) * Tek2440_GPIB_InstrumentEmulatorTest.SECONDS_PER_SAMPLE_S, trace.getMaxXHint (), 1.0e-12);
+    assertArrayEquals (Tek2440_GPIB_InstrumentEmulatorTest.toSamples_V (0, trace), trace.getReadingValue (), 1.0e-12);
+  }
+
+  @Test
+  public void displayWindowFollowsTheHorizontalPosition ()
+    throws Exception
+  {
+    this.instrument.setSettingsCollectorPeriod_s (0.1);
+    final Tek2440_GPIB_Trace centered =
+      awaitTraces (Tek2440_GPIB_Settings.DataSource.Ch1).get (Tek2440_GPIB_Settings.DataSource.Ch1);
+    assertEquals (512 - 250,
+      Tek2440_GPIB_Trace.getFirstSampleIndex ((Tek2440_GPIB_Settings) centered.getInstrumentSettings ()));
+    final CountDownLatch latch = new CountDownLatch (1);
+    this.instrument.addInstrumentListener (new DefaultInstrumentListener ()
+    {
+      @Override
+      public final void newInstrumentReading (final Instrument instrument, final InstrumentReading instrumentReading)
+      {
+        if (instrumentReading instanceof Tek2440_GPIB_Trace
+          && Tek2440_GPIB_Trace.getFirstSampleIndex ((Tek2440_GPIB_Settings) instrumentReading.getInstrumentSettings ())
+            == 600 - 250)
+          latch.countDown ();
+      }
+    });
+    this.emulatedTek2440.setSetResponse (
+      EmulatedTek2440.DEFAULT_SET_RESPONSE.replace (";ASWEEP,512,", ";ASWEEP,600,"));
+    assertTrue ("display window did not follow the horizontal position",
+      latch.await (Tek2440_GPIB_InstrumentEmulatorTest.TIMEOUT_MS, TimeUnit.MILLISECONDS));
+  }
+
+}
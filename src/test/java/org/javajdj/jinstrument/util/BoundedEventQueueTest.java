@@ -0,0 +1,269 @@
+/*
+ * Copyright 2010-2022 Jan de Jongh <jfcmdejongh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.javajdj.jinstrument.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link BoundedEventQueue}.
+ *
+ * @author Jan de Jongh {@literal <jfcmdejongh@gmail.com>}
+ *
+ */
+public class BoundedEventQueueTest
+{
+
+  private static final long TIMEOUT_MS = 10000L;
+
+  // Long enough for a producer to block, short enough to keep the tests fast.
+  private static final long BLOCK_MS = 200L;
+
+  private static BoundedEventQueue<Integer> fill (final int capacity, final BoundedEventQueue.OverflowPolicy overflowPolicy)
+  {
+    final BoundedEventQueue<Integer> queue = new BoundedEventQueue<> (capacity, overflowPolicy);
+    for (int i = 0; i < capacity; i++)
+      assertTrue (queue.offer (i));
+    return queue;
+  }
+
+  private static void assertContents (final BoundedEventQueue<Integer> queue, final Integer... expected)
+  {
+    assertEquals (expected.length, queue.size ());
+    for (final Integer e : expected)
+      assertEquals (e, queue.poll ());
+    assertNull (queue.poll ());
+  }
+
+  // Offers an element from a new thread, and returns that thread.
+  private static Thread offerInBackground (
+    final BoundedEventQueue<Integer> queue,
+    final Integer e,
+    final AtomicReference<Boolean> result)
+  {
+    final Thread producer = new Thread (() -> result.set (queue.offer (e)), "BoundedEventQueueTest Producer");
+    producer.setDaemon (true);
+    producer.start ();
+    return producer;
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void zeroCapacityIsRejected ()
+  {
+    new BoundedEventQueue<> (0, BoundedEventQueue.OverflowPolicy.BLOCK);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void nullElementIsRejected ()
+  {
+    new BoundedEventQueue<Integer> (1, BoundedEventQueue.OverflowPolicy.DROP_NEWEST).offer (null);
+  }
+
+  @Test
+  public void elementsAreTakenInOrderAcrossWrapAround ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = new BoundedEventQueue<> (3, BoundedEventQueue.OverflowPolicy.DROP_NEWEST);
+    for (int i = 0; i < 10; i++)
+    {
+      assertTrue (queue.offer (2 * i));
+      assertTrue (queue.offer (2 * i + 1));
+      assertEquals ((Integer) (2 * i), queue.take ());
+      assertEquals ((Integer) (2 * i + 1), queue.take ());
+    }
+    assertEquals (0, queue.size ());
+    assertEquals (2, queue.getHighWaterMark ());
+    assertEquals (0L, queue.getDropCount ());
+  }
+
+  @Test
+  public void dropOldestDiscardsTheHeadAndCountsDrops ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (3, BoundedEventQueue.OverflowPolicy.DROP_OLDEST);
+    assertTrue (queue.offer (3));
+    assertTrue (queue.offer (4));
+    assertEquals (2L, queue.getDropCount ());
+    assertEquals (3, queue.getHighWaterMark ());
+    assertContents (queue, 2, 3, 4);
+  }
+
+  @Test
+  public void dropNewestRejectsTheOfferedElementAndCountsDrops ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (3, BoundedEventQueue.OverflowPolicy.DROP_NEWEST);
+    assertFalse (queue.offer (3));
+    assertFalse (queue.offer (4));
+    assertEquals (2L, queue.getDropCount ());
+    assertEquals (3, queue.getHighWaterMark ());
+    assertContents (queue, 0, 1, 2);
+  }
+
+  @Test
+  public void conflateReplacesTheNewestElementAndCountsDrops ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (3, BoundedEventQueue.OverflowPolicy.CONFLATE);
+    assertTrue (queue.offer (3));
+    assertTrue (queue.offer (4));
+    assertEquals (2L, queue.getDropCount ());
+    assertContents (queue, 0, 1, 4);
+  }
+
+  @Test
+  public void conflateWithUnitCapacityHoldsTheLatestValue ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = new BoundedEventQueue<> (1, BoundedEventQueue.OverflowPolicy.CONFLATE);
+    for (int i = 0; i < 100; i++)
+      assertTrue (queue.offer (i));
+    assertEquals (99L, queue.getDropCount ());
+    assertEquals (1, queue.getHighWaterMark ());
+    assertEquals ((Integer) 99, queue.take ());
+    assertTrue (queue.offer (100));
+    assertEquals ((Integer) 100, queue.take ());
+    assertEquals (99L, queue.getDropCount ());
+  }
+
+  @Test
+  public void blockWaitsForRoomWithoutDropping ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = fill (2, BoundedEventQueue.OverflowPolicy.BLOCK);
+    final AtomicReference<Boolean> result = new AtomicReference<> ();
+    final Thread producer = offerInBackground (queue, 2, result);
+    producer.join (BoundedEventQueueTest.BLOCK_MS);
+    assertTrue ("producer did not block on a full queue", producer.isAlive ());
+    assertNull (result.get ());
+    assertEquals ((Integer) 0, queue.take ());
+    producer.join (BoundedEventQueueTest.TIMEOUT_MS);
+    assertFalse ("producer did not resume after a take", producer.isAlive ());
+    assertEquals (Boolean.TRUE, result.get ());
+    assertEquals (0L, queue.getDropCount ());
+    assertContents (queue, 1, 2);
+  }
+
+  @Test
+  public void blockedProducerGivesUpUponInterrupt ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = fill (1, BoundedEventQueue.OverflowPolicy.BLOCK);
+    final AtomicReference<Boolean> result = new AtomicReference<> ();
+    final Thread producer = offerInBackground (queue, 1, result);
+    producer.join (BoundedEventQueueTest.BLOCK_MS);
+    assertTrue ("producer did not block on a full queue", producer.isAlive ());
+    producer.interrupt ();
+    producer.join (BoundedEventQueueTest.TIMEOUT_MS);
+    assertFalse ("producer did not give up upon interrupt", producer.isAlive ());
+    assertEquals (Boolean.FALSE, result.get ());
+    assertEquals (0L, queue.getDropCount ());
+    assertContents (queue, 0);
+  }
+
+  @Test
+  public void blockedProducerReevaluatesAChangedPolicy ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = fill (2, BoundedEventQueue.OverflowPolicy.BLOCK);
+    final AtomicReference<Boolean> result = new AtomicReference<> ();
+    final Thread producer = offerInBackground (queue, 2, result);
+    producer.join (BoundedEventQueueTest.BLOCK_MS);
+    assertTrue ("producer did not block on a full queue", producer.isAlive ());
+    queue.setOverflowPolicy (BoundedEventQueue.OverflowPolicy.DROP_OLDEST);
+    producer.join (BoundedEventQueueTest.TIMEOUT_MS);
+    assertFalse ("producer did not resume after a change of policy", producer.isAlive ());
+    assertEquals (Boolean.TRUE, result.get ());
+    assertEquals (1L, queue.getDropCount ());
+    assertContents (queue, 1, 2);
+  }
+
+  @Test
+  public void takeBlocksOnAnEmptyQueueUntilInterrupted ()
+    throws InterruptedException
+  {
+    final BoundedEventQueue<Integer> queue = new BoundedEventQueue<> (1, BoundedEventQueue.OverflowPolicy.BLOCK);
+    final AtomicReference<Object> taken = new AtomicReference<> ();
+    final Thread consumer = new Thread (() ->
+    {
+      try
+      {
+        taken.set (queue.take ());
+      }
+      catch (InterruptedException ie)
+      {
+        taken.set (ie);
+      }
+    }, "BoundedEventQueueTest Consumer");
+    consumer.setDaemon (true);
+    consumer.start ();
+    consumer.join (BoundedEventQueueTest.BLOCK_MS);
+    assertTrue ("consumer did not block on an empty queue", consumer.isAlive ());
+    consumer.interrupt ();
+    consumer.join (BoundedEventQueueTest.TIMEOUT_MS);
+    assertFalse (consumer.isAlive ());
+    assertTrue (taken.get () instanceof InterruptedException);
+  }
+
+  @Test
+  public void growingTheCapacityKeepsTheElementsInOrder ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (3, BoundedEventQueue.OverflowPolicy.DROP_NEWEST);
+    assertEquals ((Integer) 0, queue.poll ());
+    assertTrue (queue.offer (3)); // Wraps around.
+    queue.setCapacity (5);
+    assertEquals (5, queue.getCapacity ());
+    assertTrue (queue.offer (4));
+    assertTrue (queue.offer (5));
+    assertFalse (queue.offer (6));
+    assertEquals (1L, queue.getDropCount ());
+    assertContents (queue, 1, 2, 3, 4, 5);
+  }
+
+  @Test
+  public void shrinkingTheCapacityKeepsTheElementsInExcess ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (4, BoundedEventQueue.OverflowPolicy.DROP_NEWEST);
+    queue.setCapacity (2);
+    assertEquals (4, queue.size ());
+    assertFalse (queue.offer (4));
+    assertEquals ((Integer) 0, queue.poll ());
+    assertEquals ((Integer) 1, queue.poll ());
+    assertFalse (queue.offer (4)); // Still at capacity.
+    assertEquals ((Integer) 2, queue.poll ());
+    assertTrue (queue.offer (4));
+    assertContents (queue, 3, 4);
+  }
+
+  @Test
+  public void clearAndResetStatisticsDoNotCountDrops ()
+  {
+    final BoundedEventQueue<Integer> queue = fill (3, BoundedEventQueue.OverflowPolicy.DROP_OLDEST);
+    assertTrue (queue.offer (3));
+    assertEquals (1L, queue.getDropCount ());
+    assertEquals ((Integer) 1, queue.poll ());
+    queue.resetStatistics ();
+    assertEquals (0L, queue.getDropCount ());
+    assertEquals (2, queue.getHighWaterMark ());
+    queue.clear ();
+    assertEquals (0, queue.size ());
+    assertEquals (0L, queue.getDropCount ());
+    assertTrue (queue.offer (4));
+    assertContents (queue, 4);
+  }
+
+}